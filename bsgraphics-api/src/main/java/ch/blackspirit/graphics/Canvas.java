@@ -49,6 +49,17 @@ public interface Canvas extends GraphicsContext {
 	 */
 	public ResourceManager getResourceManager();	
 	
+	/**
+	 * Adds a listener which gets notified at the end of every frame drawn on this canvas.
+	 * @param listener The listener to add.
+	 */
+	public void addFrameListener(FrameListener listener);
+	/**
+	 * Removes a previously added frame listener.
+	 * @param listener The listener to remove.
+	 */
+	public void removeFrameListener(FrameListener listener);
+	
 	/**
 	 * Get a boolean properties value.<br/>
 	 * Property names are implementation specific.
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics;
+
+/**
+ * Gets notified when a canvas has finished drawing a frame.<br/>
+ * Notifications are made on the rendering thread right after the frame has been drawn, 
+ * so listeners should return quickly.
+ * @author Markus Koller
+ */
+public interface FrameListener {
+	/**
+	 * Invoked at the end of each frame drawn on the canvas.<br/>
+	 * Implementation specific per frame properties of the canvas hold the values of this frame.
+	 * @param canvas The canvas which has drawn the frame.
+	 */
+	public void frameFinished(Canvas canvas);
+}
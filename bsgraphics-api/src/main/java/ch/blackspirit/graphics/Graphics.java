@@ -145,6 +145,20 @@ public interface Graphics {
 	 * 	are not set.
 	 */
 	public abstract void fillTriangles(Triangle[] triangles, boolean useColors, Image image);
+	/**
+	 * Draws a static mesh using the current transformation. 
+	 * Meshes not using the colors specified for each point are drawn in the overall drawing color.<br/>
+	 * If the mesh has not been uploaded yet, it will be uploaded first.
+	 * @param mesh The mesh to draw.
+	 * @throws IllegalArgumentException If mesh is {@code null} or has been freed.
+	 */
+	public abstract void drawStaticMesh(StaticMesh mesh);
+	/**
+	 * Gives access to the sprite batch of this graphics, drawing many rotated, scaled and colored
+	 * images without changing the transformation for each of them.
+	 * @return The sprite batch of this graphics.
+	 */
+	public abstract SpriteBatch getSpriteBatch();
 
 	/**
 	 * Draws a filled triangle in the current drawing color.<br/>
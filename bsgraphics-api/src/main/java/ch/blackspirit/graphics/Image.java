@@ -81,7 +81,9 @@ public interface Image {
 	public void updateCache(int xOffset, int yOffset, int width, int height);
 
 	/**
-	 * Updates the buffer content from the cache.
+	 * Updates the buffer content from the cache.<br/>
+	 * Implementations may read the content back asynchronously, in this case 
+	 * {@link ImageUpdateListener image update listeners} are notified when the buffer has been updated.
 	 */
 	public void updateBuffer();
 	/**
@@ -18,6 +18,7 @@ package ch.blackspirit.graphics;
 import java.io.IOException;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.Future;
 
 // FEATURE create image from bufferedimage
 
@@ -107,4 +108,35 @@ public interface ImageFactory {
 	 * @return The created image.
 	 */
 	public Image createBufferedImage(int width, int height, BufferType bufferType);
+
+	/**
+	 * Loads a new unbuffered image from the given URL in the background.
+	 * Images are decoded on a pool of loading threads, so many images can be loaded in parallel 
+	 * without blocking the rendering. Implementations may upload loaded images at the start of 
+	 * the next frames and notify image update listeners once the cache has been updated.
+	 * @param url Image to be loaded.
+	 * @param forceAlpha Should an alpha channel be forced if not needed by the image.
+	 * @return A future providing the loaded image, or an <code>ExecutionException</code> 
+	 * 	wrapping the cause if loading fails.
+	 * @see #createImage(URL, boolean)
+	 */
+	public Future<Image> loadImage(URL url, boolean forceAlpha);
+	/**
+	 * Loads a new buffered image from the given URL in the background.
+	 * @param url Image to be loaded.
+	 * @param forceAlpha When set to true the chosen BufferType will always contain an alpha channel.
+	 * @return A future providing the loaded image.
+	 * @see #loadImage(URL, boolean)
+	 * @see #createBufferedImage(URL, boolean)
+	 */
+	public Future<Image> loadBufferedImage(URL url, boolean forceAlpha);
+	/**
+	 * Loads a new buffered image from the given URL in the background.
+	 * @param url Image to be loaded.
+	 * @param bufferType Type of buffer to be created.
+	 * @return A future providing the loaded image.
+	 * @see #loadImage(URL, boolean)
+	 * @see #createBufferedImage(URL, BufferType)
+	 */
+	public Future<Image> loadBufferedImage(URL url, BufferType bufferType);
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics;
+
+/**
+ * Gets notified about updates of image caches which are not done immediately.<br/>
+ * Notifications to the listener are not necessarily made on the users thread.
+ * @author Markus Koller
+ */
+public interface ImageUpdateListener {
+	/**
+	 * Invoked when buffer changes passed with {@link Image#updateCache() updateCache} have been 
+	 * transferred to the cache. Drawing the image from now on shows the new content.
+	 * @param image The updated image.
+	 */
+	public void cacheUpdated(Image image);
+	/**
+	 * Invoked when the content read back with {@link Image#updateBuffer() updateBuffer} 
+	 * has been written to the image buffer.
+	 * @param image The updated image.
+	 */
+	public void bufferUpdated(Image image);
+}
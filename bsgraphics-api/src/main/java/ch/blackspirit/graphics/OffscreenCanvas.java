@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A <code>Canvas</code> without a window which renders frames of a fixed size on demand.
+ * Every call of <code>draw()</code> renders one frame on the calling thread. Offscreen 
+ * canvases can be used in headless environments, e.g. to render thumbnails or videos on a server.
+ * @author Markus Koller
+ */
+public interface OffscreenCanvas extends Canvas {
+	/**
+	 * Returns the pixels of the last drawn frame with 4 bytes per pixel in RGBA order and 
+	 * the rows from top to bottom. The returned buffer is owned by the canvas and gets 
+	 * overwritten when the next frame is drawn.
+	 * @return A buffer of <code>getWidth() * getHeight() * 4</code> bytes.
+	 */
+	public ByteBuffer getFrame();
+	
+	/**
+	 * Copies the last drawn frame into the buffer of the given image.
+	 * Pixels outside of the image are ignored. To use the image for drawing 
+	 * <code>updateCache()</code> must be called afterwards.
+	 * @param image A buffered image.
+	 */
+	public void getFrame(Image image);
+}
@@ -50,6 +50,17 @@ public interface ResourceManager {
 	 * @return true if caching was successful
 	 */
 	public boolean cacheImage(Image image) throws IOException;
+	/**
+	 * Adds a listener notified when image cache updates have been completed.
+	 * Implementations updating the cache immediately notify the listener right away.
+	 * @param listener Listener to add.
+	 */
+	public void addImageUpdateListener(ImageUpdateListener listener);
+	/**
+	 * Removes a listener added with {@link #addImageUpdateListener(ImageUpdateListener) addImageUpdateListener}.
+	 * @param listener Listener to remove.
+	 */
+	public void removeImageUpdateListener(ImageUpdateListener listener);
 	
 	/**
 	 * Returns all cached fonts.
@@ -73,4 +84,25 @@ public interface ResourceManager {
 	 */
 	public boolean cacheFont(Font font);
 
+	/**
+	 * Creates a static mesh from the given triangles, to be drawn with 
+	 * {@link Graphics#drawStaticMesh(StaticMesh) drawStaticMesh}. The triangles are copied, 
+	 * later changes are not reflected by the mesh. Entries set to {@code null} will be ignored.<br/>
+	 * If possible the mesh gets uploaded immediately, otherwise it is uploaded when first drawn.
+	 * Uploaded meshes are restored automatically if the graphics context has to be recreated.
+	 * @param triangles Triangles of the mesh, e.g. those of a {@link ch.blackspirit.graphics.shape.SimpleShape SimpleShape}.
+	 * @param useColors Should the colors specified for each point be used or the overall drawing color.
+	 * 	Points without a color specified are white.
+	 * @param texture Image to use as texture or <code>null</code>. 
+	 * 	If set, texture coordinates must be specified for every point.
+	 * @return The created mesh.
+	 * @throws IllegalArgumentException If triangles is {@code null} or texture coordinates for a point
+	 * 	are not set while a texture is used.
+	 */
+	public StaticMesh createStaticMesh(Triangle[] triangles, boolean useColors, Image texture);
+	/**
+	 * Frees all native resources of the given mesh. It can not be drawn anymore afterwards.
+	 * @param mesh Mesh to free.
+	 */
+	public void freeStaticMesh(StaticMesh mesh);
 }
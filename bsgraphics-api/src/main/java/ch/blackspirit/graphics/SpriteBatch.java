@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics;
+
+import javax.vecmath.Color4f;
+
+/**
+ * Draws many images with individual position, size, rotation and color without changing 
+ * the transformation of the {@link Graphics} for each of them.<br/>
+ * Sprite corners are calculated on the CPU and written directly into the vertex data of the 
+ * implementation, so consecutive sprites using the same image are drawn together.
+ * The current transformation of the graphics still applies to all sprites.<br/>
+ * Sprites must be drawn between {@link #begin()} and {@link #end()}. 
+ * They may be submitted to the graphics hardware as late as the end of the frame.
+ * @author Markus Koller
+ */
+public interface SpriteBatch {
+	/**
+	 * Starts drawing sprites.
+	 * @throws RuntimeException If the batch has already been started.
+	 */
+	public void begin();
+	/**
+	 * Ends drawing sprites.
+	 * @throws RuntimeException If the batch has not been started.
+	 */
+	public void end();
+	/**
+	 * @return <code>true</code> if the batch has been started and not yet ended.
+	 */
+	public boolean isDrawing();
+
+	/**
+	 * Draws the image with its top left corner at the given position in the given size 
+	 * using the drawing color of the graphics.
+	 * @param image The image to draw.
+	 * @param x X coordinate of the top left corner.
+	 * @param y Y coordinate of the top left corner.
+	 * @param width Width to draw the image with.
+	 * @param height Height to draw the image with.
+	 * @throws IllegalArgumentException If image is <code>null</code>.
+	 */
+	public void draw(Image image, float x, float y, float width, float height);
+	/**
+	 * Draws the image at the given position in the given size rotated about the origin.
+	 * @param image The image to draw.
+	 * @param x X coordinate of the top left corner before rotation.
+	 * @param y Y coordinate of the top left corner before rotation.
+	 * @param width Width to draw the image with.
+	 * @param height Height to draw the image with.
+	 * @param originX X coordinate of the rotation origin relative to the top left corner.
+	 * @param originY Y coordinate of the rotation origin relative to the top left corner.
+	 * @param rotation Angle in degrees to rotate in clockwise direction.
+	 * @param color Color to draw the image with or <code>null</code> to use the drawing color of the graphics.
+	 * @throws IllegalArgumentException If image is <code>null</code>.
+	 */
+	public void draw(Image image, float x, float y, float width, float height, 
+			float originX, float originY, float rotation, Color4f color);
+	/**
+	 * Draws part of the image at the given position in the given size rotated about the origin 
+	 * and possibly flipped horizontally and/or vertically.
+	 * @param image The image to draw.
+	 * @param x X coordinate of the top left corner before rotation.
+	 * @param y Y coordinate of the top left corner before rotation.
+	 * @param width Width to draw the image with.
+	 * @param height Height to draw the image with.
+	 * @param originX X coordinate of the rotation origin relative to the top left corner.
+	 * @param originY Y coordinate of the rotation origin relative to the top left corner.
+	 * @param rotation Angle in degrees to rotate in clockwise direction.
+	 * @param color Color to draw the image with or <code>null</code> to use the drawing color of the graphics.
+	 * @param subImageX X coordinate of the top left corner of the sub image.
+	 * @param subImageY Y coordinate of the top left corner of the sub image.
+	 * @param subImageWidth Width of the sub image.
+	 * @param subImageHeight Height of the sub image.
+	 * @param flip Should the image be horizontally and/or vertically flipped.
+	 * @throws IllegalArgumentException If image is <code>null</code>.
+	 */
+	public void draw(Image image, float x, float y, float width, float height, 
+			float originX, float originY, float rotation, Color4f color,
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics;
+
+/**
+ * Geometry uploaded to the graphics hardware once and drawn as a whole by 
+ * {@link Graphics#drawStaticMesh(StaticMesh) drawStaticMesh}.<br/>
+ * Static meshes are created and freed using the {@link ResourceManager} and
+ * must only be drawn using the canvas they have been created with.
+ * @author Markus Koller
+ */
+public interface StaticMesh {
+	/**
+	 * @return Number of triangles of this mesh.
+	 */
+	public int getTriangleCount();
+	/**
+	 * @return Image used as texture or <code>null</code> if the mesh is not textured.
+	 */
+	public Image getTexture();
+	/**
+	 * @return <code>true</code> if the colors specified for each point are used, 
+	 * 	<code>false</code> if the mesh is drawn with the overall drawing color.
+	 */
+	public boolean isUseColors();
+	/**
+	 * @return <code>true</code> if the mesh has been freed and can no longer be drawn.
+	 */
+	public boolean isFreed();
+}
@@ -28,6 +28,8 @@ import ch.blackspirit.graphics.Flip;
 import ch.blackspirit.graphics.Graphics;
 import ch.blackspirit.graphics.Image;
 import ch.blackspirit.graphics.Line;
+import ch.blackspirit.graphics.SpriteBatch;
+import ch.blackspirit.graphics.StaticMesh;
 import ch.blackspirit.graphics.Triangle;
 
 /**
@@ -185,6 +187,15 @@ public class TraceGraphics implements Graphics {
 		if(LOGGER.isLoggable(level)) LOGGER.log(level, "fillTriangles(Triangle[" + triangles.length + "], " + useColors + ")");
 		delegate.fillTriangles(triangles, useColors);
 	}
+	public void drawStaticMesh(StaticMesh mesh) {
+		if(LOGGER.isLoggable(level)) LOGGER.log(level, "drawStaticMesh(" + mesh.toString() + ")");
+		delegate.drawStaticMesh(mesh);
+	}
+	public SpriteBatch getSpriteBatch() {
+		SpriteBatch value = delegate.getSpriteBatch();
+		if(LOGGER.isLoggable(level)) LOGGER.log(level, "getSpriteBatch() = " + value);
+		return value;
+	}
 	public boolean getAlphaMask() {
 		boolean value = delegate.getAlphaMask();
 		if(LOGGER.isLoggable(level)) LOGGER.log(level, "getAlphaMask() = " + value);
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.util;
+
+import java.nio.ByteBuffer;
+
+import javax.vecmath.Color4f;
+
+import ch.blackspirit.graphics.BufferType;
+import ch.blackspirit.graphics.Image;
+
+/**
+ * Helps implementations of <code>OffscreenCanvas</code> to copy a frame into 
+ * the buffer of an image.
+ * @author Markus Koller
+ */
+public class FrameUtil {
+	/**
+	 * Copies RGBA pixels into the buffer of an image. Pixels outside of the image are ignored.
+	 * @param frame RGBA pixels with the rows from top to bottom.
+	 * @param width Width of the frame.
+	 * @param height Height of the frame.
+	 * @param image Buffered image to copy the pixels to.
+	 */
+	public static void copyFrame(ByteBuffer frame, int width, int height, Image image) {
+		if(!image.isBuffered()) throw new IllegalArgumentException("Frames can only be copied into buffered images.");
+		BufferType type = image.getBufferType();
+		int copyWidth = Math.min(width, image.getWidth());
+		int copyHeight = Math.min(height, image.getHeight());
+		Color4f color = new Color4f();
+		for(int y = 0; y < copyHeight; y++) {
+			int index = y * width * 4;
+			for(int x = 0; x < copyWidth; x++) {
+				color.x = (frame.get(index++) & 0xFF) / 255f;
+				color.y = (frame.get(index++) & 0xFF) / 255f;
+				color.z = (frame.get(index++) & 0xFF) / 255f;
+				color.w = (frame.get(index++) & 0xFF) / 255f;
+				type.setColor(image, x, y, color);
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.util;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.blackspirit.graphics.BufferType;
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.ImageFactory;
+
+/**
+ * Loads images in the background using an image factory on a pool of daemon threads. 
+ * Helps implementations of <code>ImageFactory</code> to provide the asynchronous loading methods.
+ * Idle loading threads terminate after a while.
+ * @author Markus Koller
+ */
+public class ImageLoader {
+	private static final AtomicInteger POOL_IDS = new AtomicInteger();
+	
+	private final ImageFactory imageFactory;
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Creates a loader with one thread per available processor.
+	 * @param imageFactory Factory creating the images on the loading threads.
+	 */
+	public ImageLoader(ImageFactory imageFactory) {
+		this.imageFactory = imageFactory;
+		final int poolId = POOL_IDS.incrementAndGet();
+		int threads = Runtime.getRuntime().availableProcessors();
+		this.executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, 
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+			private final AtomicInteger threadIds = new AtomicInteger();
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Image Loader " + poolId + "-" + threadIds.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+	
+	/**
+	 * @param threads Number of images loaded in parallel, 0 for one per available processor.
+	 */
+	public synchronized void setThreads(int threads) {
+		if(threads < 0) throw new IllegalArgumentException("Number of threads must not be negative: " + threads);
+		if(threads == 0) threads = Runtime.getRuntime().availableProcessors();
+		if(threads > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(threads);
+			executor.setCorePoolSize(threads);
+		} else {
+			executor.setCorePoolSize(threads);
+			executor.setMaximumPoolSize(threads);
+		}
+	}
+	public int getThreads() {
+		return executor.getMaximumPoolSize();
+	}
+
+	public Future<Image> loadImage(final URL url, final boolean forceAlpha) {
+		if(url == null) throw new IllegalArgumentException("Url must not be null");
+		return executor.submit(new Callable<Image>() {
+			public Image call() throws Exception {
+				Image image = imageFactory.createImage(url, forceAlpha);
+				loaded(image);
+				return image;
+			}
+		});
+	}
+	public Future<Image> loadBufferedImage(final URL url, final boolean forceAlpha) {
+		if(url == null) throw new IllegalArgumentException("Url must not be null");
+		return executor.submit(new Callable<Image>() {
+			public Image call() throws Exception {
+				Image image = imageFactory.createBufferedImage(url, forceAlpha);
+				loaded(image);
+				return image;
+			}
+		});
+	}
+	public Future<Image> loadBufferedImage(final URL url, final BufferType bufferType) {
+		if(url == null) throw new IllegalArgumentException("Url must not be null");
+		if(bufferType == null) throw new IllegalArgumentException("BufferType must not be null");
+		return executor.submit(new Callable<Image>() {
+			public Image call() throws Exception {
+				Image image = imageFactory.createBufferedImage(url, bufferType);
+				loaded(image);
+				return image;
+			}
+		});
+	}
+	
+	/**
+	 * Called on the loading thread after an image has been loaded, before the future completes.
+	 * @param image The loaded image.
+	 * @throws IOException If preparing the image fails, failing the future.
+	 */
+	protected void loaded(Image image) throws IOException {}
+}
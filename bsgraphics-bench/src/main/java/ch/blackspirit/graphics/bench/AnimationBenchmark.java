@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.anim.AnimationImpl;
+import ch.blackspirit.graphics.anim.Frame;
+import ch.blackspirit.graphics.anim.FrameImpl;
+
+/**
+ * Updates thousands of repeating animations by one frame, 
+ * each started at a different time so frame changes are spread out.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimationBenchmark {
+	private static final int FRAMES = 8;
+	private static final long FRAME_TIME = 100 * 1000 * 1000;
+	private static final long UPDATE_TIME = 16 * 1000 * 1000;
+
+	@Param({"1000", "10000"})
+	public int animations;
+
+	private AnimationImpl<Frame>[] instances;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		RecordingImage image = new RecordingImage(256, 32);
+		Random random = new Random(0);
+		instances = new AnimationImpl[animations];
+		for(int i = 0; i < animations; i++) {
+			AnimationImpl<Frame> animation = new AnimationImpl<Frame>();
+			for(int f = 0; f < FRAMES; f++) {
+				animation.addFrame(new FrameImpl(image, FRAME_TIME, f * 32, 0, 32, 32));
+			}
+			animation.setRepeated(true);
+			animation.update((long)(random.nextDouble() * FRAMES * FRAME_TIME));
+			instances[i] = animation;
+		}
+	}
+
+	@Benchmark
+	public int update() {
+		int frames = 0;
+		for(int i = 0; i < instances.length; i++) {
+			instances[i].update(UPDATE_TIME);
+			frames += instances[i].getFrame().getSubImageX();
+		}
+		return frames;
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.Triangle;
+import ch.blackspirit.graphics.util.ColorGradientFactory;
+import ch.blackspirit.graphics.util.ShapeOutlineFactory;
+import ch.blackspirit.graphics.util.Triangulator;
+
+/**
+ * Evaluates a color gradient at every vertex of a triangulated circle, 
+ * the way vertex colored meshes are set up.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColorGradientBenchmark {
+	@Param({"100", "1000"})
+	public int points;
+	@Param({"point", "segment"})
+	public String source;
+
+	private ColorGradientFactory gradient;
+	private List<Triangle> triangles;
+	private final Color4f color = new Color4f();
+
+	@Setup
+	public void setup() {
+		triangles = new Triangulator().triangulate(ShapeOutlineFactory.createCircle(500, points), null);
+
+		gradient = new ColorGradientFactory();
+		gradient.setBaseColor(new Color4f(0, 0, 0, 1));
+		if("point".equals(source)) {
+			gradient.addSourcePoint(-250, 0, 500, new Color4f(1, 0, 0, 1));
+			gradient.addSourcePoint(250, 0, 500, new Color4f(0, 0, 1, 1));
+			gradient.addSourcePoint(0, 250, 300, new Color4f(0, 1, 0, 1));
+		} else {
+			gradient.addSourceSegment(-250, -250, 250, -250, 500, new Color4f(1, 0, 0, 1));
+			gradient.addSourceSegment(-250, 250, 250, 250, 500, new Color4f(0, 0, 1, 1));
+			gradient.addSourceSegment(0, -250, 0, 250, 300, new Color4f(0, 1, 0, 1));
+		}
+	}
+
+	@Benchmark
+	public float getColor() {
+		float sum = 0;
+		for(int i = 0; i < triangles.size(); i++) {
+			Triangle triangle = triangles.get(i);
+			for(int v = 0; v < 3; v++) {
+				Vector2f point = triangle.getPoint(v);
+				gradient.getColor(point.x, point.y, color);
+				sum += color.x;
+			}
+		}
+		return sum;
+	}
+}
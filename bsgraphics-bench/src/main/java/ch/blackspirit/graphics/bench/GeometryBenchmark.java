@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Vector2f;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.geometry.Geometry;
+import ch.blackspirit.graphics.geometry.Intersection;
+import ch.blackspirit.graphics.util.ShapeOutlineFactory;
+
+/**
+ * Runs the geometry tests the triangulator is built on over random points 
+ * and measures outline creation of the shape outline factory.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+	@Param({"1000", "10000"})
+	public int points;
+
+	private Vector2f[] vectors;
+	private final Vector2f intersection = new Vector2f();
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		vectors = new Vector2f[points];
+		for(int i = 0; i < points; i++) {
+			vectors[i] = new Vector2f(random.nextFloat() * 1024, random.nextFloat() * 768);
+		}
+	}
+
+	@Benchmark
+	public int segmentIntersect() {
+		int intersections = 0;
+		for(int i = 0; i + 3 < points; i += 2) {
+			if(Geometry.segmentIntersect(vectors[i], vectors[i + 1], vectors[i + 2], vectors[i + 3], intersection) == Intersection.TRUE) {
+				intersections++;
+			}
+		}
+		return intersections;
+	}
+
+	@Benchmark
+	public float pointSegmentDistance() {
+		float distance = 0;
+		for(int i = 0; i + 2 < points; i++) {
+			distance += Geometry.pointSegmentDistanceSquare(vectors[i], vectors[i + 1], vectors[i + 2]);
+		}
+		return distance;
+	}
+
+	@Benchmark
+	public int pointInTriangle() {
+		int inside = 0;
+		for(int i = 0; i + 3 < points; i++) {
+			if(Geometry.pointInTriangle(vectors[i], vectors[i + 1], vectors[i + 2], vectors[i + 3])) {
+				inside++;
+			}
+		}
+		return inside;
+	}
+
+	@Benchmark
+	public List<Vector2f> createCircle() {
+		return ShapeOutlineFactory.createCircle(100, points);
+	}
+
+	@Benchmark
+	public List<Vector2f> createRoundedRectangle() {
+		return ShapeOutlineFactory.createRoundedRectangle(200, 100, 20, points / 4);
+	}
+}
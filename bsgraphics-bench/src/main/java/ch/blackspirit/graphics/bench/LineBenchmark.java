@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.View;
+import ch.blackspirit.graphics.shape.Line;
+
+/**
+ * Draws a field of lines per frame, once with one call per line in the drawing color 
+ * and once as a colored line array.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineBenchmark {
+	@Param({"1000", "10000"})
+	public int lines;
+
+	private RecordingGraphicsContext singleContext;
+	private RecordingGraphicsContext arrayContext;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		final float[] coordinates = new float[lines * 4];
+		final Line[] lineArray = new Line[lines];
+		for(int i = 0; i < lines; i++) {
+			float x = random.nextFloat() * 1024;
+			float y = random.nextFloat() * 768;
+			float angle = random.nextFloat() * (float)Math.PI * 2;
+			coordinates[i * 4] = x;
+			coordinates[i * 4 + 1] = y;
+			coordinates[i * 4 + 2] = x + (float)Math.cos(angle) * 20;
+			coordinates[i * 4 + 3] = y + (float)Math.sin(angle) * 20;
+			lineArray[i] = new Line(new Vector2f(coordinates[i * 4], coordinates[i * 4 + 1]), 
+					new Vector2f(coordinates[i * 4 + 2], coordinates[i * 4 + 3]));
+			lineArray[i].setColor(0, new Color4f(1, 1, 1, 1));
+			lineArray[i].setColor(1, new Color4f(random.nextFloat(), random.nextFloat(), random.nextFloat(), 0));
+		}
+
+		singleContext = new RecordingGraphicsContext(1024, 768);
+		singleContext.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				for(int i = 0; i < coordinates.length; i += 4) {
+					graphics.drawLine(coordinates[i], coordinates[i + 1], coordinates[i + 2], coordinates[i + 3]);
+				}
+			}
+		});
+		arrayContext = new RecordingGraphicsContext(1024, 768);
+		arrayContext.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				graphics.drawLines(lineArray, true);
+			}
+		});
+	}
+
+	@Benchmark
+	public long drawLine() {
+		singleContext.draw();
+		return singleContext.getGraphics().getSubmittedVertices();
+	}
+	@Benchmark
+	public long drawLines() {
+		arrayContext.draw();
+		return arrayContext.getGraphics().getSubmittedVertices();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.pool.ObjectPool;
+
+/**
+ * Takes a burst of objects from a pool and frees them again in random order, 
+ * comparing the churn to plain allocation.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectPoolBenchmark {
+	@Param({"100", "10000"})
+	public int objects;
+
+	private ObjectPool<Pooled> pool;
+	private Pooled[] taken;
+	private int[] order;
+
+	@Setup
+	public void setup() {
+		pool = new ObjectPool<Pooled>(new Pooled(), objects / 2);
+		taken = new Pooled[objects];
+		order = new int[objects];
+		for(int i = 0; i < objects; i++) {
+			order[i] = i;
+		}
+		Random random = new Random(0);
+		for(int i = objects - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+	}
+
+	@Benchmark
+	public int churn() {
+		int sum = 0;
+		for(int i = 0; i < objects; i++) {
+			Pooled object = pool.get();
+			object.value = i;
+			taken[i] = object;
+		}
+		for(int i = 0; i < objects; i++) {
+			Pooled object = taken[order[i]];
+			sum += object.value;
+			pool.free(object);
+			taken[order[i]] = null;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int allocate() {
+		int sum = 0;
+		for(int i = 0; i < objects; i++) {
+			Pooled object = new Pooled();
+			object.value = i;
+			taken[i] = object;
+		}
+		for(int i = 0; i < objects; i++) {
+			sum += taken[order[i]].value;
+			taken[order[i]] = null;
+		}
+		return sum;
+	}
+
+	/**
+	 * Must be public with an empty constructor to be created by the pool. 
+	 */
+	public static final class Pooled {
+		public int value;
+		public float x;
+		public float y;
+	}
+}
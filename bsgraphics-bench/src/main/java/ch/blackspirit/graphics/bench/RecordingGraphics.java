@@ -0,0 +1,560 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.awt.Font;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Matrix3f;
+import javax.vecmath.Vector2f;
+
+import ch.blackspirit.graphics.DrawingMode;
+import ch.blackspirit.graphics.Flip;
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.Line;
+import ch.blackspirit.graphics.SpriteBatch;
+import ch.blackspirit.graphics.StaticMesh;
+import ch.blackspirit.graphics.Triangle;
+
+/**
+ * Headless graphics recording the drawing calls instead of rendering them.<br/>
+ * Vertices are transformed on the CPU and written into an interleaved vertex array 
+ * (position, color, texture coordinate) following the batching rules of the JOGL implementations:
+ * a batch is submitted when the primitive type, the image or the drawing mode changes, 
+ * before text and static meshes are drawn and when the vertex array is full.
+ * Submitting a batch only counts it, so the CPU cost of the drawing calls can be measured 
+ * without a graphics card.
+ * @author Markus Koller
+ */
+final class RecordingGraphics implements Graphics {
+	private static final float DEG_TO_RAD_FACTOR = (float)Math.PI / 180;
+
+	static final int POINTS = 0;
+	static final int LINES = 1;
+	static final int TRIANGLES = 2;
+	static final int QUADS = 3;
+
+	/** Number of floats per vertex */
+	static final int VERTEX_SIZE = 8;
+	// Multiple of 2, 3 and 4 so full batches never split a primitive
+	private static final int CAPACITY = 12 * 512;
+
+	private final float[] vertices = new float[CAPACITY * VERTEX_SIZE];
+	private int vertexCount = 0;
+	private int index = 0;
+	private int primitive = -1;
+	private Image image = null;
+
+	// Statistics
+	private long calls = 0;
+	private long batches = 0;
+	private long submittedVertices = 0;
+	private long textureChanges = 0;
+	private long stateChanges = 0;
+	private long textCharacters = 0;
+
+	// Model transformation and the stack of saved transformations
+	private float m00 = 1, m01 = 0, m02 = 0;
+	private float m10 = 0, m11 = 1, m12 = 0;
+	private float[] stack = new float[6 * 32];
+	private int depth = 0;
+
+	private final Color4f color = new Color4f(1, 1, 1, 1);
+	private final Color4f clearColor = new Color4f(0, 0, 0, 0);
+	private final Color4f baseColor = new Color4f(1, 1, 1, 1);
+	private Font font = new Font("SansSerif", Font.PLAIN, 24);
+	private DrawingMode drawingMode = DrawingMode.ALPHA_BLEND;
+	private boolean redMask = true;
+	private boolean greenMask = true;
+	private boolean blueMask = true;
+	private boolean alphaMask = true;
+	private boolean lineAntialiasing = false;
+
+	private final RecordingSpriteBatch spriteBatch = new RecordingSpriteBatch(this);
+	private final Line[] lineArray = new Line[1];
+	private final Triangle[] triangleArray = new Triangle[1];
+
+	/**
+	 * Starts a new frame with default settings, dropping all recorded vertices.
+	 */
+	public void beginFrame() {
+		vertexCount = 0;
+		index = 0;
+		primitive = -1;
+		image = null;
+		clearTransform();
+		color.set(1, 1, 1, 1);
+		drawingMode = DrawingMode.ALPHA_BLEND;
+	}
+	/**
+	 * Submits the vertices collected during the frame.
+	 */
+	public void endFrame() {
+		flush();
+	}
+
+	/**
+	 * @return Number of drawing calls made.
+	 */
+	public long getCalls() {
+		return calls;
+	}
+	/**
+	 * @return Number of batches submitted.
+	 */
+	public long getBatches() {
+		return batches;
+	}
+	/**
+	 * @return Number of vertices submitted.
+	 */
+	public long getSubmittedVertices() {
+		return submittedVertices;
+	}
+	/**
+	 * @return Number of times a batch used a different image than the one before.
+	 */
+	public long getTextureChanges() {
+		return textureChanges;
+	}
+	/**
+	 * @return Number of drawing mode, color mask and line antialiasing changes.
+	 */
+	public long getStateChanges() {
+		return stateChanges;
+	}
+	/**
+	 * @return Number of characters of all texts drawn.
+	 */
+	public long getTextCharacters() {
+		return textCharacters;
+	}
+
+	// ==================== Batching ====================
+	private void begin(int primitive, Image image) {
+		calls++;
+		if(vertexCount > 0 && (primitive != this.primitive || image != this.image)) {
+			flush();
+		}
+		if(image != this.image && image != null) textureChanges++;
+		this.primitive = primitive;
+		this.image = image;
+	}
+	private void ensureCapacity(int count) {
+		if(vertexCount + count > CAPACITY) flush();
+	}
+	private void flush() {
+		if(vertexCount == 0) return;
+		batches++;
+		submittedVertices += vertexCount;
+		vertexCount = 0;
+		index = 0;
+	}
+	private void vertex(float x, float y, Color4f c, float s, float t) {
+		float[] v = vertices;
+		int i = index;
+		v[i++] = m00 * x + m01 * y + m02;
+		v[i++] = m10 * x + m11 * y + m12;
+		v[i++] = c.x;
+		v[i++] = c.y;
+		v[i++] = c.z;
+		v[i++] = c.w;
+		v[i++] = s;
+		v[i++] = t;
+		index = i;
+		vertexCount++;
+	}
+	private void vertex(float x, float y, Color4f c) {
+		vertex(x, y, c, 0, 0);
+	}
+
+	// ==================== Colors ====================
+	public void clear() {
+		flush();
+		calls++;
+	}
+	public void setClearColor(Color4f color) {
+		clearColor.set(color);
+	}
+	public void getClearColor(Color4f color) {
+		color.set(clearColor);
+	}
+	public void setColor(Color4f color) {
+		// the color is part of every vertex, so there is no need to submit the batch
+		this.color.set(color);
+	}
+	public void getColor(Color4f color) {
+		color.set(this.color);
+	}
+	public void setBaseColor(Color4f color) {
+		flush();
+		baseColor.set(color);
+		stateChanges++;
+	}
+	public void getBaseColor(Color4f color) {
+		color.set(baseColor);
+	}
+
+	// ==================== Points and Lines ====================
+	public void drawPoint(float x, float y) {
+		begin(POINTS, null);
+		ensureCapacity(1);
+		vertex(x, y, color);
+	}
+	public void drawLine(float x1, float y1, float x2, float y2) {
+		begin(LINES, null);
+		ensureCapacity(2);
+		vertex(x1, y1, color);
+		vertex(x2, y2, color);
+	}
+	public void drawLine(Line line, boolean useColors) {
+		if (line == null) throw new IllegalArgumentException("line must not be null");
+		lineArray[0] = line;
+		drawLines(lineArray, useColors);
+	}
+	public void drawLines(Line[] lines, boolean useColors) {
+		if (lines == null) throw new IllegalArgumentException("lines must not be null");
+		begin(LINES, null);
+		for(int i = 0; i < lines.length; i++) {
+			Line l = lines[i];
+			if(l == null) continue;
+			ensureCapacity(2);
+			for(int j = 0; j < 2; j++) {
+				Vector2f p = l.getPoint(j);
+				vertex(p.x, p.y, color(useColors ? l.getColor(j) : null));
+			}
+		}
+	}
+
+	// ==================== Triangles ====================
+	public void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		begin(TRIANGLES, null);
+		ensureCapacity(3);
+		vertex(x1, y1, color);
+		vertex(x2, y2, color);
+		vertex(x3, y3, color);
+	}
+	public void drawTriangle(Triangle triangle, boolean useColors) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		drawTriangles(triangleArray, useColors);
+	}
+	public void drawTriangles(Triangle[] triangles, boolean useColors) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		begin(LINES, null);
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			ensureCapacity(6);
+			for(int j = 0; j < 3; j++) {
+				int k = (j + 1) % 3;
+				Vector2f p = t.getPoint(j);
+				vertex(p.x, p.y, color(useColors ? t.getColor(j) : null));
+				p = t.getPoint(k);
+				vertex(p.x, p.y, color(useColors ? t.getColor(k) : null));
+			}
+		}
+	}
+	public void fillTriangle(Triangle triangle, boolean useColors) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		fillTriangles(triangleArray, useColors);
+	}
+	public void fillTriangles(Triangle[] triangles, boolean useColors) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		begin(TRIANGLES, null);
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			ensureCapacity(3);
+			for(int j = 0; j < 3; j++) {
+				Vector2f p = t.getPoint(j);
+				vertex(p.x, p.y, color(useColors ? t.getColor(j) : null));
+			}
+		}
+	}
+	public void fillTriangle(Triangle triangle, boolean useColors, Image image) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		fillTriangles(triangleArray, useColors, image);
+	}
+	public void fillTriangles(Triangle[] triangles, boolean useColors, Image image) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		float texFactorX = 1f / image.getWidth();
+		float texFactorY = 1f / image.getHeight();
+		begin(TRIANGLES, image);
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			ensureCapacity(3);
+			for(int j = 0; j < 3; j++) {
+				Vector2f tc = t.getTextureCoordinate(j);
+				if (tc == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+				Vector2f p = t.getPoint(j);
+				vertex(p.x, p.y, color(useColors ? t.getColor(j) : null), tc.x * texFactorX, tc.y * texFactorY);
+			}
+		}
+	}
+	private Color4f color(Color4f c) {
+		return c != null ? c : color;
+	}
+
+	public void drawStaticMesh(StaticMesh mesh) {
+		if (mesh == null) throw new IllegalArgumentException("mesh must not be null");
+		if (mesh.isFreed()) throw new IllegalArgumentException("mesh has been freed");
+		// meshes are drawn from their own vertex buffer with one draw call
+		flush();
+		calls++;
+		if(mesh.getTexture() != null && mesh.getTexture() != image) textureChanges++;
+		image = mesh.getTexture();
+		batches++;
+		submittedVertices += mesh.getTriangleCount() * 3;
+	}
+
+	// ==================== Images ====================
+	public SpriteBatch getSpriteBatch() {
+		return spriteBatch;
+	}
+	public void drawImage(Image image, float width, float height) {
+		drawImage(image, width, height, Flip.NONE);
+	}
+	public void drawImage(Image image, float width, float height, Flip flip) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		drawImage(image, width, height, 0, 0, image.getWidth(), image.getHeight(), flip);
+	}
+	public void drawImage(Image image, float width, float height, 
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight) {
+		drawImage(image, width, height, subImageX, subImageY, subImageWidth, subImageHeight, Flip.NONE);
+	}
+	public void drawImage(Image image, float width, float height, 
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		drawSprite(image, 0, 0, width, height, 0, 0, 0, null, subImageX, subImageY, subImageWidth, subImageHeight, flip);
+	}
+	void drawSprite(Image image, float x, float y, float width, float height, 
+			float originX, float originY, float rotation, Color4f tint, 
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		Color4f c = tint != null ? tint : color;
+		float texTop = (float)subImageY / image.getHeight(); 
+		float texBottom = (float)(subImageY + subImageHeight) / image.getHeight();
+		float texLeft = (float)subImageX / image.getWidth();
+		float texRight = (float)(subImageX + subImageWidth) / image.getWidth();
+		if(flip == Flip.BOTH || flip == Flip.HORIZONTAL) {
+			float temp = texTop;
+			texTop = texBottom;
+			texBottom = temp;
+		}
+		if(flip == Flip.BOTH || flip == Flip.VERTICAL) {
+			float temp = texLeft;
+			texLeft = texRight;
+			texRight = temp;
+		}
+
+		// corners relative to the origin
+		float left = -originX;
+		float top = -originY;
+		float right = width - originX;
+		float bottom = height - originY;
+		x += originX;
+		y += originY;
+
+		begin(QUADS, image);
+		ensureCapacity(4);
+		if(rotation == 0) {
+			vertex(x + left, y + top, c, texLeft, texTop);
+			vertex(x + right, y + top, c, texRight, texTop);
+			vertex(x + right, y + bottom, c, texRight, texBottom);
+			vertex(x + left, y + bottom, c, texLeft, texBottom);
+		} else {
+			float cos = (float)Math.cos(rotation * DEG_TO_RAD_FACTOR);
+			float sin = (float)Math.sin(rotation * DEG_TO_RAD_FACTOR);
+			vertex(x + cos * left - sin * top, y + sin * left + cos * top, c, texLeft, texTop);
+			vertex(x + cos * right - sin * top, y + sin * right + cos * top, c, texRight, texTop);
+			vertex(x + cos * right - sin * bottom, y + sin * right + cos * bottom, c, texRight, texBottom);
+			vertex(x + cos * left - sin * bottom, y + sin * left + cos * bottom, c, texLeft, texBottom);
+		}
+	}
+
+	// ==================== Transformation ====================
+	public void rotate(float angle) {
+		float cos = (float)Math.cos(angle * DEG_TO_RAD_FACTOR);
+		float sin = (float)Math.sin(angle * DEG_TO_RAD_FACTOR);
+		float t00 = m00 * cos + m01 * sin;
+		float t01 = m01 * cos - m00 * sin;
+		float t10 = m10 * cos + m11 * sin;
+		float t11 = m11 * cos - m10 * sin;
+		m00 = t00;
+		m01 = t01;
+		m10 = t10;
+		m11 = t11;
+	}
+	public void translate(float x, float y) {
+		m02 += m00 * x + m01 * y;
+		m12 += m10 * x + m11 * y;
+	}
+	public void scale(float x, float y) {
+		m00 *= x;
+		m10 *= x;
+		m01 *= y;
+		m11 *= y;
+	}
+	public void clearTransformation() {
+		clearTransform();
+	}
+	public void clearTransform() {
+		depth = 0;
+		setTransform(1, 0, 0, 0, 1, 0);
+	}
+	public void pushTransform() {
+		int i = depth * 6;
+		if(i == stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+		float[] s = stack;
+		s[i] = m00;
+		s[i + 1] = m01;
+		s[i + 2] = m02;
+		s[i + 3] = m10;
+		s[i + 4] = m11;
+		s[i + 5] = m12;
+		depth++;
+	}
+	public void popTransform() {
+		if(depth == 0) throw new RuntimeException("No transformation left to pop from transform stack!");
+		depth--;
+		int i = depth * 6;
+		float[] s = stack;
+		setTransform(s[i], s[i + 1], s[i + 2], s[i + 3], s[i + 4], s[i + 5]);
+	}
+	public void getTransform(Matrix3f matrix) {
+		matrix.m00 = m00;
+		matrix.m01 = m01;
+		matrix.m02 = m02;
+		matrix.m10 = m10;
+		matrix.m11 = m11;
+		matrix.m12 = m12;
+		matrix.m20 = 0;
+		matrix.m21 = 0;
+		matrix.m22 = 1;
+	}
+	public void setTransform(Matrix3f matrix) {
+		// only the affine part of the matrix is used
+		setTransform(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
+	}
+	public void applyTransform(Matrix3f matrix) {
+		float t00 = m00 * matrix.m00 + m01 * matrix.m10;
+		float t01 = m00 * matrix.m01 + m01 * matrix.m11;
+		float t02 = m00 * matrix.m02 + m01 * matrix.m12 + m02;
+		float t10 = m10 * matrix.m00 + m11 * matrix.m10;
+		float t11 = m10 * matrix.m01 + m11 * matrix.m11;
+		float t12 = m10 * matrix.m02 + m11 * matrix.m12 + m12;
+		setTransform(t00, t01, t02, t10, t11, t12);
+	}
+	private void setTransform(float m00, float m01, float m02, float m10, float m11, float m12) {
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m02 = m02;
+		this.m10 = m10;
+		this.m11 = m11;
+		this.m12 = m12;
+	}
+
+	// ==================== Text ====================
+	public void setFont(Font font) {
+		if (font == null) throw new IllegalArgumentException("font must not be null");
+		this.font = font;
+	}
+	public Font getFont() {
+		return font;
+	}
+	public void drawText(String text) {
+		if (text == null) throw new IllegalArgumentException("text must not be null");
+		// text is rendered by a separate renderer
+		flush();
+		calls++;
+		batches++;
+		textCharacters += text.length();
+	}
+	public void getTextBounds(String text, Rectangle2D bounds) {
+		if (text == null) throw new IllegalArgumentException("text must not be null");
+		if (bounds == null) throw new IllegalArgumentException("bounds must not be null");
+		// approximated from the font size, there is no font renderer
+		float size = font.getSize2D();
+		bounds.setRect(0, -size, text.length() * size * .6f, size * 1.2f);
+	}
+
+	// ==================== State ====================
+	public void setDrawingMode(DrawingMode drawingMode) {
+		if(drawingMode == this.drawingMode) return;
+		flush();
+		this.drawingMode = drawingMode;
+		stateChanges++;
+	}
+	public DrawingMode getDrawingMode() {
+		return drawingMode;
+	}
+	public void setColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		flush();
+		redMask = red;
+		greenMask = green;
+		blueMask = blue;
+		alphaMask = alpha;
+		stateChanges++;
+	}
+	public void setRedMask(boolean red) {
+		setColorMask(red, greenMask, blueMask, alphaMask);
+	}
+	public void setGreenMask(boolean green) {
+		setColorMask(redMask, green, blueMask, alphaMask);
+	}
+	public void setBlueMask(boolean blue) {
+		setColorMask(redMask, greenMask, blue, alphaMask);
+	}
+	public void setAlphaMask(boolean alpha) {
+		setColorMask(redMask, greenMask, blueMask, alpha);
+	}
+	public boolean getRedMask() {
+		return redMask;
+	}
+	public boolean getGreenMask() {
+		return greenMask;
+	}
+	public boolean getBlueMask() {
+		return blueMask;
+	}
+	public boolean getAlphaMask() {
+		return alphaMask;
+	}
+	public void setLineAntialiasing(boolean enabled) {
+		flush();
+		lineAntialiasing = enabled;
+		stateChanges++;
+	}
+	public boolean getLineAntialiasing() {
+		return lineAntialiasing;
+	}
+
+	public void copyToImage(Image image) {
+		copyToImage(image, 0, 0, image.getWidth(), image.getHeight());
+	}
+	public void copyToImage(Image image, int x, int y, int width, int height) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		flush();
+		calls++;
+	}
+}
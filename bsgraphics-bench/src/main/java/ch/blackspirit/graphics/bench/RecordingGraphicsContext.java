@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import ch.blackspirit.graphics.GraphicsContext;
+import ch.blackspirit.graphics.GraphicsListener;
+
+/**
+ * Headless graphics context drawing with a {@link RecordingGraphics}.<br/>
+ * {@link #draw()} runs one frame of the graphics listener on the calling thread.
+ * @author Markus Koller
+ */
+final class RecordingGraphicsContext implements GraphicsContext {
+	private final int width;
+	private final int height;
+	private final RecordingGraphics graphics = new RecordingGraphics();
+	private final RecordingView view = new RecordingView();
+	private GraphicsListener graphicsListener;
+	private boolean initialized = false;
+
+	public RecordingGraphicsContext(int width, int height) {
+		this.width = width;
+		this.height = height;
+		view.setSize(width, height);
+		view.setCamera(width / 2f, height / 2f, 0);
+	}
+
+	public void setGraphicsListener(GraphicsListener listener) {
+		this.graphicsListener = listener;
+		initialized = false;
+	}
+	public GraphicsListener getGraphicsListener() {
+		return graphicsListener;
+	}
+
+	public void draw() {
+		if(graphicsListener == null) return;
+		graphics.beginFrame();
+		if(!initialized) {
+			graphicsListener.init(view, graphics);
+			graphicsListener.sizeChanged(this, view);
+			initialized = true;
+		}
+		graphicsListener.draw(view, graphics);
+		graphics.endFrame();
+	}
+
+	public void dispose() {
+		graphicsListener = null;
+	}
+	public int getWidth() {
+		return width;
+	}
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return The graphics recording the drawing calls of this context.
+	 */
+	public RecordingGraphics getGraphics() {
+		return graphics;
+	}
+}
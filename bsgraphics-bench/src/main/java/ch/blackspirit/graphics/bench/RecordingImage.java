@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.net.URL;
+
+import ch.blackspirit.graphics.BufferType;
+import ch.blackspirit.graphics.Image;
+
+/**
+ * Image of the recording graphics. It only has a size, there is neither a buffer nor a cache to update.
+ * @author Markus Koller
+ */
+final class RecordingImage implements Image {
+	private final int width;
+	private final int height;
+
+	public RecordingImage(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	public URL getURL() {
+		return null;
+	}
+	public int getWidth() {
+		return width;
+	}
+	public int getHeight() {
+		return height;
+	}
+	public boolean isBuffered() {
+		return false;
+	}
+	public BufferType getBufferType() {
+		return null;
+	}
+	public Object getBuffer() {
+		return null;
+	}
+	public void updateCache() {}
+	public void updateCache(int xOffset, int yOffset, int width, int height) {}
+	public void updateBuffer() {}
+	public void updateBuffer(int xOffset, int yOffset, int width, int height) {}
+	
+	public String toString() {
+		return "RecordingImage " + width + "x" + height;
+	}
+}
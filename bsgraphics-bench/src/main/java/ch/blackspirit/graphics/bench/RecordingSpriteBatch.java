@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import javax.vecmath.Color4f;
+
+import ch.blackspirit.graphics.Flip;
+import ch.blackspirit.graphics.Image;
+
+/**
+ * Sprite batch writing the sprite quads into the vertex array of the recording graphics.
+ * @author Markus Koller
+ */
+final class RecordingSpriteBatch implements ch.blackspirit.graphics.SpriteBatch {
+	private final RecordingGraphics graphics;
+	private boolean drawing = false;
+
+	public RecordingSpriteBatch(RecordingGraphics graphics) {
+		this.graphics = graphics;
+	}
+
+	public void begin() {
+		if(drawing) throw new RuntimeException("Sprite batch has already been started");
+		drawing = true;
+	}
+	public void end() {
+		if(!drawing) throw new RuntimeException("Sprite batch has not been started");
+		drawing = false;
+	}
+	public boolean isDrawing() {
+		return drawing;
+	}
+
+	public void draw(Image image, float x, float y, float width, float height) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		if(!drawing) throw new RuntimeException("Sprite batch has not been started");
+		graphics.drawSprite(image, x, y, width, height, 0, 0, 0, null, 
+				0, 0, image.getWidth(), image.getHeight(), null);
+	}
+	public void draw(Image image, float x, float y, float width, float height, 
+			float originX, float originY, float rotation, Color4f color) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		if(!drawing) throw new RuntimeException("Sprite batch has not been started");
+		graphics.drawSprite(image, x, y, width, height, originX, originY, rotation, color, 
+				0, 0, image.getWidth(), image.getHeight(), null);
+	}
+	public void draw(Image image, float x, float y, float width, float height, 
+			float originX, float originY, float rotation, Color4f color, 
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		if(!drawing) throw new RuntimeException("Sprite batch has not been started");
+		graphics.drawSprite(image, x, y, width, height, originX, originY, rotation, color, 
+				subImageX, subImageY, subImageWidth, subImageHeight, flip);
+	}
+}
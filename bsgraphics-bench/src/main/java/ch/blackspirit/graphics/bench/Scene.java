@@ -0,0 +1,30 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.GraphicsContext;
+import ch.blackspirit.graphics.GraphicsListener;
+import ch.blackspirit.graphics.View;
+
+/**
+ * Graphics listener of a benchmark scene, which only draws.
+ * @author Markus Koller
+ */
+abstract class Scene implements GraphicsListener {
+	public void init(View view, Graphics graphics) {}
+	public void sizeChanged(GraphicsContext graphicsContext, View view) {}
+}
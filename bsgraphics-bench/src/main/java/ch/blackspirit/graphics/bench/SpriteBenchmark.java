@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Color4f;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.SpriteBatch;
+import ch.blackspirit.graphics.View;
+
+/**
+ * Draws a flood of rotated and tinted sprites per frame, once through the sprite batch 
+ * and once as images positioned with the transformation stack.
+ * The images are cycled per sprite, so <code>images</code> greater than one breaks every batch.<br/>
+ * Run with <code>-prof gc</code> to see the allocation rate per frame.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpriteBenchmark {
+	@Param({"1000", "10000"})
+	public int sprites;
+	@Param({"1", "4"})
+	public int images;
+
+	private RecordingGraphicsContext spriteBatchContext;
+	private RecordingGraphicsContext drawImageContext;
+
+	@Setup
+	public void setup() {
+		final RecordingImage[] imageArray = new RecordingImage[images];
+		for(int i = 0; i < images; i++) {
+			imageArray[i] = new RecordingImage(64, 64);
+		}
+		Random random = new Random(0);
+		final float[] x = new float[sprites];
+		final float[] y = new float[sprites];
+		final float[] rotation = new float[sprites];
+		final Color4f[] tint = new Color4f[sprites];
+		for(int i = 0; i < sprites; i++) {
+			x[i] = random.nextFloat() * 1024;
+			y[i] = random.nextFloat() * 768;
+			rotation[i] = random.nextFloat() * 360;
+			tint[i] = new Color4f(random.nextFloat(), random.nextFloat(), random.nextFloat(), 1);
+		}
+
+		spriteBatchContext = new RecordingGraphicsContext(1024, 768);
+		spriteBatchContext.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				SpriteBatch batch = graphics.getSpriteBatch();
+				batch.begin();
+				for(int i = 0; i < x.length; i++) {
+					batch.draw(imageArray[i % imageArray.length], x[i], y[i], 32, 32, 16, 16, rotation[i], tint[i]);
+				}
+				batch.end();
+			}
+		});
+		drawImageContext = new RecordingGraphicsContext(1024, 768);
+		drawImageContext.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				for(int i = 0; i < x.length; i++) {
+					graphics.setColor(tint[i]);
+					graphics.pushTransform();
+					graphics.translate(x[i], y[i]);
+					graphics.rotate(rotation[i]);
+					graphics.translate(-16, -16);
+					graphics.drawImage(imageArray[i % imageArray.length], 32, 32);
+					graphics.popTransform();
+				}
+			}
+		});
+	}
+
+	@Benchmark
+	public long spriteBatch() {
+		spriteBatchContext.draw();
+		return spriteBatchContext.getGraphics().getBatches();
+	}
+	@Benchmark
+	public long drawImage() {
+		drawImageContext.draw();
+		return drawImageContext.getGraphics().getBatches();
+	}
+}
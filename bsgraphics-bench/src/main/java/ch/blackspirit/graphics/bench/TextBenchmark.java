@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.awt.geom.Rectangle2D;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.View;
+
+/**
+ * Draws a text overlay per frame: lines of text measured and right aligned, 
+ * each with an icon image in front, so text and images alternate like in a typical user interface.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+	@Param({"10", "100"})
+	public int lines;
+
+	private RecordingGraphicsContext context;
+
+	@Setup
+	public void setup() {
+		final RecordingImage icon = new RecordingImage(16, 16);
+		final String[] texts = new String[lines];
+		for(int i = 0; i < lines; i++) {
+			texts[i] = "Score " + (i * 1234) + " - Level " + i;
+		}
+		final Rectangle2D bounds = new Rectangle2D.Float();
+
+		context = new RecordingGraphicsContext(1024, 768);
+		context.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				for(int i = 0; i < texts.length; i++) {
+					graphics.getTextBounds(texts[i], bounds);
+					graphics.pushTransform();
+					graphics.translate(1000 - (float)bounds.getWidth(), 20 + i * 24);
+					graphics.pushTransform();
+					graphics.translate(-20, -16);
+					graphics.drawImage(icon, 16, 16);
+					graphics.popTransform();
+					graphics.drawText(texts[i]);
+					graphics.popTransform();
+				}
+			}
+		});
+	}
+
+	@Benchmark
+	public long drawText() {
+		context.draw();
+		return context.getGraphics().getBatches();
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Matrix3f;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.View;
+
+/**
+ * Draws a transformation heavy scene per frame: a tree of nested, rotated and scaled nodes 
+ * with a small shape at each node, once built with translate, rotate and scale and once 
+ * with precomputed matrices applied through applyTransform.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformBenchmark {
+	/** Number of child nodes of each node */
+	private static final int CHILDREN = 4;
+
+	@Param({"4", "6"})
+	public int depth;
+
+	private RecordingGraphicsContext stackContext;
+	private RecordingGraphicsContext matrixContext;
+
+	@Setup
+	public void setup() {
+		final Matrix3f[] childTransforms = new Matrix3f[CHILDREN];
+		for(int i = 0; i < CHILDREN; i++) {
+			double angle = Math.toRadians(360f / CHILDREN * i + 10);
+			float cos = (float)Math.cos(angle);
+			float sin = (float)Math.sin(angle);
+			// rotate, translate(100, 0), scale(.5f, .5f)
+			childTransforms[i] = new Matrix3f(cos * .5f, -sin * .5f, cos * 100, sin * .5f, cos * .5f, sin * 100, 0, 0, 1);
+		}
+
+		stackContext = new RecordingGraphicsContext(1024, 768);
+		stackContext.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				graphics.translate(512, 384);
+				drawNode(graphics, depth);
+			}
+			private void drawNode(Graphics graphics, int level) {
+				graphics.fillTriangle(-5, -5, 5, -5, 0, 5);
+				if(level == 0) return;
+				for(int i = 0; i < CHILDREN; i++) {
+					graphics.pushTransform();
+					graphics.rotate(360f / CHILDREN * i + 10);
+					graphics.translate(100, 0);
+					graphics.scale(.5f, .5f);
+					drawNode(graphics, level - 1);
+					graphics.popTransform();
+				}
+			}
+		});
+		matrixContext = new RecordingGraphicsContext(1024, 768);
+		matrixContext.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				graphics.translate(512, 384);
+				drawNode(graphics, depth);
+			}
+			private void drawNode(Graphics graphics, int level) {
+				graphics.fillTriangle(-5, -5, 5, -5, 0, 5);
+				if(level == 0) return;
+				for(int i = 0; i < CHILDREN; i++) {
+					graphics.pushTransform();
+					graphics.applyTransform(childTransforms[i]);
+					drawNode(graphics, level - 1);
+					graphics.popTransform();
+				}
+			}
+		});
+	}
+
+	@Benchmark
+	public long transformStack() {
+		stackContext.draw();
+		return stackContext.getGraphics().getSubmittedVertices();
+	}
+	@Benchmark
+	public long applyTransform() {
+		matrixContext.draw();
+		return matrixContext.getGraphics().getSubmittedVertices();
+	}
+}
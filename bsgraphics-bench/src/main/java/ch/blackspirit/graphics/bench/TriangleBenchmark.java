@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.View;
+import ch.blackspirit.graphics.shape.Triangle;
+
+/**
+ * Draws batches of textured and colored triangles per frame, as one triangle array per image
+ * and as single triangles alternating between the images.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriangleBenchmark {
+	@Param({"1000", "10000"})
+	public int triangles;
+	@Param({"1", "4"})
+	public int images;
+
+	private RecordingGraphicsContext arrayContext;
+	private RecordingGraphicsContext singleContext;
+
+	@Setup
+	public void setup() {
+		final RecordingImage[] imageArray = new RecordingImage[images];
+		for(int i = 0; i < images; i++) {
+			imageArray[i] = new RecordingImage(256, 256);
+		}
+		Random random = new Random(0);
+		final Triangle[] triangleArray = new Triangle[triangles];
+		for(int i = 0; i < triangles; i++) {
+			float x = random.nextFloat() * 1024;
+			float y = random.nextFloat() * 768;
+			Triangle t = new Triangle(new Vector2f(x, y), new Vector2f(x + 20, y), new Vector2f(x + 10, y + 20));
+			t.setTextureCoordinate(0, new Vector2f(0, 0));
+			t.setTextureCoordinate(1, new Vector2f(256, 0));
+			t.setTextureCoordinate(2, new Vector2f(128, 256));
+			for(int j = 0; j < 3; j++) {
+				t.setColor(j, new Color4f(random.nextFloat(), random.nextFloat(), random.nextFloat(), 1));
+			}
+			triangleArray[i] = t;
+		}
+		// one array per image
+		final Triangle[][] perImage = new Triangle[images][];
+		for(int i = 0; i < images; i++) {
+			int from = triangles * i / images;
+			int to = triangles * (i + 1) / images;
+			perImage[i] = new Triangle[to - from];
+			System.arraycopy(triangleArray, from, perImage[i], 0, to - from);
+		}
+
+		arrayContext = new RecordingGraphicsContext(1024, 768);
+		arrayContext.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				for(int i = 0; i < perImage.length; i++) {
+					graphics.fillTriangles(perImage[i], true, imageArray[i]);
+				}
+			}
+		});
+		singleContext = new RecordingGraphicsContext(1024, 768);
+		singleContext.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				for(int i = 0; i < triangleArray.length; i++) {
+					graphics.fillTriangle(triangleArray[i], true, imageArray[i % imageArray.length]);
+				}
+			}
+		});
+	}
+
+	@Benchmark
+	public long fillTriangles() {
+		arrayContext.draw();
+		return arrayContext.getGraphics().getSubmittedVertices();
+	}
+	@Benchmark
+	public long fillTriangle() {
+		singleContext.draw();
+		return singleContext.getGraphics().getSubmittedVertices();
+	}
+}
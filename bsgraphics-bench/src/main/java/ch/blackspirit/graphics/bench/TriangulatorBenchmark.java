@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Vector2f;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.util.ShapeOutlineFactory;
+import ch.blackspirit.graphics.util.Triangulator;
+
+/**
+ * Triangulates a circular outline with a growing number of points, 
+ * optionally with circular cut-outs placed in a ring inside of it.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriangulatorBenchmark {
+	private static final float RADIUS = 1000;
+	private static final int CUT_OUTS = 4;
+
+	@State(Scope.Thread)
+	public static class Outline {
+		@Param({"10", "100", "1000", "10000"})
+		public int points;
+		private List<Vector2f> outline;
+
+		@Setup
+		public void setup() {
+			outline = ShapeOutlineFactory.createCircle(RADIUS, points);
+		}
+	}
+
+	/**
+	 * Cut-outs are a lot more expensive to triangulate, with 10000 points a single 
+	 * triangulation does not finish within minutes, so the points are capped at 1000.
+	 */
+	@State(Scope.Thread)
+	public static class OutlineWithCutOuts {
+		@Param({"10", "100", "1000"})
+		public int points;
+		private List<Vector2f> outline;
+		private List<List<Vector2f>> cutOutOutlines;
+
+		@Setup
+		public void setup() {
+			outline = ShapeOutlineFactory.createCircle(RADIUS, points);
+			cutOutOutlines = new ArrayList<List<Vector2f>>(CUT_OUTS);
+			// cut-outs share the points of the outline so the total stays comparable
+			int cutOutPoints = Math.max(3, points / 4 / CUT_OUTS);
+			for(int i = 0; i < CUT_OUTS; i++) {
+				double angle = 2 * Math.PI * i / CUT_OUTS;
+				float x = (float)Math.cos(angle) * RADIUS / 2;
+				float y = (float)Math.sin(angle) * RADIUS / 2;
+				List<Vector2f> cutOut = ShapeOutlineFactory.createCircle(RADIUS / 8, cutOutPoints);
+				for(Vector2f point: cutOut) {
+					point.x += x;
+					point.y += y;
+				}
+				cutOutOutlines.add(cutOut);
+			}
+		}
+	}
+
+	private final Triangulator triangulator = new Triangulator();
+	private final List<List<Vector2f>> noCutOuts = new ArrayList<List<Vector2f>>(0);
+
+	@Benchmark
+	public int triangulate(Outline outline) {
+		return triangulator.triangulate(outline.outline, noCutOuts).size();
+	}
+
+	@Benchmark
+	public int triangulateCutOuts(OutlineWithCutOuts outline) {
+		return triangulator.triangulate(outline.outline, outline.cutOutOutlines).size();
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.View;
+import ch.blackspirit.graphics.particle.DefaultParticlePool;
+import ch.blackspirit.graphics.particle.Emitter;
+import ch.blackspirit.graphics.particle.Particle;
+import ch.blackspirit.graphics.particle.ParticlePool;
+import ch.blackspirit.graphics.particle.ParticleProducer;
+import ch.blackspirit.graphics.particle.ParticleSystem;
+import ch.blackspirit.graphics.particle.PhysicsUpdater;
+
+/**
+ * Updates and draws the particle system of the demo with a fixed number of particles. 
+ * The particles are emitted once during setup and never run out of energy.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParticleBenchmark {
+	private static final long FRAME_TIME = 16;
+
+	@Param({"1000", "10000", "100000"})
+	public int particles;
+
+	private ParticleSystem<Particle> system;
+	private RecordingGraphicsContext context;
+
+	@Setup
+	public void setup() {
+		system = new ParticleSystem<Particle>(new DefaultParticlePool<Particle>(Particle.class), particles);
+		system.setImage(new RecordingImage(16, 16));
+		system.addEmitter(new Emitter<Particle>(new BurstProducer(particles, new Random(0))));
+		system.addUpdater(new PhysicsUpdater<Particle>());
+		system.start();
+		system.update(0);
+
+		context = new RecordingGraphicsContext(1024, 768);
+		context.setGraphicsListener(new Scene() {
+			public void draw(View view, Graphics graphics) {
+				system.draw(graphics);
+			}
+		});
+	}
+
+	@Benchmark
+	public long update() {
+		system.update(FRAME_TIME);
+		return system.getParticleCount();
+	}
+
+	@Benchmark
+	public long draw() {
+		context.draw();
+		return context.getGraphics().getSubmittedVertices();
+	}
+
+	/**
+	 * Produces all particles at once on the first emit, with random movement.
+	 */
+	private static final class BurstProducer implements ParticleProducer<Particle> {
+		private final int count;
+		private final Random random;
+		private ParticlePool<Particle> particlePool;
+		private boolean produced = false;
+
+		public BurstProducer(int count, Random random) {
+			this.count = count;
+			this.random = random;
+		}
+
+		public List<Particle> getParticles(long elapsedTime) {
+			if(produced) return Collections.emptyList();
+			produced = true;
+			List<Particle> list = new ArrayList<Particle>(count);
+			for(int i = 0; i < count; i++) {
+				Particle particle = particlePool.getParticle();
+				particle.setEnergy(Long.MAX_VALUE);
+				particle.setCreationTime(random.nextInt(10000));
+				particle.getPosition().set(random.nextFloat() * 1024, random.nextFloat() * 768);
+				particle.getVelocity().set(random.nextFloat() * 20 - 10, random.nextFloat() * 20 - 10);
+				particle.getForce().set(0, 9.81f);
+				particle.getSize().set(8, 8);
+				particle.getColor().set(1, random.nextFloat(), 0, .5f);
+				list.add(particle);
+			}
+			return list;
+		}
+		public void setParticlePool(ParticlePool<Particle> particlePool) {
+			this.particlePool = particlePool;
+		}
+	}
+}
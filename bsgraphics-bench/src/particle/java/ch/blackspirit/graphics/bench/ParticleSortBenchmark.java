@@ -0,0 +1,83 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.bench;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.blackspirit.graphics.particle.Particle;
+import ch.blackspirit.graphics.particle.ParticleSystem;
+import ch.blackspirit.graphics.particle.Sorter;
+
+/**
+ * Sorts particles by creation time for drawing, with the sorter of the demo and with {@link Arrays#sort(Object[], Comparator)}. 
+ * The sorter holds at most 10000 elements, so larger counts are not measured.
+ * @author Markus Koller
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParticleSortBenchmark {
+	@Param({"1000", "10000"})
+	public int particles;
+
+	private final Sorter<Particle> sorter = new Sorter<Particle>();
+	private final Comparator<Particle> comparator = new ParticleSystem.CreationTimeComparator<Particle>();
+	private Particle[] unsorted;
+	private Particle[] sorted;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		unsorted = new Particle[particles];
+		sorted = new Particle[particles];
+		for(int i = 0; i < particles; i++) {
+			unsorted[i] = new Particle();
+			unsorted[i].setCreationTime(random.nextInt(100000));
+		}
+	}
+
+	@Benchmark
+	public Particle sorter() {
+		System.arraycopy(unsorted, 0, sorted, 0, particles);
+		sorter.sort(sorted, comparator, 0, particles);
+		return sorted[0];
+	}
+
+	@Benchmark
+	public Particle arraysSort() {
+		System.arraycopy(unsorted, 0, sorted, 0, particles);
+		Arrays.sort(sorted, comparator);
+		return sorted[0];
+	}
+}
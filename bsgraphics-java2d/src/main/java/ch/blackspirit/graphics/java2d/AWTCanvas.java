@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+/**
+ * AWT canvas drawing into a BufferedImage on the event dispatch thread and painting it 
+ * onto a heavyweight or lightweight component.
+ * @author Markus Koller
+ */
+final class AWTCanvas extends AbstractCanvas implements ch.blackspirit.graphics.AWTCanvas {
+	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
+
+	private final boolean lightweight;
+	private final Component component;
+	private BufferedImage image;
+
+	private final Runnable updateRunnable = new Runnable() {
+		public void run() {
+			int width = component.getWidth();
+			int height = component.getHeight();
+			if(width <= 0 || height <= 0) return;
+			if(image == null || image.getWidth() != width || image.getHeight() != height) {
+				image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			}
+			try {
+				render(image.createGraphics(), image, width, height);
+			} catch(RuntimeException e) {
+				LOGGER.log(Level.SEVERE, "Error drawing", e);
+				return;
+			}
+			Graphics g = component.getGraphics();
+			if(g != null) {
+				try {
+					paintImage(g);
+				} finally {
+					g.dispose();
+				}
+			}
+		}
+	};
+
+	public AWTCanvas(boolean lightweight, CanvasProperties properties) {
+		super(properties);
+		this.lightweight = lightweight;
+		if(lightweight) {
+			component = new JPanel() {
+				private static final long serialVersionUID = 1L;
+				protected void paintComponent(Graphics g) {
+					paintImage(g);
+				}
+			};
+		} else {
+			component = new java.awt.Canvas() {
+				private static final long serialVersionUID = 1L;
+				public void paint(Graphics g) {
+					paintImage(g);
+				}
+				public void update(Graphics g) {
+					// the image covers the whole canvas, no need to clear it
+					paint(g);
+				}
+			};
+		}
+	}
+
+	private void paintImage(Graphics g) {
+		if(image != null) g.drawImage(image, 0, 0, null);
+	}
+
+	public void draw() {
+		SwingUtilities.invokeLater(updateRunnable);
+	}
+
+	public Component getComponent() {
+		return component;
+	}
+	public boolean isLightweight() {
+		return lightweight;
+	}
+
+	public int getWidth() {
+		return component.getWidth();
+	}
+	public int getHeight() {
+		return component.getHeight();
+	}
+
+	public void dispose() {
+		image = null;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.awt.Graphics2D;
+
+import ch.blackspirit.graphics.Canvas;
+import ch.blackspirit.graphics.GraphicsListener;
+import ch.blackspirit.graphics.Image;
+
+/**
+ * Canvas drawing into an image with Java2D. Subclasses decide on the image drawn to 
+ * and on how it gets presented.
+ * @author Markus Koller
+ */
+abstract class AbstractCanvas extends AbstractGraphicsContext implements Canvas, ViewListener {
+	protected final CanvasProperties properties;
+	protected final View view = new View();
+	private final ResourceManager resourceManager = new ResourceManager();
+	private final ImageFactory imageFactory = new ImageFactory(resourceManager);
+	private final Java2DGraphics graphics = new Java2DGraphics(resourceManager);
+	private GraphicsListener graphicsListener;
+	private boolean initiated = false;
+
+	private int width = 0;
+	private int height = 0;
+
+	public AbstractCanvas(CanvasProperties properties) {
+		this.properties = properties;
+		view.setCamera(0, 0, 0);
+		view.addViewListener(this);
+	}
+
+	/**
+	 * Draws a frame with the given graphics, calling the graphics listener. The graphics is disposed afterwards.
+	 * @param image The image drawn to.
+	 */
+	protected void render(Graphics2D target, java.awt.Image image, int width, int height) {
+		startDrawing();
+		try {
+			boolean sizeChanged = width != this.width || height != this.height;
+			this.width = width;
+			this.height = height;
+			graphics.setTarget(target, image, width, height);
+			applyView();
+			if(graphicsListener != null) {
+				if(!initiated) {
+					graphicsListener.init(view, graphics);
+					initiated = true;
+					sizeChanged = true;
+				}
+				if(sizeChanged) graphicsListener.sizeChanged(this, view);
+				graphicsListener.draw(view, graphics);
+			}
+		} finally {
+			graphics.endFrame();
+			endDrawing();
+			fireFrameFinished(this);
+		}
+	}
+
+	private void applyView() {
+		if(width == 0 || height == 0) return;
+		// views without a size show the pixels of the image
+		float viewWidth = view.getWidth() > 0 ? view.getWidth() : width;
+		float viewHeight = view.getHeight() > 0 ? view.getHeight() : height;
+		graphics.setView(width / viewWidth, height / viewHeight, viewWidth / 2, viewHeight / 2, 
+				-view.getCameraX(), -view.getCameraY(), view.getCameraAngle());
+	}
+	public void viewSizeChanged() {
+		applyView();
+	}
+	public void cameraChanged() {
+		applyView();
+	}
+
+	public GraphicsListener getGraphicsListener() {
+		return graphicsListener;
+	}
+	public void setGraphicsListener(GraphicsListener listener) {
+		this.graphicsListener = listener;
+		initiated = false;
+	}
+
+	public ch.blackspirit.graphics.ImageFactory getImageFactory() {
+		return imageFactory;
+	}
+	public ch.blackspirit.graphics.ResourceManager getResourceManager() {
+		return resourceManager;
+	}
+	public ch.blackspirit.graphics.ImageGraphicsContext createImageGraphicsContext(Image image) {
+		if (!(image instanceof ch.blackspirit.graphics.java2d.Image)) throw new RuntimeException("Image has not been created by the Java2D Blackspirit Graphics implementation!");
+		ch.blackspirit.graphics.java2d.Image java2dImage = (ch.blackspirit.graphics.java2d.Image)image;
+		return new ImageGraphicsContext(java2dImage, resourceManager);
+	}
+
+	public boolean getVSync() {
+		return false;
+	}
+	public boolean setVSync(boolean enabled) {
+		// there is no synchronization with the display refresh
+		return !enabled;
+	}
+
+	/**
+	 * @return Whether the canvas draws into a VolatileImage.
+	 */
+	protected boolean isVolatileImage() {
+		return false;
+	}
+
+	public boolean getPropertyBoolean(String property) {
+		if(Properties.IS_DRAWING_MODE_SUBTRACT_SUPPORTED.equals(property)) {
+			return true;
+		} else if(Properties.IS_VOLATILE_IMAGE.equals(property)) {
+			return isVolatileImage();
+		}
+		throw new IllegalArgumentException("No such property: " + property);
+	}
+	public float getPropertyFloat(String property) {
+		throw new IllegalArgumentException("No such property: " + property);
+	}
+	public long getPropertyLong(String property) {
+		if(Properties.MAX_IMAGE_DRAWING_WIDTH.equals(property)) {
+			return imageFactory.getMaxImageWidth();
+		} else if(Properties.MAX_IMAGE_DRAWING_HEIGHT.equals(property)) {
+			return imageFactory.getMaxImageHeight();
+		}
+		throw new IllegalArgumentException("No such property: " + property);
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2008-2009 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import ch.blackspirit.graphics.Canvas;
+import ch.blackspirit.graphics.FrameListener;
+import ch.blackspirit.graphics.GraphicsContext;
+
+/**
+ * @author Markus Koller
+ */
+abstract class AbstractGraphicsContext implements GraphicsContext {
+	private static boolean drawing = false;
+	private static AbstractGraphicsContext drawingGraphicsContext = null;
+	private final CopyOnWriteArrayList<FrameListener> frameListeners = new CopyOnWriteArrayList<FrameListener>();
+	
+	protected void startDrawing() {
+		if(drawing) throw new RuntimeException("Drawing on more than one graphics contexts at once is not allowed.");
+		drawingGraphicsContext = this;
+		drawing = true;
+	}
+	
+	public static AbstractGraphicsContext getDrawingGraphicsContext() {
+		return drawingGraphicsContext;
+	}
+	protected void endDrawing() {
+		drawingGraphicsContext = null;
+		drawing = false;
+	}
+	public static boolean isDrawing() {
+		return drawing;
+	}
+
+	public void addFrameListener(FrameListener listener) {
+		if(listener == null) throw new IllegalArgumentException("listener must not be null");
+		frameListeners.add(listener);
+	}
+	public void removeFrameListener(FrameListener listener) {
+		frameListeners.remove(listener);
+	}
+	protected void fireFrameFinished(Canvas canvas) {
+		for(FrameListener listener: frameListeners) {
+			listener.frameFinished(canvas);
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.awt.Composite;
+import java.awt.CompositeContext;
+import java.awt.RenderingHints;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+import ch.blackspirit.graphics.DrawingMode;
+
+/**
+ * Composite for the drawing modes and color masks {@link java.awt.AlphaComposite} cannot express.
+ * Pixels are combined like the OpenGL blending functions used by the JOGL implementation.<br/>
+ * Rows of int packed ARGB or RGB rasters are processed in bulk, other rasters pixel by pixel 
+ * through their color model.
+ * @author Markus Koller
+ */
+final class BlendComposite implements Composite {
+	private final DrawingMode drawingMode;
+	private final int writeMask;
+	// additional source alpha in 1/256
+	private final int alpha;
+
+	/**
+	 * @param extraAlpha Additional source alpha from 0 to 1.
+	 */
+	public BlendComposite(DrawingMode drawingMode, boolean red, boolean green, boolean blue, boolean alpha, float extraAlpha) {
+		this.drawingMode = drawingMode;
+		this.writeMask = (alpha ? 0xFF000000 : 0) | (red ? 0xFF0000 : 0) | (green ? 0xFF00 : 0) | (blue ? 0xFF : 0);
+		this.alpha = Math.max(0, Math.min(256, (int)(extraAlpha * 256 + .5f)));
+	}
+
+	public CompositeContext createContext(ColorModel srcColorModel, ColorModel dstColorModel, RenderingHints hints) {
+		return new Context(srcColorModel, dstColorModel);
+	}
+
+	private final class Context implements CompositeContext {
+		private final ColorModel srcColorModel;
+		private final ColorModel dstColorModel;
+		private final boolean srcPacked;
+		private final boolean dstPacked;
+		private int[] srcRow = new int[0];
+		private int[] dstRow = new int[0];
+
+		public Context(ColorModel srcColorModel, ColorModel dstColorModel) {
+			this.srcColorModel = srcColorModel;
+			this.dstColorModel = dstColorModel;
+			this.srcPacked = isPacked(srcColorModel);
+			this.dstPacked = isPacked(dstColorModel);
+		}
+
+		public void compose(Raster src, Raster dstIn, WritableRaster dstOut) {
+			int width = Math.min(src.getWidth(), dstIn.getWidth());
+			int height = Math.min(src.getHeight(), dstIn.getHeight());
+			if(srcRow.length < width) {
+				srcRow = new int[width];
+				dstRow = new int[width];
+			}
+			for(int y = 0; y < height; y++) {
+				read(src, srcColorModel, srcPacked, y, width, srcRow);
+				read(dstIn, dstColorModel, dstPacked, y, width, dstRow);
+				for(int x = 0; x < width; x++) {
+					int destination = dstRow[x];
+					dstRow[x] = (blend(srcRow[x], destination) & writeMask) | (destination & ~writeMask);
+				}
+				write(dstOut, dstColorModel, dstPacked, y, width, dstRow);
+			}
+		}
+
+		public void dispose() {}
+	}
+
+	/**
+	 * @return Whether the color model stores non premultiplied 0xAARRGGBB or 0x00RRGGBB ints.
+	 */
+	private static boolean isPacked(ColorModel colorModel) {
+		if(!(colorModel instanceof DirectColorModel)) return false;
+		DirectColorModel model = (DirectColorModel)colorModel;
+		return model.getTransferType() == DataBuffer.TYPE_INT && !model.isAlphaPremultiplied() &&
+			model.getRedMask() == 0xFF0000 && model.getGreenMask() == 0xFF00 && model.getBlueMask() == 0xFF && 
+			(model.getAlphaMask() == 0xFF000000 || model.getAlphaMask() == 0);
+	}
+	private static void read(Raster raster, ColorModel colorModel, boolean packed, int y, int width, int[] row) {
+		int minX = raster.getMinX();
+		int rowY = raster.getMinY() + y;
+		if(packed) {
+			raster.getDataElements(minX, rowY, width, 1, row);
+			if(!colorModel.hasAlpha()) {
+				for(int x = 0; x < width; x++) {
+					row[x] |= 0xFF000000;
+				}
+			}
+		} else {
+			Object data = null;
+			for(int x = 0; x < width; x++) {
+				data = raster.getDataElements(minX + x, rowY, data);
+				row[x] = colorModel.getRGB(data);
+			}
+		}
+	}
+	private static void write(WritableRaster raster, ColorModel colorModel, boolean packed, int y, int width, int[] row) {
+		int minX = raster.getMinX();
+		int rowY = raster.getMinY() + y;
+		if(packed) {
+			raster.setDataElements(minX, rowY, width, 1, row);
+		} else {
+			Object data = null;
+			for(int x = 0; x < width; x++) {
+				data = colorModel.getDataElements(row[x], data);
+				raster.setDataElements(minX + x, rowY, data);
+			}
+		}
+	}
+
+	private int blend(int source, int destination) {
+		int sa = ((source >>> 24) * alpha) >> 8;
+		int sr = (source >> 16) & 0xFF;
+		int sg = (source >> 8) & 0xFF;
+		int sb = source & 0xFF;
+		int da = destination >>> 24;
+		int dr = (destination >> 16) & 0xFF;
+		int dg = (destination >> 8) & 0xFF;
+		int db = destination & 0xFF;
+		int a, r, g, b;
+		switch(drawingMode) {
+		case ALPHA_BLEND: {
+			// SRC_ALPHA, ONE_MINUS_SRC_ALPHA
+			int ia = 255 - sa;
+			a = div255(sa * sa + da * ia);
+			r = div255(sr * sa + dr * ia);
+			g = div255(sg * sa + dg * ia);
+			b = div255(sb * sa + db * ia);
+			break;
+		}
+		case ADD:
+			// ONE, ONE
+			a = Math.min(255, sa + da);
+			r = Math.min(255, sr + dr);
+			g = Math.min(255, sg + dg);
+			b = Math.min(255, sb + db);
+			break;
+		case ALPHA_ADD:
+			// SRC_ALPHA, ONE
+			a = Math.min(255, div255(sa * sa) + da);
+			r = Math.min(255, div255(sr * sa) + dr);
+			g = Math.min(255, div255(sg * sa) + dg);
+			b = Math.min(255, div255(sb * sa) + db);
+			break;
+		case SUBTRACT:
+			// reverse subtract with ONE, ONE
+			a = Math.max(0, da - sa);
+			r = Math.max(0, dr - sr);
+			g = Math.max(0, dg - sg);
+			b = Math.max(0, db - sb);
+			break;
+		case MULTIPLY:
+			// DST_COLOR, ZERO
+			a = div255(sa * da);
+			r = div255(sr * dr);
+			g = div255(sg * dg);
+			b = div255(sb * db);
+			break;
+		default:
+			a = sa;
+			r = sr;
+			g = sg;
+			b = sb;
+		}
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+	/**
+	 * Rounded division by 255 for values from 0 to 255 * 255.
+	 */
+	private static int div255(int value) {
+		value += 128;
+		return (value + (value >> 8)) >> 8;
+	}
+}
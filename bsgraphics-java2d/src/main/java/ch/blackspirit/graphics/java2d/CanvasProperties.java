@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Properties to be used on creation of a canvas throught the {@link CanvasFactory}.
+ * @author Markus Koller
+ */
+public final class CanvasProperties {
+	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
+
+	private java.util.Properties properties = new java.util.Properties();
+
+	private boolean volatileImage = true;
+
+	public CanvasProperties() {}
+
+	private boolean getProperty(String property, boolean defaultValue) {
+		return Boolean.valueOf(properties.getProperty(property, String.valueOf(defaultValue))).booleanValue();
+	}
+
+	public boolean isVolatileImage() {
+		return volatileImage;
+	}
+	/**
+	 * @param volatileImage Whether realtime canvases render into a {@link java.awt.image.VolatileImage}, 
+	 * 	which may be kept in video memory, instead of a BufferedImage.
+	 */
+	public void setVolatileImage(boolean volatileImage) {
+		this.volatileImage = volatileImage;
+	}
+
+	public void load(URL url) {
+		try {
+			properties.load(url.openStream());
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Error reading existing bsgraphics.properties", e);
+		}
+		volatileImage = getProperty(Properties.IS_VOLATILE_IMAGE, volatileImage);
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.io.IOException;
+
+import ch.blackspirit.graphics.GraphicsListener;
+
+/**
+ * Draws directly into the BufferedImage of the image texture.
+ * @author Markus Koller
+ */
+final class ImageGraphicsContext extends AbstractGraphicsContext implements ch.blackspirit.graphics.ImageGraphicsContext, ViewListener {
+	private Image image;
+	private ResourceManager resourceManager;
+	private GraphicsListener graphicsListener;
+	private Java2DGraphics graphics;
+	private View view = new View();
+	private boolean disposed = false;
+	private boolean initiated = false;
+
+	public ImageGraphicsContext(Image image, ResourceManager resourceManager) {
+		super();
+		this.image = image;
+		this.resourceManager = resourceManager;
+		this.graphics = new Java2DGraphics(resourceManager);
+		view.setSize(image.getWidth(), image.getHeight());
+		view.setCamera(0, 0, 0);
+		view.addViewListener(this);
+	}
+
+	public void dispose() {
+		this.disposed = true;
+		this.resourceManager = null;
+		this.graphicsListener = null;
+		this.graphics = null;
+		this.image = null;
+		this.view = null;
+	}
+
+	public void draw() {
+		if(disposed) throw new RuntimeException("Draw must not be called after disposal.");
+		startDrawing();
+		try {
+			if(image.texture == null) {
+				try {
+					resourceManager.cacheImage(image);
+				} catch (IOException e) {
+					throw new RuntimeException("Error caching image: " + image, e);
+				}
+			}
+			graphics.setTarget(image.texture.createGraphics(), image.texture, image.getWidth(), image.getHeight());
+			applyView();
+			if(graphicsListener != null) {
+				if(!initiated) {
+					graphicsListener.init(view, graphics);
+					initiated = true;
+				}
+				graphicsListener.draw(view, graphics);
+			}
+		} finally {
+			graphics.endFrame();
+			image.textureChanged();
+			endDrawing();
+		}
+	}
+
+	private void applyView() {
+		// origin in the top left corner of the image
+		float width = view.getWidth();
+		float height = view.getHeight();
+		graphics.setView(image.getWidth() / width, image.getHeight() / height, 0, height, 
+				-view.getCameraX(), -view.getCameraY() - height, view.getCameraAngle());
+	}
+	public void viewSizeChanged() {
+		applyView();
+	}
+	public void cameraChanged() {
+		applyView();
+	}
+
+	public GraphicsListener getGraphicsListener() {
+		return this.graphicsListener;
+	}
+	public void setGraphicsListener(GraphicsListener listener) {
+		this.graphicsListener = listener;
+		initiated = false;
+	}
+
+	public int getWidth() {
+		return image.getWidth();
+	}
+	public int getHeight() {
+		return image.getHeight();
+	}
+}
@@ -0,0 +1,687 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Matrix3f;
+import javax.vecmath.Vector2f;
+
+import ch.blackspirit.graphics.DrawingMode;
+import ch.blackspirit.graphics.Flip;
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.Line;
+import ch.blackspirit.graphics.Triangle;
+
+/**
+ * Graphics drawing immediately with a {@link Graphics2D}. Vertices are transformed into pixel coordinates,
+ * images are drawn with the affine transformation mapping them onto the target.<br/>
+ * Java2D has no per vertex colors: lines with different colors use a gradient,
+ * triangles are filled with the average color of their vertices.
+ * @author Markus Koller
+ */
+final class Java2DGraphics implements Graphics {
+	private static final float DEG_TO_RAD_FACTOR = (2 * (float)Math.PI) / 360f;
+	private static final AffineTransform IDENTITY = new AffineTransform();
+
+	private final ResourceManager resourceManager;
+	private final SpriteBatch spriteBatch = new SpriteBatch(this);
+	private final FontRenderContext fontRenderContext = new FontRenderContext(null, true, true);
+
+	private Graphics2D target;
+	private java.awt.Image targetImage;
+	private int targetWidth;
+	private int targetHeight;
+
+	private final Color4f clearColor = new Color4f(0f, 0f, 0f, 0f);
+	private final Color4f baseColor = new Color4f(1f, 1f, 1f, 1f);
+	private final Color4f color = new Color4f(1f, 1f, 1f, 1f);
+	private Font font = new Font("SansSerif", Font.PLAIN, 24);
+
+	private DrawingMode drawingMode = DrawingMode.ALPHA_BLEND;
+	private boolean redMask = true;
+	private boolean greenMask = true;
+	private boolean blueMask = true;
+	private boolean alphaMask = true;
+	private boolean lineAntialiasing = true;
+	// composite for the drawing mode and color mask without additional alpha
+	private Composite composite = AlphaComposite.SrcOver;
+	private boolean antialiasing = false;
+
+	private final Transform2D modelTransform = new Transform2D();
+	// maps view coordinates to pixels
+	private final Transform2D viewTransform = new Transform2D();
+	// the view transformation without camera rotation, used for text
+	private final Transform2D textViewTransform = new Transform2D();
+	private final Transform2D vertexTransform = new Transform2D();
+	private final Transform2D textTransform = new Transform2D();
+	private boolean vertexTransformValid = false;
+
+	private final AffineTransform imageTransform = new AffineTransform();
+	private final Path2D.Float path = new Path2D.Float();
+	private final Line2D.Float line = new Line2D.Float();
+	private final float[] vx = new float[3];
+	private final float[] vy = new float[3];
+
+	public Java2DGraphics(ResourceManager resourceManager) {
+		this.resourceManager = resourceManager;
+	}
+
+	/**
+	 * Sets the graphics to draw with until the end of the frame.
+	 * @param image The image drawn to, used to copy its content.
+	 */
+	public void setTarget(Graphics2D target, java.awt.Image image, int width, int height) {
+		this.target = target;
+		this.targetImage = image;
+		this.targetWidth = width;
+		this.targetHeight = height;
+		target.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		target.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		target.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+		target.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+		antialiasing = false;
+	}
+	/**
+	 * Sets the view transformation: pixel = scale * (origin + rotation(angle) * (point + translation)).
+	 * @param angle Camera angle in degrees.
+	 */
+	public void setView(float scaleX, float scaleY, float originX, float originY, float translationX, float translationY, float angle) {
+		viewTransform.setIdentity();
+		viewTransform.scale(scaleX, scaleY);
+		viewTransform.translate(originX, originY);
+		textViewTransform.set(viewTransform);
+		viewTransform.rotate(angle * DEG_TO_RAD_FACTOR);
+		viewTransform.translate(translationX, translationY);
+		textViewTransform.translate(translationX, translationY);
+		vertexTransformValid = false;
+	}
+	public void endFrame() {
+		if(spriteBatch.isDrawing()) spriteBatch.end();
+		if(target != null) target.dispose();
+		target = null;
+		targetImage = null;
+	}
+
+	// ==================== Clearing ====================
+	public void clear() {
+		// clearing does not blend
+		if(redMask && greenMask && blueMask && alphaMask) {
+			target.setComposite(AlphaComposite.Src);
+		} else {
+			target.setComposite(new BlendComposite(DrawingMode.OVERWRITE, redMask, greenMask, blueMask, alphaMask, 1));
+		}
+		target.setColor(toColor(clearColor.x, clearColor.y, clearColor.z, clearColor.w));
+		target.fillRect(0, 0, targetWidth, targetHeight);
+	}
+	public void getClearColor(Color4f color) {
+		color.set(clearColor);
+	}
+	public void setClearColor(Color4f color) {
+		clearColor.set(color);
+	}
+
+	// ==================== Color ====================
+	public void setColor(Color4f color) {
+		this.color.set(color);
+	}
+	public void getColor(Color4f color) {
+		color.set(this.color);
+	}
+	public void setBaseColor(Color4f color) {
+		baseColor.set(color);
+	}
+	public void getBaseColor(Color4f color) {
+		color.set(baseColor);
+	}
+
+	// ==================== Images ====================
+	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height) {
+		drawImage(image, width, height, Flip.NONE);
+	}
+	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height, Flip flip) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		drawImage(image, width, height, 0, 0, image.getWidth(), image.getHeight(), flip);
+	}
+	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height, int subImageX, int subImageY, int subImageWidth, int subImageHeight) {
+		drawImage(image, width, height, subImageX, subImageY, subImageWidth, subImageHeight, Flip.NONE);
+	}
+	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height, int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		if(subImageWidth == 0 || subImageHeight == 0) return;
+		setTransform(imageTransform, getVertexTransform());
+		imageTransform.scale(width / subImageWidth, height / subImageHeight);
+		drawTexture(getJava2DImage(image), color, imageTransform, subImageX, subImageY, subImageWidth, subImageHeight, flip);
+	}
+
+	// ==================== Sprites ====================
+	public ch.blackspirit.graphics.SpriteBatch getSpriteBatch() {
+		return spriteBatch;
+	}
+	void drawSprite(ch.blackspirit.graphics.Image image, float x, float y, float width, float height,
+			float originX, float originY, float rotation, Color4f tint,
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		if(subImageWidth == 0 || subImageHeight == 0) return;
+		setTransform(imageTransform, getVertexTransform());
+		imageTransform.translate(x + originX, y + originY);
+		if(rotation != 0) imageTransform.rotate(rotation * DEG_TO_RAD_FACTOR);
+		imageTransform.translate(-originX, -originY);
+		imageTransform.scale(width / subImageWidth, height / subImageHeight);
+		drawTexture(getJava2DImage(image), tint != null ? tint : color, imageTransform,
+				subImageX, subImageY, subImageWidth, subImageHeight, flip);
+	}
+
+	// ==================== Points ====================
+	public void drawPoint(float x, float y) {
+		Transform2D m = getVertexTransform();
+		setAntialiasing(false);
+		target.setComposite(composite);
+		target.setColor(toColor(color));
+		target.fillRect((int)Math.floor(m.m00 * x + m.m01 * y + m.m02), (int)Math.floor(m.m10 * x + m.m11 * y + m.m12), 1, 1);
+	}
+
+	// ==================== Lines ====================
+	public void drawLine(float x1, float y1, float x2, float y2) {
+		Transform2D m = getVertexTransform();
+		line(m, x1, y1, color, x2, y2, color);
+	}
+	private Line[] lineArray = new Line[1];
+	public void drawLine(Line line, boolean useColors) {
+		if (line == null) throw new IllegalArgumentException("line must not be null");
+		lineArray[0] = line;
+		drawLines(lineArray, useColors);
+	}
+	public void drawLines(Line[] lines, boolean useColors) {
+		if (lines == null) throw new IllegalArgumentException("lines must not be null");
+		Transform2D m = getVertexTransform();
+		for(int i = 0; i < lines.length; i++) {
+			Line l = lines[i];
+			if(l == null) continue;
+			Color4f c1 = useColors ? l.getColor(0) : null;
+			Color4f c2 = useColors ? l.getColor(1) : null;
+			line(m, l.getPoint(0).x, l.getPoint(0).y, c1 != null ? c1 : color,
+					l.getPoint(1).x, l.getPoint(1).y, c2 != null ? c2 : color);
+		}
+	}
+
+	// ==================== Triangles ====================
+	public void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		Transform2D m = getVertexTransform();
+		vertex(m, 0, x1, y1);
+		vertex(m, 1, x2, y2);
+		vertex(m, 2, x3, y3);
+		fill(color.x, color.y, color.z, color.w);
+	}
+
+	private Triangle[] triangleArray = new Triangle[1];
+	public void drawTriangle(Triangle triangle, boolean useColors) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		drawTriangles(triangleArray, useColors);
+	}
+	public void drawTriangles(Triangle[] triangles, boolean useColors) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		Transform2D m = getVertexTransform();
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			for(int p = 0; p < 3; p++) {
+				int q = (p + 1) % 3;
+				Color4f c1 = useColors ? t.getColor(p) : null;
+				Color4f c2 = useColors ? t.getColor(q) : null;
+				line(m, t.getPoint(p).x, t.getPoint(p).y, c1 != null ? c1 : color,
+						t.getPoint(q).x, t.getPoint(q).y, c2 != null ? c2 : color);
+			}
+		}
+	}
+	public void fillTriangle(Triangle triangle, boolean useColors) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		fillTriangles(triangleArray, useColors);
+	}
+	public void fillTriangles(Triangle[] triangles, boolean useColors) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		Transform2D m = getVertexTransform();
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			float red = 0, green = 0, blue = 0, alpha = 0;
+			for(int p = 0; p < 3; p++) {
+				Vector2f point = t.getPoint(p);
+				Color4f c = useColors ? t.getColor(p) : null;
+				if(c == null) c = color;
+				vertex(m, p, point.x, point.y);
+				red += c.x;
+				green += c.y;
+				blue += c.z;
+				alpha += c.w;
+			}
+			fill(red / 3, green / 3, blue / 3, alpha / 3);
+		}
+	}
+	public void fillTriangle(Triangle triangle, boolean useColors, ch.blackspirit.graphics.Image image) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		fillTriangles(triangleArray, useColors, image);
+	}
+	public void fillTriangles(Triangle[] triangles, boolean useColors, ch.blackspirit.graphics.Image image) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		Image java2dImage = getJava2DImage(image);
+		Transform2D m = getVertexTransform();
+		float[] s = new float[3];
+		float[] t = new float[3];
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle triangle = triangles[i];
+			if(triangle == null) continue;
+			float red = 0, green = 0, blue = 0, alpha = 0;
+			for(int p = 0; p < 3; p++) {
+				Vector2f point = triangle.getPoint(p);
+				Vector2f textureCoordinate = triangle.getTextureCoordinate(p);
+				if (textureCoordinate == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+				Color4f c = useColors ? triangle.getColor(p) : null;
+				if(c == null) c = color;
+				vertex(m, p, point.x, point.y);
+				s[p] = textureCoordinate.x;
+				t[p] = textureCoordinate.y;
+				red += c.x;
+				green += c.y;
+				blue += c.z;
+				alpha += c.w;
+			}
+			fillTextured(java2dImage, red / 3, green / 3, blue / 3, alpha / 3, s, t);
+		}
+	}
+
+	// ==================== Static Meshes ====================
+	public void drawStaticMesh(ch.blackspirit.graphics.StaticMesh mesh) {
+		if (mesh == null) throw new IllegalArgumentException("mesh must not be null");
+		if (!(mesh instanceof StaticMesh)) throw new RuntimeException("Static mesh has not been created by the Java2D Blackspirit Graphics implementation!");
+		StaticMesh java2dMesh = (StaticMesh)mesh;
+		if (java2dMesh.isFreed()) throw new IllegalArgumentException("mesh has been freed");
+		Image texture = java2dMesh.getJava2DTexture();
+		boolean useColors = java2dMesh.isUseColors();
+		Transform2D m = getVertexTransform();
+		float[] v = java2dMesh.vertices;
+		float[] s = new float[3];
+		float[] t = new float[3];
+		int index = 0;
+		for(int i = 0; i < java2dMesh.getTriangleCount(); i++) {
+			float red = 0, green = 0, blue = 0, alpha = 0;
+			for(int p = 0; p < 3; p++) {
+				vertex(m, p, v[index], v[index + 1]);
+				red += v[index + 2];
+				green += v[index + 3];
+				blue += v[index + 4];
+				alpha += v[index + 5];
+				s[p] = v[index + 6];
+				t[p] = v[index + 7];
+				index += StaticMesh.VERTEX_SIZE;
+			}
+			if(useColors) {
+				red /= 3;
+				green /= 3;
+				blue /= 3;
+				alpha /= 3;
+			} else {
+				red = color.x;
+				green = color.y;
+				blue = color.z;
+				alpha = color.w;
+			}
+			if(texture != null) {
+				fillTextured(texture, red, green, blue, alpha, s, t);
+			} else {
+				fill(red, green, blue, alpha);
+			}
+		}
+	}
+
+	// ==================== Text ====================
+	public void drawText(String text) {
+		if (text == null) throw new IllegalArgumentException("text must not be null");
+		// view without camera rotation and the model transformation
+		textTransform.set(textViewTransform);
+		textTransform.multiply(modelTransform);
+		setTransform(imageTransform, textTransform);
+		target.setComposite(composite);
+		target.setColor(toColor(color));
+		target.setFont(font);
+		target.setTransform(imageTransform);
+		target.drawString(text, 0, 0);
+		target.setTransform(IDENTITY);
+	}
+	public void getTextBounds(String text, Rectangle2D bounds) {
+		if (text == null) throw new IllegalArgumentException("text must not be null");
+		if (bounds == null) throw new IllegalArgumentException("bounds must not be null");
+		bounds.setRect(font.getStringBounds(text, fontRenderContext));
+	}
+	public Font getFont() {
+		return font;
+	}
+	public void setFont(Font font) {
+		this.font = font;
+	}
+
+	// ==================== Buffer content copying ====================
+	public void copyToImage(ch.blackspirit.graphics.Image image) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		copyToImage(image, 0, 0, image.getWidth(), image.getHeight());
+	}
+	public void copyToImage(ch.blackspirit.graphics.Image image, int x, int y, int width, int height) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		Image java2dImage = getJava2DImage(image);
+		BufferedImage texture = getTexture(java2dImage);
+
+		if(x >= targetWidth || y >= targetHeight) return;
+		if(width + x > targetWidth) width = targetWidth - x;
+		if(height + y > targetHeight) height = targetHeight - y;
+		if(width > texture.getWidth()) width = texture.getWidth();
+		if(height > texture.getHeight()) height = texture.getHeight();
+		if(width <= 0 || height <= 0) return;
+
+		if(texture == targetImage) {
+			// copy of the region, as source and target may overlap
+			texture.getRaster().setRect(-x, -y, texture.getData(new Rectangle(x, y, width, height)));
+		} else {
+			Graphics2D g = texture.createGraphics();
+			try {
+				g.setComposite(AlphaComposite.Src);
+				g.drawImage(targetImage, 0, 0, width, height, x, y, x + width, y + height, null);
+			} finally {
+				g.dispose();
+			}
+		}
+		java2dImage.textureChanged();
+	}
+
+	// ==================== Transformation ====================
+	public void rotate(float angle) {
+		modelTransform.rotate(angle * DEG_TO_RAD_FACTOR);
+		vertexTransformValid = false;
+	}
+	public void translate(float x, float y) {
+		modelTransform.translate(x, y);
+		vertexTransformValid = false;
+	}
+	public void scale(float x, float y) {
+		modelTransform.scale(x, y);
+		vertexTransformValid = false;
+	}
+	public void clearTransformation() {
+		clearTransform();
+	}
+	public void clearTransform() {
+		modelTransform.clear();
+		vertexTransformValid = false;
+	}
+	public void popTransform() {
+		modelTransform.pop();
+		vertexTransformValid = false;
+	}
+	public void pushTransform() {
+		modelTransform.push();
+	}
+	public void setTransform(Matrix3f matrix) {
+		// only the affine part of the matrix is used
+		modelTransform.set(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
+		vertexTransformValid = false;
+	}
+	public void applyTransform(Matrix3f matrix) {
+		modelTransform.multiply(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
+		vertexTransformValid = false;
+	}
+	public void getTransform(Matrix3f matrix) {
+		matrix.m00 = modelTransform.m00;
+		matrix.m01 = modelTransform.m01;
+		matrix.m02 = modelTransform.m02;
+		matrix.m10 = modelTransform.m10;
+		matrix.m11 = modelTransform.m11;
+		matrix.m12 = modelTransform.m12;
+		matrix.m20 = 0;
+		matrix.m21 = 0;
+		matrix.m22 = 1;
+	}
+	private Transform2D getVertexTransform() {
+		if(!vertexTransformValid) {
+			vertexTransform.set(viewTransform);
+			vertexTransform.multiply(modelTransform);
+			vertexTransformValid = true;
+		}
+		return vertexTransform;
+	}
+	private static void setTransform(AffineTransform affineTransform, Transform2D m) {
+		affineTransform.setTransform(m.m00, m.m10, m.m01, m.m11, m.m02, m.m12);
+	}
+
+	// ==================== Drawing Settings ====================
+	public boolean getRedMask() {
+		return redMask;
+	}
+	public void setRedMask(boolean red) {
+		setColorMask(red, greenMask, blueMask, alphaMask);
+	}
+	public boolean getGreenMask() {
+		return greenMask;
+	}
+	public void setGreenMask(boolean green) {
+		setColorMask(redMask, green, blueMask, alphaMask);
+	}
+	public boolean getBlueMask() {
+		return blueMask;
+	}
+	public void setBlueMask(boolean blue) {
+		setColorMask(redMask, greenMask, blue, alphaMask);
+	}
+	public boolean getAlphaMask() {
+		return alphaMask;
+	}
+	public void setAlphaMask(boolean alpha) {
+		setColorMask(redMask, greenMask, blueMask, alpha);
+	}
+	public void setColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		this.redMask = red;
+		this.greenMask = green;
+		this.blueMask = blue;
+		this.alphaMask = alpha;
+		composite = createComposite(1);
+	}
+
+	public DrawingMode getDrawingMode() {
+		return drawingMode;
+	}
+	public void setDrawingMode(DrawingMode drawingMode) {
+		if (drawingMode == null) throw new IllegalArgumentException("drawingMode must not be null");
+		this.drawingMode = drawingMode;
+		composite = createComposite(1);
+	}
+
+	public void setLineAntialiasing(boolean enabled) {
+		lineAntialiasing = enabled;
+	}
+	public boolean getLineAntialiasing() {
+		return lineAntialiasing;
+	}
+
+	/**
+	 * @param alpha Additional alpha multiplied with the source alpha.
+	 * @return Composite for the current drawing mode and color mask.
+	 */
+	private Composite createComposite(float alpha) {
+		if(redMask && greenMask && blueMask && alphaMask) {
+			if(drawingMode == DrawingMode.ALPHA_BLEND) {
+				return alpha < 1 ? AlphaComposite.SrcOver.derive(alpha) : AlphaComposite.SrcOver;
+			} else if(drawingMode == DrawingMode.OVERWRITE) {
+				return alpha < 1 ? AlphaComposite.Src.derive(alpha) : AlphaComposite.Src;
+			}
+		}
+		return new BlendComposite(drawingMode, redMask, greenMask, blueMask, alphaMask, alpha);
+	}
+
+	// ==================== Primitives ====================
+	private void vertex(Transform2D m, int index, float x, float y) {
+		vx[index] = m.m00 * x + m.m01 * y + m.m02;
+		vy[index] = m.m10 * x + m.m11 * y + m.m12;
+	}
+	private void line(Transform2D m, float x1, float y1, Color4f c1, float x2, float y2, Color4f c2) {
+		vertex(m, 0, x1, y1);
+		vertex(m, 1, x2, y2);
+		setAntialiasing(lineAntialiasing);
+		target.setComposite(composite);
+		if(c1 == c2 || c1.equals(c2)) {
+			target.setColor(toColor(c1));
+		} else {
+			target.setPaint(new GradientPaint(vx[0], vy[0], toColor(c1), vx[1], vy[1], toColor(c2)));
+		}
+		line.setLine(vx[0], vy[0], vx[1], vy[1]);
+		target.draw(line);
+	}
+	/**
+	 * Fills the triangle of the vertices with the given color.
+	 */
+	private void fill(float red, float green, float blue, float alpha) {
+		setTrianglePath();
+		setAntialiasing(false);
+		target.setComposite(composite);
+		target.setColor(toColor(red, green, blue, alpha));
+		target.fill(path);
+	}
+	/**
+	 * Fills the triangle of the vertices with the texture mapped by the given texture coordinates.
+	 */
+	private void fillTextured(Image image, float red, float green, float blue, float alpha, float[] s, float[] t) {
+		// affine transformation from texture coordinates to pixels
+		float ds1 = s[1] - s[0];
+		float dt1 = t[1] - t[0];
+		float ds2 = s[2] - s[0];
+		float dt2 = t[2] - t[0];
+		float determinant = ds1 * dt2 - ds2 * dt1;
+		if(determinant == 0) return;
+		float dx1 = vx[1] - vx[0];
+		float dy1 = vy[1] - vy[0];
+		float dx2 = vx[2] - vx[0];
+		float dy2 = vy[2] - vy[0];
+		float m00 = (dx1 * dt2 - dx2 * dt1) / determinant;
+		float m01 = (dx2 * ds1 - dx1 * ds2) / determinant;
+		float m10 = (dy1 * dt2 - dy2 * dt1) / determinant;
+		float m11 = (dy2 * ds1 - dy1 * ds2) / determinant;
+		imageTransform.setTransform(m00, m10, m01, m11,
+				vx[0] - m00 * s[0] - m01 * t[0], vy[0] - m10 * s[0] - m11 * t[0]);
+
+		setTrianglePath();
+		setAntialiasing(false);
+		target.setClip(path);
+		alpha *= baseColor.w;
+		target.setComposite(alpha < 1 ? createComposite(alpha) : composite);
+		target.drawImage(getTexture(image, red, green, blue), imageTransform, null);
+		target.setClip(null);
+	}
+	private void setTrianglePath() {
+		path.reset();
+		path.moveTo(vx[0], vy[0]);
+		path.lineTo(vx[1], vy[1]);
+		path.lineTo(vx[2], vy[2]);
+		path.closePath();
+	}
+	/**
+	 * Draws a region of the image with the transformation mapping the region size onto the target.
+	 */
+	private void drawTexture(Image image, Color4f c, AffineTransform transform,
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		int left = subImageX;
+		int right = subImageX + subImageWidth;
+		int top = subImageY;
+		int bottom = subImageY + subImageHeight;
+		if(flip == Flip.BOTH || flip == Flip.HORIZONTAL) {
+			int temp = top;
+			top = bottom;
+			bottom = temp;
+		}
+		if(flip == Flip.BOTH || flip == Flip.VERTICAL) {
+			int temp = left;
+			left = right;
+			right = temp;
+		}
+		BufferedImage texture = getTexture(image, c.x, c.y, c.z);
+		float alpha = c.w * baseColor.w;
+		setAntialiasing(false);
+		target.setComposite(alpha < 1 ? createComposite(alpha) : composite);
+		target.setTransform(transform);
+		target.drawImage(texture, 0, 0, subImageWidth, subImageHeight, left, top, right, bottom, null);
+		target.setTransform(IDENTITY);
+	}
+
+	private void setAntialiasing(boolean enabled) {
+		if(enabled != antialiasing) {
+			target.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+					enabled ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+			antialiasing = enabled;
+		}
+	}
+	private java.awt.Color toColor(Color4f c) {
+		return toColor(c.x, c.y, c.z, c.w);
+	}
+	/**
+	 * @return The color multiplied with the base color.
+	 */
+	private java.awt.Color toColor(float red, float green, float blue, float alpha) {
+		Color4f b = baseColor;
+		return new java.awt.Color(clamp(red * b.x), clamp(green * b.y), clamp(blue * b.z), clamp(alpha * b.w));
+	}
+	private static float clamp(float value) {
+		return value < 0 ? 0 : value > 1 ? 1 : value;
+	}
+
+	private Image getJava2DImage(ch.blackspirit.graphics.Image image) {
+		if (!(image instanceof Image)) throw new RuntimeException("Image has not been created by the Java2D Blackspirit Graphics implementation!");
+		return (Image)image;
+	}
+	private BufferedImage getTexture(Image image) {
+		if(image.texture == null) {
+			try {
+				resourceManager.cacheImage(image);
+			} catch (IOException e) {
+				throw new RuntimeException("Error caching image: " + image, e);
+			}
+		}
+		return image.texture;
+	}
+	/**
+	 * @return The texture of the image, tinted if the color multiplied with the base color is not white.
+	 */
+	private BufferedImage getTexture(Image image, float red, float green, float blue) {
+		BufferedImage texture = getTexture(image);
+		red = clamp(red * baseColor.x);
+		green = clamp(green * baseColor.y);
+		blue = clamp(blue * baseColor.z);
+		if(red == 1 && green == 1 && blue == 1) return texture;
+		return image.getTinted(red, green, blue);
+	}
+}
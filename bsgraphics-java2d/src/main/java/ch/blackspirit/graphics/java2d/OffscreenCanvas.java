@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.util.FrameUtil;
+
+/**
+ * Canvas without a window, drawing into a BufferedImage of fixed size on the calling thread. 
+ * Works in headless environments, e.g. to render thumbnails or reports on a server.
+ * @author Markus Koller
+ */
+final class OffscreenCanvas extends AbstractCanvas implements ch.blackspirit.graphics.OffscreenCanvas {
+	private final BufferedImage image;
+	private final ByteBuffer frame;
+	private boolean frameChanged = false;
+
+	public OffscreenCanvas(int width, int height, CanvasProperties properties) {
+		super(properties);
+		if(width <= 0 || height <= 0) throw new IllegalArgumentException("Width and height must be positive: " + width + "x" + height);
+		this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		this.frame = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.BIG_ENDIAN);
+		view.setSize(width, height);
+	}
+
+	public void draw() {
+		render(image.createGraphics(), image, image.getWidth(), image.getHeight());
+		frameChanged = true;
+	}
+
+	public ByteBuffer getFrame() {
+		if(frameChanged) {
+			int[] pixels = ((DataBufferInt)image.getRaster().getDataBuffer()).getData();
+			// 0xAARRGGBB to RGBA bytes
+			frame.clear();
+			for(int i = 0; i < pixels.length; i++) {
+				int argb = pixels[i];
+				frame.putInt((argb << 8) | (argb >>> 24));
+			}
+			frame.flip();
+			frameChanged = false;
+		}
+		frame.rewind();
+		return frame;
+	}
+	public void getFrame(Image image) {
+		FrameUtil.copyFrame(getFrame(), this.image.getWidth(), this.image.getHeight(), image);
+	}
+
+	public int getWidth() {
+		return image.getWidth();
+	}
+	public int getHeight() {
+		return image.getHeight();
+	}
+
+	public void dispose() {
+		// the image is released by the garbage collector
+	}
+}
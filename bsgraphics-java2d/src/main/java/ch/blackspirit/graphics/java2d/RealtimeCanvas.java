@@ -0,0 +1,337 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.awt.Dimension;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.Point;
+import java.awt.Toolkit;
+import java.awt.event.WindowEvent;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.JFrame;
+
+import ch.blackspirit.graphics.DisplayMode;
+import ch.blackspirit.graphics.WindowListener;
+
+/**
+ * Realtime canvas drawing on the calling thread into a VolatileImage or BufferedImage, 
+ * which is then drawn onto an AWT canvas.<br/>
+ * A frame whose VolatileImage content got lost is dropped, the next frame is drawn into the restored image.
+ * @author Markus Koller
+ */
+final class RealtimeCanvas extends AbstractCanvas implements ch.blackspirit.graphics.RealtimeCanvas {
+	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
+
+	private JFrame frame;
+	private java.awt.Canvas canvas;
+	private java.awt.Image image;
+	private boolean fullscreen = false;
+	private String title = "";
+
+	private final ArrayList<WindowListener> windowListener = new ArrayList<WindowListener>(100);
+
+	public RealtimeCanvas(DisplayMode displayMode, CanvasProperties properties) {
+		super(properties);
+		
+		// initialize view size
+		if(displayMode == null) {
+			// use current mode to initialize
+			GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
+			GraphicsDevice dev = env.getDefaultScreenDevice();
+			java.awt.DisplayMode mode = dev.getDisplayMode();
+			view.setSize(mode.getWidth(), mode.getHeight());
+		} else { 
+			view.setSize(displayMode.getWidth(), displayMode.getHeight());
+		}
+
+		setFullscreen(displayMode);
+	}
+	public RealtimeCanvas(int width, int height, CanvasProperties properties) {
+		super(properties);
+
+		// initialize view size
+		view.setSize(width, height);
+		
+		setWindow(width, height);
+	}
+
+	private void initialize(int width, int height) {
+		canvas = new java.awt.Canvas();
+		// the image drawn to is presented by draw
+		canvas.setIgnoreRepaint(true);
+		canvas.setSize(width, height);
+	}
+
+	public int getScreenLocationX() {
+		return canvas.getLocationOnScreen().x;
+	}
+	public int getScreenLocationY() {
+		return canvas.getLocationOnScreen().y;
+	}
+
+	private JFrame createFrame() {
+		JFrame frame = new JFrame();
+		frame.setCursor(Toolkit.getDefaultToolkit().createCustomCursor(
+				Toolkit.getDefaultToolkit().getImage(""),
+				new Point(0,0),
+				"invisible"));
+		frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+		frame.addWindowListener(new DelegateWindowListener(windowListener));
+		frame.setTitle(title);
+		return frame;
+	}
+	
+	public void setFullscreen(DisplayMode displayMode) {
+		GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
+		GraphicsDevice dev = env.getDefaultScreenDevice();
+
+		java.awt.DisplayMode setup = null;
+		if(displayMode != null) {
+			for(java.awt.DisplayMode mode :dev.getDisplayModes()) {
+				if(mode.getWidth() == displayMode.getWidth() && 
+						mode.getHeight() == displayMode.getHeight() &&
+						mode.getBitDepth() == displayMode.getColorDepth() &&
+						mode.getRefreshRate() == displayMode.getRefreshRate()) {
+					setup = mode;
+				}
+			}
+			if(setup == null) {
+				LOGGER.severe("No Mode with resolution: " + displayMode.getWidth() + "x" + displayMode.getHeight() + " available. Choosing unavailable resolutions should not be possible.");
+				throw new RuntimeException("No Mode with resolution: " + displayMode.getWidth() + "x" + displayMode.getHeight() + " available. Choosing unavailable resolutions should not be possible.");
+			}
+			LOGGER.info("Fullscreen: Width=" + setup.getWidth() + 
+					" Height=" + setup.getHeight() + 
+					" BitDepth=" + 	setup.getBitDepth() + 
+					" RefreshRate=" + setup.getRefreshRate());
+		}
+		
+		// Switch to new frame
+		JFrame old = frame;
+		frame = createFrame();
+		if(old != null) {
+			old.setVisible(false);
+			old.getContentPane().remove(canvas);
+			frame.getContentPane().add(canvas);
+			old.dispose();
+		} else {
+			int width;
+			int height;
+			if(displayMode != null) {
+				width = displayMode.getWidth();
+				height = displayMode.getHeight();
+			} else {
+				java.awt.DisplayMode currentMode = dev.getDisplayMode();
+				width = currentMode.getWidth();
+				height = currentMode.getHeight();
+			}
+			initialize(width, height);
+			frame.getContentPane().add(canvas);
+		}
+		frame.setUndecorated(true);
+		frame.setResizable(false);
+		frame.pack();
+		frame.setVisible(true);
+
+		dev.setFullScreenWindow(frame);
+		if(displayMode!=null) {
+			try {
+				if(dev.isDisplayChangeSupported()) dev.setDisplayMode(setup);
+			} catch(Exception e) {
+				LOGGER.log(Level.SEVERE, "Failed to change display mode", e);
+			}
+		}
+		fullscreen = true;
+	}	
+	public void setWindow(int width, int height) {
+		// Disable fullscreen rendering
+		GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
+		GraphicsDevice dev = env.getDefaultScreenDevice();
+		if(fullscreen) {
+			dev.setFullScreenWindow(null);
+		}
+		
+		// Switch to new frame
+		JFrame old = frame;
+		frame = createFrame();
+		if(old != null) {
+			old.setVisible(false);
+			old.getContentPane().remove(canvas);
+			frame.getContentPane().add(canvas);
+			old.dispose();
+		} else {
+			initialize(width, height);
+			frame.getContentPane().add(canvas);
+		}
+		frame.getContentPane().setPreferredSize(new Dimension(width, height));
+
+		// Resizable must be set before pack for proper sizes
+		frame.setResizable(false);
+		frame.pack();
+		frame.setVisible(true);
+	
+		fullscreen = false;
+
+		LOGGER.info("Window: Width=" + width + 
+				" Height=" + height);
+	}
+	public void setFullscreen() {
+		setFullscreen(null);
+	}
+	public void setWindowTitle(String title) {
+		this.title = title;
+		if(frame != null) {
+			frame.setTitle(title);
+		}
+	}
+	public String getWindowTitle() {
+		return title;
+	}
+	public boolean isFullscreen() {
+		return fullscreen;
+	}
+
+	public int getWidth() {
+		return canvas.getWidth();
+	}
+	public int getHeight() {
+		return canvas.getHeight();
+	}
+
+	public void addWindowListener(WindowListener windowListener) {
+		synchronized (this.windowListener) {
+			this.windowListener.add(windowListener);
+		}
+	}
+	public void removeWindowListener(WindowListener windowListener) {
+		synchronized (this.windowListener) {
+			this.windowListener.remove(windowListener);
+		}
+	}
+	public List<WindowListener> getWindowListeners() {
+		return Collections.unmodifiableList(this.windowListener);
+	}
+
+	protected boolean isVolatileImage() {
+		return image instanceof VolatileImage;
+	}
+
+	public void draw() {
+		if(!frame.isVisible()) return;
+		int width = canvas.getWidth();
+		int height = canvas.getHeight();
+		if(width <= 0 || height <= 0) return;
+
+		Graphics2D target = createTarget(width, height);
+		render(target, image, width, height);
+		if(image instanceof VolatileImage && ((VolatileImage)image).contentsLost()) return;
+		java.awt.Graphics g = canvas.getGraphics();
+		if(g != null) {
+			try {
+				g.drawImage(image, 0, 0, null);
+			} finally {
+				g.dispose();
+			}
+			Toolkit.getDefaultToolkit().sync();
+		}
+	}
+	/**
+	 * Makes sure the image to draw to has the given size and valid content.
+	 */
+	private Graphics2D createTarget(int width, int height) {
+		if(image != null && (image.getWidth(null) != width || image.getHeight(null) != height)) {
+			image.flush();
+			image = null;
+		}
+		if(image instanceof VolatileImage) {
+			VolatileImage volatileImage = (VolatileImage)image;
+			if(volatileImage.validate(canvas.getGraphicsConfiguration()) == VolatileImage.IMAGE_INCOMPATIBLE) {
+				volatileImage.flush();
+				image = null;
+			}
+		}
+		if(image == null) {
+			if(properties.isVolatileImage()) {
+				// null if the canvas is not displayable
+				image = canvas.createVolatileImage(width, height);
+			}
+			if(image == null) {
+				image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			}
+		}
+		return (Graphics2D)image.getGraphics();
+	}
+
+	public void dispose() {
+		if(image != null) image.flush();
+		frame.dispose();
+		canvas = null;
+		frame = null;
+		image = null;
+	}
+
+	private static final class DelegateWindowListener implements java.awt.event.WindowListener{
+		private ArrayList<WindowListener> listener;
+		public DelegateWindowListener(ArrayList<WindowListener> listener) {
+			this.listener = listener;
+		}
+		public void windowActivated(WindowEvent e) {
+			synchronized ( listener) {
+				for(int i = 0; i < listener.size(); i++) {
+					listener.get(i).windowActivated();
+				}
+			}
+		}
+		public void windowClosed(WindowEvent e) {}
+		public void windowClosing(WindowEvent e) {
+			synchronized ( listener) {
+				for(int i = 0; i < listener.size(); i++) {
+					listener.get(i).windowClosing();
+				}
+			}
+		}
+		public void windowDeactivated(WindowEvent e) {
+			synchronized ( listener) {
+				for(int i = 0; i < listener.size(); i++) {
+					listener.get(i).windowDeactivated();
+				}
+			}
+		}
+		public void windowDeiconified(WindowEvent e) {
+			synchronized ( listener) {
+				for(int i = 0; i < listener.size(); i++) {
+					listener.get(i).windowDeiconified();
+				}
+			}
+		}
+		public void windowIconified(WindowEvent e) {
+			synchronized ( listener) {
+				for(int i = 0; i < listener.size(); i++) {
+					listener.get(i).windowIconified();
+				}
+			}
+		}
+		public void windowOpened(WindowEvent e) {}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import java.awt.Font;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.ImageUpdateListener;
+import ch.blackspirit.graphics.Triangle;
+
+/**
+ * Caching an image creates its texture as a BufferedImage, which Java2D may keep an accelerated copy of. 
+ * Fonts are only recorded, Java2D caches their glyphs itself.
+ * @author Markus Koller
+ */
+final class ResourceManager implements ch.blackspirit.graphics.ResourceManager {
+	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
+
+	private final LinkedHashSet<ch.blackspirit.graphics.java2d.Image> cachedImages = new LinkedHashSet<ch.blackspirit.graphics.java2d.Image>();
+	private final LinkedHashSet<Font> cachedFonts = new LinkedHashSet<Font>();
+	private final CopyOnWriteArrayList<ImageUpdateListener> imageUpdateListeners = new CopyOnWriteArrayList<ImageUpdateListener>();
+
+	public ResourceManager() {}
+
+	// ==================== Images ====================
+	public boolean cacheImage(Image image) throws IOException {
+		ch.blackspirit.graphics.java2d.Image java2dImage = getJava2DImage(image);
+		if(java2dImage.texture == null) {
+			java2dImage.texture = java2dImage.createTexture();
+			cachedImages.add(java2dImage);
+		}
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Successfully cached image: " + image.toString());
+		return true;
+	}
+	public void freeImage(Image image) {
+		ch.blackspirit.graphics.java2d.Image java2dImage = getJava2DImage(image);
+		java2dImage.texture = null;
+		java2dImage.textureChanged();
+		cachedImages.remove(java2dImage);
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Free cached image: " + image.toString());
+	}
+	public void freeImages() {
+		for(ch.blackspirit.graphics.java2d.Image image: cachedImages) {
+			image.texture = null;
+			image.textureChanged();
+		}
+		cachedImages.clear();
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Free image cache");
+	}
+	public Collection<Image> getCachedImages() {
+		return Collections.unmodifiableList(new ArrayList<Image>(cachedImages));
+	}
+
+	void updateCache(ch.blackspirit.graphics.java2d.Image image, int xOffset, int yOffset, int width, int height) {
+		checkRegion(image, xOffset, yOffset, width, height);
+		if(image.texture == null) return;
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Update buffered image cache region " + xOffset + "," + yOffset + " " + width + "x" + height + ": " + image.toString());
+		image.copyBufferToTexture(xOffset, yOffset, width, height);
+		for(ImageUpdateListener listener: imageUpdateListeners) {
+			listener.cacheUpdated(image);
+		}
+	}
+	void updateBuffer(ch.blackspirit.graphics.java2d.Image image, int xOffset, int yOffset, int width, int height) {
+		checkRegion(image, xOffset, yOffset, width, height);
+		if(image.texture == null) return;
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Update image buffer region " + xOffset + "," + yOffset + " " + width + "x" + height + ": " + image.toString());
+		image.copyTextureToBuffer(xOffset, yOffset, width, height);
+		for(ImageUpdateListener listener: imageUpdateListeners) {
+			listener.bufferUpdated(image);
+		}
+	}
+	private static void checkRegion(Image image, int xOffset, int yOffset, int width, int height) {
+		if(xOffset < 0 || yOffset < 0 || width < 0 || height < 0 || 
+				xOffset + width > image.getWidth() || yOffset + height > image.getHeight()) {
+			throw new IllegalArgumentException("Region " + xOffset + "," + yOffset + " " + width + "x" + height + " exceeds the image bounds: " + image.toString());
+		}
+	}
+
+	public void addImageUpdateListener(ImageUpdateListener listener) {
+		imageUpdateListeners.add(listener);
+	}
+	public void removeImageUpdateListener(ImageUpdateListener listener) {
+		imageUpdateListeners.remove(listener);
+	}
+
+	// ==================== Fonts ====================
+	public boolean cacheFont(Font font) {
+		cachedFonts.add(font);
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Successfully cached font: " + font);
+		return true;
+	}
+	public void freeFont(Font font) {
+		cachedFonts.remove(font);
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Free cached font: " + font);
+	}
+	public void freeFonts() {
+		cachedFonts.clear();
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Free cached fonts");
+	}
+	public Collection<Font> getCachedFonts() {
+		return Collections.unmodifiableList(new ArrayList<Font>(cachedFonts));
+	}
+
+	// ==================== Static Meshes ====================
+	public ch.blackspirit.graphics.StaticMesh createStaticMesh(Triangle[] triangles, boolean useColors, Image texture) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		ch.blackspirit.graphics.java2d.Image java2dTexture = texture != null ? getJava2DImage(texture) : null;
+		return new StaticMesh(triangles, useColors, java2dTexture);
+	}
+	public void freeStaticMesh(ch.blackspirit.graphics.StaticMesh mesh) {
+		if (mesh == null) throw new IllegalArgumentException("mesh must not be null");
+		if (!(mesh instanceof StaticMesh)) throw new RuntimeException("Static mesh has not been created by the Java2D Blackspirit Graphics implementation!");
+		((StaticMesh)mesh).setFreed();
+	}
+
+	private static ch.blackspirit.graphics.java2d.Image getJava2DImage(Image image) {
+		if (!(image instanceof ch.blackspirit.graphics.java2d.Image)) throw new RuntimeException("Image has not been created by the Java2D Blackspirit Graphics implementation!");
+		return (ch.blackspirit.graphics.java2d.Image)image;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.java2d;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import ch.blackspirit.graphics.Triangle;
+
+/**
+ * Triangles copied once into a flat array, so drawing does not need to access the triangle objects.
+ * @author Markus Koller
+ */
+final class StaticMesh implements ch.blackspirit.graphics.StaticMesh {
+	private static final Color4f WHITE = new Color4f(1, 1, 1, 1);
+
+	/** Number of floats per vertex: position, color and texture coordinate in image pixels */
+	static final int VERTEX_SIZE = 8;
+
+	private final int triangleCount;
+	private final boolean useColors;
+	private final Image texture;
+	final float[] vertices;
+	private boolean freed = false;
+
+	public StaticMesh(Triangle[] triangles, boolean useColors, Image texture) {
+		this.useColors = useColors;
+		this.texture = texture;
+
+		int count = 0;
+		for(int i = 0; i < triangles.length; i++) {
+			if(triangles[i] != null) count++;
+		}
+		this.triangleCount = count;
+		this.vertices = new float[count * 3 * VERTEX_SIZE];
+
+		int index = 0;
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			for(int p = 0; p < 3; p++) {
+				Vector2f point = t.getPoint(p);
+				Color4f color = useColors ? t.getColor(p) : null;
+				if(color == null) color = WHITE;
+				vertices[index++] = point.x;
+				vertices[index++] = point.y;
+				vertices[index++] = color.x;
+				vertices[index++] = color.y;
+				vertices[index++] = color.z;
+				vertices[index++] = color.w;
+				if(texture != null) {
+					Vector2f textureCoordinate = t.getTextureCoordinate(p);
+					if (textureCoordinate == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+					vertices[index++] = textureCoordinate.x;
+					vertices[index++] = textureCoordinate.y;
+				} else {
+					index += 2;
+				}
+			}
+		}
+	}
+
+	public int getTriangleCount() {
+		return triangleCount;
+	}
+	public ch.blackspirit.graphics.Image getTexture() {
+		return texture;
+	}
+	Image getJava2DTexture() {
+		return texture;
+	}
+	public boolean isUseColors() {
+		return useColors;
+	}
+	public boolean isFreed() {
+		return freed;
+	}
+	void setFreed() {
+		freed = true;
+	}
+}
@@ -0,0 +1,97 @@
+package ch.blackspirit.graphics.java2d;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.DrawingMode;
+
+public class BlendCompositeTest {
+	private static final int SOURCE = 0x804080C0;
+	private static final int DESTINATION = 0xFF8040FF;
+
+	private static int compose(BlendComposite composite, int source, int destination, int imageType) {
+		BufferedImage image = new BufferedImage(1, 1, imageType);
+		image.setRGB(0, 0, destination);
+		Graphics2D g = image.createGraphics();
+		try {
+			g.setComposite(composite);
+			g.setColor(new Color(source, true));
+			g.fillRect(0, 0, 1, 1);
+		} finally {
+			g.dispose();
+		}
+		return image.getRGB(0, 0);
+	}
+	private static int compose(DrawingMode drawingMode) {
+		return compose(new BlendComposite(drawingMode, true, true, true, true, 1), SOURCE, DESTINATION, BufferedImage.TYPE_INT_ARGB);
+	}
+	private static void assertColor(int expected, int actual) {
+		Assert.assertEquals(Integer.toHexString(expected), Integer.toHexString(actual));
+	}
+
+	@Test
+	public void alphaBlend() {
+		// SRC_ALPHA, ONE_MINUS_SRC_ALPHA
+		assertColor(0xBF6060DF, compose(DrawingMode.ALPHA_BLEND));
+	}
+
+	@Test
+	public void add() {
+		// ONE, ONE
+		assertColor(0xFFC0C0FF, compose(DrawingMode.ADD));
+	}
+
+	@Test
+	public void alphaAdd() {
+		// SRC_ALPHA, ONE
+		assertColor(0xFFA080FF, compose(DrawingMode.ALPHA_ADD));
+	}
+
+	@Test
+	public void subtract() {
+		// reverse subtract: destination - source
+		assertColor(0x7F40003F, compose(DrawingMode.SUBTRACT));
+	}
+
+	@Test
+	public void multiply() {
+		// DST_COLOR, ZERO
+		assertColor(0x802020C0, compose(DrawingMode.MULTIPLY));
+	}
+
+	@Test
+	public void overwrite() {
+		assertColor(SOURCE, compose(DrawingMode.OVERWRITE));
+	}
+
+	@Test
+	public void writeMask() {
+		BlendComposite composite = new BlendComposite(DrawingMode.OVERWRITE, false, true, false, true, 1);
+		assertColor(0x808080FF, compose(composite, SOURCE, DESTINATION, BufferedImage.TYPE_INT_ARGB));
+	}
+
+	@Test
+	public void extraAlpha() {
+		// the source alpha of 255 is scaled to 127
+		BlendComposite composite = new BlendComposite(DrawingMode.ALPHA_ADD, true, true, true, true, .5f);
+		assertColor(0xFF7F0080, compose(composite, 0xFFFF0080, 0xFF000040, BufferedImage.TYPE_INT_ARGB));
+	}
+
+	@Test
+	public void destinationWithoutAlpha() {
+		// not packed as 0xAARRGGBB ints, composed pixel by pixel through the color model
+		BlendComposite composite = new BlendComposite(DrawingMode.ADD, true, true, true, true, 1);
+		assertColor(0xFFC0C0FF, compose(composite, SOURCE, DESTINATION, BufferedImage.TYPE_3BYTE_BGR));
+	}
+
+	@Test
+	public void premultipliedDestination() {
+		BlendComposite composite = new BlendComposite(DrawingMode.MULTIPLY, true, true, true, true, 1);
+		int color = compose(composite, 0xFF808080, 0xFF40C0FF, BufferedImage.TYPE_INT_ARGB_PRE);
+		assertColor(0xFF206080, color);
+	}
+}
@@ -0,0 +1,104 @@
+package ch.blackspirit.graphics.java2d;
+
+import javax.vecmath.Color4f;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.GraphicsContext;
+import ch.blackspirit.graphics.GraphicsListener;
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.ImageGraphicsContext;
+import ch.blackspirit.graphics.View;
+
+public class ImageOutputTest extends Java2DTestBase {
+	private static int pixel(Image image, int x, int y) {
+		return ((int[])image.getBuffer())[y * image.getWidth() + x];
+	}
+	private static void assertPixel(Image image, int x, int y, int argb) {
+		Assert.assertEquals("Pixel " + x + "," + y, Integer.toHexString(argb), Integer.toHexString(pixel(image, x, y)));
+	}
+
+	private void drawImage(Image image, final Painter painter) {
+		ImageGraphicsContext context = canvas.createImageGraphicsContext(image);
+		context.setGraphicsListener(new GraphicsListener() {
+			public void init(View view, Graphics graphics) {}
+			public void draw(View view, Graphics graphics) {
+				graphics.setClearColor(new Color4f(0, 0, 1, 1));
+				graphics.clear();
+				painter.paint(graphics);
+			}
+			public void sizeChanged(GraphicsContext graphicsContext, View view) {}
+		});
+		context.draw();
+		context.dispose();
+	}
+
+	@Test
+	public void imageGraphicsContext() {
+		Image image = canvas.getImageFactory().createBufferedImage(16, 16, BufferTypes.ARGB_Int);
+		drawImage(image, new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 0, 0, 1));
+				graphics.fillTriangle(0, 0, 8, 0, 0, 8);
+			}
+		});
+		// the pixels are only in the texture until the buffer is updated
+		assertPixel(image, 1, 1, 0);
+		image.updateBuffer();
+		// image coordinates start in the top left corner
+		assertPixel(image, 1, 1, 0xFFFF0000);
+		assertPixel(image, 6, 0, 0xFFFF0000);
+		assertPixel(image, 14, 14, 0xFF0000FF);
+		assertPixel(image, 8, 0, 0xFF0000FF);
+	}
+
+	@Test
+	public void drawRenderedImage() {
+		final Image image = canvas.getImageFactory().createBufferedImage(16, 16, BufferTypes.ARGB_Int);
+		drawImage(image, new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 0, 0, 1));
+				graphics.fillTriangle(0, 0, 16, 0, 0, 16);
+			}
+		});
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.drawImage(image, 32, 32);
+			}
+		});
+		assertPixel(2, 2, 1, 0, 0);
+		assertPixel(29, 29, 0, 0, 1);
+		Assert.assertTrue(isBlack(40, 40));
+	}
+
+	@Test
+	public void copyToImage() {
+		final Image image = canvas.getImageFactory().createBufferedImage(8, 8, BufferTypes.RGB_Int);
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(0, 1, 0, 1));
+				graphics.fillTriangle(0, 0, 64, 0, 0, 64);
+				graphics.copyToImage(image);
+			}
+		});
+		image.updateBuffer();
+		assertPixel(image, 0, 0, 0x00FF00);
+		assertPixel(image, 7, 7, 0x00FF00);
+	}
+
+	@Test
+	public void frameToImage() {
+		Image image = canvas.getImageFactory().createBufferedImage(WIDTH, HEIGHT, BufferTypes.ARGB_Int);
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 0, 1));
+				graphics.fillTriangle(0, 0, 32, 0, 0, 32);
+			}
+		});
+		canvas.getFrame(image);
+		assertPixel(image, 2, 2, 0xFFFFFF00);
+		assertPixel(image, 40, 40, 0xFF000000);
+	}
+}
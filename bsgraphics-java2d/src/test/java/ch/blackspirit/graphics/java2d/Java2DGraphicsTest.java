@@ -0,0 +1,215 @@
+package ch.blackspirit.graphics.java2d;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.DrawingMode;
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.SpriteBatch;
+import ch.blackspirit.graphics.shape.Triangle;
+
+public class Java2DGraphicsTest extends Java2DTestBase {
+	private static final String FOREIGN_IMAGE = "Image has not been created by the Java2D Blackspirit Graphics implementation!";
+
+	private Image image;
+
+	@Before
+	public void createImage() {
+		// red green
+		image = canvas.getImageFactory().createBufferedImage(2, 1, BufferTypes.ARGB_Int);
+		image.getBufferType().setColor(image, 0, 0, new Color4f(1, 0, 0, 1));
+		image.getBufferType().setColor(image, 1, 0, new Color4f(0, 1, 0, 1));
+	}
+
+	private static Image createForeignImage() {
+		return (Image)Proxy.newProxyInstance(Java2DGraphicsTest.class.getClassLoader(), new Class<?>[] {Image.class}, 
+				new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				Class<?> type = method.getReturnType();
+				if (type == int.class) return 2;
+				if (type == boolean.class) return false;
+				if (type == long.class) return 0L;
+				if (type == float.class) return 0f;
+				return null;
+			}
+		});
+	}
+
+	@Test
+	public void drawImageTransformed() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.translate(32, 16);
+				graphics.rotate(90);
+				graphics.drawImage(image, 32, 16);
+			}
+		});
+		// the image is scaled, then rotated clockwise so its x axis points down
+		assertPixel(24, 20, 1, 0, 0);
+		assertPixel(24, 44, 0, 1, 0);
+		Assert.assertTrue(isBlack(24, 12));
+		Assert.assertTrue(isBlack(24, 50));
+		Assert.assertTrue(isBlack(36, 24));
+		Assert.assertTrue(isBlack(12, 24));
+	}
+
+	@Test
+	public void spriteBatchMatchesDrawImage() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				SpriteBatch spriteBatch = graphics.getSpriteBatch();
+				spriteBatch.begin();
+				spriteBatch.draw(image, 4, 8, 16, 8, 8, 4, 90, null);
+				spriteBatch.end();
+				// the same transformation for drawImage, moved to the right half
+				graphics.translate(32 + 4 + 8, 8 + 4);
+				graphics.rotate(90);
+				graphics.translate(-8, -4);
+				graphics.drawImage(image, 16, 8);
+			}
+		});
+		assertPixel(12, 6, 1, 0, 0);
+		assertPixel(12, 17, 0, 1, 0);
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH / 2; x++) {
+				assertPixel(x, y, red(x + WIDTH / 2, y), green(x + WIDTH / 2, y), blue(x + WIDTH / 2, y));
+			}
+		}
+	}
+
+	@Test
+	public void tintedTextureUpdated() {
+		Painter painter = new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(.5f, 1, .5f, 1));
+				graphics.drawImage(image, 32, 16);
+			}
+		};
+		draw(painter);
+		assertPixel(4, 4, .5f, 0, 0);
+
+		// the tinted copy of the texture must not be reused after the content changed
+		image.getBufferType().setColor(image, 0, 0, new Color4f(1, 1, 1, 1));
+		image.updateCache();
+		draw(painter);
+		assertPixel(4, 4, .5f, 1, .5f);
+	}
+
+	@Test
+	public void colorMaskUsesSameBlending() {
+		final Color4f destination = new Color4f(.5f, .25f, 1, 1);
+		final Color4f source = new Color4f(.25f, .5f, .5f, .5f);
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(destination);
+				graphics.fillTriangle(0, 0, 128, 0, 0, 128);
+				graphics.setColor(source);
+				// all channels written through an AlphaComposite
+				graphics.fillTriangle(0, 0, 32, 0, 0, 32);
+				// the alpha mask needs the BlendComposite
+				graphics.setAlphaMask(false);
+				graphics.translate(32, 0);
+				graphics.fillTriangle(0, 0, 32, 0, 0, 32);
+				graphics.setAlphaMask(true);
+			}
+		});
+		assertPixel(4, 4, .375f, .375f, .75f);
+		assertPixel(36, 4, .375f, .375f, .75f);
+	}
+
+	@Test
+	public void subtractSupported() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, .5f, .25f, 1));
+				graphics.fillTriangle(0, 0, 128, 0, 0, 128);
+				graphics.setDrawingMode(DrawingMode.SUBTRACT);
+				graphics.setColor(new Color4f(.25f, .25f, .25f, 1));
+				graphics.fillTriangle(0, 0, 32, 0, 0, 32);
+			}
+		});
+		assertPixel(4, 4, .75f, .25f, 0);
+	}
+
+	@Test
+	public void drawForeignImage() {
+		final Image foreign = createForeignImage();
+		try {
+			draw(new Painter() {
+				public void paint(Graphics graphics) {
+					graphics.drawImage(foreign, 8, 8);
+				}
+			});
+			Assert.fail("Foreign image drawn");
+		} catch (RuntimeException e) {
+			Assert.assertEquals(FOREIGN_IMAGE, e.getMessage());
+		}
+		// the frame has been ended and the canvas can still be drawn
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.drawImage(image, 32, 16);
+			}
+		});
+		assertPixel(4, 4, 1, 0, 0);
+	}
+
+	@Test
+	public void spriteForeignImage() {
+		final Image foreign = createForeignImage();
+		try {
+			draw(new Painter() {
+				public void paint(Graphics graphics) {
+					graphics.getSpriteBatch().begin();
+					graphics.getSpriteBatch().draw(foreign, 0, 0, 8, 8);
+				}
+			});
+			Assert.fail("Foreign image drawn");
+		} catch (RuntimeException e) {
+			Assert.assertEquals(FOREIGN_IMAGE, e.getMessage());
+		}
+	}
+
+	@Test
+	public void texturedTriangleForeignImage() {
+		final Image foreign = createForeignImage();
+		final Triangle triangle = new Triangle(new Vector2f(0, 0), new Vector2f(8, 0), new Vector2f(0, 8));
+		try {
+			draw(new Painter() {
+				public void paint(Graphics graphics) {
+					graphics.fillTriangle(triangle, false, foreign);
+				}
+			});
+			Assert.fail("Foreign image drawn");
+		} catch (RuntimeException e) {
+			Assert.assertEquals(FOREIGN_IMAGE, e.getMessage());
+		}
+	}
+
+	@Test
+	public void foreignImageResources() {
+		Image foreign = createForeignImage();
+		try {
+			canvas.createImageGraphicsContext(foreign);
+			Assert.fail("Image graphics context created for a foreign image");
+		} catch (RuntimeException e) {
+			Assert.assertEquals(FOREIGN_IMAGE, e.getMessage());
+		}
+		try {
+			canvas.getResourceManager().cacheImage(foreign);
+			Assert.fail("Foreign image cached");
+		} catch (RuntimeException e) {
+			Assert.assertEquals(FOREIGN_IMAGE, e.getMessage());
+		} catch (java.io.IOException e) {
+			Assert.fail(e.getMessage());
+		}
+	}
+}
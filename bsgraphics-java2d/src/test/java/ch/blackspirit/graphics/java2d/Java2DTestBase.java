@@ -0,0 +1,81 @@
+package ch.blackspirit.graphics.java2d;
+
+import java.nio.ByteBuffer;
+
+import javax.vecmath.Color4f;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.GraphicsContext;
+import ch.blackspirit.graphics.GraphicsListener;
+import ch.blackspirit.graphics.View;
+
+public class Java2DTestBase {
+	protected static final int WIDTH = 64;
+	protected static final int HEIGHT = 64;
+	private static final float TOLERANCE = 2.5f / 255f;
+
+	protected ch.blackspirit.graphics.OffscreenCanvas canvas;
+	private ByteBuffer frame;
+
+	@Before
+	public void setup() {
+		canvas = new CanvasFactory().createOffscreenCanvas(WIDTH, HEIGHT);
+	}
+
+	@After
+	public void teardown() {
+		if (canvas != null) canvas.dispose();
+	}
+
+	/**
+	 * Draws one frame and keeps it for the pixel assertions.
+	 * The camera is set up so world coordinates are pixel coordinates.
+	 */
+	protected void draw(final Painter painter) {
+		canvas.setGraphicsListener(new GraphicsListener() {
+			public void init(View view, Graphics graphics) {
+				view.setCamera(WIDTH / 2, HEIGHT / 2, 0);
+			}
+			public void draw(View view, Graphics graphics) {
+				graphics.setClearColor(new Color4f(0, 0, 0, 1));
+				graphics.clear();
+				painter.paint(graphics);
+			}
+			public void sizeChanged(GraphicsContext graphicsContext, View view) {}
+		});
+		canvas.draw();
+		frame = canvas.getFrame();
+	}
+
+	protected float red(int x, int y) {
+		return channel(x, y, 0);
+	}
+	protected float green(int x, int y) {
+		return channel(x, y, 1);
+	}
+	protected float blue(int x, int y) {
+		return channel(x, y, 2);
+	}
+	private float channel(int x, int y, int channel) {
+		return (frame.get((y * WIDTH + x) * 4 + channel) & 0xFF) / 255f;
+	}
+
+	protected boolean isBlack(int x, int y) {
+		return red(x, y) == 0 && green(x, y) == 0 && blue(x, y) == 0;
+	}
+
+	protected void assertPixel(int x, int y, float red, float green, float blue) {
+		String pixel = "Pixel " + x + "," + y;
+		Assert.assertEquals(pixel + " red", red, red(x, y), TOLERANCE);
+		Assert.assertEquals(pixel + " green", green, green(x, y), TOLERANCE);
+		Assert.assertEquals(pixel + " blue", blue, blue(x, y), TOLERANCE);
+	}
+
+	protected interface Painter {
+		public void paint(Graphics graphics);
+	}
+}
@@ -0,0 +1,149 @@
+package ch.blackspirit.graphics.java2d;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Matrix3f;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.DrawingMode;
+import ch.blackspirit.graphics.Graphics;
+
+public class TransformTest extends Java2DTestBase {
+	private static void fillRectangle(Graphics graphics, float x, float y, float width, float height) {
+		graphics.fillTriangle(x, y, x + width, y, x, y + height);
+		graphics.fillTriangle(x + width, y, x + width, y + height, x, y + height);
+	}
+
+	@Test
+	public void translate() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.translate(20, 10);
+				fillRectangle(graphics, 0, 0, 8, 8);
+			}
+		});
+		assertPixel(20, 10, 1, 1, 1);
+		assertPixel(27, 17, 1, 1, 1);
+		Assert.assertTrue(isBlack(19, 10));
+		Assert.assertTrue(isBlack(28, 17));
+		Assert.assertTrue(isBlack(2, 2));
+	}
+
+	@Test
+	public void rotate() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.translate(32, 32);
+				graphics.rotate(90);
+				fillRectangle(graphics, 4, -2, 8, 4);
+			}
+		});
+		// rotated clockwise the rectangle right of the origin ends up below it
+		assertPixel(31, 37, 1, 1, 1);
+		assertPixel(32, 42, 1, 1, 1);
+		Assert.assertTrue(isBlack(38, 32));
+		Assert.assertTrue(isBlack(32, 26));
+	}
+
+	@Test
+	public void scale() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.scale(2, 3);
+				fillRectangle(graphics, 4, 4, 4, 4);
+			}
+		});
+		assertPixel(8, 12, 1, 1, 1);
+		assertPixel(15, 23, 1, 1, 1);
+		Assert.assertTrue(isBlack(16, 12));
+		Assert.assertTrue(isBlack(8, 24));
+		Assert.assertTrue(isBlack(7, 11));
+	}
+
+	@Test
+	public void composition() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.translate(32, 32);
+				graphics.scale(2, 2);
+				graphics.translate(-8, 0);
+				fillRectangle(graphics, 0, 0, 4, 4);
+			}
+		});
+		// later transformations apply first: the rectangle is moved, then scaled
+		assertPixel(16, 32, 1, 1, 1);
+		assertPixel(23, 39, 1, 1, 1);
+		Assert.assertTrue(isBlack(24, 32));
+		Assert.assertTrue(isBlack(32, 32));
+	}
+
+	@Test
+	public void pushPop() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.translate(10, 10);
+				graphics.pushTransform();
+				graphics.translate(30, 30);
+				graphics.rotate(45);
+				graphics.pushTransform();
+				graphics.scale(4, 4);
+				graphics.popTransform();
+				graphics.popTransform();
+				fillRectangle(graphics, 0, 0, 4, 4);
+			}
+		});
+		assertPixel(10, 10, 1, 1, 1);
+		assertPixel(13, 13, 1, 1, 1);
+		Assert.assertTrue(isBlack(40, 40));
+	}
+
+	@Test
+	public void clearTransform() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.translate(30, 30);
+				graphics.pushTransform();
+				graphics.scale(2, 2);
+				graphics.clearTransform();
+				fillRectangle(graphics, 0, 0, 4, 4);
+			}
+		});
+		assertPixel(0, 0, 1, 1, 1);
+		assertPixel(3, 3, 1, 1, 1);
+		Assert.assertTrue(isBlack(30, 30));
+	}
+
+	@Test
+	public void getSetTransform() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setDrawingMode(DrawingMode.ADD);
+				graphics.setColor(new Color4f(.25f, .25f, .25f, 1));
+				graphics.translate(30, 20);
+				graphics.rotate(30);
+				graphics.scale(2, 1);
+				fillRectangle(graphics, 0, 0, 8, 8);
+				Matrix3f matrix = new Matrix3f();
+				graphics.getTransform(matrix);
+				graphics.clearTransform();
+				graphics.setTransform(matrix);
+				fillRectangle(graphics, 0, 0, 8, 8);
+			}
+		});
+		// the same transformation covers exactly the same pixels twice
+		assertPixel(30, 21, .5f, .5f, .5f);
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				float red = red(x, y);
+				Assert.assertTrue("Pixel " + x + "," + y + ": " + red, red == 0 || Math.abs(red - .5f) < 2.5f / 255f);
+			}
+		}
+	}
+}
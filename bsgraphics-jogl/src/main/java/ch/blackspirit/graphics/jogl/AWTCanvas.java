@@ -286,6 +286,8 @@ final class AWTCanvas extends AbstractGraphicsContext implements ch.blackspirit.
 			return maxImageDrawingHeight;
 		} else if(Properties.MAX_IMAGE_DRAWING_WIDTH.equals(property)) {
 			return maxImageDrawingWidth;
+		} else if(property.startsWith(Properties.STATISTICS_PREFIX)) {
+			return resourceManager.getStatistics().getProperty(property);
 		}
 		throw new IllegalArgumentException("No such property: " + property);
 	}	
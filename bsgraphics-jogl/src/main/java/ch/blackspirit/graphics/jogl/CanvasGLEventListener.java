@@ -21,6 +21,7 @@ import java.util.logging.Logger;
 import javax.media.opengl.GL;
 import javax.media.opengl.GLAutoDrawable;
 
+import ch.blackspirit.graphics.Canvas;
 import ch.blackspirit.graphics.Graphics;
 import ch.blackspirit.graphics.debug.TraceGraphics;
 
@@ -97,7 +98,7 @@ final class CanvasGLEventListener extends AbstractGLEventListener {
 			imageFactory.setMaxTextureSize(size[0]);
 	
 			applyVSync(drawable);
-			if(!firstInitialization)resourceManager.refreshCache();
+			if(!firstInitialization)resourceManager.refreshCache(drawable.getGL());
 			
 			listenerInit(drawable);
 	
@@ -145,7 +146,9 @@ final class CanvasGLEventListener extends AbstractGLEventListener {
 			LOGGER.log(Level.SEVERE, "Error drawing", e);
 		} finally {
 			graphics.endFrame();
+			resourceManager.getStatistics().endFrame();
 			canvas.endDrawing();
+			canvas.fireFrameFinished((Canvas)canvas);
 		}
 	}
 	public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
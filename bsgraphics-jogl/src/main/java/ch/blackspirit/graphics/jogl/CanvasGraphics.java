@@ -30,6 +30,8 @@ import ch.blackspirit.graphics.Flip;
 import ch.blackspirit.graphics.Graphics;
 import ch.blackspirit.graphics.Image;
 import ch.blackspirit.graphics.Line;
+import ch.blackspirit.graphics.SpriteBatch;
+import ch.blackspirit.graphics.StaticMesh;
 import ch.blackspirit.graphics.Triangle;
 
 /**
@@ -204,6 +206,12 @@ final class CanvasGraphics implements Graphics, ViewListener {
 	public void fillTriangles(Triangle[] area, boolean useColors) {
 		delegate.fillTriangles(area, useColors);
 	}
+	public void drawStaticMesh(StaticMesh mesh) {
+		delegate.drawStaticMesh(mesh);
+	}
+	public SpriteBatch getSpriteBatch() {
+		return delegate.getSpriteBatch();
+	}
 	public void drawLine(Line line, boolean useColors) {
 		delegate.drawLine(line, useColors);
 	}
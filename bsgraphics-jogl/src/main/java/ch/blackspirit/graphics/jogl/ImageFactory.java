@@ -20,10 +20,12 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import ch.blackspirit.graphics.BufferType;
 import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.util.ImageLoader;
 
 /*
  * @author Markus Koller
@@ -42,6 +44,7 @@ final class ImageFactory implements ch.blackspirit.graphics.ImageFactory {
 	private int maxSize = Integer.MAX_VALUE;
 	
 	private ResourceManager resourceManager;
+	private final ImageLoader imageLoader = new ImageLoader(this);
 	
 	public ImageFactory(ResourceManager resourceManager) {
 		super();
@@ -104,5 +107,15 @@ final class ImageFactory implements ch.blackspirit.graphics.ImageFactory {
 
 	public List<BufferType> getSupportedBufferTypes() {
 		return bufferTypes;
-	}	
+	}
+
+	public Future<Image> loadImage(URL url, boolean forceAlpha) {
+		return imageLoader.loadImage(url, forceAlpha);
+	}
+	public Future<Image> loadBufferedImage(URL url, boolean forceAlpha) {
+		return imageLoader.loadBufferedImage(url, forceAlpha);
+	}
+	public Future<Image> loadBufferedImage(URL url, BufferType bufferType) {
+		return imageLoader.loadBufferedImage(url, bufferType);
+	}
 }
@@ -29,6 +29,8 @@ import ch.blackspirit.graphics.DrawingMode;
 import ch.blackspirit.graphics.Flip;
 import ch.blackspirit.graphics.Image;
 import ch.blackspirit.graphics.Line;
+import ch.blackspirit.graphics.SpriteBatch;
+import ch.blackspirit.graphics.StaticMesh;
 import ch.blackspirit.graphics.Triangle;
 
 /**
@@ -209,6 +211,12 @@ final class ImageGraphics implements ch.blackspirit.graphics.Graphics, ViewListe
 	public void fillTriangles(Triangle[] area, boolean useColors) {
 		delegate.fillTriangles(area, useColors);
 	}
+	public void drawStaticMesh(StaticMesh mesh) {
+		delegate.drawStaticMesh(mesh);
+	}
+	public SpriteBatch getSpriteBatch() {
+		return delegate.getSpriteBatch();
+	}
 	public void drawLine(Line line, boolean useColors) {
 		delegate.drawLine(line, useColors);
 	}
@@ -18,23 +18,18 @@ package ch.blackspirit.graphics.jogl;
 import java.awt.Font;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GLContext;
-import javax.vecmath.AxisAngle4f;
 import javax.vecmath.Color4f;
 import javax.vecmath.Matrix3f;
-import javax.vecmath.Matrix4f;
 import javax.vecmath.Vector2f;
-import javax.vecmath.Vector3f;
 
 import ch.blackspirit.graphics.DrawingMode;
 import ch.blackspirit.graphics.Flip;
 import ch.blackspirit.graphics.Line;
 import ch.blackspirit.graphics.Triangle;
-import ch.blackspirit.graphics.pool.ObjectPool;
 
 import com.sun.opengl.util.j2d.TextRenderer;
 import com.sun.opengl.util.texture.TextureCoords;
@@ -46,6 +41,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	private static final float DEG_TO_RAD_FACTOR = (2 * (float)Math.PI) / 360f;
 
 	private ResourceManager resourceManager;
+	private final SpriteBatch spriteBatch = new SpriteBatch(this);
 
 	private DrawingMode drawingMode = DrawingMode.ALPHA_BLEND;
 
@@ -73,22 +69,18 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	
 	private RuntimeProperties properties;
 	
-	// Transformation cache
-	private ObjectPool<Matrix4f> matrices = new ObjectPool<Matrix4f>(new Matrix4f(), 200);
-	
 	private HashMap<Font, TextRenderer> textRenderers = new HashMap<Font, TextRenderer>();
 	
-	private ArrayList<Matrix4f> transformStack = new ArrayList<Matrix4f>(200);
-	private Matrix4f modelTransform = new Matrix4f();
-    private Matrix4f viewTransform = new Matrix4f();
+	private final Transform2D modelTransform = new Transform2D();
+	private final Transform2D viewTransform = new Transform2D();
+	private final Transform2D combinedTransform = new Transform2D();
+	private final Transform2D textTransform = new Transform2D();
 	private RenderContext drawable;
 	
 	public JOGLGraphicsDelegate(RenderContext context, ResourceManager resourceManager, RuntimeProperties properties) {
 		this.resourceManager = resourceManager;
 		this.drawable = context;
 		this.properties = properties;
-		this.modelTransform.setIdentity();
-		this.viewTransform.setIdentity();
 	}
 		
 	public void init() {
@@ -210,7 +202,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
     
         gl.glTexCoord2f(texLeft, texBottom);
         gl.glVertex2f(0, height);
- 
+        countVertices(4);
 	}
 
 	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height, int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
@@ -250,14 +242,81 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 
         gl.glTexCoord2f(texLeft, texBottom);
         gl.glVertex2f(0, height);
-
+        countVertices(4);
 	}
 	
+	// ==================== Sprites ====================
+	public ch.blackspirit.graphics.SpriteBatch getSpriteBatch() {
+		return spriteBatch;
+	}
+	void drawSprite(ch.blackspirit.graphics.Image image, float x, float y, float width, float height, 
+			float originX, float originY, float rotation, Color4f tint, 
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		if (!(image instanceof Image)) throw new RuntimeException("Image has not been created by the JOGL Blackspirit Graphics implementation!");
+		Image joglImage = (Image)image;
+		GL gl = drawable.getGL();
+
+		startPrimitive(Primitive.IMAGE, joglImage);
+
+		TextureCoords coords = joglImage.texture.getImageTexCoords();
+		float texTop = coords.top() + (coords.bottom() - coords.top()) / image.getHeight() * subImageY; 
+		float texBottom = coords.top() + (coords.bottom() - coords.top()) / image.getHeight() * (subImageY + subImageHeight);
+		float texLeft = coords.left() + (coords.right() - coords.left()) / image.getWidth() * subImageX;
+		float texRight = coords.left() + (coords.right() - coords.left()) / image.getWidth() * (subImageX + subImageWidth);
+
+		if(flip == Flip.BOTH || flip == Flip.HORIZONTAL) {
+			float temp = texTop;
+			texTop = texBottom;
+			texBottom = temp;
+		}
+		if(flip == Flip.BOTH || flip == Flip.VERTICAL) {
+			float temp = texLeft;
+			texLeft = texRight;
+			texRight = temp;
+		}
+
+		// corners relative to the origin
+		float left = -originX;
+		float top = -originY;
+		float right = width - originX;
+		float bottom = height - originY;
+		x += originX;
+		y += originY;
+
+		float x1, y1, x2, y2, x3, y3, x4, y4;
+		if(rotation == 0) {
+			x1 = x + left; y1 = y + top;
+			x2 = x + right; y2 = y + top;
+			x3 = x + right; y3 = y + bottom;
+			x4 = x + left; y4 = y + bottom;
+		} else {
+			float cos = (float)Math.cos(rotation * DEG_TO_RAD_FACTOR);
+			float sin = (float)Math.sin(rotation * DEG_TO_RAD_FACTOR);
+			x1 = x + cos * left - sin * top; y1 = y + sin * left + cos * top;
+			x2 = x + cos * right - sin * top; y2 = y + sin * right + cos * top;
+			x3 = x + cos * right - sin * bottom; y3 = y + sin * right + cos * bottom;
+			x4 = x + cos * left - sin * bottom; y4 = y + sin * left + cos * bottom;
+		}
+
+		if(tint != null) gl.glColor4f(tint.x, tint.y, tint.z, tint.w);
+		gl.glTexCoord2f(texLeft, texTop);
+		gl.glVertex2f(x1, y1);
+		gl.glTexCoord2f(texRight, texTop);
+		gl.glVertex2f(x2, y2);
+		gl.glTexCoord2f(texRight, texBottom);
+		gl.glVertex2f(x3, y3);
+		gl.glTexCoord2f(texLeft, texBottom);
+		gl.glVertex2f(x4, y4);
+		if(tint != null) gl.glColor4f(color.x, color.y, color.z, color.w);
+		countVertices(4);
+	}
+
 	// ==================== Points ====================
 	public void drawPoint(float x, float y) {
 		startPrimitive(Primitive.POINT, null);
 		GL gl = drawable.getGL();
         gl.glVertex2f(x, y);
+        countVertices(1);
 	}
 	private void applyPointSize() {
 		GL gl = drawable.getGL();
@@ -278,7 +337,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		GL gl = drawable.getGL();
         gl.glVertex2f(x1, y1);
         gl.glVertex2f(x2, y2);
-        
+        countVertices(2);
 	}
 	private void applyLineWidth() {
 		GL gl = drawable.getGL();
@@ -293,6 +352,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	public void drawLines(Line[] lines, boolean useColor) {
 		if (lines == null) throw new IllegalArgumentException("lines must not be null");
 	    startPrimitive(Primitive.LINE, null);
+		int count = 0;
 		GL gl = drawable.getGL();
 		Vector2f p;
 		if(useColor) {
@@ -300,6 +360,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			for(int i = 0; i < lines.length; i++) {
 				Line l = lines[i];
 				if(l == null) continue;
+				count++;
 
 				p = l.getPoint(0);
 				c = l.getColor(0);
@@ -319,6 +380,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			for(int i = 0; i < lines.length; i++) {
 				Line l = lines[i];
 				if(l == null) continue;
+				count++;
 
 				p = l.getPoint(0);
 			    gl.glVertex2f(p.x, p.y);
@@ -327,6 +389,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			    gl.glVertex2f(p.x, p.y);
 			}
 		}
+		countVertices(count * 2);
 	}
 	public float getLineWidth() {
 		return lineWidth;
@@ -344,6 +407,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
         gl.glVertex2f(x1, y1);
         gl.glVertex2f(x3, y3);
         gl.glVertex2f(x2, y2);
+        countVertices(3);
 	}
 	
 	private Triangle[] triangleArray = new Triangle[1];
@@ -355,6 +419,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	public void drawTriangles(Triangle[] triangles, boolean useColors) {
 		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
 	    startPrimitive(Primitive.LINE, null);
+		int count = 0;
 		GL gl = drawable.getGL();
 		Vector2f p;
 		if(useColors) {
@@ -362,6 +427,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				count++;
 			
 				p = t.getPoint(0);
 				c = t.getColor(0);
@@ -405,6 +471,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				count++;
 				
 				p = t.getPoint(0);
 			    gl.glVertex2f(p.x, p.y);
@@ -425,6 +492,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			    gl.glVertex2f(p.x, p.y);
 			}
 		}
+		countVertices(count * 6);
 	}
 
 	public void fillTriangles(Triangle[] triangles, boolean useColors) {
@@ -434,12 +502,14 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		Vector2f p;
 		
 		startPrimitive(Primitive.TRIANGLE, null);
+		int count = 0;
 
 		if(useColors) {
 			Color4f c = null;
 			for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				count++;
 
 				p = t.getPoint(0);
 				c = t.getColor(0);
@@ -465,6 +535,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				count++;
 				p = t.getPoint(0);
 		        gl.glVertex2f(p.x, p.y);
 				p = t.getPoint(1);
@@ -473,6 +544,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		        gl.glVertex2f(p.x, p.y);
 			}
 		}
+		countVertices(count * 3);
 	}
 	public void fillTriangle(Triangle triangle, boolean useColors) {
 		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
@@ -497,6 +569,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 
 		joglImage = (Image)image;
 		startPrimitive(Primitive.TEXTURED_TRIANGLE, joglImage);
+		int count = 0;
 
 		TextureCoords coords = joglImage.texture.getImageTexCoords();
 		
@@ -505,6 +578,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	    	for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				count++;
 
 				Vector2f tc1 = t.getTextureCoordinate(0);
 				if (tc1 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
@@ -545,6 +619,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	    	for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				count++;
 	
 				Vector2f tc1 = t.getTextureCoordinate(0);
 				if (tc1 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
@@ -573,6 +648,27 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		
 	    	}
 		}
+		countVertices(count * 3);
+	}
+
+	// ==================== Static Meshes ====================
+	public void drawStaticMesh(ch.blackspirit.graphics.StaticMesh mesh) {
+		if (mesh == null) throw new IllegalArgumentException("mesh must not be null");
+		if (!(mesh instanceof StaticMesh)) throw new RuntimeException("Static mesh has not been created by the JOGL Blackspirit Graphics implementation!");
+		StaticMesh joglMesh = (StaticMesh)mesh;
+		if (joglMesh.isFreed()) throw new IllegalArgumentException("mesh has been freed");
+		GL gl = drawable.getGL();
+
+		// end the current primitive and bind the texture
+		startPrimitive(null, joglMesh.getJoglTexture());
+		if(!joglMesh.isUploaded()) resourceManager.upload(gl, joglMesh);
+		applyColor();
+		joglMesh.draw(gl);
+		RenderStatistics statistics = resourceManager.getStatistics();
+		statistics.increment(RenderStatistics.DRAW_CALLS);
+		statistics.add(RenderStatistics.VERTICES, joglMesh.getTriangleCount() * 3);
+		// the current color is undefined after drawing with a color array
+		if(joglMesh.isUseColors()) applyColor();
 	}
 
 	// ==================== Text ====================
@@ -585,6 +681,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		setTextTransformation();
 		textRenderer.draw(text, 0, 0);
 		textRenderer.end3DRendering();
+		resourceManager.getStatistics().increment(RenderStatistics.TEXT_DRAWS);
 		setTransform();
 	}
 	public void getTextBounds(String text, Rectangle2D bounds) {
@@ -647,26 +744,20 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		setTransform();
 	}
 
-	private Matrix4f transformM = new Matrix4f();
 	public void rotate(float angle) {
 		endPrimitivesKeepImage();
-		transformM.setIdentity();
-		transformM.setRotation(new AxisAngle4f(new Vector3f(0f,0f,1f), angle * DEG_TO_RAD_FACTOR));
-		modelTransform.mul(transformM);
+		modelTransform.rotate(angle * DEG_TO_RAD_FACTOR);
 		applyTransform(viewTransform, modelTransform);
 	}
 	public void translate(float x, float y) {
 		endPrimitivesKeepImage();
 		// !! inverted translation behaviour !!
-		transformM.setIdentity();
-		transformM.setTranslation(new Vector3f(x, y, 0));
-		modelTransform.mul(transformM);
+		modelTransform.translate(x, y);
 		applyTransform(viewTransform, modelTransform);
 	}
 	public void scale(float x, float y) {
 		endPrimitivesKeepImage();
-		scaleMatrix(transformM, x, y, 1);
-		modelTransform.mul(transformM);
+		modelTransform.scale(x, y);
 		applyTransform(viewTransform, modelTransform);
 	}
 	public void clearTransformation() {
@@ -675,160 +766,71 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	
 	public void clearTransform() {
 		endPrimitivesKeepImage();
-		for(int i = 0; i < transformStack.size(); i++) {
-			matrices.free(transformStack.get(i));
-		}
-		transformStack.clear();
-		modelTransform.setIdentity();
+		modelTransform.clear();
 		applyTransform(viewTransform, modelTransform);
 	}
 
 	public void popTransform() {
-		if (transformStack.isEmpty()) {
-			throw new RuntimeException("No transformation left to pop from transform stack!");
-		}
 		endPrimitivesKeepImage();
-		Matrix4f m = transformStack.remove(transformStack.size() - 1);
-		modelTransform.set(m);
-		matrices.free(m);
+		modelTransform.pop();
 		applyTransform(viewTransform, modelTransform);
 	}
 
 	public void pushTransform() {
-		Matrix4f m = matrices.get();
-		m.set(modelTransform);
-		transformStack.add(m);
+		modelTransform.push();
 	}
-	private Matrix4f m1 = new Matrix4f();
-	private Matrix4f m2 = new Matrix4f();
 	
 	private void setTransform() {
 		endPrimitivesKeepImage();
-//		GL gl = drawable.getGL();
-		
-//		// Reset
-//		gl.glLoadIdentity();
-//		
-//		// Rotate to correct view
-//		gl.glRotatef(180f, 1, 0, 0);
-//		gl.glRotatef(angle, 0, 0, 1);
-//
-//		// Translate to camera
-//		gl.glTranslatef(translationX, translationY, 0);
-		viewTransform.setIdentity();
-		viewTransform.setRotation(new AxisAngle4f(new Vector3f(1,0,0), (float)Math.PI));
-		m1.setIdentity();
-		m1.setRotation(new AxisAngle4f(new Vector3f(0,0,1), angle * DEG_TO_RAD_FACTOR));
-		viewTransform.mul(m1);
-		m2.setIdentity();
-		m2.setTranslation(new Vector3f(translationX, translationY, 0));
-		viewTransform.mul(m2);
+		// rotated 180 degrees about the x axis to the correct view, rotated and translated to the camera
+		viewTransform.set(1, 0, 0, 0, -1, 0);
+		viewTransform.rotate(angle * DEG_TO_RAD_FACTOR);
+		viewTransform.translate(translationX, translationY);
 		
 		applyTransform(viewTransform, modelTransform);
 	}
-	private Matrix4f applyM = new Matrix4f();
-	private void applyTransform(Matrix4f view, Matrix4f model) {
-		applyM.setIdentity();
-		applyM.mul(view);
-		applyM.mul(model);
-		applyTransform(applyM);
+	private void applyTransform(Transform2D view, Transform2D model) {
+		combinedTransform.set(view);
+		combinedTransform.multiply(model);
+		applyTransform(combinedTransform);
 	}
 	public void setTransform(Matrix3f matrix) {
-		convert(matrix, modelTransform);
+		endPrimitivesKeepImage();
+		// only the affine part of the matrix is used
+		modelTransform.set(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
+		applyTransform(viewTransform, modelTransform);
 	}
 	public void applyTransform(Matrix3f matrix) {
-		convert(matrix, applyM);
-		modelTransform.mul(applyM);
+		endPrimitivesKeepImage();
+		modelTransform.multiply(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
 		applyTransform(viewTransform, modelTransform);
 	}
-	private void convert(Matrix3f from, Matrix4f to) {
-		to.m00 = from.m00;
-		to.m01 = from.m01;
-		to.m02 = 0f;
-		to.m03 = from.m02;
-		to.m10 = from.m10;
-		to.m11 = from.m11;
-		to.m12 = 0f;
-		to.m13 = from.m12;
-		to.m20 = 0f;
-		to.m21 = 0f;
-		to.m22 = 1f;
-		to.m23 = 0f;
-		to.m30 = from.m20;
-		to.m31 = from.m21;
-		to.m32 = 0f;
-		to.m33 = from.m22;
-	}
 	public void getTransform(Matrix3f matrix) {
 		matrix.m00 = modelTransform.m00;
 		matrix.m01 = modelTransform.m01;
-		matrix.m02 = modelTransform.m03;
+		matrix.m02 = modelTransform.m02;
 		matrix.m10 = modelTransform.m10;
 		matrix.m11 = modelTransform.m11;
-		matrix.m12 = modelTransform.m13;
-		matrix.m20 = modelTransform.m30;
-		matrix.m21 = modelTransform.m31;
-		matrix.m22 = modelTransform.m33;
-	}
-	
-	private final void scaleMatrix(Matrix4f m, float x, float y, float z) {
-		m.setIdentity();
-		m.m00 = x;
-		m.m11 = y;
-		m.m22 = z;
+		matrix.m12 = modelTransform.m12;
+		matrix.m20 = 0;
+		matrix.m21 = 0;
+		matrix.m22 = 1;
 	}
 	
-	float[] applyMArray = new float[16];
-	private void applyTransform(Matrix4f matrix) {
+	private float[] applyMArray = new float[16];
+	private void applyTransform(Transform2D transform) {
 		GL gl = drawable.getGL();
-		gl.glLoadIdentity();
-		convert(matrix, applyMArray);
-		gl.glMultMatrixf(applyMArray, 0);
-	}
-	private void convert(Matrix4f m, float[] d) {
-		d[0] = m.m00;
-		d[1] = m.m10;
-		d[2] = m.m20;
-		d[3] = m.m30;
-		d[4] = m.m01;
-		d[5] = m.m11;
-		d[6] = m.m21;
-		d[7] = m.m31;
-		d[8] = m.m02;
-		d[9] = m.m12;
-		d[10] = m.m22;
-		d[11] = m.m32;
-		d[12] = m.m03;
-		d[13] = m.m13;
-		d[14] = m.m23;
-		d[15] = m.m33;
-	}
-	private Matrix4f textTransform = new Matrix4f();
+		transform.get(applyMArray);
+		gl.glLoadMatrixf(applyMArray, 0);
+		resourceManager.getStatistics().increment(RenderStatistics.TRANSFORM_LOADS);
+	}
 	private void setTextTransformation() {
 		endPrimitives();
-//		GL gl = drawable.getGL();
-//		
-//		// Reset
-//		gl.glLoadIdentity();
-//		// Rotate to correct view
-//		gl.glRotatef(180f, 1, 0, 0);
-//		// Translate to camera
-//		gl.glTranslatef(translationX, translationY, 0);
-//		
-//		// Recreate correct transformation
-//		for(int i = 0; i < transforms.size(); i++) {
-//			transforms.get(i).apply(gl);
-//		}
-//		gl.glScalef(1, -1, 1);
-		
-		textTransform.setIdentity();
-		textTransform.setRotation(new AxisAngle4f(new Vector3f(1,0,0), (float)Math.PI));
-		m1.setIdentity();
-		m1.setTranslation(new Vector3f(translationX, translationY, 0));
-		textTransform.mul(m1);
-		textTransform.mul(modelTransform);
-		scaleMatrix(m2, 1, -1, 1);
-		textTransform.mul(m2);
+		// view without camera rotation, the model transformation and the text flipped upright
+		textTransform.set(1, 0, 0, 0, -1, 0);
+		textTransform.translate(translationX, translationY);
+		textTransform.multiply(modelTransform);
+		textTransform.scale(1, -1);
 		
 		applyTransform(textTransform);
 	}
@@ -887,6 +889,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		applyDrawingMode();
 	}
 	public void applyDrawingMode() {
+		resourceManager.getStatistics().increment(RenderStatistics.DRAWING_MODE_CHANGES);
 		boolean isGlExtBlendSubtractSupported = properties.getPropertyBoolean(Properties.IS_DRAWING_MODE_SUBTRACT_SUPPORTED);
 		GL gl = drawable.getGL();
 		if(drawingMode == DrawingMode.ALPHA_BLEND) {
@@ -973,6 +976,9 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	public void endPrimitives() {
 		startPrimitive(null, null);
 	}
+	private void countVertices(int count) {
+		resourceManager.getStatistics().add(RenderStatistics.VERTICES, count);
+	}
 	private boolean ended = true;
 	private void startPrimitive(Primitive primitive, Image image) {
 		// end last primitive if necessary
@@ -1008,6 +1014,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			}
 			if(image != null) {
 				image.texture.bind();
+				resourceManager.getStatistics().increment(RenderStatistics.TEXTURE_BINDS);
 			}
 		}
 		// start new primitive if necessary
@@ -1025,6 +1032,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			if(primitive == Primitive.IMAGE) {
 				gl.glBegin(GL.GL_QUADS);
 			}
+			resourceManager.getStatistics().increment(RenderStatistics.DRAW_CALLS);
 			
 			ended = false;
 		}
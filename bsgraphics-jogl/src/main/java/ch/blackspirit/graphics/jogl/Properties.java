@@ -34,4 +34,46 @@ public final class Properties {
 	 * Long property
 	 */
 	public static final String MAX_IMAGE_DRAWING_HEIGHT = "ch.blackspirit.graphics.jogl.image.draw.height";
+
+	/**
+	 * Prefix shared by all per frame rendering statistics properties.
+	 */
+	public static final String STATISTICS_PREFIX = "ch.blackspirit.graphics.jogl.stats.";
+	/**
+	 * Suffix to append to a statistics property to get its average over the last 60 frames instead 
+	 * of the value of the last frame, e.g. <code>DRAW_CALLS_PER_FRAME + AVERAGE</code>
+	 */
+	public static final String AVERAGE = ".average";
+	/**
+	 * Long property, number of draw calls made during the last frame
+	 */
+	public static final String DRAW_CALLS_PER_FRAME = STATISTICS_PREFIX + "drawcalls";
+	/**
+	 * Long property, number of vertices submitted during the last frame
+	 */
+	public static final String VERTICES_PER_FRAME = STATISTICS_PREFIX + "vertices";
+	/**
+	 * Long property, number of texture binds during the last frame
+	 */
+	public static final String TEXTURE_BINDS_PER_FRAME = STATISTICS_PREFIX + "texturebinds";
+	/**
+	 * Long property, number of drawing mode changes applied during the last frame
+	 */
+	public static final String DRAWING_MODE_CHANGES_PER_FRAME = STATISTICS_PREFIX + "drawingmodes";
+	/**
+	 * Long property, number of transformations loaded into the GL during the last frame
+	 */
+	public static final String TRANSFORM_LOADS_PER_FRAME = STATISTICS_PREFIX + "transforms";
+	/**
+	 * Long property, number of texts drawn during the last frame
+	 */
+	public static final String TEXT_DRAWS_PER_FRAME = STATISTICS_PREFIX + "texts";
+	/**
+	 * Long property, number of texture uploads during the last frame
+	 */
+	public static final String TEXTURE_UPLOADS_PER_FRAME = STATISTICS_PREFIX + "uploads";
+	/**
+	 * Long property, number of image bytes read back from the graphics card during the last frame
+	 */
+	public static final String READBACK_BYTES_PER_FRAME = STATISTICS_PREFIX + "readback.bytes";
 }
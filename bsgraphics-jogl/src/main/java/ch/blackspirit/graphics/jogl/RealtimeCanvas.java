@@ -503,6 +503,8 @@ final class RealtimeCanvas extends AbstractGraphicsContext implements ch.blacksp
 			return maxImageDrawingHeight;
 		} else if(Properties.MAX_IMAGE_DRAWING_WIDTH.equals(property)) {
 			return maxImageDrawingWidth;
+		} else if(property.startsWith(Properties.STATISTICS_PREFIX)) {
+			return resourceManager.getStatistics().getProperty(property);
 		}
 		throw new IllegalArgumentException("No such property: " + property);
 	}
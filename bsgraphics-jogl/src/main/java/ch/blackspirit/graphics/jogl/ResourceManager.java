@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -31,6 +32,8 @@ import javax.media.opengl.GLException;
 
 import ch.blackspirit.graphics.Canvas;
 import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.ImageUpdateListener;
+import ch.blackspirit.graphics.Triangle;
 import ch.blackspirit.graphics.pool.ObjectPool;
 
 import com.sun.opengl.util.j2d.TextRenderer;
@@ -52,9 +55,16 @@ final class ResourceManager implements
 	private HashMap<Font, TextRenderer> textRenderers = 
 		new HashMap<Font, TextRenderer>();
 
+	private HashSet<StaticMesh> staticMeshes = 
+		new HashSet<StaticMesh>();
+
+	private CopyOnWriteArrayList<ImageUpdateListener> imageUpdateListeners = 
+		new CopyOnWriteArrayList<ImageUpdateListener>();
+
 	private GLExecutor glExecutor;
 
 	private BufferRegionUpdate bufferRegionUpdate;
+	private final RenderStatistics statistics = new RenderStatistics();
 
 	private ObjectPool<FreeImage> freeImagePool = new ObjectPool<FreeImage>(new FreeImage(), 10);
 	private ObjectPool<FreeImages> freeImagesPool = new ObjectPool<FreeImages>(new FreeImages(), 10);
@@ -66,6 +76,9 @@ final class ResourceManager implements
 	
 	private ObjectPool<UpdateCache> updateCachePool = new ObjectPool<UpdateCache>(new UpdateCache(), 10);
 	private ObjectPool<UpdateCacheRegion> updateCacheRegionPool = new ObjectPool<UpdateCacheRegion>(new UpdateCacheRegion(), 10);
+
+	private ObjectPool<UploadStaticMesh> uploadStaticMeshPool = new ObjectPool<UploadStaticMesh>(new UploadStaticMesh(), 10);
+	private ObjectPool<FreeStaticMesh> freeStaticMeshPool = new ObjectPool<FreeStaticMesh>(new FreeStaticMesh(), 10);
 	
 	private ArrayList<GLExecutable> failedExecutables = new ArrayList<GLExecutable>(100);
 	
@@ -74,6 +87,13 @@ final class ResourceManager implements
 		this.bufferRegionUpdate = new BufferRegionUpdate(canvas);
 	}
 	
+	/**
+	 * @return Rendering statistics of the canvas and its image graphics contexts.
+	 */
+	RenderStatistics getStatistics() {
+		return statistics;
+	}
+	
 	void cleanup() {
 		int failed = failedExecutables.size();
 		for(int i = 0; i < failed; i++) {
@@ -90,6 +110,7 @@ final class ResourceManager implements
 			else if(executable instanceof FreeFont) freeFontPool.free((FreeFont)executable);
 			else if(executable instanceof FreeFonts) freeFontsPool.free((FreeFonts)executable);
 			else if(executable instanceof CacheFont) cacheFontPool.free((CacheFont)executable);
+			else if(executable instanceof FreeStaticMesh) freeStaticMeshPool.free((FreeStaticMesh)executable);
 		}
 		failedExecutables.clear();
 	}
@@ -189,9 +210,70 @@ final class ResourceManager implements
 	}
 
 	
-	void refreshCache() {
+	void refreshCache(GL gl) {
 		refreshImageCache();
 		refreshFontCache();
+		refreshStaticMeshCache(gl);
+	}
+
+	/* -------------------- Static Mesh Management -------------------- */
+	public ch.blackspirit.graphics.StaticMesh createStaticMesh(Triangle[] triangles, boolean useColors, Image texture) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		ch.blackspirit.graphics.jogl.Image joglImage = null;
+		if(texture != null) {
+			if(!(texture instanceof ch.blackspirit.graphics.jogl.Image)) throw new RuntimeException("Image has not been created by the JOGL Blackspirit Graphics implementation!");
+			joglImage = (ch.blackspirit.graphics.jogl.Image)texture;
+			if(joglImage.resourceManager != this) throw new RuntimeException("Image has not been created in the same canvas!");
+		}
+		StaticMesh mesh = new StaticMesh(triangles, useColors, joglImage, this);
+		staticMeshes.add(mesh);
+		
+		// if this fails, the mesh is uploaded when first drawn
+		UploadStaticMesh executable = uploadStaticMeshPool.get();
+		executable.resourceManager = this;
+		executable.mesh = mesh;
+		boolean success = glExecutor.execute(executable);
+		uploadStaticMeshPool.free(executable);
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Uploading static mesh " + (success ? "succeeded" : "failed") + ": " + mesh);
+		return mesh;
+	}
+	public void freeStaticMesh(ch.blackspirit.graphics.StaticMesh mesh) {
+		if(!(mesh instanceof StaticMesh)) throw new RuntimeException("Static mesh has not been created by the JOGL Blackspirit Graphics implementation!");
+		StaticMesh joglMesh = (StaticMesh)mesh;
+		if(joglMesh.resourceManager != this) throw new RuntimeException("Static mesh has not been created in the same canvas!");
+		if(joglMesh.isFreed()) return;
+		joglMesh.setFreed();
+		staticMeshes.remove(joglMesh);
+		
+		FreeStaticMesh executable = freeStaticMeshPool.get();
+		executable.mesh = joglMesh;
+		if(!glExecutor.execute(executable)) {
+			failedExecutables.add(executable);
+		} else {
+			freeStaticMeshPool.free(executable);
+		}
+	}
+	
+	void upload(GL gl, StaticMesh mesh) {
+		if(mesh.resourceManager != this) throw new RuntimeException("Static mesh has not been created in the same canvas!");
+		if(mesh.isFreed()) throw new IllegalArgumentException("Static mesh has been freed");
+		ch.blackspirit.graphics.jogl.Image texture = mesh.getJoglTexture();
+		if(texture != null && texture.texture == null) {
+			try {
+				cache(texture);
+			} catch (IOException e) {
+				throw new RuntimeException("Error caching static mesh texture: " + texture.toString(), e);
+			}
+		}
+		mesh.upload(gl);
+	}
+	
+	private void refreshStaticMeshCache(GL gl) {
+		for(StaticMesh mesh: staticMeshes) {
+			// buffer objects of the lost context are gone
+			mesh.invalidate();
+			upload(gl, mesh);
+		}
 	}
 
 	/* -------------------- Font Management -------------------- */
@@ -245,6 +327,24 @@ final class ResourceManager implements
 
 	/* -------------------- Image Management -------------------- */
 	
+	public void addImageUpdateListener(ImageUpdateListener listener) {
+		imageUpdateListeners.add(listener);
+	}
+	public void removeImageUpdateListener(ImageUpdateListener listener) {
+		imageUpdateListeners.remove(listener);
+	}
+	private void fireCacheUpdated(Image image) {
+		for(ImageUpdateListener listener: imageUpdateListeners) {
+			listener.cacheUpdated(image);
+		}
+	}
+
+	private void fireBufferUpdated(Image image) {
+		for(ImageUpdateListener listener: imageUpdateListeners) {
+			listener.bufferUpdated(image);
+		}
+	}
+
 	public Collection<ch.blackspirit.graphics.Image> getCachedImages() {
 		return new HashSet<Image>(cachedImages);
 	}
@@ -279,8 +379,20 @@ final class ResourceManager implements
 		bufferRegionUpdate.y = yOffset;
 		bufferRegionUpdate.width = width;
 		bufferRegionUpdate.height = height;
+		statistics.add(RenderStatistics.READBACK_BYTES, (long)width * height * getBytesPerPixel(image));
 		
-		glExecutor.execute(bufferRegionUpdate);
+		if(glExecutor.execute(bufferRegionUpdate)) {
+			fireBufferUpdated(image);
+		}
+	}
+
+	/**
+	 * @return 4 bytes per pixel for buffer types with alpha, 3 for those without. 
+	 * Images without a buffer are assumed to have alpha.
+	 */
+	private static int getBytesPerPixel(ch.blackspirit.graphics.jogl.Image image) {
+		if(image.getBufferType() == null || image.getBufferType().isAlphaSupported()) return 4;
+		return 3;
 	}
 
 	void cache(Image image) throws IOException {
@@ -303,6 +415,7 @@ final class ResourceManager implements
 	private void cacheBuffered(ch.blackspirit.graphics.jogl.Image image) {
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Caching buffered image: " + image.toString());
 		image.texture = TextureIO.newTexture(image.getTextureData());
+		statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
 
 		// Default?
 		image.texture.setTexParameteri(GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
@@ -317,6 +430,7 @@ final class ResourceManager implements
 		TextureData textureData = image.createTextureData();
 		image.texture = TextureIO.newTexture(textureData);
 		textureData.flush();
+		statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
 		// Default?
 		image.texture.setTexParameteri(GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
 		image.texture.setTexParameteri(GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
@@ -367,9 +481,13 @@ final class ResourceManager implements
 		
 		if(image.resourceManager != this) throw new RuntimeException("Image has not been created in the same canvas!");
 		if(image.texture == null) cacheBuffered(image);
-		else image.texture.updateImage(image.getTextureData());
+		else {
+			image.texture.updateImage(image.getTextureData());
+			statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
+		}
 
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Update buffered image cache took " + (System.nanoTime() - time) + "ns");
+		fireCacheUpdated(image);
 	}
 	
 	private void updateBufferedCache(ch.blackspirit.graphics.jogl.Image image, int offsetX, int offsetY, int width, int height) {
@@ -378,10 +496,14 @@ final class ResourceManager implements
 		
 		if(image.resourceManager != this) throw new RuntimeException("Image has not been created in the same canvas!");
 		if(image.texture == null) cacheBuffered(image);
-		else image.texture.updateSubImage(image.getTextureData(), 0, offsetX, offsetY, offsetX, offsetY, width, height);
+		else {
+			image.texture.updateSubImage(image.getTextureData(), 0, offsetX, offsetY, offsetX, offsetY, width, height);
+			statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
+		}
 //		else image.texture.updateSubImage(image.getTextureData(), 0, 10, 2, 0, 63, width, height);
 		
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Update buffered image cache region took " + (System.nanoTime() - time) + "ns");
+		fireCacheUpdated(image);
 	}
 	
 	/* ----------- GLExecutables -------------- */
@@ -433,6 +555,20 @@ final class ResourceManager implements
 		}
 	}
 
+	public static class UploadStaticMesh implements GLExecutable {
+		ResourceManager resourceManager;
+		StaticMesh mesh;
+		public void execute(GLDrawable drawable, GL gl) {
+			resourceManager.upload(gl, mesh);
+		}
+	}
+	public static class FreeStaticMesh implements GLExecutable {
+		StaticMesh mesh;
+		public void execute(GLDrawable drawable, GL gl) {
+			mesh.free(gl);
+		}
+	}
+
 	public static class FreeFonts implements GLExecutable {
 		ResourceManager resourceManager;
 		public void execute(GLDrawable drawable, GL gl) {
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl;
+
+import java.nio.FloatBuffer;
+
+import javax.media.opengl.GL;
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import ch.blackspirit.graphics.Triangle;
+
+import com.sun.opengl.util.BufferUtil;
+import com.sun.opengl.util.texture.TextureCoords;
+
+/**
+ * Triangles uploaded once into a vertex buffer object as interleaved position, color and texture coordinate.
+ * If vertex buffer objects are not supported, the data is drawn from a client side vertex array.
+ * @author Markus Koller
+ */
+final class StaticMesh implements ch.blackspirit.graphics.StaticMesh {
+	private static final int POSITION_SIZE = 2;
+	private static final int COLOR_SIZE = 4;
+	private static final int TEXTURE_COORDINATE_SIZE = 2;
+	private static final int VERTEX_SIZE = POSITION_SIZE + COLOR_SIZE + TEXTURE_COORDINATE_SIZE;
+	private static final int STRIDE = VERTEX_SIZE * BufferUtil.SIZEOF_FLOAT;
+	private static final int COLOR_OFFSET = POSITION_SIZE;
+	private static final int TEXTURE_COORDINATE_OFFSET = POSITION_SIZE + COLOR_SIZE;
+
+	private static final Color4f WHITE = new Color4f(1, 1, 1, 1);
+
+	ResourceManager resourceManager;
+
+	private final int triangleCount;
+	private final boolean useColors;
+	private final Image texture;
+	// texture coordinates in image pixels, converted to texture coordinates on upload
+	private final float[] vertices;
+	private boolean freed = false;
+
+	// GL resources, set when uploaded
+	private FloatBuffer buffer = null;
+	private int bufferObject = 0;
+	private boolean uploaded = false;
+
+	public StaticMesh(Triangle[] triangles, boolean useColors, Image texture, ResourceManager resourceManager) {
+		this.useColors = useColors;
+		this.texture = texture;
+		this.resourceManager = resourceManager;
+
+		int count = 0;
+		for(int i = 0; i < triangles.length; i++) {
+			if(triangles[i] != null) count++;
+		}
+		this.triangleCount = count;
+		this.vertices = new float[count * 3 * VERTEX_SIZE];
+
+		int index = 0;
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			for(int p = 0; p < 3; p++) {
+				Vector2f point = t.getPoint(p);
+				Color4f color = useColors ? t.getColor(p) : null;
+				if(color == null) color = WHITE;
+				vertices[index++] = point.x;
+				vertices[index++] = point.y;
+				vertices[index++] = color.x;
+				vertices[index++] = color.y;
+				vertices[index++] = color.z;
+				vertices[index++] = color.w;
+				if(texture != null) {
+					Vector2f textureCoordinate = t.getTextureCoordinate(p);
+					if (textureCoordinate == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+					vertices[index++] = textureCoordinate.x;
+					vertices[index++] = textureCoordinate.y;
+				} else {
+					index += TEXTURE_COORDINATE_SIZE;
+				}
+			}
+		}
+	}
+
+	public int getTriangleCount() {
+		return triangleCount;
+	}
+	public ch.blackspirit.graphics.Image getTexture() {
+		return texture;
+	}
+	Image getJoglTexture() {
+		return texture;
+	}
+	public boolean isUseColors() {
+		return useColors;
+	}
+	public boolean isFreed() {
+		return freed;
+	}
+	boolean isUploaded() {
+		return uploaded;
+	}
+
+	/**
+	 * Uploads the mesh. The texture, if any, must be cached.
+	 */
+	void upload(GL gl) {
+		if(buffer == null) buffer = BufferUtil.newFloatBuffer(vertices.length);
+		buffer.clear();
+		buffer.put(vertices);
+		if(texture != null) {
+			// convert image pixels to texture coordinates
+			TextureCoords coords = texture.texture.getImageTexCoords();
+			float factorX = (coords.right() - coords.left()) / texture.texture.getImageWidth();
+			float factorY = (coords.bottom() - coords.top()) / texture.texture.getImageHeight();
+			for(int i = TEXTURE_COORDINATE_OFFSET; i < vertices.length; i += VERTEX_SIZE) {
+				buffer.put(i, coords.left() + factorX * vertices[i]);
+				buffer.put(i + 1, coords.top() + factorY * vertices[i + 1]);
+			}
+		}
+		buffer.flip();
+
+		if(gl.isFunctionAvailable("glGenBuffers")) {
+			if(bufferObject == 0) {
+				int[] name = new int[1];
+				gl.glGenBuffers(1, name, 0);
+				bufferObject = name[0];
+			}
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObject);
+			gl.glBufferData(GL.GL_ARRAY_BUFFER, vertices.length * BufferUtil.SIZEOF_FLOAT, buffer, GL.GL_STATIC_DRAW);
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+			// the data is kept by the buffer object
+			buffer = null;
+		}
+		uploaded = true;
+	}
+
+	/**
+	 * Draws the mesh with the current transformation, texture and color. The mesh must be uploaded.
+	 */
+	void draw(GL gl) {
+		if(triangleCount == 0) return;
+		gl.glEnableClientState(GL.GL_VERTEX_ARRAY);
+		if(useColors) gl.glEnableClientState(GL.GL_COLOR_ARRAY);
+		if(texture != null) gl.glEnableClientState(GL.GL_TEXTURE_COORD_ARRAY);
+
+		if(bufferObject != 0) {
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObject);
+			gl.glVertexPointer(POSITION_SIZE, GL.GL_FLOAT, STRIDE, 0);
+			if(useColors) gl.glColorPointer(COLOR_SIZE, GL.GL_FLOAT, STRIDE, COLOR_OFFSET * BufferUtil.SIZEOF_FLOAT);
+			if(texture != null) gl.glTexCoordPointer(TEXTURE_COORDINATE_SIZE, GL.GL_FLOAT, STRIDE, TEXTURE_COORDINATE_OFFSET * BufferUtil.SIZEOF_FLOAT);
+		} else {
+			buffer.position(0);
+			gl.glVertexPointer(POSITION_SIZE, GL.GL_FLOAT, STRIDE, buffer);
+			if(useColors) {
+				buffer.position(COLOR_OFFSET);
+				gl.glColorPointer(COLOR_SIZE, GL.GL_FLOAT, STRIDE, buffer.slice());
+			}
+			if(texture != null) {
+				buffer.position(TEXTURE_COORDINATE_OFFSET);
+				gl.glTexCoordPointer(TEXTURE_COORDINATE_SIZE, GL.GL_FLOAT, STRIDE, buffer.slice());
+			}
+			buffer.position(0);
+		}
+
+		gl.glDrawArrays(GL.GL_TRIANGLES, 0, triangleCount * 3);
+
+		if(bufferObject != 0) gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		if(texture != null) gl.glDisableClientState(GL.GL_TEXTURE_COORD_ARRAY);
+		if(useColors) gl.glDisableClientState(GL.GL_COLOR_ARRAY);
+		gl.glDisableClientState(GL.GL_VERTEX_ARRAY);
+	}
+
+	/**
+	 * Forgets about GL resources after the context has been lost.
+	 */
+	void invalidate() {
+		bufferObject = 0;
+		uploaded = false;
+	}
+
+	/**
+	 * Frees the GL resources. The mesh can not be drawn anymore.
+	 */
+	void free(GL gl) {
+		if(bufferObject != 0) gl.glDeleteBuffers(1, new int[] {bufferObject}, 0);
+		bufferObject = 0;
+		buffer = null;
+		uploaded = false;
+	}
+	void setFreed() {
+		freed = true;
+	}
+}
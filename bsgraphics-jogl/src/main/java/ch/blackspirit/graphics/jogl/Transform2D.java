@@ -0,0 +1,151 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl;
+
+import java.util.Arrays;
+
+/**
+ * 2D affine transformation with a stack of saved transformations, avoiding allocation 
+ * and full 4x4 matrix multiplications. The transformation maps a point (x, y) to 
+ * (m00 * x + m01 * y + m02, m10 * x + m11 * y + m12).<br/>
+ * Saved transformations are kept in a flat array of six floats per level.
+ * @author Markus Koller
+ */
+final class Transform2D {
+	/** Number of floats per saved transformation */
+	private static final int SIZE = 6;
+
+	float m00 = 1;
+	float m01 = 0;
+	float m02 = 0;
+	float m10 = 0;
+	float m11 = 1;
+	float m12 = 0;
+
+	private float[] stack = new float[SIZE * 32];
+	private int depth = 0;
+
+	public void setIdentity() {
+		set(1, 0, 0, 0, 1, 0);
+	}
+	public void set(float m00, float m01, float m02, float m10, float m11, float m12) {
+		this.m00 = m00;
+		this.m01 = m01;
+		this.m02 = m02;
+		this.m10 = m10;
+		this.m11 = m11;
+		this.m12 = m12;
+	}
+	public void set(Transform2D transform) {
+		set(transform.m00, transform.m01, transform.m02, transform.m10, transform.m11, transform.m12);
+	}
+
+	/**
+	 * Multiplies this transformation with the given one, which is applied to points first.
+	 */
+	public void multiply(float n00, float n01, float n02, float n10, float n11, float n12) {
+		float t00 = m00 * n00 + m01 * n10;
+		float t01 = m00 * n01 + m01 * n11;
+		float t02 = m00 * n02 + m01 * n12 + m02;
+		float t10 = m10 * n00 + m11 * n10;
+		float t11 = m10 * n01 + m11 * n11;
+		float t12 = m10 * n02 + m11 * n12 + m12;
+		set(t00, t01, t02, t10, t11, t12);
+	}
+	public void multiply(Transform2D transform) {
+		multiply(transform.m00, transform.m01, transform.m02, transform.m10, transform.m11, transform.m12);
+	}
+	public void translate(float x, float y) {
+		m02 += m00 * x + m01 * y;
+		m12 += m10 * x + m11 * y;
+	}
+	/**
+	 * @param angle Angle in radians.
+	 */
+	public void rotate(float angle) {
+		float cos = (float)Math.cos(angle);
+		float sin = (float)Math.sin(angle);
+		float t00 = m00 * cos + m01 * sin;
+		float t01 = m01 * cos - m00 * sin;
+		float t10 = m10 * cos + m11 * sin;
+		float t11 = m11 * cos - m10 * sin;
+		m00 = t00;
+		m01 = t01;
+		m10 = t10;
+		m11 = t11;
+	}
+	public void scale(float x, float y) {
+		m00 *= x;
+		m10 *= x;
+		m01 *= y;
+		m11 *= y;
+	}
+
+	/**
+	 * Saves the current transformation on the stack.
+	 */
+	public void push() {
+		int index = depth * SIZE;
+		if(index == stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+		float[] s = stack;
+		s[index] = m00;
+		s[index + 1] = m01;
+		s[index + 2] = m02;
+		s[index + 3] = m10;
+		s[index + 4] = m11;
+		s[index + 5] = m12;
+		depth++;
+	}
+	/**
+	 * Restores the last saved transformation.
+	 */
+	public void pop() {
+		if(depth == 0) throw new RuntimeException("No transformation left to pop from transform stack!");
+		depth--;
+		int index = depth * SIZE;
+		float[] s = stack;
+		set(s[index], s[index + 1], s[index + 2], s[index + 3], s[index + 4], s[index + 5]);
+	}
+	/**
+	 * Empties the stack and resets the transformation to identity.
+	 */
+	public void clear() {
+		depth = 0;
+		setIdentity();
+	}
+
+	/**
+	 * Writes the transformation as a column major 4x4 matrix as used by glLoadMatrixf.
+	 */
+	public void get(float[] matrix) {
+		matrix[0] = m00;
+		matrix[1] = m10;
+		matrix[2] = 0;
+		matrix[3] = 0;
+		matrix[4] = m01;
+		matrix[5] = m11;
+		matrix[6] = 0;
+		matrix[7] = 0;
+		matrix[8] = 0;
+		matrix[9] = 0;
+		matrix[10] = 1;
+		matrix[11] = 0;
+		matrix[12] = m02;
+		matrix[13] = m12;
+		matrix[14] = 0;
+		matrix[15] = 1;
+	}
+}
@@ -15,6 +15,10 @@
  */
 package ch.blackspirit.graphics.jogl2;
 
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import ch.blackspirit.graphics.Canvas;
+import ch.blackspirit.graphics.FrameListener;
 import ch.blackspirit.graphics.GraphicsContext;
 
 // TODO get rid off this class
@@ -24,6 +28,7 @@ import ch.blackspirit.graphics.GraphicsContext;
 abstract class AbstractGraphicsContext implements GraphicsContext {
 	private static boolean drawing = false;
 	private static AbstractGraphicsContext drawingGraphicsContext = null;
+	private final CopyOnWriteArrayList<FrameListener> frameListeners = new CopyOnWriteArrayList<FrameListener>();
 	
 	protected void startDrawing() {
 		if(drawing) throw new RuntimeException("Drawing on more than one graphics contexts at once is not allowed.");
@@ -41,4 +46,17 @@ abstract class AbstractGraphicsContext implements GraphicsContext {
 	public static boolean isDrawing() {
 		return drawing;
 	}
+
+	public void addFrameListener(FrameListener listener) {
+		if(listener == null) throw new IllegalArgumentException("listener must not be null");
+		frameListeners.add(listener);
+	}
+	public void removeFrameListener(FrameListener listener) {
+		frameListeners.remove(listener);
+	}
+	protected void fireFrameFinished(Canvas canvas) {
+		for(FrameListener listener: frameListeners) {
+			listener.frameFinished(canvas);
+		}
+	}
 }
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLProfile;
+
+import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureCoords;
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+/**
+ * Texture shared by several small images, placed using a skyline bottom left packer.<br/>
+ * The edge pixels of each image are repeated around it (extrusion) and images are separated by 
+ * padding so linear filtering does not pick up pixels of neighbouring images.
+ * The packed images use the page texture and their own texture coordinates.
+ * @author Markus Koller
+ */
+final class AtlasPage {
+	/** Number of times the edge pixels are repeated around each image */
+	static final int EXTRUSION = 1;
+	/** Empty pixels between the extruded images */
+	static final int PADDING = 1;
+
+	private static final Comparator<Image> HEIGHT_DESCENDING = new Comparator<Image>() {
+		public int compare(Image image1, Image image2) {
+			return image2.getHeight() - image1.getHeight();
+		}
+	};
+
+	private final int size;
+	// identifies the page texture when sorting deferred render commands
+	final int sortId = Image.SORT_IDS.incrementAndGet();
+	Texture texture = null;
+
+	private final HashSet<Image> images = new HashSet<Image>();
+	private long freedArea = 0;
+
+	// skyline segments, sorted by x and covering the whole page width
+	private int[] skylineX = new int[16];
+	private int[] skylineY = new int[16];
+	private int[] skylineWidth = new int[16];
+	private int segments;
+
+	// position found by the last call to findPosition
+	private int foundX;
+	private int foundY;
+
+	public AtlasPage(int size) {
+		this.size = size;
+		clearSkyline();
+	}
+
+	/**
+	 * @return Width and height of the slot needed to pack an image of the given size.
+	 */
+	static int getSlotSize(int imageSize) {
+		return imageSize + 2 * EXTRUSION + PADDING;
+	}
+	/**
+	 * @return <code>true</code> if the texture data can be copied into an atlas page.
+	 */
+	static boolean isSupported(TextureData data) {
+		return (data.getPixelFormat() == GL.GL_RGBA || data.getPixelFormat() == GL.GL_RGB) &&
+			data.getPixelType() == GL.GL_UNSIGNED_BYTE &&
+			!data.isDataCompressed() && data.getMipmapData() == null &&
+			data.getBuffer() instanceof ByteBuffer;
+	}
+
+	void create(GL2 gl) {
+		TextureData data = new TextureData(GLProfile.get(GLProfile.GL2), GL.GL_RGBA, size, size, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, false, false, false, ByteBuffer.wrap(new byte[size * size * 4]), null);
+		texture = TextureIO.newTexture(data);
+		data.flush();
+		texture.setTexParameteri(gl, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
+		texture.setTexParameteri(gl, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
+		texture.setTexParameteri(gl, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
+		texture.setTexParameteri(gl, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR);
+	}
+	void dispose(GL2 gl) {
+		if(texture != null) texture.dispose(gl);
+		texture = null;
+	}
+
+	/**
+	 * Packs the image into this page if there is enough space left. 
+	 * Binds the page texture.
+	 * @param gl GL to upload the image with.
+	 * @param image Image to pack.
+	 * @param data Texture data of the image.
+	 * @return <code>true</code> if the image has been packed.
+	 */
+	boolean add(GL2 gl, Image image, TextureData data) {
+		if(!reserve(getSlotSize(image.getWidth()), getSlotSize(image.getHeight()))) return false;
+		int x = foundX;
+		int y = foundY;
+
+		int width = image.getWidth() + 2 * EXTRUSION;
+		int height = image.getHeight() + 2 * EXTRUSION;
+		texture.bind(gl);
+		gl.glTexSubImage2D(GL.GL_TEXTURE_2D, 0, x, y, width, height, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, 
+				ByteBuffer.wrap(extrude(data, image.getWidth(), image.getHeight())));
+
+		float left = (float)(x + EXTRUSION) / size;
+		float top = (float)(y + EXTRUSION) / size;
+		float right = (float)(x + EXTRUSION + image.getWidth()) / size;
+		float bottom = (float)(y + EXTRUSION + image.getHeight()) / size;
+		image.texture = texture;
+		image.atlasPage = this;
+		image.atlasCoords = new TextureCoords(left, bottom, right, top);
+		images.add(image);
+		return true;
+	}
+	/**
+	 * Removes the image from this page. Its space is only reclaimed when the page is repacked.
+	 */
+	void remove(Image image) {
+		if(images.remove(image)) {
+			freedArea += (long)getSlotSize(image.getWidth()) * getSlotSize(image.getHeight());
+		}
+		image.texture = null;
+		image.atlasPage = null;
+		image.atlasCoords = null;
+	}
+	boolean isEmpty() {
+		return images.isEmpty();
+	}
+	/**
+	 * @return The last frame any image on this page has been drawn in, -1 if none has been drawn.
+	 */
+	long getLastDrawnFrame() {
+		long lastDrawnFrame = -1;
+		for(Image image: images) {
+			lastDrawnFrame = Math.max(lastDrawnFrame, image.lastDrawnFrame);
+		}
+		return lastDrawnFrame;
+	}
+	/**
+	 * @return Area in pixels of the images removed since the page has last been packed.
+	 */
+	long getFreedArea() {
+		return freedArea;
+	}
+
+	/**
+	 * Empties the page for repacking.
+	 * @return The images packed so far sorted by descending height, which packs them tighter.
+	 */
+	Image[] clear() {
+		Image[] packed = images.toArray(new Image[images.size()]);
+		Arrays.sort(packed, HEIGHT_DESCENDING);
+		for(Image image: packed) {
+			image.texture = null;
+			image.atlasPage = null;
+			image.atlasCoords = null;
+		}
+		images.clear();
+		freedArea = 0;
+		clearSkyline();
+		return packed;
+	}
+
+	/**
+	 * Reserves space for a slot on the skyline.
+	 * @return <code>true</code> if the slot fits, its position is then available 
+	 * through {@link #getReservedX()} and {@link #getReservedY()}.
+	 */
+	boolean reserve(int slotWidth, int slotHeight) {
+		int index = findPosition(slotWidth, slotHeight);
+		if(index == -1) return false;
+		place(index, foundX, foundY + slotHeight, slotWidth);
+		return true;
+	}
+	int getReservedX() {
+		return foundX;
+	}
+	int getReservedY() {
+		return foundY;
+	}
+
+	private void clearSkyline() {
+		segments = 1;
+		skylineX[0] = 0;
+		skylineY[0] = 0;
+		skylineWidth[0] = size;
+	}
+
+	/**
+	 * Finds the lowest position for a rectangle, preferring narrow segments on equal height.
+	 * @return The index of the skyline segment the rectangle starts on or -1 if it does not fit.
+	 */
+	private int findPosition(int width, int height) {
+		int bestIndex = -1;
+		int bestY = Integer.MAX_VALUE;
+		int bestWidth = Integer.MAX_VALUE;
+		for(int i = 0; i < segments; i++) {
+			int x = skylineX[i];
+			if(x + width > size) break;
+			// the rectangle rests on the highest segment below it
+			int y = 0;
+			int remaining = width;
+			for(int j = i; remaining > 0; j++) {
+				y = Math.max(y, skylineY[j]);
+				remaining -= skylineWidth[j];
+			}
+			if(y + height > size) continue;
+			if(y < bestY || (y == bestY && skylineWidth[i] < bestWidth)) {
+				bestIndex = i;
+				bestY = y;
+				bestWidth = skylineWidth[i];
+				foundX = x;
+				foundY = y;
+			}
+		}
+		return bestIndex;
+	}
+
+	/**
+	 * Raises the skyline below a newly placed rectangle.
+	 */
+	private void place(int index, int x, int y, int width) {
+		if(segments == skylineX.length) {
+			int length = segments * 2;
+			skylineX = Arrays.copyOf(skylineX, length);
+			skylineY = Arrays.copyOf(skylineY, length);
+			skylineWidth = Arrays.copyOf(skylineWidth, length);
+		}
+		System.arraycopy(skylineX, index, skylineX, index + 1, segments - index);
+		System.arraycopy(skylineY, index, skylineY, index + 1, segments - index);
+		System.arraycopy(skylineWidth, index, skylineWidth, index + 1, segments - index);
+		skylineX[index] = x;
+		skylineY[index] = y;
+		skylineWidth[index] = width;
+		segments++;
+
+		// cut off the segments covered by the new one
+		int end = x + width;
+		int i = index + 1;
+		while(i < segments && skylineX[i] < end) {
+			int covered = end - skylineX[i];
+			if(covered >= skylineWidth[i]) {
+				removeSegment(i);
+			} else {
+				skylineX[i] += covered;
+				skylineWidth[i] -= covered;
+				break;
+			}
+		}
+		// merge neighbouring segments of the same height
+		i = 0;
+		while(i < segments - 1) {
+			if(skylineY[i] == skylineY[i + 1]) {
+				skylineWidth[i] += skylineWidth[i + 1];
+				removeSegment(i + 1);
+			} else {
+				i++;
+			}
+		}
+	}
+	private void removeSegment(int index) {
+		System.arraycopy(skylineX, index + 1, skylineX, index, segments - index - 1);
+		System.arraycopy(skylineY, index + 1, skylineY, index, segments - index - 1);
+		System.arraycopy(skylineWidth, index + 1, skylineWidth, index, segments - index - 1);
+		segments--;
+	}
+
+	/**
+	 * Converts the texture data to RGBA with the top row first and repeats the edge pixels around it.
+	 */
+	private static byte[] extrude(TextureData data, int width, int height) {
+		int channels = data.getPixelFormat() == GL.GL_RGBA ? 4 : 3;
+		ByteBuffer source = (ByteBuffer)data.getBuffer();
+		int base = source.position();
+		int rowLength = data.getRowLength() > 0 ? data.getRowLength() : width;
+		int stride = rowLength * channels;
+		int alignment = data.getAlignment();
+		if(alignment > 1 && stride % alignment != 0) stride += alignment - stride % alignment;
+		// data not flipped for display stores the bottom row first
+		boolean bottomFirst = !data.getMustFlipVertically();
+
+		int extrudedWidth = width + 2 * EXTRUSION;
+		int extrudedHeight = height + 2 * EXTRUSION;
+		byte[] pixels = new byte[extrudedWidth * extrudedHeight * 4];
+		int destination = 0;
+		for(int y = 0; y < extrudedHeight; y++) {
+			int sourceY = Math.min(Math.max(y - EXTRUSION, 0), height - 1);
+			if(bottomFirst) sourceY = height - 1 - sourceY;
+			int row = base + sourceY * stride;
+			for(int x = 0; x < extrudedWidth; x++) {
+				int sourceX = Math.min(Math.max(x - EXTRUSION, 0), width - 1);
+				int offset = row + sourceX * channels;
+				pixels[destination++] = source.get(offset);
+				pixels[destination++] = source.get(offset + 1);
+				pixels[destination++] = source.get(offset + 2);
+				pixels[destination++] = channels == 4 ? source.get(offset + 3) : (byte)255;
+			}
+		}
+		return pixels;
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.nio.ByteBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLContext;
+
+/**
+ * Reads regions of the image content back into the image buffer through a pair of pixel 
+ * buffer objects.<br/>
+ * Reading the pixels into a pixel pack buffer returns without waiting for the GPU. The data 
+ * is copied into the image buffer later when the transfer has completed. With two buffers a new 
+ * readback can be started while the previous one is still in flight.
+ * @author Markus Koller
+ */
+final class BufferReadback {
+	private final Image image;
+	private final int bytesPerPixel;
+	private final int format;
+	private final int[] buffers = new int[2];
+
+	// Context the buffer objects have been created in, shared by all contexts of a canvas
+	private GLContext context = null;
+	private int current = 0;
+
+	// Readbacks in flight for each buffer
+	private final boolean[] pending = new boolean[2];
+	private final long[] frame = new long[2];
+	private final int[] x = new int[2];
+	private final int[] y = new int[2];
+	private final int[] width = new int[2];
+	private final int[] height = new int[2];
+
+	public BufferReadback(Image image) {
+		this.image = image;
+		if(image.getBufferType().isAlphaSupported()) {
+			bytesPerPixel = 4;
+			format = GL.GL_RGBA;
+		} else {
+			bytesPerPixel = 3;
+			format = GL.GL_RGB;
+		}
+	}
+
+	public Image getImage() {
+		return image;
+	}
+
+	/**
+	 * Starts reading a region of the current read buffer into the next pixel buffer object.
+	 * If that buffer is still in flight its content is written to the image buffer first.
+	 * @param gl GL to read with.
+	 * @param frame Current frame number.
+	 * @param readX X coordinate of the region in the read buffer.
+	 * @param readY Y coordinate of the region in the read buffer.
+	 * @param x X offset of the region in the image buffer.
+	 * @param y Y offset of the region in the image buffer.
+	 * @param width Width of the region.
+	 * @param height Height of the region.
+	 */
+	public void read(GL2 gl, long frame, int readX, int readY, int x, int y, int width, int height) {
+		begin(gl, width * height);
+		// writes into the bound pixel buffer object, the call returns without waiting for the GPU
+		gl.glReadPixels(readX, readY, width, height, format, GL.GL_UNSIGNED_BYTE, 0L);
+		end(gl, frame, x, y, width, height);
+	}
+	/**
+	 * Starts reading the complete texture of the image, which must have the size of the image.
+	 * @param gl GL to read with.
+	 * @param frame Current frame number.
+	 */
+	public void readTexture(GL2 gl, long frame) {
+		begin(gl, image.getWidth() * image.getHeight());
+		image.texture.bind(gl);
+		gl.glGetTexImage(image.texture.getTarget(), 0, format, GL.GL_UNSIGNED_BYTE, 0L);
+		end(gl, frame, 0, 0, image.getWidth(), image.getHeight());
+	}
+
+	private void begin(GL2 gl, int pixels) {
+		prepare(gl);
+		current = (current + 1) % buffers.length;
+		if(pending[current]) completeBuffer(gl, current);
+
+		gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, buffers[current]);
+		gl.glBufferData(GL2.GL_PIXEL_PACK_BUFFER, pixels * bytesPerPixel, null, GL2.GL_STREAM_READ);
+		gl.glPushClientAttrib(GL2.GL_CLIENT_PIXEL_STORE_BIT);
+		gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 1);
+		gl.glPixelStorei(GL2.GL_PACK_ROW_LENGTH, 0);
+		gl.glPixelStorei(GL2.GL_PACK_SKIP_PIXELS, 0);
+		gl.glPixelStorei(GL2.GL_PACK_SKIP_ROWS, 0);
+	}
+	private void end(GL2 gl, long frame, int x, int y, int width, int height) {
+		gl.glPopClientAttrib();
+		gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+
+		this.pending[current] = true;
+		this.frame[current] = frame;
+		this.x[current] = x;
+		this.y[current] = y;
+		this.width[current] = width;
+		this.height[current] = height;
+	}
+
+	/**
+	 * Writes the readbacks started before the given frame into the image buffer.
+	 * @param gl GL to map the pixel buffer objects with.
+	 * @param frame Readbacks started in this frame or later are left in flight.
+	 * @return <code>true</code> if the image buffer has been updated.
+	 */
+	public boolean complete(GL2 gl, long frame) {
+		boolean completed = false;
+		// oldest readback first
+		for(int i = 1; i <= buffers.length; i++) {
+			int index = (current + i) % buffers.length;
+			if(pending[index] && this.frame[index] < frame) {
+				completeBuffer(gl, index);
+				completed = true;
+			}
+		}
+		return completed;
+	}
+	public boolean isPending() {
+		for(int i = 0; i < pending.length; i++) {
+			if(pending[i]) return true;
+		}
+		return false;
+	}
+
+	private void completeBuffer(GL2 gl, int index) {
+		pending[index] = false;
+		gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, buffers[index]);
+		ByteBuffer mapped = gl.glMapBuffer(GL2.GL_PIXEL_PACK_BUFFER, GL2.GL_READ_ONLY);
+		if(mapped != null) {
+			// heap and direct image buffers are both written through a byte buffer view
+			ByteBuffer target = image.byteBuffer.duplicate();
+			target.clear();
+			int rowBytes = width[index] * bytesPerPixel;
+			int imageRowBytes = image.getWidth() * bytesPerPixel;
+			int offset = y[index] * imageRowBytes + x[index] * bytesPerPixel;
+			for(int row = 0; row < height[index]; row++) {
+				mapped.limit(mapped.position() + rowBytes);
+				target.position(offset);
+				target.put(mapped);
+				offset += imageRowBytes;
+			}
+			gl.glUnmapBuffer(GL2.GL_PIXEL_PACK_BUFFER);
+		}
+		gl.glBindBuffer(GL2.GL_PIXEL_PACK_BUFFER, 0);
+	}
+
+	private void prepare(GL2 gl) {
+		if(context != null) return;
+		context = gl.getContext();
+		gl.glGenBuffers(buffers.length, buffers, 0);
+		current = 0;
+	}
+
+	/**
+	 * Deletes the pixel buffer objects and drops the readbacks in flight.
+	 */
+	public void dispose(GL2 gl) {
+		for(int i = 0; i < pending.length; i++) {
+			pending[i] = false;
+		}
+		if(context == null) return;
+		gl.glDeleteBuffers(buffers.length, buffers, 0);
+		context = null;
+	}
+	/**
+	 * Forgets the pixel buffer objects lost together with the context.
+	 */
+	public void invalidate() {
+		for(int i = 0; i < pending.length; i++) {
+			pending[i] = false;
+		}
+		context = null;
+	}
+}
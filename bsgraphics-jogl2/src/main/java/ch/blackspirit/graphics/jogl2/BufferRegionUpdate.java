@@ -15,8 +15,11 @@
  */
 package ch.blackspirit.graphics.jogl2;
 
+import java.util.HashMap;
+
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
+import javax.media.opengl.GLContext;
 import javax.media.opengl.GLDrawable;
 import javax.media.opengl.glu.GLU;
 
@@ -33,24 +36,105 @@ final class BufferRegionUpdate implements GLExecutable {
 	public int y;
 	public int width;
 	public int height;
-	
+	// set to read back asynchronously
+	public BufferReadback readback;
+	public long frame;
 	
     private int[] rowLength = new int[1];
     private int[] skipRows = new int[1];
     private int[] skipPixels = new int[1];
 
     private final Canvas canvas;
+    // framebuffer objects the texture gets attached to for reading, they are not shared between contexts
+    private final HashMap<GLContext, Integer> framebuffers = new HashMap<GLContext, Integer>();
+    private final int[] id = new int[1];
+    boolean framebufferObjectSupported = false;
     
     public BufferRegionUpdate(Canvas canvas) {
     	this.canvas = canvas;
     }
+
+    /**
+     * Reads the complete texture, which has the size of the image.
+     */
+    private void readTexture(GL2 gl) {
+    	if(readback != null) {
+    		readback.readTexture(gl, frame);
+    		return;
+    	}
+    	image.texture.bind(gl);
+    	gl.glPushClientAttrib(GL2.GL_CLIENT_PIXEL_STORE_BIT);
+    	gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 1);
+    	gl.glPixelStorei(GL2.GL_PACK_ROW_LENGTH, 0);
+    	gl.glPixelStorei(GL2.GL_PACK_SKIP_PIXELS, 0);
+    	gl.glPixelStorei(GL2.GL_PACK_SKIP_ROWS, 0);
+    	image.byteBuffer.clear();
+    	gl.glGetTexImage(image.texture.getTarget(), 0, getFormat(), GL.GL_UNSIGNED_BYTE, image.byteBuffer);
+    	gl.glPopClientAttrib();
+    }
+    /**
+     * Reads the region from a framebuffer object the texture is attached to.
+     */
+    private void readFramebuffer(GL2 gl) {
+    	gl.glGetIntegerv(GL.GL_FRAMEBUFFER_BINDING, id, 0);
+    	int previous = id[0];
+    	Integer framebuffer = framebuffers.get(gl.getContext());
+    	if(framebuffer == null) {
+    		gl.glGenFramebuffers(1, id, 0);
+    		framebuffer = Integer.valueOf(id[0]);
+    		framebuffers.put(gl.getContext(), framebuffer);
+    	}
+    	gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, framebuffer.intValue());
+    	gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER, GL.GL_COLOR_ATTACHMENT0, image.texture.getTarget(), image.texture.getTextureObject(gl), 0);
+    	if(gl.glCheckFramebufferStatus(GL.GL_FRAMEBUFFER) != GL.GL_FRAMEBUFFER_COMPLETE) {
+    		gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, previous);
+    		throw new RuntimeException("Image can not be attached to a framebuffer object for reading: " + image.toString());
+    	}
+    	
+    	// texture rows are stored in the same order as the buffer rows
+    	if(readback != null) {
+    		readback.read(gl, frame, x, y, x, y, width, height);
+    	} else {
+    		gl.glPushClientAttrib(GL2.GL_CLIENT_PIXEL_STORE_BIT);
+    		gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 1);
+    		gl.glPixelStorei(GL2.GL_PACK_ROW_LENGTH, image.getWidth());
+    		gl.glPixelStorei(GL2.GL_PACK_SKIP_PIXELS, x);
+    		gl.glPixelStorei(GL2.GL_PACK_SKIP_ROWS, y);
+    		image.byteBuffer.clear();
+    		gl.glReadPixels(x, y, width, height, getFormat(), GL.GL_UNSIGNED_BYTE, image.byteBuffer);
+    		gl.glPopClientAttrib();
+    	}
+    	
+    	gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER, GL.GL_COLOR_ATTACHMENT0, image.texture.getTarget(), 0, 0);
+    	gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, previous);
+    }
+    private int getFormat() {
+    	if(image.getBufferType().isAlphaSupported()) return GL.GL_RGBA;
+    	else return GL.GL_RGB;
+    }
+    /**
+     * Forgets the framebuffer objects lost together with their contexts.
+     */
+    void invalidate() {
+    	framebuffers.clear();
+    }
     
     // FIXME Images loaded with TextureIO having SGI or TGA texture will be upside down in buffer.. remove them from TextureIO and add TGA support using TGAImage
-    // TODO Do full buffer update using glGetTexImage for speed (glGetTexSubImage does not exist!)
 	public void execute(GLDrawable drawable, GL2 gl) {
 	    if(image.texture == null) throw new RuntimeException("Buffer update only possible on cached images");
 	    if(!image.isBuffered()) throw new RuntimeException("Buffer update only possible on buffered images");
 	    
+	    // read the texture directly if possible, the image drawing buffer limits the readable size
+	    boolean fullTexture = x == 0 && y == 0 && width == image.getWidth() && height == image.getHeight() &&
+	    	image.texture.getWidth() == image.getWidth() && image.texture.getHeight() == image.getHeight();
+	    if(fullTexture) {
+	    	readTexture(gl);
+	    	return;
+	    } else if(framebufferObjectSupported) {
+	    	readFramebuffer(gl);
+	    	return;
+	    }
+	    
 	    gl.glDisable(GL.GL_DEPTH_TEST);
 	    gl.glHint(GL2.GL_PERSPECTIVE_CORRECTION_HINT, GL.GL_NICEST);
 	    
@@ -120,7 +204,9 @@ final class BufferRegionUpdate implements GLExecutable {
         
 		image.texture.disable(gl);
 
-		if(image.getBufferType() == BufferTypes.RGBA_4Byte) {
+		if(readback != null) {
+			readback.read(gl, frame, x, drawable.getHeight() - (image.getHeight() - y), x, y, width, height);
+		} else if(image.getBufferType().isAlphaSupported()) {
     		gl.glReadPixels(x, drawable.getHeight() - (image.getHeight() - y), width, height, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, image.byteBuffer);
         } else {
     		gl.glReadPixels(x, drawable.getHeight() - (image.getHeight() - y), width, height, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, image.byteBuffer);
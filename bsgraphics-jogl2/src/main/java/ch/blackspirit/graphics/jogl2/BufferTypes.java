@@ -15,6 +15,8 @@
  */
 package ch.blackspirit.graphics.jogl2;
 
+import java.nio.ByteBuffer;
+
 import javax.vecmath.Color4f;
 
 import ch.blackspirit.graphics.BufferType;
@@ -144,4 +146,141 @@ public final class BufferTypes {
 			return 24;
 		}
 	};
+	/**
+	 * 4 Byte RGBA buffer in native memory outside of the Java heap.<br/>
+	 * The buffer of the image is a direct {@link ByteBuffer ByteBuffer} which is passed to OpenGL 
+	 * without copying it when uploading or reading back the image.<br/>
+	 * To get a pixels first byte in the buffer use the following formula: <code>(y * width + x) * 4</code><br/>
+	 */
+	public static BufferType RGBA_4Byte_Direct = new BufferType() {
+		private static final int MASK = (0x00000080 + 127);
+		private static final int RED_INDEX = 0;
+		private static final int GREEN_INDEX = 1;
+		private static final int BLUE_INDEX = 2;
+		private static final int ALPHA_INDEX = 3;
+		private static final int BYTES = 4;
+
+		public float getAlpha(Image image, int x, int y) {
+			return (float)(((ByteBuffer)image.getBuffer()).get((y * image.getWidth() + x) * BYTES + ALPHA_INDEX) & MASK) / 255f;
+		}
+		public float getBlue(Image image, int x, int y) {
+			return (float)(((ByteBuffer)image.getBuffer()).get((y * image.getWidth() + x) * BYTES + BLUE_INDEX) & MASK) / 255f;
+		}
+		public float getGreen(Image image, int x, int y) {
+			return (float)(((ByteBuffer)image.getBuffer()).get((y * image.getWidth() + x) * BYTES + GREEN_INDEX) & MASK) / 255f;
+		}
+		public float getRed(Image image, int x, int y) {
+			return (float)(((ByteBuffer)image.getBuffer()).get((y * image.getWidth() + x) * BYTES + RED_INDEX) & MASK) / 255f;
+		}
+		public void setRed(Image image, int x, int y, float value) {
+			((ByteBuffer)image.getBuffer()).put((y * image.getWidth() + x) * BYTES + RED_INDEX, (byte)(value * 255));
+		}
+		public void setGreen(Image image, int x, int y, float value) {
+			((ByteBuffer)image.getBuffer()).put((y * image.getWidth() + x) * BYTES + GREEN_INDEX, (byte)(value * 255));
+		}
+		public void setBlue(Image image, int x, int y, float value) {
+			((ByteBuffer)image.getBuffer()).put((y * image.getWidth() + x) * BYTES + BLUE_INDEX, (byte)(value * 255));
+		}
+		public void setAlpha(Image image, int x, int y, float value) {
+			((ByteBuffer)image.getBuffer()).put((y * image.getWidth() + x) * BYTES + ALPHA_INDEX, (byte)(value * 255));
+		}
+		public void getColor(Image image, int x, int y, Color4f color) {
+			ByteBuffer buffer = (ByteBuffer)image.getBuffer();
+			int index = (y * image.getWidth() + x) * BYTES;
+			color.x = (float)(buffer.get(index + RED_INDEX) & MASK) / 255f;
+			color.y = (float)(buffer.get(index + GREEN_INDEX) & MASK) / 255f;
+			color.z = (float)(buffer.get(index + BLUE_INDEX) & MASK) / 255f;
+			color.w = (float)(buffer.get(index + ALPHA_INDEX) & MASK) / 255f;
+		}
+		public void setColor(Image image, int x, int y, Color4f color) {
+			ByteBuffer buffer = (ByteBuffer)image.getBuffer();
+			int index = (y * image.getWidth() + x) * BYTES;
+			buffer.put(index + RED_INDEX, (byte)(color.x * 255));
+			buffer.put(index + GREEN_INDEX, (byte)(color.y * 255));
+			buffer.put(index + BLUE_INDEX, (byte)(color.z * 255));
+			buffer.put(index + ALPHA_INDEX, (byte)(color.w * 255));
+		}
+		
+		public String toString() {
+			return BufferTypes.class.getName() + ".RGBA_4Byte_Direct";
+		}
+		@Override
+		public boolean isAlphaSupported() {
+			return true;
+		}
+		@Override
+		public int getBitsPerPixel() {
+			return 32;
+		}
+	};
+	/**
+	 * 3 Byte RGB buffer in native memory outside of the Java heap.<br/>
+	 * The buffer of the image is a direct {@link ByteBuffer ByteBuffer} which is passed to OpenGL 
+	 * without copying it when uploading or reading back the image.<br/>
+	 * To get a pixels first byte in the buffer use the following formula: <code>(y * width + x) * 3</code><br/>
+	 */
+	public static BufferType RGB_3Byte_Direct = new BufferType() {
+		private static final int MASK = (0x00000080 + 127);
+		private static final int RED_INDEX = 0;
+		private static final int GREEN_INDEX = 1;
+		private static final int BLUE_INDEX = 2;
+		private static final int BYTES = 3;
+
+		public void setAlpha(Image image, int x, int y, float value) {}
+		public float getAlpha(Image image, int x, int y) {
+			return 1;
+		}
+		public float getBlue(Image image, int x, int y) {
+			return (float)(((ByteBuffer)image.getBuffer()).get((y * image.getWidth() + x) * BYTES + BLUE_INDEX) & MASK) / 255f;
+		}
+		public float getGreen(Image image, int x, int y) {
+			return (float)(((ByteBuffer)image.getBuffer()).get((y * image.getWidth() + x) * BYTES + GREEN_INDEX) & MASK) / 255f;
+		}
+		public float getRed(Image image, int x, int y) {
+			return (float)(((ByteBuffer)image.getBuffer()).get((y * image.getWidth() + x) * BYTES + RED_INDEX) & MASK) / 255f;
+		}
+		public void setRed(Image image, int x, int y, float value) {
+			((ByteBuffer)image.getBuffer()).put((y * image.getWidth() + x) * BYTES + RED_INDEX, (byte)(value * 255));
+		}
+		public void setGreen(Image image, int x, int y, float value) {
+			((ByteBuffer)image.getBuffer()).put((y * image.getWidth() + x) * BYTES + GREEN_INDEX, (byte)(value * 255));
+		}
+		public void setBlue(Image image, int x, int y, float value) {
+			((ByteBuffer)image.getBuffer()).put((y * image.getWidth() + x) * BYTES + BLUE_INDEX, (byte)(value * 255));
+		}
+		public void getColor(Image image, int x, int y, Color4f color) {
+			ByteBuffer buffer = (ByteBuffer)image.getBuffer();
+			int index = (y * image.getWidth() + x) * BYTES;
+			color.x = (float)(buffer.get(index + RED_INDEX) & MASK) / 255f;
+			color.y = (float)(buffer.get(index + GREEN_INDEX) & MASK) / 255f;
+			color.z = (float)(buffer.get(index + BLUE_INDEX) & MASK) / 255f;
+			color.w = 1;
+		}
+		public void setColor(Image image, int x, int y, Color4f color) {
+			ByteBuffer buffer = (ByteBuffer)image.getBuffer();
+			int index = (y * image.getWidth() + x) * BYTES;
+			buffer.put(index + RED_INDEX, (byte)(color.x * 255));
+			buffer.put(index + GREEN_INDEX, (byte)(color.y * 255));
+			buffer.put(index + BLUE_INDEX, (byte)(color.z * 255));
+		}
+
+		public String toString() {
+			return BufferTypes.class.getName() + ".RGB_3Byte_Direct";
+		}
+		@Override
+		public boolean isAlphaSupported() {
+			return false;
+		}
+		@Override
+		public int getBitsPerPixel() {
+			return 24;
+		}
+	};
+
+	/**
+	 * @return <code>true</code> if the buffer of images with the given type is a direct byte buffer.
+	 */
+	static boolean isDirect(BufferType bufferType) {
+		return bufferType == RGBA_4Byte_Direct || bufferType == RGB_3Byte_Direct;
+	}
 }
@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import ch.blackspirit.graphics.AWTCanvas;
 import ch.blackspirit.graphics.DisplayMode;
+import ch.blackspirit.graphics.OffscreenCanvas;
 import ch.blackspirit.graphics.RealtimeCanvas;
 
 import com.jogamp.opengl.util.texture.TextureIO;
@@ -70,6 +71,16 @@ public final class CanvasFactory implements ch.blackspirit.graphics.CanvasFactor
 	public RealtimeCanvas createRealtimeCanvasWindow(int width, int height) {
 		return new ch.blackspirit.graphics.jogl2.RealtimeCanvas(width, height, properties);
 	}
+	/**
+	 * Creates a canvas without a window which renders into a pbuffer of the given size.
+	 * Requires pbuffer support of the OpenGL driver but no display.
+	 * @param width Width of the pbuffer in pixels.
+	 * @param height Height of the pbuffer in pixels.
+	 * @return The offscreen canvas.
+	 */
+	public OffscreenCanvas createOffscreenCanvas(int width, int height) {
+		return new ch.blackspirit.graphics.jogl2.OffscreenCanvas(width, height, properties);
+	}
 
 	public DisplayMode getDisplayMode(int width, int height) {
 		GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
@@ -22,6 +22,7 @@ import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
 import javax.media.opengl.GLAutoDrawable;
 
+import ch.blackspirit.graphics.Canvas;
 import ch.blackspirit.graphics.Graphics;
 import ch.blackspirit.graphics.debug.TraceGraphics;
 
@@ -98,6 +99,8 @@ final class CanvasGLEventListener extends AbstractGLEventListener {
 			imageFactory.setMaxTextureSize(size[0]);
 	
 			applyVSync(drawable);
+			// a new context starts with default state
+			GLStateCache.invalidateAll();
 			if(!firstInitialization)resourceManager.refreshCache((GL2)drawable.getGL());
 			
 			if (!initiated) {
@@ -129,7 +132,7 @@ final class CanvasGLEventListener extends AbstractGLEventListener {
 			}
 			if(vsyncChanged) applyVSync(drawable);
 			
-			resourceManager.cleanup();
+			resourceManager.cleanup((GL2)drawable.getGL());
 	
 			if(canvas.getGraphicsListener() != null) {
 				Graphics userGraphics = graphics;
@@ -148,7 +151,9 @@ final class CanvasGLEventListener extends AbstractGLEventListener {
 			LOGGER.log(Level.SEVERE, "Error drawing", e);
 		} finally {
 			graphics.endFrame();
+			resourceManager.getStatistics().endFrame();
 			canvas.endDrawing();
+			canvas.fireFrameFinished((Canvas)canvas);
 		}
 	}
 	public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {
@@ -28,15 +28,16 @@ import javax.vecmath.Matrix3f;
 
 import ch.blackspirit.graphics.DrawingMode;
 import ch.blackspirit.graphics.Flip;
-import ch.blackspirit.graphics.Graphics;
 import ch.blackspirit.graphics.Image;
 import ch.blackspirit.graphics.Line;
+import ch.blackspirit.graphics.SpriteBatch;
+import ch.blackspirit.graphics.StaticMesh;
 import ch.blackspirit.graphics.Triangle;
 
 /**
  * @author Markus Koller
  */
-final class CanvasGraphics implements Graphics, ViewListener {
+final class CanvasGraphics implements SortableGraphics, ViewListener {
 	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
 
 	private final GraphicsDelegate delegate;
@@ -58,16 +59,17 @@ final class CanvasGraphics implements Graphics, ViewListener {
 		GL2 gl = delegate.getGL();
 		
 
+		GLStateCache stateCache = delegate.getStateCache();
+
 		// Depth Testing
-		gl.glDisable(GL.GL_DEPTH_TEST);
+		stateCache.setEnabled(gl, GL.GL_DEPTH_TEST, false);
 		
-	    gl.glHint(GL2.GL_PERSPECTIVE_CORRECTION_HINT, GL.GL_NICEST);
+	    stateCache.hint(gl, GL2.GL_PERSPECTIVE_CORRECTION_HINT, GL.GL_NICEST);
 	    
-	    // Lighting, Coloring
-	    gl.glEnable(GL2.GL_LIGHTING);
-		gl.glEnable(GL.GL_BLEND);
-	    gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
-	    gl.glEnable(GL2.GL_COLOR_MATERIAL);
+	    // Lighting, Coloring (blending function is set by the delegate according to the drawing mode)
+	    stateCache.setEnabled(gl, GL2.GL_LIGHTING, true);
+	    stateCache.setEnabled(gl, GL.GL_BLEND, true);
+	    stateCache.setEnabled(gl, GL2.GL_COLOR_MATERIAL, true);
 	    gl.glColorMaterial(GL.GL_FRONT_AND_BACK, GL2.GL_AMBIENT_AND_DIFFUSE);
 	    gl.glShadeModel(GL2.GL_SMOOTH);
 
@@ -97,6 +99,7 @@ final class CanvasGraphics implements Graphics, ViewListener {
 	    
 	    GLU glu = new GLU();
 	    glu.gluOrtho2D(-view.getWidth() / 2, view.getWidth() / 2, -view.getHeight() / 2, view.getHeight() / 2);
+	    delegate.setViewBounds(-view.getWidth() / 2, view.getWidth() / 2, -view.getHeight() / 2, view.getHeight() / 2);
 	    gl.glMatrixMode(GL2.GL_MODELVIEW);
 	}
 	
@@ -127,6 +130,13 @@ final class CanvasGraphics implements Graphics, ViewListener {
 		delegate.drawImage(image, width, height);
 	}
 
+	public void drawStaticMesh(StaticMesh mesh) {
+		delegate.drawStaticMesh(mesh);
+	}
+	public SpriteBatch getSpriteBatch() {
+		return delegate.getSpriteBatch();
+	}
+
 	public void drawLine(float x1, float y1, float x2, float y2) {
 		delegate.drawLine(x1, y1, x2, y2);
 	}
@@ -272,4 +282,17 @@ final class CanvasGraphics implements Graphics, ViewListener {
 	public void copyToImage(Image image, int x, int y, int width, int height) {
 		delegate.copyToImage(image, x, y, width, height);
 	}
+
+	public void setLayer(int layer) {
+		delegate.setLayer(layer);
+	}
+	public int getLayer() {
+		return delegate.getLayer();
+	}
+	public void setOrderIndependent(boolean orderIndependent) {
+		delegate.setOrderIndependent(orderIndependent);
+	}
+	public boolean isOrderIndependent() {
+		return delegate.isOrderIndependent();
+	}
 }
@@ -35,6 +35,22 @@ public final class CanvasProperties {
 	private int imageDrawingWidth = 1024;
 	private int imageDrawingHeight = 1024;
 	private Level traceLogLevel = Level.INFO;
+	private boolean isVertexBufferStreaming = false;
+	private int vertexBufferCount = 3;
+	private int vertexBufferSize = 1024 * 1024;
+	private boolean isSoftwareTransform = false;
+	private boolean isDeferredRendering = false;
+	private boolean isTextureAtlas = false;
+	private int textureAtlasSize = 1024;
+	private int textureAtlasImageSize = 256;
+	private boolean isCulling = false;
+	private boolean isAsyncTextureUpload = false;
+	private boolean isAsyncBufferReadback = false;
+	private boolean isFramebufferObjectRendering = true;
+	private long textureMemoryBudget = 0;
+	private int imageLoadingThreads = 0;
+	private long imageUploadBytesPerFrame = 4 * 1024 * 1024;
+	private String textureCacheDirectory = null;
 	
 	public CanvasProperties() {}
 	
@@ -50,6 +66,15 @@ public final class CanvasProperties {
 			return defaultValue;
 		}
 	}
+	private long getProperty(String property, long defaultValue) {
+		String value = properties.getProperty(property, String.valueOf(defaultValue));
+		try {
+			return Long.valueOf(value).longValue();
+		} catch(NumberFormatException e) {
+			LOGGER.log(Level.WARNING, "Property is not a valid long: " + property, e);
+			return defaultValue;
+		}
+	}
 	private boolean getProperty(String property, boolean defaultValue) {
 		String value = properties.getProperty(property, String.valueOf(defaultValue));
 		if("true".equalsIgnoreCase(value)) return true;
@@ -94,6 +119,246 @@ public final class CanvasProperties {
 		this.traceLogLevel = traceLogLevel;
 	}
 
+	/**
+	 * @return Whether dynamic geometry should be streamed through vertex buffer objects.
+	 */
+	public boolean isVertexBufferStreaming() {
+		return isVertexBufferStreaming;
+	}
+	/**
+	 * Enables streaming of dynamic geometry through a ring of vertex buffer objects.
+	 * Client side vertex arrays are used if vertex buffer objects are not supported.
+	 * @param isVertexBufferStreaming Should geometry be streamed through vertex buffer objects.
+	 */
+	public void setVertexBufferStreaming(boolean isVertexBufferStreaming) {
+		this.isVertexBufferStreaming = isVertexBufferStreaming;
+	}
+	public int getVertexBufferCount() {
+		return vertexBufferCount;
+	}
+	/**
+	 * @param vertexBufferCount Number of vertex buffer objects in the streaming ring.
+	 */
+	public void setVertexBufferCount(int vertexBufferCount) {
+		this.vertexBufferCount = vertexBufferCount;
+	}
+	public int getVertexBufferSize() {
+		return vertexBufferSize;
+	}
+	/**
+	 * @param vertexBufferSize Size in bytes of each vertex buffer object in the streaming ring.
+	 */
+	public void setVertexBufferSize(int vertexBufferSize) {
+		this.vertexBufferSize = vertexBufferSize;
+	}
+
+	/**
+	 * @return Whether the model transformation is applied to vertices on the CPU.
+	 */
+	public boolean isSoftwareTransform() {
+		return isSoftwareTransform;
+	}
+	/**
+	 * Applies the model transformation (translate, rotate, scale) to vertices on the CPU instead of
+	 * loading it into the GL modelview matrix. Transformation changes then no longer submit 
+	 * the current batch, so many transformed sprites can be drawn with a single draw call.
+	 * @param isSoftwareTransform Should the model transformation be applied on the CPU.
+	 */
+	public void setSoftwareTransform(boolean isSoftwareTransform) {
+		this.isSoftwareTransform = isSoftwareTransform;
+	}
+
+	/**
+	 * @return Whether drawing is recorded and executed sorted at the end of the frame.
+	 */
+	public boolean isDeferredRendering() {
+		return isDeferredRendering;
+	}
+	/**
+	 * Records drawing into a command buffer which is executed at the end of the frame 
+	 * or before anything else changing the GL state (clearing, text, masks, line width, ...).
+	 * Commands are executed sorted by layer and order independent commands are sorted by 
+	 * drawing mode, image and primitive type (see {@link SortableGraphics}).
+	 * Implies software transformation.
+	 * @param isDeferredRendering Should drawing be recorded and executed at the end of the frame.
+	 */
+	public void setDeferredRendering(boolean isDeferredRendering) {
+		this.isDeferredRendering = isDeferredRendering;
+	}
+
+	/**
+	 * @return Whether small images are packed into shared texture atlas pages.
+	 */
+	public boolean isTextureAtlas() {
+		return isTextureAtlas;
+	}
+	/**
+	 * Packs small unbuffered images loaded from an url into shared texture atlas pages when they 
+	 * are cached. Images on the same page are drawn without switching textures, so drawing 
+	 * many different sprites does not break the batch. Images rendered or copied into get 
+	 * a texture of their own.
+	 * @param isTextureAtlas Should small images be packed into texture atlas pages.
+	 */
+	public void setTextureAtlas(boolean isTextureAtlas) {
+		this.isTextureAtlas = isTextureAtlas;
+	}
+	public int getTextureAtlasSize() {
+		return textureAtlasSize;
+	}
+	/**
+	 * @param textureAtlasSize Width and height of the texture atlas pages in pixels. 
+	 * 	Must be a power of two not bigger than the maximum texture size.
+	 */
+	public void setTextureAtlasSize(int textureAtlasSize) {
+		this.textureAtlasSize = textureAtlasSize;
+	}
+	public int getTextureAtlasImageSize() {
+		return textureAtlasImageSize;
+	}
+	/**
+	 * @param textureAtlasImageSize Maximum width and height of images packed into texture atlas pages.
+	 */
+	public void setTextureAtlasImageSize(int textureAtlasImageSize) {
+		this.textureAtlasImageSize = textureAtlasImageSize;
+	}
+
+	/**
+	 * @return Whether primitives outside the view are skipped.
+	 */
+	public boolean isCulling() {
+		return isCulling;
+	}
+	/**
+	 * Tests the bounding box of images, sprites, triangles and static meshes against the 
+	 * visible area before submitting their vertices and skips them if they are not visible.
+	 * The number of culled and submitted primitives of the last frame is available through the 
+	 * {@link Properties#CULLED_PRIMITIVES_PER_FRAME} and {@link Properties#SUBMITTED_PRIMITIVES_PER_FRAME} properties.
+	 * @param isCulling Should primitives outside the view be skipped.
+	 */
+	public void setCulling(boolean isCulling) {
+		this.isCulling = isCulling;
+	}
+
+	/**
+	 * @return Whether image cache updates are uploaded asynchronously.
+	 */
+	public boolean isAsyncTextureUpload() {
+		return isAsyncTextureUpload;
+	}
+	/**
+	 * Uploads buffer changes passed with {@link ch.blackspirit.graphics.Image#updateCache() updateCache} 
+	 * through double buffered pixel buffer objects at the start of the next frame. Updating the cache 
+	 * does not block and the transfer overlaps with rendering. Drawing shows the new content once 
+	 * {@link ch.blackspirit.graphics.ImageUpdateListener image update listeners} have been notified.
+	 * Synchronous updates are used if pixel buffer objects are not supported.
+	 * @param isAsyncTextureUpload Should image cache updates be uploaded asynchronously.
+	 */
+	public void setAsyncTextureUpload(boolean isAsyncTextureUpload) {
+		this.isAsyncTextureUpload = isAsyncTextureUpload;
+	}
+
+	/**
+	 * @return Whether image buffer updates are read back asynchronously.
+	 */
+	public boolean isAsyncBufferReadback() {
+		return isAsyncBufferReadback;
+	}
+	/**
+	 * Reads the content for {@link ch.blackspirit.graphics.Image#updateBuffer() updateBuffer} into 
+	 * double buffered pixel buffer objects without waiting for the GPU. The image buffer is written 
+	 * one frame later and {@link ch.blackspirit.graphics.ImageUpdateListener image update listeners} 
+	 * get notified. Synchronous readbacks are used if pixel buffer objects are not supported.
+	 * @param isAsyncBufferReadback Should image buffer updates be read back asynchronously.
+	 */
+	public void setAsyncBufferReadback(boolean isAsyncBufferReadback) {
+		this.isAsyncBufferReadback = isAsyncBufferReadback;
+	}
+
+	/**
+	 * @return Whether image graphics contexts render through framebuffer objects.
+	 */
+	public boolean isFramebufferObjectRendering() {
+		return isFramebufferObjectRendering;
+	}
+	/**
+	 * Renders image graphics contexts directly into the image texture attached to a framebuffer object 
+	 * instead of drawing into the image drawing buffer and copying the result. Images are then only 
+	 * limited by the maximum texture size. The image drawing buffer is used if framebuffer objects 
+	 * are not supported.
+	 * @param isFramebufferObjectRendering Should image graphics contexts render through framebuffer objects.
+	 */
+	public void setFramebufferObjectRendering(boolean isFramebufferObjectRendering) {
+		this.isFramebufferObjectRendering = isFramebufferObjectRendering;
+	}
+
+	/**
+	 * @return Bytes of video memory image textures may use, 0 if unlimited.
+	 */
+	public long getTextureMemoryBudget() {
+		return textureMemoryBudget;
+	}
+	/**
+	 * Limits the video memory used by image textures. When a new texture exceeds the budget, the 
+	 * textures of the least recently drawn images are freed and transparently cached again from 
+	 * their url or buffer when drawn the next time. Images drawn in the current frame, images 
+	 * rendered or copied into and images without url or buffer are never evicted, so the budget 
+	 * may be exceeded temporarily.<br/>
+	 * Images packed into texture atlas pages are only evicted together with their whole page, 
+	 * once no image on the page has been drawn in the current frame. A page counts in full 
+	 * towards the budget, which should therefore hold at least a few pages when the texture 
+	 * atlas is enabled.
+	 * @param textureMemoryBudget Bytes of video memory for image textures, 0 for no limit.
+	 */
+	public void setTextureMemoryBudget(long textureMemoryBudget) {
+		this.textureMemoryBudget = textureMemoryBudget;
+	}
+
+	/**
+	 * @return Number of images loaded in parallel by the asynchronous loading methods of the image factory, 
+	 * 	0 for one per available processor.
+	 */
+	public int getImageLoadingThreads() {
+		return imageLoadingThreads;
+	}
+	/**
+	 * @param imageLoadingThreads Number of images loaded in parallel by the asynchronous loading methods of 
+	 * 	the image factory, 0 for one per available processor.
+	 */
+	public void setImageLoadingThreads(int imageLoadingThreads) {
+		this.imageLoadingThreads = imageLoadingThreads;
+	}
+	/**
+	 * @return Image bytes uploaded at the start of a frame for images loaded asynchronously.
+	 */
+	public long getImageUploadBytesPerFrame() {
+		return imageUploadBytesPerFrame;
+	}
+	/**
+	 * Images loaded with the asynchronous loading methods of the image factory are cached at the 
+	 * start of the next frames. Limiting the bytes uploaded per frame keeps loading many images 
+	 * from stalling single frames. At least one image is uploaded per frame.
+	 * @param imageUploadBytesPerFrame Image bytes uploaded per frame, 0 for no limit.
+	 */
+	public void setImageUploadBytesPerFrame(long imageUploadBytesPerFrame) {
+		this.imageUploadBytesPerFrame = imageUploadBytesPerFrame;
+	}
+
+	/**
+	 * @return Directory decoded images are cached in, <code>null</code> if images are always decoded.
+	 */
+	public String getTextureCacheDirectory() {
+		return textureCacheDirectory;
+	}
+	/**
+	 * Keeps the pixels of images loaded from an url in the given directory after decoding them. 
+	 * Loading the same unmodified image again, also after a restart, maps the cached pixels into 
+	 * memory instead of decoding the image. The directory is created if it does not exist.
+	 * @param textureCacheDirectory Directory to cache decoded images in, <code>null</code> to always decode images.
+	 */
+	public void setTextureCacheDirectory(String textureCacheDirectory) {
+		this.textureCacheDirectory = textureCacheDirectory;
+	}
+
 	public void load(URL url) {
 		try {
 			properties.load(url.openStream());
@@ -108,5 +373,21 @@ public final class CanvasProperties {
 		} catch(Throwable t) {}
 		imageDrawingWidth = getProperty(Properties.MAX_IMAGE_DRAWING_WIDTH, imageDrawingWidth);
 		imageDrawingHeight = getProperty(Properties.MAX_IMAGE_DRAWING_HEIGHT, imageDrawingHeight);
+		isVertexBufferStreaming = getProperty(Properties.IS_VERTEX_BUFFER_STREAMING, isVertexBufferStreaming);
+		vertexBufferCount = getProperty("ch.blackspirit.graphics.jogl.vbo.count", vertexBufferCount);
+		vertexBufferSize = getProperty("ch.blackspirit.graphics.jogl.vbo.size", vertexBufferSize);
+		isSoftwareTransform = getProperty(Properties.IS_SOFTWARE_TRANSFORM, isSoftwareTransform);
+		isDeferredRendering = getProperty(Properties.IS_DEFERRED_RENDERING, isDeferredRendering);
+		isTextureAtlas = getProperty(Properties.IS_TEXTURE_ATLAS, isTextureAtlas);
+		textureAtlasSize = getProperty("ch.blackspirit.graphics.jogl.atlas.size", textureAtlasSize);
+		textureAtlasImageSize = getProperty("ch.blackspirit.graphics.jogl.atlas.image.size", textureAtlasImageSize);
+		isCulling = getProperty(Properties.IS_CULLING, isCulling);
+		isAsyncTextureUpload = getProperty(Properties.IS_ASYNC_TEXTURE_UPLOAD, isAsyncTextureUpload);
+		isAsyncBufferReadback = getProperty(Properties.IS_ASYNC_BUFFER_READBACK, isAsyncBufferReadback);
+		isFramebufferObjectRendering = getProperty(Properties.IS_FRAMEBUFFER_OBJECT_RENDERING, isFramebufferObjectRendering);
+		textureMemoryBudget = getProperty(Properties.TEXTURE_MEMORY_BUDGET, textureMemoryBudget);
+		imageLoadingThreads = getProperty("ch.blackspirit.graphics.jogl.loading.threads", imageLoadingThreads);
+		imageUploadBytesPerFrame = getProperty("ch.blackspirit.graphics.jogl.loading.upload.bytes", imageUploadBytesPerFrame);
+		textureCacheDirectory = getProperty("ch.blackspirit.graphics.jogl.texture.cache.dir", textureCacheDirectory);
 	}
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.util.Arrays;
+
+import ch.blackspirit.graphics.DrawingMode;
+
+/**
+ * Records the vertices drawn during a frame as a list of commands, each sharing primitive type,
+ * texture, drawing mode, layer and order independence. The commands are sorted by layer
+ * and runs of order independent commands on the same layer are sorted by drawing mode, image
+ * and primitive type to minimize state changes when they are executed.<br/>
+ * Vertices are stored in the interleaved format of {@link VertexBatch}.
+ * @author Markus Koller
+ */
+final class CommandBuffer {
+	/** Maximum number of commands, command indices must fit into the low bits of a sort key */
+	static final int MAX_COMMANDS = 1 << 20;
+	private static final long INDEX_MASK = MAX_COMMANDS - 1;
+
+	private int size = 0;
+	private Primitive[] primitives = new Primitive[256];
+	private Image[] images = new Image[256];
+	private DrawingMode[] drawingModes = new DrawingMode[256];
+	private int[] layers = new int[256];
+	private boolean[] orderIndependent = new boolean[256];
+	private int[] vertexOffsets = new int[256];
+	private int[] vertexCounts = new int[256];
+
+	private float[] vertices = new float[VertexBatch.VERTEX_SIZE * 4096];
+	private int index = 0;
+
+	private long[] keys = new long[256];
+	private int[] order = new int[256];
+
+	/**
+	 * Starts a new command unless the current command has the same state.
+	 */
+	public void begin(Primitive primitive, Image image, DrawingMode drawingMode, int layer, boolean orderIndependent) {
+		if(size > 0) {
+			int current = size - 1;
+			if(primitives[current] == primitive && Image.isSameTexture(images[current], image) && drawingModes[current] == drawingMode &&
+					layers[current] == layer && this.orderIndependent[current] == orderIndependent) {
+				return;
+			}
+			// reuse commands without vertices
+			if(vertexCounts[current] == 0) size--;
+		}
+		if(size == primitives.length) grow();
+		primitives[size] = primitive;
+		images[size] = image;
+		drawingModes[size] = drawingMode;
+		layers[size] = layer;
+		this.orderIndependent[size] = orderIndependent;
+		vertexOffsets[size] = index;
+		vertexCounts[size] = 0;
+		size++;
+	}
+
+	public void vertex(float x, float y, float red, float green, float blue, float alpha) {
+		vertex(x, y, red, green, blue, alpha, 0, 0);
+	}
+	public void vertex(float x, float y, float red, float green, float blue, float alpha, float s, float t) {
+		if(index + VertexBatch.VERTEX_SIZE > vertices.length) {
+			vertices = Arrays.copyOf(vertices, vertices.length * 2);
+		}
+		float[] v = vertices;
+		int i = index;
+		v[i++] = x;
+		v[i++] = y;
+		v[i++] = red;
+		v[i++] = green;
+		v[i++] = blue;
+		v[i++] = alpha;
+		v[i++] = s;
+		v[i++] = t;
+		index = i;
+		vertexCounts[size - 1]++;
+	}
+
+	private void grow() {
+		int length = primitives.length * 2;
+		primitives = Arrays.copyOf(primitives, length);
+		images = Arrays.copyOf(images, length);
+		drawingModes = Arrays.copyOf(drawingModes, length);
+		layers = Arrays.copyOf(layers, length);
+		orderIndependent = Arrays.copyOf(orderIndependent, length);
+		vertexOffsets = Arrays.copyOf(vertexOffsets, length);
+		vertexCounts = Arrays.copyOf(vertexCounts, length);
+	}
+
+	/**
+	 * Sorts the commands into execution order.
+	 * @return Command indices in execution order, valid for the first {@link #size()} elements.
+	 */
+	public int[] sort() {
+		if(keys.length < size) {
+			keys = new long[primitives.length];
+			order = new int[primitives.length];
+		}
+		// by layer, keeping the order of submission
+		for(int i = 0; i < size; i++) {
+			keys[i] = ((long)layers[i] - Integer.MIN_VALUE) << 31 | i;
+		}
+		Arrays.sort(keys, 0, size);
+
+		// by render state within runs of order independent commands on the same layer
+		int start = 0;
+		while(start < size) {
+			int command = (int)(keys[start] & INDEX_MASK);
+			int end = start + 1;
+			if(orderIndependent[command]) {
+				int layer = layers[command];
+				while(end < size) {
+					int next = (int)(keys[end] & INDEX_MASK);
+					if(!orderIndependent[next] || layers[next] != layer) break;
+					end++;
+				}
+				if(end - start > 1) {
+					for(int i = start; i < end; i++) {
+						int c = (int)(keys[i] & INDEX_MASK);
+						keys[i] = getStateKey(c) << 20 | c;
+					}
+					Arrays.sort(keys, start, end);
+				}
+			}
+			start = end;
+		}
+
+		for(int i = 0; i < size; i++) {
+			order[i] = (int)(keys[i] & INDEX_MASK);
+		}
+		return order;
+	}
+	/**
+	 * @return Drawing mode, all 32 bits of the texture sort id and the primitive type, 
+	 * leaving the 20 low bits of a sort key for the command index.
+	 */
+	private long getStateKey(int command) {
+		Image image = images[command];
+		long imageId = image == null ? 0 : image.getTextureSortId() & 0xFFFFFFFFL;
+		return (long)drawingModes[command].ordinal() << 36 | imageId << 4 | primitives[command].ordinal();
+	}
+
+	public int size() {
+		return size;
+	}
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	public boolean isFull() {
+		return size == MAX_COMMANDS;
+	}
+
+	public Primitive getPrimitive(int command) {
+		return primitives[command];
+	}
+	public Image getImage(int command) {
+		return images[command];
+	}
+	public DrawingMode getDrawingMode(int command) {
+		return drawingModes[command];
+	}
+	public float[] getVertices() {
+		return vertices;
+	}
+	public int getVertexOffset(int command) {
+		return vertexOffsets[command];
+	}
+	public int getVertexCount(int command) {
+		return vertexCounts[command];
+	}
+
+	/**
+	 * Removes all commands.
+	 */
+	public void clear() {
+		// release image references
+		Arrays.fill(images, 0, size, null);
+		size = 0;
+		index = 0;
+	}
+}
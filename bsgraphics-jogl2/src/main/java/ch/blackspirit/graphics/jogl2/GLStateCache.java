@@ -0,0 +1,247 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.util.Arrays;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+
+import com.jogamp.opengl.util.texture.Texture;
+
+/**
+ * Shadow copy of the fixed function state of a GL context, so that only state
+ * which actually differs is passed on to the driver.<br/>
+ * Unknown state is always passed on. The cache of a render context is shared by all graphics 
+ * drawing on it. Code changing GL state without using the cache must invalidate it,
+ * {@link GLExecutable}s invalidate all caches by calling {@link #invalidateAll()}.
+ * @author Markus Koller
+ */
+final class GLStateCache {
+	private static final int UNKNOWN = -1;
+	
+	// Incremented whenever GL state may have been changed outside the caches
+	private static volatile int modifications = 0;
+	private int validModifications = 0;
+
+	// Enable flags and hints, tracked on first use
+	private int capabilityCount = 0;
+	private int[] capabilities = new int[16];
+	private int[] capabilityStates = new int[16];
+	
+	// Texture bindings per target
+	private int targetCount = 0;
+	private int[] targets = new int[4];
+	private Texture[] textures = new Texture[4];
+	
+	private int blendSource = UNKNOWN;
+	private int blendDestination = UNKNOWN;
+	private int blendEquation = UNKNOWN;
+
+	private boolean colorMaskValid = false;
+	private boolean redMask;
+	private boolean greenMask;
+	private boolean blueMask;
+	private boolean alphaMask;
+	
+	private float lineWidth = Float.NaN;
+	private float pointSize = Float.NaN;
+
+	private final float[] color = new float[4];
+	private boolean colorValid = false;
+	private final float[] clearColor = new float[4];
+	private boolean clearColorValid = false;
+	private final float[] ambient = new float[4];
+	private boolean ambientValid = false;
+	
+	private RenderStatistics statistics = null;
+	
+	/**
+	 * @param statistics Statistics to count texture binds in or <code>null</code>.
+	 */
+	public void setStatistics(RenderStatistics statistics) {
+		this.statistics = statistics;
+	}
+	/**
+	 * Invalidates the caches of all contexts after GL state has been changed outside of them.
+	 */
+	public static void invalidateAll() {
+		modifications++;
+	}
+	/**
+	 * Invalidates the whole cache.
+	 */
+	public void invalidate() {
+		validModifications = modifications;
+		capabilityCount = 0;
+		invalidateTextures();
+		blendSource = UNKNOWN;
+		blendDestination = UNKNOWN;
+		blendEquation = UNKNOWN;
+		colorMaskValid = false;
+		lineWidth = Float.NaN;
+		pointSize = Float.NaN;
+		colorValid = false;
+		clearColorValid = false;
+		ambientValid = false;
+	}
+	/**
+	 * Invalidates the texture bindings, e.g. after textures have been created or updated. 
+	 */
+	public void invalidateTextures() {
+		Arrays.fill(textures, 0, targetCount, null);
+		targetCount = 0;
+	}
+	/**
+	 * Invalidates the current color, e.g. after drawing with color arrays.
+	 */
+	public void invalidateColor() {
+		colorValid = false;
+	}
+	private void validate() {
+		if(validModifications != modifications) invalidate();
+	}
+
+	// ==================== Enable flags and hints ====================
+	public void setEnabled(GL gl, int capability, boolean enabled) {
+		int state = enabled ? 1 : 0;
+		if(setCapabilityState(capability, state)) {
+			if(enabled) gl.glEnable(capability);
+			else gl.glDisable(capability);
+		}
+	}
+	public void hint(GL gl, int target, int mode) {
+		if(setCapabilityState(target, mode)) {
+			gl.glHint(target, mode);
+		}
+	}
+	/**
+	 * @return <code>true</code> if the state changed
+	 */
+	private boolean setCapabilityState(int capability, int state) {
+		validate();
+		for(int i = 0; i < capabilityCount; i++) {
+			if(capabilities[i] == capability) {
+				if(capabilityStates[i] == state) return false;
+				capabilityStates[i] = state;
+				return true;
+			}
+		}
+		if(capabilityCount == capabilities.length) {
+			capabilities = Arrays.copyOf(capabilities, capabilityCount * 2);
+			capabilityStates = Arrays.copyOf(capabilityStates, capabilityCount * 2);
+		}
+		capabilities[capabilityCount] = capability;
+		capabilityStates[capabilityCount] = state;
+		capabilityCount++;
+		return true;
+	}
+
+	// ==================== Textures ====================
+	public void bindTexture(GL gl, Texture texture) {
+		validate();
+		int target = texture.getTarget();
+		for(int i = 0; i < targetCount; i++) {
+			if(targets[i] == target) {
+				if(textures[i] == texture) return;
+				textures[i] = texture;
+				texture.bind(gl);
+				if(statistics != null) statistics.increment(RenderStatistics.TEXTURE_BINDS);
+				return;
+			}
+		}
+		if(targetCount == targets.length) {
+			targets = Arrays.copyOf(targets, targetCount * 2);
+			textures = Arrays.copyOf(textures, targetCount * 2);
+		}
+		targets[targetCount] = target;
+		textures[targetCount] = texture;
+		targetCount++;
+		texture.bind(gl);
+		if(statistics != null) statistics.increment(RenderStatistics.TEXTURE_BINDS);
+	}
+
+	// ==================== Blending ====================
+	public void blendFunc(GL gl, int source, int destination) {
+		validate();
+		if(blendSource == source && blendDestination == destination) return;
+		blendSource = source;
+		blendDestination = destination;
+		gl.glBlendFunc(source, destination);
+	}
+	public void blendEquation(GL gl, int equation) {
+		validate();
+		if(blendEquation == equation) return;
+		blendEquation = equation;
+		gl.glBlendEquation(equation);
+	}
+	
+	// ==================== Colors ====================
+	public void colorMask(GL gl, boolean red, boolean green, boolean blue, boolean alpha) {
+		validate();
+		if(colorMaskValid && redMask == red && greenMask == green && blueMask == blue && alphaMask == alpha) return;
+		colorMaskValid = true;
+		redMask = red;
+		greenMask = green;
+		blueMask = blue;
+		alphaMask = alpha;
+		gl.glColorMask(red, green, blue, alpha);
+	}
+	public void color(GL2 gl, float red, float green, float blue, float alpha) {
+		validate();
+		if(colorValid && equals(color, red, green, blue, alpha)) return;
+		set(color, red, green, blue, alpha);
+		colorValid = true;
+		gl.glColor4f(red, green, blue, alpha);
+	}
+	public void clearColor(GL gl, float red, float green, float blue, float alpha) {
+		validate();
+		if(clearColorValid && equals(clearColor, red, green, blue, alpha)) return;
+		set(clearColor, red, green, blue, alpha);
+		clearColorValid = true;
+		gl.glClearColor(red, green, blue, alpha);
+	}
+	public void lightModelAmbient(GL2 gl, float[] ambient) {
+		validate();
+		if(ambientValid && equals(this.ambient, ambient[0], ambient[1], ambient[2], ambient[3])) return;
+		set(this.ambient, ambient[0], ambient[1], ambient[2], ambient[3]);
+		ambientValid = true;
+		gl.glLightModelfv(GL2.GL_LIGHT_MODEL_AMBIENT, ambient, 0);
+	}
+	private static boolean equals(float[] c, float red, float green, float blue, float alpha) {
+		return c[0] == red && c[1] == green && c[2] == blue && c[3] == alpha;
+	}
+	private static void set(float[] c, float red, float green, float blue, float alpha) {
+		c[0] = red;
+		c[1] = green;
+		c[2] = blue;
+		c[3] = alpha;
+	}
+	
+	// ==================== Rasterization ====================
+	public void lineWidth(GL gl, float width) {
+		validate();
+		if(lineWidth == width) return;
+		lineWidth = width;
+		gl.glLineWidth(width);
+	}
+	public void pointSize(GL2 gl, float size) {
+		validate();
+		if(pointSize == size) return;
+		pointSize = size;
+		gl.glPointSize(size);
+	}
+}
@@ -19,17 +19,19 @@ import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
 import javax.media.opengl.GLContext;
 
-import ch.blackspirit.graphics.Graphics;
-
 /**
  * @author Markus Koller
  */
-interface GraphicsDelegate extends Graphics {
+interface GraphicsDelegate extends SortableGraphics {
 	public void init();
 	
 	public void setCamera(float translationX, float translationY, float angle);
+	public void setViewBounds(float left, float right, float bottom, float top);
 
 	public GL2 getGL();
 	public GLContext getContext();
+	public GLStateCache getStateCache();
 	public void endFrame();
+	public long getLastFrameCulledPrimitives();
+	public long getLastFrameSubmittedPrimitives();
 }
\ No newline at end of file
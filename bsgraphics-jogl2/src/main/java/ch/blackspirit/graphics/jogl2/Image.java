@@ -16,23 +16,32 @@
 package ch.blackspirit.graphics.jogl2;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import javax.media.opengl.GL;
 import javax.media.opengl.GLProfile;
 
 import ch.blackspirit.graphics.BufferType;
 
 import com.jogamp.opengl.util.texture.Texture;
+import com.jogamp.opengl.util.texture.TextureCoords;
 import com.jogamp.opengl.util.texture.TextureData;
-import com.jogamp.opengl.util.texture.TextureIO;
 
 /**
  * @author Markus Koller
  */
 final class Image implements ch.blackspirit.graphics.Image {
+	static final AtomicInteger SORT_IDS = new AtomicInteger();
+
 	private final int width;
 	private final int height;
 	private final URL url;
@@ -44,11 +53,27 @@ final class Image implements ch.blackspirit.graphics.Image {
 	
 	ResourceManager resourceManager;
 	
+	// null for direct buffer types, the byte buffer then lies outside of the heap
 	private final byte[] bytes;
 	final ByteBuffer byteBuffer; 
 	private TextureData textureData;
 	// texture being set, indicates that the image is cached!
 	public Texture texture = null;
+	// identifies the image when sorting deferred render commands
+	final int sortId = SORT_IDS.incrementAndGet();
+	// set if the image is packed into a texture atlas page, texture then refers to the page texture
+	AtlasPage atlasPage = null;
+	TextureCoords atlasCoords = null;
+	// images rendered into must have a texture of their own
+	boolean packable = true;
+	// pixel buffer objects for asynchronous buffer uploads
+	TextureUpload textureUpload = null;
+	// pixel buffer objects for asynchronous buffer readbacks
+	BufferReadback bufferReadback = null;
+	// video memory used by the own texture including power of two padding, 0 if packed or not cached
+	long textureBytes = 0;
+	// frame the image has last been drawn in, the least recently drawn textures are evicted first
+	long lastDrawnFrame = -1;
 	
 	public Image(URL url, ResourceManager resourceManager, boolean buffered, boolean forceAlpha) throws IOException {
 		this.url = url;
@@ -59,7 +84,7 @@ final class Image implements ch.blackspirit.graphics.Image {
 		if(buffered) {
 			if(forceAlpha) throw new UnsupportedOperationException("Loading buffered image from url forcing alpha must be manually done using explicit buffer type");
 			try {
-				textureData = TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), url, false, null);
+				textureData = loadTextureData(0, 0, true);
 			} catch (Throwable t) {
 				throw new RuntimeException("Error loading image: " + url, t);
 			}
@@ -77,11 +102,19 @@ final class Image implements ch.blackspirit.graphics.Image {
 			this.byteBuffer = ((ByteBuffer)textureData.getBuffer());
 			this.bytes = byteBuffer.array();
 		} else {
-			// preload data to know image size
-			this.textureData = createTextureData();
-			this.alpha = textureData.getPixelFormat() == GL.GL_RGBA; 
-			this.width = textureData.getWidth();
-			this.height = textureData.getHeight();
+			int[] size = readSize(url);
+			if(size != null) {
+				// decoded once when cached, the alpha channel is only needed for images without url
+				this.alpha = forceAlpha;
+				this.width = size[0];
+				this.height = size[1];
+			} else {
+				// preload data to know image size
+				this.textureData = createTextureData();
+				this.alpha = textureData.getPixelFormat() == GL.GL_RGBA; 
+				this.width = textureData.getWidth();
+				this.height = textureData.getHeight();
+			}
 			this.bytes = null;
 			this.byteBuffer = null;
 			this.bufferType = null;
@@ -108,9 +141,9 @@ final class Image implements ch.blackspirit.graphics.Image {
 		this.buffered = true;
 		this.forceAlpha = false;
 		
-		if(bufferType == BufferTypes.RGBA_4Byte) {
+		if(bufferType == BufferTypes.RGBA_4Byte || bufferType == BufferTypes.RGBA_4Byte_Direct) {
 			try {
-				TextureData tempData = TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), url, GL.GL_RGBA, GL.GL_RGBA, false, null);
+				TextureData tempData = loadTextureData(GL.GL_RGBA, GL.GL_RGBA, true);
 				if(tempData.getPixelFormat() != GL.GL_RGBA) {
 					textureData = convertToRGBA(tempData);
 					tempData.flush();
@@ -121,9 +154,9 @@ final class Image implements ch.blackspirit.graphics.Image {
 			} catch (Throwable t) {
 				throw new RuntimeException("Error loading image: " + url, t);
 			}
-		} else if(bufferType == BufferTypes.RGB_3Byte) {
+		} else if(bufferType == BufferTypes.RGB_3Byte || bufferType == BufferTypes.RGB_3Byte_Direct) {
 			try {
-				TextureData tempData = TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), url, GL.GL_RGB, GL.GL_RGB, false, null);
+				TextureData tempData = loadTextureData(GL.GL_RGB, GL.GL_RGB, true);
 				if(tempData.getPixelFormat() != GL.GL_RGB) {
 					textureData = convertToRGB(tempData);
 					tempData.flush();
@@ -141,8 +174,17 @@ final class Image implements ch.blackspirit.graphics.Image {
 		
 		this.width = textureData.getWidth();
 		this.height = textureData.getHeight();
-		this.byteBuffer = ((ByteBuffer)textureData.getBuffer());
-		this.bytes = byteBuffer.array();
+		if(BufferTypes.isDirect(bufferType)) {
+			ByteBuffer heapBuffer = (ByteBuffer)textureData.getBuffer();
+			this.byteBuffer = ByteBuffer.allocateDirect(heapBuffer.remaining()).order(ByteOrder.nativeOrder());
+			byteBuffer.put(heapBuffer);
+			byteBuffer.clear();
+			textureData.setBuffer(byteBuffer);
+			this.bytes = null;
+		} else {
+			this.byteBuffer = ((ByteBuffer)textureData.getBuffer());
+			this.bytes = byteBuffer.array();
+		}
 	}
 	public Image(int width, int height, ResourceManager resourceManager, BufferType bufferType) {
 		this.bufferType = bufferType;
@@ -151,19 +193,31 @@ final class Image implements ch.blackspirit.graphics.Image {
 		this.buffered = true;
 		this.forceAlpha = false;
 		
-		if(bufferType == BufferTypes.RGBA_4Byte) {
-			bytes = new byte[width*height*4];
-			Arrays.fill(bytes, (byte)0);
-			byteBuffer = ByteBuffer.wrap(bytes);
+		if(bufferType == BufferTypes.RGBA_4Byte || bufferType == BufferTypes.RGBA_4Byte_Direct) {
+			if(bufferType == BufferTypes.RGBA_4Byte_Direct) {
+				// allocated zeroed
+				bytes = null;
+				byteBuffer = ByteBuffer.allocateDirect(width*height*4).order(ByteOrder.nativeOrder());
+			} else {
+				bytes = new byte[width*height*4];
+				Arrays.fill(bytes, (byte)0);
+				byteBuffer = ByteBuffer.wrap(bytes);
+			}
 			
 			textureData = new TextureData(GLProfile.get(GLProfile.GL2), GL.GL_RGBA, width, height, 0, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, false, false, true, byteBuffer, null);
 			textureData.setRowLength(width);
 			if(textureData.getPixelFormat() != GL.GL_RGBA) throw new RuntimeException("Unexpected pixel format");
 			this.alpha = true;
-		} else if(bufferType == BufferTypes.RGB_3Byte) {
-			bytes = new byte[width*height*3];
-			Arrays.fill(bytes, (byte)0);
-			byteBuffer = ByteBuffer.wrap(bytes);
+		} else if(bufferType == BufferTypes.RGB_3Byte || bufferType == BufferTypes.RGB_3Byte_Direct) {
+			if(bufferType == BufferTypes.RGB_3Byte_Direct) {
+				// allocated zeroed
+				bytes = null;
+				byteBuffer = ByteBuffer.allocateDirect(width*height*3).order(ByteOrder.nativeOrder());
+			} else {
+				bytes = new byte[width*height*3];
+				Arrays.fill(bytes, (byte)0);
+				byteBuffer = ByteBuffer.wrap(bytes);
+			}
 			
 			textureData = new TextureData(GLProfile.get(GLProfile.GL2), GL.GL_RGB, width, height, 0, GL.GL_RGB, GL.GL_UNSIGNED_BYTE, false, false, true, byteBuffer, null);
 			textureData.setRowLength(width);
@@ -176,6 +230,70 @@ final class Image implements ch.blackspirit.graphics.Image {
 		this.url = null;
 	}
 
+	/**
+	 * @return The texture coordinates of the image within its texture.
+	 */
+	TextureCoords getTextureCoords() {
+		if(atlasPage != null) return atlasCoords;
+		return texture.getImageTexCoords();
+	}
+	/**
+	 * @return Sort id of the texture, shared by all images packed into the same atlas page.
+	 */
+	int getTextureSortId() {
+		if(atlasPage != null) return atlasPage.sortId;
+		return sortId;
+	}
+	/**
+	 * @return <code>true</code> if both images are drawn using the same texture.
+	 */
+	static boolean isSameTexture(Image image1, Image image2) {
+		if(image1 == image2) return true;
+		return image1 != null && image2 != null && image1.texture != null && image1.texture == image2.texture;
+	}
+
+	/**
+	 * Reads the size of an image from its header without decoding the pixels.
+	 * @return Width and height or <code>null</code> if ImageIO has no reader for the image.
+	 */
+	private static int[] readSize(URL url) {
+		try {
+			InputStream stream = url.openStream();
+			try {
+				ImageInputStream input = ImageIO.createImageInputStream(stream);
+				if(input == null) return null;
+				try {
+					Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+					if(!readers.hasNext()) return null;
+					ImageReader reader = readers.next();
+					try {
+						reader.setInput(input, true, true);
+						return new int[] {reader.getWidth(0), reader.getHeight(0)};
+					} finally {
+						reader.dispose();
+					}
+				} finally {
+					input.close();
+				}
+			} finally {
+				stream.close();
+			}
+		} catch(IOException e) {
+			// decoding reports the problem
+			return null;
+		}
+	}
+
+	/**
+	 * Decodes an unbuffered image loaded from an url ahead of caching it, 
+	 * so caching only uploads the pixels.
+	 */
+	void preload() throws IOException {
+		if(!isBuffered() && url != null && textureData == null && texture == null) {
+			textureData = createTextureData();
+		}
+	}
+
 	protected TextureData getTextureData() {
 		if(!isBuffered()) throw new RuntimeException("TextureData only available when buffered");
 		return textureData;
@@ -191,7 +309,7 @@ final class Image implements ch.blackspirit.graphics.Image {
 				TextureData data;
 				try {
 					if(forceAlpha) {
-						TextureData tempData = TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), url, GL.GL_RGBA, GL.GL_RGBA, false, null);
+						TextureData tempData = loadTextureData(GL.GL_RGBA, GL.GL_RGBA, true);
 						if(tempData.getPixelFormat() != GL.GL_RGBA) {
 							data = convertToRGBA(tempData);
 							tempData.flush();
@@ -199,7 +317,8 @@ final class Image implements ch.blackspirit.graphics.Image {
 							data = tempData;
 						}
 					} else {
-						data = TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), url, false, null);
+						// unbuffered texture data is only uploaded, so a mapped cache file can be used directly
+						data = loadTextureData(0, 0, false);
 					}
 				} catch (Throwable t) {
 					throw new RuntimeException("Error loading image: " + url, t);
@@ -228,6 +347,18 @@ final class Image implements ch.blackspirit.graphics.Image {
 		}
 	}
 	
+	/**
+	 * Decodes the image from its url or reads it from the texture cache if there is one.
+	 * @param internalFormat Internal format of the texture data, 0 to use the format of the image.
+	 * @param pixelFormat Pixel format of the texture data, 0 to use the format of the image.
+	 * @param heapBuffer Must the buffer of the texture data be backed by an array.
+	 */
+	private TextureData loadTextureData(int internalFormat, int pixelFormat, boolean heapBuffer) throws IOException {
+		TextureCache textureCache = resourceManager.getTextureCache();
+		if(textureCache != null) return textureCache.newTextureData(url, internalFormat, pixelFormat, heapBuffer);
+		return TextureCache.decode(url, internalFormat, pixelFormat);
+	}
+
 	private TextureData convertToRGB(TextureData data) {
 		if(data.getPixelFormat() != GL.GL_RGBA)	throw new RuntimeException("Unsupported pixel format: " + data.getPixelFormat());
 
@@ -277,16 +408,17 @@ final class Image implements ch.blackspirit.graphics.Image {
 	}
 	
 	public Object getBuffer() {
+		if(BufferTypes.isDirect(bufferType)) return byteBuffer;
 		return bytes;
 	}
 	
 	public void updateCache() {
-		if(bytes == null) return;
+		if(byteBuffer == null) return;
 		resourceManager.updateCache(this);
 	}
 
 	public void updateCache(int xOffset, int yOffset, int width, int height) {
-		if(bytes == null) return;
+		if(byteBuffer == null) return;
 		resourceManager.updateCacheRegion(this, xOffset, yOffset, width, height);
 	}
 
@@ -298,12 +430,12 @@ final class Image implements ch.blackspirit.graphics.Image {
 	}
 
 	public void updateBuffer() {
-		if(bytes == null) return;
+		if(byteBuffer == null) return;
 		resourceManager.updateBuffer(this);
 	}
 
 	public void updateBuffer(int xOffset, int yOffset, int width, int height) {
-		if(bytes == null) return;
+		if(byteBuffer == null) return;
 		resourceManager.updateBuffer(this, xOffset, yOffset, width, height);
 	}
 	
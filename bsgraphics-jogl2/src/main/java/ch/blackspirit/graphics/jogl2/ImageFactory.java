@@ -20,10 +20,12 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import ch.blackspirit.graphics.BufferType;
 import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.util.ImageLoader;
 
 /*
  * @author Markus Koller
@@ -36,18 +38,35 @@ final class ImageFactory implements ch.blackspirit.graphics.ImageFactory {
 		List<BufferType> bufferTypesList = new ArrayList<BufferType>();
 		bufferTypesList.add(BufferTypes.RGBA_4Byte);
 		bufferTypesList.add(BufferTypes.RGB_3Byte);
+		bufferTypesList.add(BufferTypes.RGBA_4Byte_Direct);
+		bufferTypesList.add(BufferTypes.RGB_3Byte_Direct);
 		bufferTypes = Collections.unmodifiableList(bufferTypesList);
 	}
 
 	private int maxSize = Integer.MAX_VALUE;
 	
 	private ResourceManager resourceManager;
+	private final ImageLoader imageLoader = new ImageLoader(this) {
+		protected void loaded(Image image) throws IOException {
+			ch.blackspirit.graphics.jogl2.Image joglImage = (ch.blackspirit.graphics.jogl2.Image)image;
+			// decoded on the loading thread and uploaded at the start of the next frames
+			joglImage.preload();
+			resourceManager.scheduleCache(joglImage);
+		}
+	};
 	
 	public ImageFactory(ResourceManager resourceManager) {
 		super();
 		this.resourceManager = resourceManager;
 	}
 	
+	/**
+	 * @param threads Number of images loaded in parallel, 0 for one per available processor.
+	 */
+	void setLoadingThreads(int threads) {
+		imageLoader.setThreads(threads);
+	}
+	
 	void setMaxTextureSize(int size) {
 		maxSize = size;
 		LOGGER.info("Maximum Texture Size: " + maxSize);
@@ -105,5 +124,15 @@ final class ImageFactory implements ch.blackspirit.graphics.ImageFactory {
 	@Override
 	public List<BufferType> getSupportedBufferTypes() {
 		return bufferTypes;
-	}	
+	}
+
+	public Future<Image> loadImage(URL url, boolean forceAlpha) {
+		return imageLoader.loadImage(url, forceAlpha);
+	}
+	public Future<Image> loadBufferedImage(URL url, boolean forceAlpha) {
+		return imageLoader.loadBufferedImage(url, forceAlpha);
+	}
+	public Future<Image> loadBufferedImage(URL url, BufferType bufferType) {
+		return imageLoader.loadBufferedImage(url, bufferType);
+	}
 }
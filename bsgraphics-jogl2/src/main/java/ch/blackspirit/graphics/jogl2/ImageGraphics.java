@@ -30,17 +30,20 @@ import ch.blackspirit.graphics.DrawingMode;
 import ch.blackspirit.graphics.Flip;
 import ch.blackspirit.graphics.Image;
 import ch.blackspirit.graphics.Line;
+import ch.blackspirit.graphics.SpriteBatch;
+import ch.blackspirit.graphics.StaticMesh;
 import ch.blackspirit.graphics.Triangle;
 
 /**
  * @author Markus Koller
  */
-final class ImageGraphics implements ch.blackspirit.graphics.Graphics, ViewListener {
+final class ImageGraphics implements SortableGraphics, ViewListener {
 	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
 
 	private final GraphicsDelegate delegate;
 	private final View view;
 	private final Image image;
+	private boolean framebufferObject = false;
 
 	public ImageGraphics(Image image, GraphicsDelegate delegate, ResourceManager resourceManager, View view) {
 		this.delegate = delegate;
@@ -53,22 +56,31 @@ final class ImageGraphics implements ch.blackspirit.graphics.Graphics, ViewListe
 		this.view.removeViewListener(this);
 	}
 	
+	/**
+	 * @param framebufferObject <code>true</code> if rendering into a framebuffer object 
+	 * 	with the viewport set to the image size.
+	 */
+	void setFramebufferObject(boolean framebufferObject) {
+		this.framebufferObject = framebufferObject;
+	}
+	
 	void init() {
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Initializing image graphics");
 
 		//		delegate.prepareExternalCode();
 		GL2 gl = delegate.getGL();
 		
+		GLStateCache stateCache = delegate.getStateCache();
+
 		// Depth Testing
-		gl.glDisable(GL.GL_DEPTH_TEST);
+		stateCache.setEnabled(gl, GL.GL_DEPTH_TEST, false);
 		
-	    gl.glHint(GL2.GL_PERSPECTIVE_CORRECTION_HINT, GL.GL_NICEST);
+	    stateCache.hint(gl, GL2.GL_PERSPECTIVE_CORRECTION_HINT, GL.GL_NICEST);
 	    
-	    // Lighting, Coloring
-	    gl.glEnable(GL2.GL_LIGHTING);
-		gl.glEnable(GL.GL_BLEND);
-	    gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
-	    gl.glEnable(GL2.GL_COLOR_MATERIAL);
+	    // Lighting, Coloring (blending function is set by the delegate according to the drawing mode)
+	    stateCache.setEnabled(gl, GL2.GL_LIGHTING, true);
+	    stateCache.setEnabled(gl, GL.GL_BLEND, true);
+	    stateCache.setEnabled(gl, GL2.GL_COLOR_MATERIAL, true);
 	    gl.glColorMaterial(GL.GL_FRONT_AND_BACK, GL2.GL_AMBIENT_AND_DIFFUSE);
 	    gl.glShadeModel(GL2.GL_SMOOTH);
 
@@ -88,9 +100,15 @@ final class ImageGraphics implements ch.blackspirit.graphics.Graphics, ViewListe
 	    gl.glLoadIdentity();
 	    
 	    GLU glu = new GLU();
-	    float factorX = (float)delegate.getContext().getGLDrawable().getWidth() / (float)image.getWidth();
-	    float factorY = (float)delegate.getContext().getGLDrawable().getHeight() / (float)image.getHeight();
+	    float factorX = 1;
+	    float factorY = 1;
+	    if(!framebufferObject) {
+	    	// the image covers the lower left corner of the drawable
+	    	factorX = (float)delegate.getContext().getGLDrawable().getWidth() / (float)image.getWidth();
+	    	factorY = (float)delegate.getContext().getGLDrawable().getHeight() / (float)image.getHeight();
+	    }
 	    glu.gluOrtho2D(0, view.getWidth() * factorX, 0, view.getHeight() * factorY);
+	    delegate.setViewBounds(0, view.getWidth() * factorX, 0, view.getHeight() * factorY);
 	    gl.glMatrixMode(GL2.GL_MODELVIEW);
 	}
 
@@ -130,6 +148,13 @@ final class ImageGraphics implements ch.blackspirit.graphics.Graphics, ViewListe
 		delegate.drawImage(image, width, height);
 	}
 
+	public void drawStaticMesh(StaticMesh mesh) {
+		delegate.drawStaticMesh(mesh);
+	}
+	public SpriteBatch getSpriteBatch() {
+		return delegate.getSpriteBatch();
+	}
+
 	public void drawLine(float x1, float y1, float x2, float y2) {
 		delegate.drawLine(x1, y1, x2, y2);
 	}
@@ -280,4 +305,17 @@ final class ImageGraphics implements ch.blackspirit.graphics.Graphics, ViewListe
 	public void copyToImage(Image image, int x, int y, int width, int height) {
 		delegate.copyToImage(image, x, y, width, height);
 	}
+
+	public void setLayer(int layer) {
+		delegate.setLayer(layer);
+	}
+	public int getLayer() {
+		return delegate.getLayer();
+	}
+	public void setOrderIndependent(boolean orderIndependent) {
+		delegate.setOrderIndependent(orderIndependent);
+	}
+	public boolean isOrderIndependent() {
+		return delegate.isOrderIndependent();
+	}
 }
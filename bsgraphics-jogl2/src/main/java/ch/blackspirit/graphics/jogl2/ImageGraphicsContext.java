@@ -23,6 +23,7 @@ import javax.media.opengl.DebugGL2;
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
 import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLContext;
 
 import ch.blackspirit.graphics.Graphics;
 import ch.blackspirit.graphics.GraphicsListener;
@@ -36,6 +37,7 @@ final class ImageGraphicsContext extends AbstractGraphicsContext implements ch.b
 
 	private RenderContext context;
 	private ResourceManager resourceManager;
+	private RuntimeProperties runtimeProperties;
 	private GraphicsListener graphicsListener;
 	private ImageGLEventListener glEventListener;
 	private JOGLGraphicsDelegate delegate;
@@ -52,6 +54,7 @@ final class ImageGraphicsContext extends AbstractGraphicsContext implements ch.b
 		this.image = image;
 		this.context = context;
 		this.resourceManager = resourceManager;
+		this.runtimeProperties = runtimeProperties;
 		this.delegate = new JOGLGraphicsDelegate(this.context, this.resourceManager, runtimeProperties);
 		view.setSize(image.getWidth(), image.getHeight());
 		view.setCamera(0, 0, 0);
@@ -71,6 +74,7 @@ final class ImageGraphicsContext extends AbstractGraphicsContext implements ch.b
 		
 		this.context = null;
 		this.resourceManager = null;
+		this.runtimeProperties = null;
 		this.graphicsListener = null;
 		this.glEventListener = null;
 		this.delegate = null;
@@ -84,6 +88,12 @@ final class ImageGraphicsContext extends AbstractGraphicsContext implements ch.b
 
 	public void draw() {
 		if(disposed) throw new RuntimeException("Draw must not be called after disposal.");
+		if(!isDrawing() && GLContext.getCurrent() == context.getDrawable().getContext() && 
+				runtimeProperties.getPropertyBoolean(Properties.IS_FRAMEBUFFER_OBJECT_RENDERING)) {
+			// rendering into a framebuffer object does not touch the drawable, so no display cycle is needed
+			glEventListener.display(context.getDrawable());
+			return;
+		}
 		context.getDrawable().setAutoSwapBufferMode(false);
 		context.setGLEventListener(glEventListener);
 		context.getDrawable().display();
@@ -129,12 +139,17 @@ final class ImageGraphicsContext extends AbstractGraphicsContext implements ch.b
 			
 			startDrawing();
 			
+			GL2 gl = (GL2)drawable.getGL();
+			boolean framebufferObject = runtimeProperties.getPropertyBoolean(Properties.IS_FRAMEBUFFER_OBJECT_RENDERING) && 
+				bindFramebuffer(gl);
+			graphics.setFramebufferObject(framebufferObject);
+			
 			// initiate graphics every time as many image graphics contexts render on the same drawable
 			graphics.init();
 			
 			if(!initiated) init(drawable);
 			
-			resourceManager.cleanup();
+			resourceManager.cleanup((GL2)drawable.getGL());
 
 			if(context.graphicsListener != null) {
 				Graphics userGraphics = graphics;
@@ -146,8 +161,26 @@ final class ImageGraphicsContext extends AbstractGraphicsContext implements ch.b
 				context.graphicsListener.draw(view, userGraphics);
 			}
 			
-			GL2 gl = (GL2)drawable.getGL();
 			delegate.endFrame();
+			if(framebufferObject) {
+				unbindFramebuffer(gl, drawable);
+			} else {
+				cacheImage(gl);
+	
+				GLStateCache stateCache = delegate.getStateCache();
+				stateCache.setEnabled(gl, image.texture.getTarget(), true);
+				stateCache.bindTexture(gl, image.texture);
+				// copy buffer to image
+				gl.glCopyTexSubImage2D(image.texture.getTarget(), 0, 0, 0, 0, 0, image.getWidth(), image.getHeight());
+				stateCache.setEnabled(gl, image.texture.getTarget(), false);
+			}
+			
+			endDrawing();
+		}
+		
+		private void cacheImage(GL2 gl) {
+			// rendering or copying into a texture atlas page would overwrite other images
+			resourceManager.unpack(gl, image);
 			if(image.texture == null) {
 				try {
 					resourceManager.cache(gl, image);
@@ -155,14 +188,29 @@ final class ImageGraphicsContext extends AbstractGraphicsContext implements ch.b
 					throw new RuntimeException("Error caching image. Do manual caching to prevent such errors during rendering.", e);
 				}
 			}
-
-			image.texture.enable(gl);
-			image.texture.bind(gl);	
-			// copy buffer to image
-			gl.glCopyTexSubImage2D(image.texture.getTarget(), 0, 0, 0, 0, 0, image.getWidth(), image.getHeight());
-			image.texture.disable(gl);
-			
-			endDrawing();
+		}
+		/**
+		 * Attaches the image texture to the framebuffer object of the render context,
+		 * so drawing goes into the image directly without being copied.
+		 * @return <code>false</code> if the texture can not be rendered into.
+		 */
+		private boolean bindFramebuffer(GL2 gl) {
+			cacheImage(gl);
+			gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, ImageGraphicsContext.this.context.getFramebuffer(gl));
+			gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER, GL.GL_COLOR_ATTACHMENT0, image.texture.getTarget(), image.texture.getTextureObject(gl), 0);
+			if(gl.glCheckFramebufferStatus(GL.GL_FRAMEBUFFER) != GL.GL_FRAMEBUFFER_COMPLETE) {
+				if(LOGGER.isLoggable(Level.FINE)) LOGGER.fine("Framebuffer object incomplete, drawing image into the drawable: " + image.toString());
+				gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER, GL.GL_COLOR_ATTACHMENT0, image.texture.getTarget(), 0, 0);
+				gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, 0);
+				return false;
+			}
+			gl.glViewport(0, 0, image.getWidth(), image.getHeight());
+			return true;
+		}
+		private void unbindFramebuffer(GL2 gl, GLAutoDrawable drawable) {
+			gl.glFramebufferTexture2D(GL.GL_FRAMEBUFFER, GL.GL_COLOR_ATTACHMENT0, image.texture.getTarget(), 0, 0);
+			gl.glBindFramebuffer(GL.GL_FRAMEBUFFER, 0);
+			gl.glViewport(0, 0, drawable.getWidth(), drawable.getHeight());
 		}
 		public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {}
 		public void displayChanged(GLAutoDrawable drawable, boolean modeChanged, boolean deviceChanged) {}
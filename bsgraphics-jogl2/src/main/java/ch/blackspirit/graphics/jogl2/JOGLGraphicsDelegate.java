@@ -18,24 +18,19 @@ package ch.blackspirit.graphics.jogl2;
 import java.awt.Font;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GL2;
 import javax.media.opengl.GLContext;
-import javax.vecmath.AxisAngle4f;
 import javax.vecmath.Color4f;
 import javax.vecmath.Matrix3f;
-import javax.vecmath.Matrix4f;
 import javax.vecmath.Vector2f;
-import javax.vecmath.Vector3f;
 
 import ch.blackspirit.graphics.DrawingMode;
 import ch.blackspirit.graphics.Flip;
 import ch.blackspirit.graphics.Line;
 import ch.blackspirit.graphics.Triangle;
-import ch.blackspirit.graphics.pool.ObjectPool;
 
 import com.jogamp.opengl.util.awt.TextRenderer;
 import com.jogamp.opengl.util.texture.TextureCoords;
@@ -47,8 +42,11 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	private static final float DEG_TO_RAD_FACTOR = (2 * (float)Math.PI) / 360f;
 
 	private ResourceManager resourceManager;
+	private final SpriteBatch spriteBatch = new SpriteBatch(this);
 
 	private DrawingMode drawingMode = DrawingMode.ALPHA_BLEND;
+	// Drawing mode set in GL, may differ from drawingMode in deferred rendering
+	private DrawingMode appliedDrawingMode = DrawingMode.ALPHA_BLEND;
 
 	private boolean redMask = true;
 	private boolean greenMask = true;
@@ -74,22 +72,40 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	
 	private RuntimeProperties properties;
 	
-	// Transformation cache
-	private ObjectPool<Matrix4f> matrices = new ObjectPool<Matrix4f>(new Matrix4f(), 200);
+	// Model transformation applied to vertices on the CPU instead of the GL modelview matrix
+	private boolean softwareTransform = false;
+	
+	// Deferred rendering
+	private boolean deferred = false;
+	private CommandBuffer commandBuffer = null;
+	private int layer = 0;
+	private boolean orderIndependent = false;
 	
 	private HashMap<Font, TextRenderer> textRenderers = new HashMap<Font, TextRenderer>();
 	
-	private ArrayList<Matrix4f> transformStack = new ArrayList<Matrix4f>(200);
-	private Matrix4f modelTransform = new Matrix4f();
-    private Matrix4f viewTransform = new Matrix4f();
+	private final Transform2D modelTransform = new Transform2D();
+	private final Transform2D viewTransform = new Transform2D();
+	private final Transform2D combinedTransform = new Transform2D();
+	private final Transform2D textTransform = new Transform2D();
+
+	// Culling
+	private boolean culling = false;
+	private final Transform2D cullTransform = new Transform2D();
+	private boolean cullTransformValid = false;
+	private float viewLeft = -Float.MAX_VALUE;
+	private float viewRight = Float.MAX_VALUE;
+	private float viewBottom = -Float.MAX_VALUE;
+	private float viewTop = Float.MAX_VALUE;
+	private long culledPrimitives = 0;
+	private long submittedPrimitives = 0;
+	private long lastFrameCulledPrimitives = 0;
+	private long lastFrameSubmittedPrimitives = 0;
 	private RenderContext drawable;
 	
 	public JOGLGraphicsDelegate(RenderContext context, ResourceManager resourceManager, RuntimeProperties properties) {
 		this.resourceManager = resourceManager;
 		this.drawable = context;
 		this.properties = properties;
-		this.modelTransform.setIdentity();
-		this.viewTransform.setIdentity();
 	}
 		
 	public void init() {
@@ -97,6 +113,11 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			textRenderer.dispose();
 		}
 		textRenderers.clear();
+		deferred = properties.getPropertyBoolean(Properties.IS_DEFERRED_RENDERING);
+		if(deferred && commandBuffer == null) commandBuffer = new CommandBuffer();
+		// recorded vertices must not depend on the GL modelview matrix
+		softwareTransform = deferred || properties.getPropertyBoolean(Properties.IS_SOFTWARE_TRANSFORM);
+		culling = properties.getPropertyBoolean(Properties.IS_CULLING);
 	    applyColor();
 	    applyBaseColor();
 	    applyClearColor();
@@ -117,6 +138,9 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	public GLContext getContext() {
 		return drawable.getDrawable().getContext();
 	}
+	public GLStateCache getStateCache() {
+		return drawable.getStateCache();
+	}
 
 	// ==================== Clearing ====================
 	public void clear() {
@@ -133,22 +157,20 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		applyClearColor();
 	}
 	private void applyClearColor() {
-		drawable.getGL().glClearColor(clearColor.x, clearColor.y, clearColor.z, clearColor.w);
+		drawable.getStateCache().clearColor(drawable.getGL(), clearColor.x, clearColor.y, clearColor.z, clearColor.w);
 	}
 	
 	// ==================== Color ====================
 	public void setColor(Color4f color) {
-		// glEnd should not be necessary here, but my FireGL V3200 disagrees!
-		endPrimitivesKeepImage();
+		// The color is part of every batched vertex, so there is no need to submit the batch
 	    this.color.set(color);
-	    applyColor();
 	}
 	public void getColor(Color4f color) {
 		color.set(this.color);
 	}
 	public void applyColor() {
 		GL2 gl = drawable.getGL().getGL2();
-		gl.glColor4f(color.x, color.y, color.z, color.w);
+		drawable.getStateCache().color(gl, color.x, color.y, color.z, color.w);
 	}
 	
 	public void setBaseColor(Color4f color) {
@@ -162,7 +184,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	private void applyBaseColor() {
 		GL2 gl = drawable.getGL().getGL2();
 	    baseColor.get(baseColorArray);
-		gl.glLightModelfv(GL2.GL_LIGHT_MODEL_AMBIENT, baseColorArray, 0);
+	    drawable.getStateCache().lightModelAmbient(gl, baseColorArray);
 	}
 
 	// ==================== Images ====================
@@ -179,10 +201,11 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		
 		if (!(image instanceof Image)) throw new RuntimeException("Image has not been created by the JOGL Blackspirit Graphics implementation!");
 		Image joglImage = (Image)image;
+		if(isCulled(0, 0, width, height)) return;
 		
 		startPrimitive(Primitive.IMAGE, joglImage);
         
-		TextureCoords coords = joglImage.texture.getImageTexCoords();
+		TextureCoords coords = joglImage.getTextureCoords();
 		float texTop = coords.top();
 		float texBottom = coords.bottom();
 		float texLeft = coords.left();
@@ -200,18 +223,12 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			texRight = temp;
 		}
         
-		gl.glTexCoord2f(texLeft, texTop);
-        gl.glVertex2f(0, 0);
-
-        gl.glTexCoord2f(texRight, texTop);
-        gl.glVertex2f(width, 0);
-
-        gl.glTexCoord2f(texRight, texBottom);
-        gl.glVertex2f(width, height);
-    
-        gl.glTexCoord2f(texLeft, texBottom);
-        gl.glVertex2f(0, height);
- 
+		VertexBatch batch = drawable.getVertexBatch();
+		batch.ensureCapacity(gl, 4);
+		vertex(batch, 0, 0, color, texLeft, texTop);
+		vertex(batch, width, 0, color, texRight, texTop);
+		vertex(batch, width, height, color, texRight, texBottom);
+		vertex(batch, 0, height, color, texLeft, texBottom);
 	}
 
 	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height, int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
@@ -220,10 +237,11 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		
 		if (!(image instanceof Image)) throw new RuntimeException("Image has not been created by the JOGL Blackspirit Graphics implementation!");
 		Image joglImage = (Image)image;
+		if(isCulled(0, 0, width, height)) return;
 
 		startPrimitive(Primitive.IMAGE, joglImage);
 
-		TextureCoords coords = joglImage.texture.getImageTexCoords();
+		TextureCoords coords = joglImage.getTextureCoords();
 		float texTop = coords.top() + (coords.bottom() - coords.top()) / image.getHeight() * subImageY; 
 		float texBottom = coords.top() + (coords.bottom() - coords.top()) / image.getHeight() * (subImageY + subImageHeight);
 		float texLeft = coords.left() + (coords.right() - coords.left()) / image.getWidth() * subImageX;
@@ -240,29 +258,90 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 			texRight = temp;
 		}
 
-		gl.glTexCoord2f(texLeft, texTop);
-        gl.glVertex2f(0, 0);
+		VertexBatch batch = drawable.getVertexBatch();
+		batch.ensureCapacity(gl, 4);
+		vertex(batch, 0, 0, color, texLeft, texTop);
+		vertex(batch, width, 0, color, texRight, texTop);
+		vertex(batch, width, height, color, texRight, texBottom);
+		vertex(batch, 0, height, color, texLeft, texBottom);
+	}
+	
+	// ==================== Sprites ====================
+	public ch.blackspirit.graphics.SpriteBatch getSpriteBatch() {
+		return spriteBatch;
+	}
+	void drawSprite(ch.blackspirit.graphics.Image image, float x, float y, float width, float height, 
+			float originX, float originY, float rotation, Color4f tint, 
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		if (!(image instanceof Image)) throw new RuntimeException("Image has not been created by the JOGL Blackspirit Graphics implementation!");
+		Image joglImage = (Image)image;
+		GL2 gl = drawable.getGL().getGL2();
+		Color4f c = tint != null ? tint : color;
+
+		// corners relative to the origin
+		float left = -originX;
+		float top = -originY;
+		float right = width - originX;
+		float bottom = height - originY;
+		x += originX;
+		y += originY;
 
-        gl.glTexCoord2f(texRight, texTop);
-        gl.glVertex2f(width, 0);
+		float x1, y1, x2, y2, x3, y3, x4, y4;
+		if(rotation == 0) {
+			x1 = x + left; y1 = y + top;
+			x2 = x + right; y2 = y + top;
+			x3 = x + right; y3 = y + bottom;
+			x4 = x + left; y4 = y + bottom;
+		} else {
+			float cos = (float)Math.cos(rotation * DEG_TO_RAD_FACTOR);
+			float sin = (float)Math.sin(rotation * DEG_TO_RAD_FACTOR);
+			x1 = x + cos * left - sin * top; y1 = y + sin * left + cos * top;
+			x2 = x + cos * right - sin * top; y2 = y + sin * right + cos * top;
+			x3 = x + cos * right - sin * bottom; y3 = y + sin * right + cos * bottom;
+			x4 = x + cos * left - sin * bottom; y4 = y + sin * left + cos * bottom;
+		}
+		if(isCulled(Math.min(Math.min(x1, x2), Math.min(x3, x4)), Math.min(Math.min(y1, y2), Math.min(y3, y4)), 
+				Math.max(Math.max(x1, x2), Math.max(x3, x4)), Math.max(Math.max(y1, y2), Math.max(y3, y4)))) return;
 
-        gl.glTexCoord2f(texRight, texBottom);
-        gl.glVertex2f(width, height);
+		startPrimitive(Primitive.IMAGE, joglImage);
 
-        gl.glTexCoord2f(texLeft, texBottom);
-        gl.glVertex2f(0, height);
+		// texture coordinates are only known after startPrimitive has cached or packed the image
+		TextureCoords coords = joglImage.getTextureCoords();
+		float texTop = coords.top() + (coords.bottom() - coords.top()) / image.getHeight() * subImageY; 
+		float texBottom = coords.top() + (coords.bottom() - coords.top()) / image.getHeight() * (subImageY + subImageHeight);
+		float texLeft = coords.left() + (coords.right() - coords.left()) / image.getWidth() * subImageX;
+		float texRight = coords.left() + (coords.right() - coords.left()) / image.getWidth() * (subImageX + subImageWidth);
 
+		if(flip == Flip.BOTH || flip == Flip.HORIZONTAL) {
+			float temp = texTop;
+			texTop = texBottom;
+			texBottom = temp;
+		}
+		if(flip == Flip.BOTH || flip == Flip.VERTICAL) {
+			float temp = texLeft;
+			texLeft = texRight;
+			texRight = temp;
+		}
+
+		VertexBatch batch = drawable.getVertexBatch();
+		batch.ensureCapacity(gl, 4);
+		vertex(batch, x1, y1, c, texLeft, texTop);
+		vertex(batch, x2, y2, c, texRight, texTop);
+		vertex(batch, x3, y3, c, texRight, texBottom);
+		vertex(batch, x4, y4, c, texLeft, texBottom);
 	}
-	
+
 	// ==================== Points ====================
 	public void drawPoint(float x, float y) {
 		startPrimitive(Primitive.POINT, null);
 		GL2 gl = drawable.getGL().getGL2();
-        gl.glVertex2f(x, y);
+		VertexBatch batch = drawable.getVertexBatch();
+		batch.ensureCapacity(gl, 1);
+		vertex(batch, x, y, color);
 	}
 	private void applyPointSize() {
 		GL2 gl = drawable.getGL().getGL2();
-		gl.glPointSize(pointDiameter);
+		drawable.getStateCache().pointSize(gl, pointDiameter);
 	}
 	public float getPointRadius() {
 		return pointDiameter / 2f;
@@ -277,13 +356,14 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	public void drawLine(float x1, float y1, float x2, float y2) {
         startPrimitive(Primitive.LINE, null);
 		GL2 gl = drawable.getGL().getGL2();
-        gl.glVertex2f(x1, y1);
-        gl.glVertex2f(x2, y2);
-        
+		VertexBatch batch = drawable.getVertexBatch();
+		batch.ensureCapacity(gl, 2);
+		vertex(batch, x1, y1, color);
+		vertex(batch, x2, y2, color);
 	}
 	private void applyLineWidth() {
 		GL2 gl = drawable.getGL().getGL2();
-		gl.glLineWidth(lineWidth);
+		drawable.getStateCache().lineWidth(gl, lineWidth);
 	}
 	private Line[] lineArray = new Line[1];
 	public void drawLine(Line line, boolean useColors) {
@@ -295,37 +375,36 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		if (lines == null) throw new IllegalArgumentException("lines must not be null");
 	    startPrimitive(Primitive.LINE, null);
 		GL2 gl = drawable.getGL().getGL2();
+		VertexBatch batch = drawable.getVertexBatch();
 		Vector2f p;
 		if(useColor) {
 			Color4f c;
 			for(int i = 0; i < lines.length; i++) {
 				Line l = lines[i];
 				if(l == null) continue;
+				batch.ensureCapacity(gl, 2);
 
 				p = l.getPoint(0);
 				c = l.getColor(0);
 				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-			    gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, c);
 	
 			    p = l.getPoint(1);
 				c = l.getColor(1);
 				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-			    gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, c);
 			}
-			// reset color;
-			applyColor();
 		} else {
 			for(int i = 0; i < lines.length; i++) {
 				Line l = lines[i];
 				if(l == null) continue;
+				batch.ensureCapacity(gl, 2);
 
 				p = l.getPoint(0);
-			    gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, color);
 			    
 			    p = l.getPoint(1);
-			    gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, color);
 			}
 		}
 	}
@@ -340,11 +419,15 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	
 	// ==================== Triangles ====================
 	public void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		if(isCulled(Math.min(x1, Math.min(x2, x3)), Math.min(y1, Math.min(y2, y3)), 
+				Math.max(x1, Math.max(x2, x3)), Math.max(y1, Math.max(y2, y3)))) return;
         startPrimitive(Primitive.TRIANGLE, null);
 		GL2 gl = drawable.getGL().getGL2();
-        gl.glVertex2f(x1, y1);
-        gl.glVertex2f(x3, y3);
-        gl.glVertex2f(x2, y2);
+		VertexBatch batch = drawable.getVertexBatch();
+		batch.ensureCapacity(gl, 3);
+		vertex(batch, x1, y1, color);
+		vertex(batch, x3, y3, color);
+		vertex(batch, x2, y2, color);
 	}
 	
 	private Triangle[] triangleArray = new Triangle[1];
@@ -355,75 +438,55 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	}
 	public void drawTriangles(Triangle[] triangles, boolean useColors) {
 		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		if(isCulled(triangles)) return;
 	    startPrimitive(Primitive.LINE, null);
 		GL2 gl = drawable.getGL().getGL2();
-		Vector2f p;
+		VertexBatch batch = drawable.getVertexBatch();
+		Vector2f p1, p2, p3;
 		if(useColors) {
-			Color4f c;
+			Color4f c1, c2, c3;
 			for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				batch.ensureCapacity(gl, 6);
 			
-				p = t.getPoint(0);
-				c = t.getColor(0);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-			    gl.glVertex2f(p.x, p.y);
-	
-			    p = t.getPoint(1);
-				c = t.getColor(1);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-			    gl.glVertex2f(p.x, p.y);
+				p1 = t.getPoint(0);
+				c1 = t.getColor(0);
+				if(c1 == null) c1 = color;
+				p2 = t.getPoint(1);
+				c2 = t.getColor(1);
+				if(c2 == null) c2 = color;
+				p3 = t.getPoint(2);
+				c3 = t.getColor(2);
+				if(c3 == null) c3 = color;
 
-				p = t.getPoint(1);
-				c = t.getColor(1);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-			    gl.glVertex2f(p.x, p.y);
-	
-			    p = t.getPoint(2);
-				c = t.getColor(2);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-			    gl.glVertex2f(p.x, p.y);
+				vertex(batch, p1.x, p1.y, c1);
+				vertex(batch, p2.x, p2.y, c2);
 
-				p = t.getPoint(2);
-				c = t.getColor(2);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-			    gl.glVertex2f(p.x, p.y);
-	
-			    p = t.getPoint(0);
-				c = t.getColor(0);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-			    gl.glVertex2f(p.x, p.y);
+				vertex(batch, p2.x, p2.y, c2);
+				vertex(batch, p3.x, p3.y, c3);
+
+				vertex(batch, p3.x, p3.y, c3);
+				vertex(batch, p1.x, p1.y, c1);
 			}
-			// reset color;
-			applyColor();
 		} else {
 			for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				batch.ensureCapacity(gl, 6);
 				
-				p = t.getPoint(0);
-			    gl.glVertex2f(p.x, p.y);
-	
-			    p = t.getPoint(1);
-			    gl.glVertex2f(p.x, p.y);
+				p1 = t.getPoint(0);
+				p2 = t.getPoint(1);
+				p3 = t.getPoint(2);
 
-				p = t.getPoint(1);
-			    gl.glVertex2f(p.x, p.y);
-	
-			    p = t.getPoint(2);
-			    gl.glVertex2f(p.x, p.y);
+				vertex(batch, p1.x, p1.y, color);
+				vertex(batch, p2.x, p2.y, color);
 
-				p = t.getPoint(2);
-			    gl.glVertex2f(p.x, p.y);
-	
-			    p = t.getPoint(0);
-			    gl.glVertex2f(p.x, p.y);
+				vertex(batch, p2.x, p2.y, color);
+				vertex(batch, p3.x, p3.y, color);
+
+				vertex(batch, p3.x, p3.y, color);
+				vertex(batch, p1.x, p1.y, color);
 			}
 		}
 	}
@@ -433,45 +496,44 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		GL2 gl = drawable.getGL().getGL2();
 
 		Vector2f p;
+		if(isCulled(triangles)) return;
 		
 		startPrimitive(Primitive.TRIANGLE, null);
+		VertexBatch batch = drawable.getVertexBatch();
 
 		if(useColors) {
 			Color4f c = null;
 			for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				batch.ensureCapacity(gl, 3);
 
 				p = t.getPoint(0);
 				c = t.getColor(0);
 				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-		        gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, c);
 				
 		        p = t.getPoint(1);
 				c = t.getColor(1);
 				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-		        gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, c);
 				
 		        p = t.getPoint(2);
 				c = t.getColor(2);
 				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-		        gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, c);
 			}
-			// reset color;
-			applyColor();
 		} else {
 			for(int i = 0; i < triangles.length; i++) {
 				Triangle t = triangles[i];
 				if(t == null) continue;
+				batch.ensureCapacity(gl, 3);
 				p = t.getPoint(0);
-		        gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, color);
 				p = t.getPoint(1);
-		        gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, color);
 				p = t.getPoint(2);
-		        gl.glVertex2f(p.x, p.y);
+				vertex(batch, p.x, p.y, color);
 			}
 		}
 	}
@@ -486,8 +548,6 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		fillTriangles(triangleArray, useColors, image);
 	}
 	
-	// TODO make faster using glDrawArrays (arrays of 100 triangles?) => much less native calls (http://www.opengl.org/sdk/docs/man/)
-	// TODO texture width, height calls only once
 	public void fillTriangles(Triangle[] triangles, boolean useColors, ch.blackspirit.graphics.Image image) {
 		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
 		if (image == null) throw new IllegalArgumentException("image must not be null");
@@ -497,83 +557,80 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		Image joglImage = null;
 
 		joglImage = (Image)image;
+		if(isCulled(triangles)) return;
 		startPrimitive(Primitive.TEXTURED_TRIANGLE, joglImage);
+		VertexBatch batch = drawable.getVertexBatch();
 
-		TextureCoords coords = joglImage.texture.getImageTexCoords();
+		TextureCoords coords = joglImage.getTextureCoords();
+		float texLeft = coords.left();
+		float texTop = coords.top();
+		float texFactorX = (coords.right() - coords.left()) / joglImage.getWidth();
+		float texFactorY = (coords.bottom() - coords.top()) / joglImage.getHeight();
 		
-		if(useColors) {
-			Color4f c;
-	    	for(int i = 0; i < triangles.length; i++) {
-				Triangle t = triangles[i];
-				if(t == null) continue;
+		Color4f c1 = color;
+		Color4f c2 = color;
+		Color4f c3 = color;
+    	for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
 
-				Vector2f tc1 = t.getTextureCoordinate(0);
-				if (tc1 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
-				Vector2f tc2 = t.getTextureCoordinate(1);
-				if (tc2 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
-				Vector2f tc3 = t.getTextureCoordinate(2);
-				if (tc3 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
-		
-				p = t.getPoint(0);
-				c = t.getColor(0);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-				float texX = coords.left() + (coords.right() - coords.left()) / joglImage.texture.getImageWidth() * tc1.x;
-				float texY = coords.top() + (coords.bottom() - coords.top()) / joglImage.texture.getImageHeight() * tc1.y;
-				gl.glTexCoord2f(texX, texY);
-		        gl.glVertex2f(p.x, p.y);
-				
-		        p = t.getPoint(1);
-				c = t.getColor(1);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-				texX = coords.left() + (coords.right() - coords.left()) / joglImage.texture.getImageWidth() * tc2.x;
-				texY = coords.top() + (coords.bottom() - coords.top()) / joglImage.texture.getImageHeight() * tc2.y; 
-				gl.glTexCoord2f(texX, texY);
-		        gl.glVertex2f(p.x, p.y);
-				
-		        p = t.getPoint(2);
-				c = t.getColor(2);
-				if(c == null) c = color;
-				gl.glColor4f(c.x, c.y, c.z, c.w);
-				texX = coords.left() + (coords.right() - coords.left()) / joglImage.texture.getImageWidth() * tc3.x;
-				texY = coords.top() + (coords.bottom() - coords.top()) / joglImage.texture.getImageHeight() * tc3.y; 
-				gl.glTexCoord2f(texX, texY);
-		        gl.glVertex2f(p.x, p.y);
-		
-	    	}
-		} else {
-	    	for(int i = 0; i < triangles.length; i++) {
-				Triangle t = triangles[i];
-				if(t == null) continue;
+			Vector2f tc1 = t.getTextureCoordinate(0);
+			if (tc1 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+			Vector2f tc2 = t.getTextureCoordinate(1);
+			if (tc2 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+			Vector2f tc3 = t.getTextureCoordinate(2);
+			if (tc3 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+			
+			if(useColors) {
+				c1 = t.getColor(0);
+				if(c1 == null) c1 = color;
+				c2 = t.getColor(1);
+				if(c2 == null) c2 = color;
+				c3 = t.getColor(2);
+				if(c3 == null) c3 = color;
+			}
+			batch.ensureCapacity(gl, 3);
 	
-				Vector2f tc1 = t.getTextureCoordinate(0);
-				if (tc1 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
-				Vector2f tc2 = t.getTextureCoordinate(1);
-				if (tc2 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
-				Vector2f tc3 = t.getTextureCoordinate(2);
-				if (tc3 == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+			p = t.getPoint(0);
+			vertex(batch, p.x, p.y, c1, 
+					texLeft + texFactorX * tc1.x, texTop + texFactorY * tc1.y);
+			p = t.getPoint(1);
+			vertex(batch, p.x, p.y, c2, 
+					texLeft + texFactorX * tc2.x, texTop + texFactorY * tc2.y);
+			p = t.getPoint(2);
+			vertex(batch, p.x, p.y, c3, 
+					texLeft + texFactorX * tc3.x, texTop + texFactorY * tc3.y);
+    	}
+	}
 
-				p = t.getPoint(0);
-				float texX = coords.left() + (coords.right() - coords.left()) / joglImage.texture.getImageWidth() * tc1.x;
-				float texY = coords.top() + (coords.bottom() - coords.top()) / joglImage.texture.getImageHeight() * tc1.y;
-				gl.glTexCoord2f(texX, texY);
-		        gl.glVertex2f(p.x, p.y);
-				
-		        p = t.getPoint(1);
-				texX = coords.left() + (coords.right() - coords.left()) / joglImage.texture.getImageWidth() * tc2.x;
-				texY = coords.top() + (coords.bottom() - coords.top()) / joglImage.texture.getImageHeight() * tc2.y; 
-				gl.glTexCoord2f(texX, texY);
-		        gl.glVertex2f(p.x, p.y);
-				
-		        p = t.getPoint(2);
-				texX = coords.left() + (coords.right() - coords.left()) / joglImage.texture.getImageWidth() * tc3.x;
-				texY = coords.top() + (coords.bottom() - coords.top()) / joglImage.texture.getImageHeight() * tc3.y; 
-				gl.glTexCoord2f(texX, texY);
-		        gl.glVertex2f(p.x, p.y);
+	// ==================== Static Meshes ====================
+	public void drawStaticMesh(ch.blackspirit.graphics.StaticMesh mesh) {
+		if (mesh == null) throw new IllegalArgumentException("mesh must not be null");
+		if (!(mesh instanceof StaticMesh)) throw new RuntimeException("Static mesh has not been created by the JOGL Blackspirit Graphics implementation!");
+		StaticMesh joglMesh = (StaticMesh)mesh;
+		if (joglMesh.isFreed()) throw new IllegalArgumentException("mesh has been freed");
+		if(joglMesh.getTriangleCount() == 0 || isCulled(joglMesh.minX, joglMesh.minY, joglMesh.maxX, joglMesh.maxY)) return;
+		GL2 gl = drawable.getGL().getGL2();
+
+		// submit pending vertices and bind the texture
+		startPrimitive(null, joglMesh.getJoglTexture());
+		if(!joglMesh.isUploaded()) resourceManager.upload(gl, joglMesh);
+		if(!joglMesh.isUseColors()) applyColor();
 		
-	    	}
+		if(softwareTransform) {
+			// the GL matrix only holds the view transformation
+			gl.glPushMatrix();
+			modelTransform.get(applyMArray);
+			gl.glMultMatrixf(applyMArray, 0);
+			joglMesh.draw(gl);
+			gl.glPopMatrix();
+		} else {
+			joglMesh.draw(gl);
 		}
+		RenderStatistics statistics = resourceManager.getStatistics();
+		statistics.increment(RenderStatistics.DRAW_CALLS);
+		statistics.add(RenderStatistics.VERTICES, joglMesh.getTriangleCount() * 3);
+		if(joglMesh.isUseColors()) drawable.getStateCache().invalidateColor();
 	}
 
 	// ==================== Text ====================
@@ -586,6 +643,9 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		setTextTransformation();
 		textRenderer.draw(text, 0, 0);
 		textRenderer.end3DRendering();
+		resourceManager.getStatistics().increment(RenderStatistics.TEXT_DRAWS);
+		// the text renderer restores enable, texture and color buffer state but may change the current color
+		drawable.getStateCache().invalidateColor();
 		setTransform();
 	}
 	public void getTextBounds(String text, Rectangle2D bounds) {
@@ -604,6 +664,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	// ==================== Buffer content copying ====================
 	public void copyToImage(ch.blackspirit.graphics.Image image) {
 		Image joglImage = (Image)image;
+		excludeFromAtlas(joglImage);
 		startPrimitive(null, joglImage);
 		
 		int cwidth = drawable.getDrawable().getWidth();
@@ -623,6 +684,7 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 
 	public void copyToImage(ch.blackspirit.graphics.Image image, int x, int y, int width, int height) {
 		Image joglImage = (Image)image;
+		excludeFromAtlas(joglImage);
 		startPrimitive(null, joglImage);
 		
 		int cwidth = drawable.getDrawable().getWidth();
@@ -648,188 +710,102 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		setTransform();
 	}
 
-	private Matrix4f transformM = new Matrix4f();
 	public void rotate(float angle) {
-		endPrimitivesKeepImage();
-		transformM.setIdentity();
-		transformM.setRotation(new AxisAngle4f(new Vector3f(0f,0f,1f), angle * DEG_TO_RAD_FACTOR));
-		modelTransform.mul(transformM);
-		applyTransform(viewTransform, modelTransform);
+		modelTransform.rotate(angle * DEG_TO_RAD_FACTOR);
+		applyModelTransform();
 	}
 	public void translate(float x, float y) {
-		endPrimitivesKeepImage();
 		// !! inverted translation behaviour !!
-		transformM.setIdentity();
-		transformM.setTranslation(new Vector3f(x, y, 0));
-		modelTransform.mul(transformM);
-		applyTransform(viewTransform, modelTransform);
+		modelTransform.translate(x, y);
+		applyModelTransform();
 	}
 	public void scale(float x, float y) {
-		endPrimitivesKeepImage();
-		scaleMatrix(transformM, x, y, 1);
-		modelTransform.mul(transformM);
-		applyTransform(viewTransform, modelTransform);
+		modelTransform.scale(x, y);
+		applyModelTransform();
 	}
 	public void clearTransformation() {
 		this.clearTransform();
 	}
 	
 	public void clearTransform() {
-		endPrimitivesKeepImage();
-		for(int i = 0; i < transformStack.size(); i++) {
-			matrices.free(transformStack.get(i));
-		}
-		transformStack.clear();
-		modelTransform.setIdentity();
-		applyTransform(viewTransform, modelTransform);
+		modelTransform.clear();
+		applyModelTransform();
 	}
 
 	public void popTransform() {
-		if (transformStack.isEmpty()) {
-			throw new RuntimeException("No transformation left to pop from transform stack!");
-		}
-		endPrimitivesKeepImage();
-		Matrix4f m = transformStack.remove(transformStack.size() - 1);
-		modelTransform.set(m);
-		matrices.free(m);
-		applyTransform(viewTransform, modelTransform);
+		modelTransform.pop();
+		applyModelTransform();
 	}
 
 	public void pushTransform() {
-		Matrix4f m = matrices.get();
-		m.set(modelTransform);
-		transformStack.add(m);
+		modelTransform.push();
 	}
-	private Matrix4f m1 = new Matrix4f();
-	private Matrix4f m2 = new Matrix4f();
 	
 	private void setTransform() {
 		endPrimitivesKeepImage();
-//		GL2 gl = (GL2)drawable.getGL();
-		
-//		// Reset
-//		gl.glLoadIdentity();
-//		
-//		// Rotate to correct view
-//		gl.glRotatef(180f, 1, 0, 0);
-//		gl.glRotatef(angle, 0, 0, 1);
-//
-//		// Translate to camera
-//		gl.glTranslatef(translationX, translationY, 0);
-		viewTransform.setIdentity();
-		viewTransform.setRotation(new AxisAngle4f(new Vector3f(1,0,0), (float)Math.PI));
-		m1.setIdentity();
-		m1.setRotation(new AxisAngle4f(new Vector3f(0,0,1), angle * DEG_TO_RAD_FACTOR));
-		viewTransform.mul(m1);
-		m2.setIdentity();
-		m2.setTranslation(new Vector3f(translationX, translationY, 0));
-		viewTransform.mul(m2);
+		// rotated 180 degrees about the x axis to the correct view, rotated and translated to the camera
+		viewTransform.set(1, 0, 0, 0, -1, 0);
+		viewTransform.rotate(angle * DEG_TO_RAD_FACTOR);
+		viewTransform.translate(translationX, translationY);
+		cullTransformValid = false;
 		
 		applyTransform(viewTransform, modelTransform);
 	}
-	private Matrix4f applyM = new Matrix4f();
-	private void applyTransform(Matrix4f view, Matrix4f model) {
-		applyM.setIdentity();
-		applyM.mul(view);
-		applyM.mul(model);
-		applyTransform(applyM);
+	/**
+	 * Loads a changed model transformation into GL. Nothing needs to be done 
+	 * if vertices are transformed on the CPU, so the current batch can be continued.
+	 */
+	private void applyModelTransform() {
+		cullTransformValid = false;
+		if(softwareTransform) return;
+		endPrimitivesKeepImage();
+		applyTransform(viewTransform, modelTransform);
+	}
+	private void applyTransform(Transform2D view, Transform2D model) {
+		if(softwareTransform) {
+			// the model transformation is applied to the vertices
+			applyTransform(view);
+			return;
+		}
+		combinedTransform.set(view);
+		combinedTransform.multiply(model);
+		applyTransform(combinedTransform);
 	}
 	public void setTransform(Matrix3f matrix) {
-		convert(matrix, modelTransform);
+		// only the affine part of the matrix is used
+		modelTransform.set(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
+		applyModelTransform();
 	}
 	public void applyTransform(Matrix3f matrix) {
-		convert(matrix, applyM);
-		modelTransform.mul(applyM);
-		applyTransform(viewTransform, modelTransform);
-	}
-	private void convert(Matrix3f from, Matrix4f to) {
-		to.m00 = from.m00;
-		to.m01 = from.m01;
-		to.m02 = 0f;
-		to.m03 = from.m02;
-		to.m10 = from.m10;
-		to.m11 = from.m11;
-		to.m12 = 0f;
-		to.m13 = from.m12;
-		to.m20 = 0f;
-		to.m21 = 0f;
-		to.m22 = 1f;
-		to.m23 = 0f;
-		to.m30 = from.m20;
-		to.m31 = from.m21;
-		to.m32 = 0f;
-		to.m33 = from.m22;
+		modelTransform.multiply(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
+		applyModelTransform();
 	}
 	public void getTransform(Matrix3f matrix) {
 		matrix.m00 = modelTransform.m00;
 		matrix.m01 = modelTransform.m01;
-		matrix.m02 = modelTransform.m03;
+		matrix.m02 = modelTransform.m02;
 		matrix.m10 = modelTransform.m10;
 		matrix.m11 = modelTransform.m11;
-		matrix.m12 = modelTransform.m13;
-		matrix.m20 = modelTransform.m30;
-		matrix.m21 = modelTransform.m31;
-		matrix.m22 = modelTransform.m33;
+		matrix.m12 = modelTransform.m12;
+		matrix.m20 = 0;
+		matrix.m21 = 0;
+		matrix.m22 = 1;
 	}
 	
-	private final void scaleMatrix(Matrix4f m, float x, float y, float z) {
-		m.setIdentity();
-		m.m00 = x;
-		m.m11 = y;
-		m.m22 = z;
-	}
-	
-	float[] applyMArray = new float[16];
-	private void applyTransform(Matrix4f matrix) {
+	private float[] applyMArray = new float[16];
+	private void applyTransform(Transform2D transform) {
 		GL2 gl = drawable.getGL().getGL2();
-		gl.glLoadIdentity();
-		convert(matrix, applyMArray);
-		gl.glMultMatrixf(applyMArray, 0);
-	}
-	private void convert(Matrix4f m, float[] d) {
-		d[0] = m.m00;
-		d[1] = m.m10;
-		d[2] = m.m20;
-		d[3] = m.m30;
-		d[4] = m.m01;
-		d[5] = m.m11;
-		d[6] = m.m21;
-		d[7] = m.m31;
-		d[8] = m.m02;
-		d[9] = m.m12;
-		d[10] = m.m22;
-		d[11] = m.m32;
-		d[12] = m.m03;
-		d[13] = m.m13;
-		d[14] = m.m23;
-		d[15] = m.m33;
-	}
-	private Matrix4f textTransform = new Matrix4f();
+		transform.get(applyMArray);
+		gl.glLoadMatrixf(applyMArray, 0);
+		resourceManager.getStatistics().increment(RenderStatistics.TRANSFORM_LOADS);
+	}
 	private void setTextTransformation() {
 		endPrimitives();
-//		GL2 gl = (GL2)drawable.getGL();
-//		
-//		// Reset
-//		gl.glLoadIdentity();
-//		// Rotate to correct view
-//		gl.glRotatef(180f, 1, 0, 0);
-//		// Translate to camera
-//		gl.glTranslatef(translationX, translationY, 0);
-//		
-//		// Recreate correct transformation
-//		for(int i = 0; i < transforms.size(); i++) {
-//			transforms.get(i).apply(gl);
-//		}
-//		gl.glScalef(1, -1, 1);
-
-		textTransform.setIdentity();
-		textTransform.setRotation(new AxisAngle4f(new Vector3f(1,0,0), (float)Math.PI));
-		m1.setIdentity();
-		m1.setTranslation(new Vector3f(translationX, translationY, 0));
-		textTransform.mul(m1);
-		textTransform.mul(modelTransform);
-		scaleMatrix(m2, 1, -1, 1);
-		textTransform.mul(m2);
+		// view without camera rotation, the model transformation and the text flipped upright
+		textTransform.set(1, 0, 0, 0, -1, 0);
+		textTransform.translate(translationX, translationY);
+		textTransform.multiply(modelTransform);
+		textTransform.scale(1, -1);
 		
 		applyTransform(textTransform);
 	}
@@ -876,53 +852,67 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 		applyColorMask();
 	}
 	public void applyColorMask() {
-		drawable.getGL().glColorMask(redMask, greenMask, blueMask, alphaMask);
+		drawable.getStateCache().colorMask(drawable.getGL(), redMask, greenMask, blueMask, alphaMask);
 	}
 
 	public DrawingMode getDrawingMode() {
 		return this.drawingMode;
 	}
 	public void setDrawingMode(DrawingMode drawingMode) {
+		if(deferred) {
+			// recorded with each command and applied when the commands are executed
+			if(drawingMode == DrawingMode.SUBTRACT && !properties.getPropertyBoolean(Properties.IS_DRAWING_MODE_SUBTRACT_SUPPORTED)) {
+				throw new UnsupportedOperationException("Subtract drawing mode is not supported.");
+			}
+			this.drawingMode = drawingMode;
+			return;
+		}
 		endPrimitivesKeepImage();
 		this.drawingMode = drawingMode; 
 		applyDrawingMode();
 	}
 	public void applyDrawingMode() {
+		applyDrawingMode(drawingMode);
+	}
+	private void applyDrawingMode(DrawingMode drawingMode) {
+		appliedDrawingMode = drawingMode;
+		resourceManager.getStatistics().increment(RenderStatistics.DRAWING_MODE_CHANGES);
 		boolean isGlExtBlendSubtractSupported = properties.getPropertyBoolean(Properties.IS_DRAWING_MODE_SUBTRACT_SUPPORTED);
 		GL2 gl = drawable.getGL().getGL2();
+		GLStateCache stateCache = drawable.getStateCache();
 		if(drawingMode == DrawingMode.ALPHA_BLEND) {
 			if(isGlExtBlendSubtractSupported) {
-				gl.glBlendEquation(GL.GL_FUNC_ADD);
+				stateCache.blendEquation(gl, GL.GL_FUNC_ADD);
 			}
-			gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
+			stateCache.blendFunc(gl, GL.GL_SRC_ALPHA, GL.GL_ONE_MINUS_SRC_ALPHA);
 		} else if(drawingMode == DrawingMode.ADD) {
 			if(isGlExtBlendSubtractSupported) {
-				gl.glBlendEquation(GL.GL_FUNC_ADD);
+				stateCache.blendEquation(gl, GL.GL_FUNC_ADD);
 			}
-			gl.glBlendFunc(GL.GL_ONE, GL.GL_ONE);
+			stateCache.blendFunc(gl, GL.GL_ONE, GL.GL_ONE);
 		} else if(drawingMode == DrawingMode.ALPHA_ADD) {
 			if(isGlExtBlendSubtractSupported) {
-				gl.glBlendEquation(GL.GL_FUNC_ADD);
+				stateCache.blendEquation(gl, GL.GL_FUNC_ADD);
 			}
-			gl.glBlendFunc(GL.GL_SRC_ALPHA, GL.GL_ONE);
+			stateCache.blendFunc(gl, GL.GL_SRC_ALPHA, GL.GL_ONE);
 		} else if(drawingMode == DrawingMode.MULTIPLY) {
 			if(isGlExtBlendSubtractSupported) {
-				gl.glBlendEquation(GL.GL_FUNC_ADD);
+				stateCache.blendEquation(gl, GL.GL_FUNC_ADD);
 			}
-			gl.glBlendFunc(GL.GL_DST_COLOR, GL.GL_ZERO);
+			stateCache.blendFunc(gl, GL.GL_DST_COLOR, GL.GL_ZERO);
 		} else if(drawingMode == DrawingMode.OVERWRITE) {
 			if(isGlExtBlendSubtractSupported) {
-				gl.glBlendEquation(GL.GL_FUNC_ADD);
+				stateCache.blendEquation(gl, GL.GL_FUNC_ADD);
 			}
-			gl.glBlendFunc(GL.GL_ONE, GL.GL_ZERO);
+			stateCache.blendFunc(gl, GL.GL_ONE, GL.GL_ZERO);
 		} else if(drawingMode == DrawingMode.SUBTRACT) {
 			// This uses an extension!!
 			if(isGlExtBlendSubtractSupported) {
-				gl.glBlendEquation(GL.GL_FUNC_REVERSE_SUBTRACT);
+				stateCache.blendEquation(gl, GL.GL_FUNC_REVERSE_SUBTRACT);
 			} else {
 				throw new UnsupportedOperationException("Subtract drawing mode is not supported.");
 			}
-			gl.glBlendFunc(GL.GL_ONE, GL.GL_ONE);
+			stateCache.blendFunc(gl, GL.GL_ONE, GL.GL_ONE);
 		}
 	} 
 	
@@ -935,14 +925,16 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	}
 	private void applyPolygonAntialiasing() {
 		GL2 gl = drawable.getGL().getGL2();
+		GLStateCache stateCache = drawable.getStateCache();
 		// !! Enabling this causes problems on most GFX Cards (though not on my FireGL)
-		gl.glDisable(GL2.GL_POLYGON_SMOOTH);
-		gl.glHint(GL2.GL_POLYGON_SMOOTH_HINT, GL.GL_NICEST);
+		stateCache.setEnabled(gl, GL2.GL_POLYGON_SMOOTH, false);
+		stateCache.hint(gl, GL2.GL_POLYGON_SMOOTH_HINT, GL.GL_NICEST);
 	}
 	private void applyPointAntialiasing() {
 		GL2 gl = drawable.getGL().getGL2();
-		gl.glEnable(GL2.GL_POINT_SMOOTH);
-		gl.glHint(GL2.GL_POINT_SMOOTH_HINT, GL.GL_NICEST);
+		GLStateCache stateCache = drawable.getStateCache();
+		stateCache.setEnabled(gl, GL2.GL_POINT_SMOOTH, true);
+		stateCache.hint(gl, GL2.GL_POINT_SMOOTH_HINT, GL.GL_NICEST);
 	}
 	
 	public void setLineAntialiasing(boolean enabled) {
@@ -955,17 +947,172 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	}
 	private void applyLineAntialiasing() {
 		GL2 gl = drawable.getGL().getGL2();
-		if(lineAntialiasing) {
-			gl.glEnable(GL.GL_LINE_SMOOTH);
+		GLStateCache stateCache = drawable.getStateCache();
+		stateCache.setEnabled(gl, GL.GL_LINE_SMOOTH, lineAntialiasing);
+		stateCache.hint(gl, GL.GL_LINE_SMOOTH_HINT, GL.GL_NICEST);
+}
+	
+	// ==================== Vertices ====================
+	private void vertex(VertexBatch batch, float x, float y, Color4f c) {
+		if(softwareTransform) {
+			Transform2D m = modelTransform;
+			float tx = m.m00 * x + m.m01 * y + m.m02;
+			y = m.m10 * x + m.m11 * y + m.m12;
+			x = tx;
+		}
+		if(deferred) {
+			commandBuffer.vertex(x, y, c.x, c.y, c.z, c.w);
 		} else {
-			gl.glDisable(GL.GL_LINE_SMOOTH);
+			batch.vertex(x, y, c.x, c.y, c.z, c.w);
 		}
-		gl.glHint(GL.GL_LINE_SMOOTH_HINT, GL.GL_NICEST);
-}
+	}
+	private void vertex(VertexBatch batch, float x, float y, Color4f c, float s, float t) {
+		if(softwareTransform) {
+			Transform2D m = modelTransform;
+			float tx = m.m00 * x + m.m01 * y + m.m02;
+			y = m.m10 * x + m.m11 * y + m.m12;
+			x = tx;
+		}
+		if(deferred) {
+			commandBuffer.vertex(x, y, c.x, c.y, c.z, c.w, s, t);
+		} else {
+			batch.vertex(x, y, c.x, c.y, c.z, c.w, s, t);
+		}
+	}
+
+	// ==================== Culling ====================
+	/**
+	 * Sets the visible area in view coordinates, after the camera transformation.
+	 */
+	public void setViewBounds(float left, float right, float bottom, float top) {
+		this.viewLeft = left;
+		this.viewRight = right;
+		this.viewBottom = bottom;
+		this.viewTop = top;
+	}
+	/**
+	 * Tests a bounding box given in model coordinates against the visible area and 
+	 * counts the primitive as culled or submitted.
+	 * @return <code>true</code> if the bounding box is completely outside the visible area.
+	 */
+	private boolean isCulled(float minX, float minY, float maxX, float maxY) {
+		if(!culling) {
+			submittedPrimitives++;
+			return false;
+		}
+		if(!cullTransformValid) {
+			cullTransform.set(viewTransform);
+			cullTransform.multiply(modelTransform);
+			cullTransformValid = true;
+		}
+		Transform2D m = cullTransform;
+		// bounds of the transformed box, each term is minimized and maximized separately
+		float x1 = m.m00 * minX;
+		float x2 = m.m00 * maxX;
+		float x3 = m.m01 * minY;
+		float x4 = m.m01 * maxY;
+		float y1 = m.m10 * minX;
+		float y2 = m.m10 * maxX;
+		float y3 = m.m11 * minY;
+		float y4 = m.m11 * maxY;
+		float left = Math.min(x1, x2) + Math.min(x3, x4) + m.m02;
+		float right = Math.max(x1, x2) + Math.max(x3, x4) + m.m02;
+		float bottom = Math.min(y1, y2) + Math.min(y3, y4) + m.m12;
+		float top = Math.max(y1, y2) + Math.max(y3, y4) + m.m12;
+		if(right < viewLeft || left > viewRight || top < viewBottom || bottom > viewTop) {
+			culledPrimitives++;
+			return true;
+		}
+		submittedPrimitives++;
+		return false;
+	}
+	private boolean isCulled(Triangle[] triangles) {
+		if(!culling) {
+			submittedPrimitives++;
+			return false;
+		}
+		float minX = Float.MAX_VALUE;
+		float minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+		float maxY = -Float.MAX_VALUE;
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			for(int j = 0; j < 3; j++) {
+				Vector2f p = t.getPoint(j);
+				if(p.x < minX) minX = p.x;
+				if(p.x > maxX) maxX = p.x;
+				if(p.y < minY) minY = p.y;
+				if(p.y > maxY) maxY = p.y;
+			}
+		}
+		// nothing to draw
+		if(minX > maxX) return true;
+		return isCulled(minX, minY, maxX, maxY);
+	}
+	/**
+	 * @return Number of primitives skipped during the last frame because they were outside the view.
+	 */
+	public long getLastFrameCulledPrimitives() {
+		return lastFrameCulledPrimitives;
+	}
+	/**
+	 * @return Number of primitives drawn during the last frame.
+	 */
+	public long getLastFrameSubmittedPrimitives() {
+		return lastFrameSubmittedPrimitives;
+	}
+
+	// ==================== Sorting ====================
+	public void setLayer(int layer) {
+		this.layer = layer;
+	}
+	public int getLayer() {
+		return layer;
+	}
+	public void setOrderIndependent(boolean orderIndependent) {
+		this.orderIndependent = orderIndependent;
+	}
+	public boolean isOrderIndependent() {
+		return orderIndependent;
+	}
 	
+	/**
+	 * Executes the recorded commands sorted and restores the current drawing mode.
+	 */
+	private void executeCommands() {
+		CommandBuffer commands = commandBuffer;
+		if(!commands.isEmpty()) {
+			GL2 gl = drawable.getGL().getGL2();
+			VertexBatch batch = drawable.getVertexBatch();
+			int[] order = commands.sort();
+			float[] vertices = commands.getVertices();
+			for(int i = 0; i < commands.size(); i++) {
+				int command = order[i];
+				DrawingMode mode = commands.getDrawingMode(command);
+				if(mode != appliedDrawingMode) {
+					changePrimitive(null, drawable.getLastImage());
+					applyDrawingMode(mode);
+				}
+				changePrimitive(commands.getPrimitive(command), commands.getImage(command));
+				batch.vertices(gl, vertices, commands.getVertexOffset(command), commands.getVertexCount(command));
+			}
+			commands.clear();
+		}
+		if(appliedDrawingMode != drawingMode) {
+			changePrimitive(null, drawable.getLastImage());
+			applyDrawingMode(drawingMode);
+		}
+	}
+
 	// ==================== Drawing State ====================
 	public void endFrame() {
 		endPrimitives();	
+		drawable.getVertexBatch().endFrame();
+		lastFrameCulledPrimitives = culledPrimitives;
+		lastFrameSubmittedPrimitives = submittedPrimitives;
+		culledPrimitives = 0;
+		submittedPrimitives = 0;
 		clearTransformation();
 	}
 	public void endPrimitivesKeepImage() {
@@ -974,62 +1121,89 @@ final class JOGLGraphicsDelegate implements GraphicsDelegate {
 	public void endPrimitives() {
 		startPrimitive(null, null);
 	}
-	private boolean ended = true;
 	private void startPrimitive(Primitive primitive, Image image) {
+		// marks the image as recently drawn before caching can evict other textures
+		if(image != null) resourceManager.touch(image);
+		if(deferred) {
+			if(primitive != null) {
+				// texture coordinates are calculated while recording
+				if(image != null && image.texture == null) cache(image);
+				if(commandBuffer.isFull()) executeCommands();
+				commandBuffer.begin(primitive, image, drawingMode, layer, orderIndependent);
+				return;
+			}
+			// the recorded commands must be executed before anything else changes the GL state
+			executeCommands();
+		}
+		changePrimitive(primitive, image);
+	}
+	private void changePrimitive(Primitive primitive, Image image) {
 		GL2 gl = drawable.getGL().getGL2();
-		// end last primitive if necessary
-		if(drawable.getLastPrimitive() != null) {
-			// LINES AND POINTS NOT CURRENTLY OPTIMIZED
-			if(primitive != drawable.getLastPrimitive() || 
-					primitive == Primitive.LINE || primitive == Primitive.POINT || primitive == Primitive.TEXTURED_TRIANGLE) {
-				gl.glEnd();
-				ended = true;
-			} 
+		VertexBatch batch = drawable.getVertexBatch();
+		boolean cached = false;
+		if(image != null && image.texture == null) {
+			// caching changes the texture binding the collected vertices are drawn with
+			batch.flush(gl);
+			cache(image);
+			cached = true;
+		}
+		// images packed into the same texture atlas page do not break the batch
+		boolean textureChanged = !Image.isSameTexture(image, drawable.getLastImage());
+		// submit the collected vertices if the primitive or texture changes
+		if(primitive != drawable.getLastPrimitive() || textureChanged) {
+			batch.flush(gl);
 		}
 		// handle image binding and target enabling/disabling 
-		if(image != drawable.getLastImage()) {
-			if(image != null && image.texture == null) {
-				try {
-					resourceManager.cache(gl, image);
-				} catch (IOException e) {
-					throw new RuntimeException("Error caching image. Do manual caching to prevent such errors during rendering.", e);
-				}
-			}
+		if(textureChanged || cached) {
+			GLStateCache stateCache = drawable.getStateCache();
 			if(drawable.getLastImage() != null && image != null) {
 				if(drawable.getLastImage().texture.getTarget() != image.texture.getTarget()) {
-					drawable.getLastImage().texture.disable(gl);
-					image.texture.enable(gl);
+					stateCache.setEnabled(gl, drawable.getLastImage().texture.getTarget(), false);
+					stateCache.setEnabled(gl, image.texture.getTarget(), true);
 				}
 			} else {
 				if(drawable.getLastImage() != null) { 
-					drawable.getLastImage().texture.disable(gl);
+					stateCache.setEnabled(gl, drawable.getLastImage().texture.getTarget(), false);
 				}
 				if(image != null) {
-					image.texture.enable(gl);
+					stateCache.setEnabled(gl, image.texture.getTarget(), true);
 				}
 			}
 			if(image != null) {
-				image.texture.bind(gl);
+				stateCache.bindTexture(gl, image.texture);
 			}
 		}
-		// start new primitive if necessary
-		if(primitive != null && ended) {
+		// prepare the batch for the new primitive
+		if(primitive != null) {
 			if(primitive == Primitive.POINT) {
-				gl.glBegin(GL.GL_POINTS);
-			}
-			if(primitive == Primitive.LINE) {
-				gl.glBegin(GL.GL_LINES);
+				batch.begin(gl, GL.GL_POINTS, false);
+			} else if(primitive == Primitive.LINE) {
+				batch.begin(gl, GL.GL_LINES, false);
+			} else if(primitive == Primitive.TRIANGLE) {
+				batch.begin(gl, GL.GL_TRIANGLES, false);
+			} else if(primitive == Primitive.TEXTURED_TRIANGLE) {
+				batch.begin(gl, GL.GL_TRIANGLES, true);
+			} else if(primitive == Primitive.IMAGE) {
+				batch.begin(gl, GL2.GL_QUADS, true);
 			}
-			if(primitive == Primitive.TRIANGLE || primitive == Primitive.TEXTURED_TRIANGLE) {
-				gl.glBegin(GL.GL_TRIANGLES);
-			}
-			if(primitive == Primitive.IMAGE) {
-				gl.glBegin(GL2.GL_QUADS);
-			}
-			
-			ended = false;
 		}
 		drawable.setLastImage(image);
 		drawable.setLastPrimitive(primitive);
 	}
+	/**
+	 * Gives the image a texture of its own, copying into a texture atlas page would overwrite other images.
+	 */
+	private void excludeFromAtlas(Image image) {
+		if(image.atlasPage != null) endPrimitives();
+		resourceManager.unpack(drawable.getGL().getGL2(), image);
+	}
+	private void cache(Image image) {
+		try {
+			resourceManager.cache(drawable.getGL().getGL2(), image);
+			// creating the texture changes the binding
+			drawable.getStateCache().invalidateTextures();
+		} catch (IOException e) {
+			throw new RuntimeException("Error caching image. Do manual caching to prevent such errors during rendering.", e);
+		}
+	}
 }
@@ -94,6 +94,11 @@ final class NewtCanvas extends AbstractGraphicsContext implements ch.blackspirit
 	private GLExecutor glExecutor;
 
 	private boolean isGlExtBlendSubtractSupported;
+	private boolean isVertexBufferStreaming;
+	private boolean isAsyncTextureUpload = false;
+	private boolean isAsyncBufferReadback = false;
+	private boolean isFramebufferObjectRendering = false;
+	private long maxTextureSize = 0;
 	private long maxImageDrawingWidth;
 	private long maxImageDrawingHeight;
 	
@@ -167,10 +172,37 @@ final class NewtCanvas extends AbstractGraphicsContext implements ch.blackspirit
 		SupportGLExecutable supportGLExecutable = new SupportGLExecutable();
 		glExecutor.execute(supportGLExecutable);
 		isGlExtBlendSubtractSupported = supportGLExecutable.isGlExtBlendSubtractSupported;
+		if(properties.isTextureAtlas()) {
+			resourceManager.setTextureAtlas(properties.getTextureAtlasSize(), properties.getTextureAtlasImageSize());
+		}
+		RenderStatistics statistics = resourceManager.getStatistics();
+		canvasRenderContext.getVertexBatch().setStatistics(statistics);
+		canvasRenderContext.getStateCache().setStatistics(statistics);
+		imageRenderContext.getVertexBatch().setStatistics(statistics);
+		imageRenderContext.getStateCache().setStatistics(statistics);
+		isVertexBufferStreaming = properties.isVertexBufferStreaming() && supportGLExecutable.isVertexBufferObjectSupported;
+		if(isVertexBufferStreaming) {
+			canvasRenderContext.getVertexBatch().setStreaming(properties.getVertexBufferCount(), properties.getVertexBufferSize());
+			if(!imageRenderContext.getVertexBatch().isStreaming()) {
+				imageRenderContext.getVertexBatch().setStreaming(properties.getVertexBufferCount(), properties.getVertexBufferSize());
+			}
+		}
+		isAsyncTextureUpload = properties.isAsyncTextureUpload() && supportGLExecutable.isPixelBufferObjectSupported;
+		resourceManager.setAsyncTextureUpload(isAsyncTextureUpload);
+		isAsyncBufferReadback = properties.isAsyncBufferReadback() && supportGLExecutable.isPixelBufferObjectSupported;
+		resourceManager.setAsyncBufferReadback(isAsyncBufferReadback);
+		resourceManager.setFramebufferObjectSupported(supportGLExecutable.isFramebufferObjectSupported);
+		isFramebufferObjectRendering = properties.isFramebufferObjectRendering() && supportGLExecutable.isFramebufferObjectSupported;
+		maxTextureSize = supportGLExecutable.maxTextureSize;
 		LOGGER.info("Graphics Card info: " + supportGLExecutable.vendor + 
 				" - " + supportGLExecutable.renderer + 
 				" - " +	supportGLExecutable.version);
 		LOGGER.info("DrawingMode.SUBTRACT supported: " + isGlExtBlendSubtractSupported);
+		LOGGER.info("Vertex buffer streaming: " + isVertexBufferStreaming);
+		LOGGER.info("Asynchronous texture upload: " + isAsyncTextureUpload);
+		LOGGER.info("Asynchronous buffer readback: " + isAsyncBufferReadback);
+		LOGGER.info("Framebuffer objects supported: " + supportGLExecutable.isFramebufferObjectSupported);
+		LOGGER.info("Framebuffer object image rendering: " + isFramebufferObjectRendering);
 	}
 	
 	private void initialize(int width, int height) {
@@ -447,6 +479,22 @@ final class NewtCanvas extends AbstractGraphicsContext implements ch.blackspirit
 	public boolean getPropertyBoolean(String property) {
 		if(Properties.IS_DRAWING_MODE_SUBTRACT_SUPPORTED.equals(property)) {
 			return isGlExtBlendSubtractSupported;
+		} else if(Properties.IS_VERTEX_BUFFER_STREAMING.equals(property)) {
+			return isVertexBufferStreaming;
+		} else if(Properties.IS_SOFTWARE_TRANSFORM.equals(property)) {
+			return properties.isSoftwareTransform();
+		} else if(Properties.IS_DEFERRED_RENDERING.equals(property)) {
+			return properties.isDeferredRendering();
+		} else if(Properties.IS_TEXTURE_ATLAS.equals(property)) {
+			return properties.isTextureAtlas();
+		} else if(Properties.IS_CULLING.equals(property)) {
+			return properties.isCulling();
+		} else if(Properties.IS_ASYNC_TEXTURE_UPLOAD.equals(property)) {
+			return isAsyncTextureUpload;
+		} else if(Properties.IS_ASYNC_BUFFER_READBACK.equals(property)) {
+			return isAsyncBufferReadback;
+		} else if(Properties.IS_FRAMEBUFFER_OBJECT_RENDERING.equals(property)) {
+			return isFramebufferObjectRendering;
 		}
 		throw new IllegalArgumentException("No such property: " + property);
 	}
@@ -455,9 +503,20 @@ final class NewtCanvas extends AbstractGraphicsContext implements ch.blackspirit
 	}
 	public long getPropertyLong(String property) {
 		if(Properties.MAX_IMAGE_DRAWING_HEIGHT.equals(property)) {
+			// framebuffer objects are only limited by the texture size
+			if(isFramebufferObjectRendering) return maxTextureSize;
 			return maxImageDrawingHeight;
 		} else if(Properties.MAX_IMAGE_DRAWING_WIDTH.equals(property)) {
+			if(isFramebufferObjectRendering) return maxTextureSize;
 			return maxImageDrawingWidth;
+		} else if(Properties.VERTEX_BYTES_PER_FRAME.equals(property)) {
+			return canvasRenderContext.getVertexBatch().getLastFrameBytes();
+		} else if(Properties.CULLED_PRIMITIVES_PER_FRAME.equals(property)) {
+			return delegate.getLastFrameCulledPrimitives();
+		} else if(Properties.SUBMITTED_PRIMITIVES_PER_FRAME.equals(property)) {
+			return delegate.getLastFrameSubmittedPrimitives();
+		} else if(property.startsWith(Properties.STATISTICS_PREFIX)) {
+			return resourceManager.getStatistics().getProperty(property);
 		}
 		throw new IllegalArgumentException("No such property: " + property);
 	}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.logging.Logger;
+
+import javax.media.nativewindow.AbstractGraphicsDevice;
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLCapabilities;
+import javax.media.opengl.GLContext;
+import javax.media.opengl.GLDrawable;
+import javax.media.opengl.GLDrawableFactory;
+import javax.media.opengl.GLEventListener;
+import javax.media.opengl.GLException;
+import javax.media.opengl.GLPbuffer;
+import javax.media.opengl.GLProfile;
+import javax.media.opengl.glu.GLU;
+
+import ch.blackspirit.graphics.GraphicsListener;
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.ResourceManager;
+import ch.blackspirit.graphics.util.FrameUtil;
+
+/**
+ * Canvas without a window rendering into a pbuffer of fixed size on the calling thread. 
+ * Works without a display as long as the OpenGL driver supports pbuffers.
+ * Images are drawn using the same pbuffer.
+ * @author Markus Koller
+ */
+final class OffscreenCanvas extends AbstractGraphicsContext implements ch.blackspirit.graphics.OffscreenCanvas, GLExecutor, GLEventListener, RuntimeProperties {
+	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
+
+	private static final GLCapabilities CAPABILITIES = new GLCapabilities(GLProfile.get(GLProfile.GL2));
+	static {
+		CAPABILITIES.setDepthBits(0);
+		CAPABILITIES.setAlphaBits(8);
+		CAPABILITIES.setDoubleBuffered(false);
+	}
+
+	private final CanvasProperties properties;
+
+	private final int width;
+	private final int height;
+	private GLPbuffer canvas;
+	private RenderContext canvasRenderContext = new RenderContext();
+	private RenderContext imageRenderContext = new RenderContext();
+	private final View view = new View();
+	private final ch.blackspirit.graphics.jogl2.ResourceManager resourceManager = 
+		new ch.blackspirit.graphics.jogl2.ResourceManager(this, this);
+	private final ch.blackspirit.graphics.jogl2.ImageFactory imageFactory = 
+		new ch.blackspirit.graphics.jogl2.ImageFactory(resourceManager);
+	private final GraphicsDelegate delegate;
+	private final CanvasGraphics canvasGraphics;
+	private final CanvasGLEventListener canvasGLEventListener;
+
+	private final ByteBuffer frame;
+	private final byte[] rowA;
+	private final byte[] rowB;
+	private boolean frameChanged = false;
+
+	private boolean propertiesInitialized = false;
+	
+	private boolean isGlExtBlendSubtractSupported = false;
+	private boolean isVertexBufferStreaming = false;
+	private boolean isAsyncTextureUpload = false;
+	private boolean isAsyncBufferReadback = false;
+	private boolean isFramebufferObjectRendering = false;
+	private long maxTextureSize = 0;
+
+	private GraphicsListener graphicsListener;
+
+	public OffscreenCanvas(int width, int height, CanvasProperties properties) {
+		if(width <= 0 || height <= 0) throw new IllegalArgumentException("Width and height must be positive: " + width + "x" + height);
+		this.properties = properties;
+		this.width = width;
+		this.height = height;
+		this.frame = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.nativeOrder());
+		this.rowA = new byte[width * 4];
+		this.rowB = new byte[width * 4];
+		view.setSize(width, height);
+		view.setCamera(0, 0, 0);
+		initialize();
+
+		delegate = new JOGLGraphicsDelegate(canvasRenderContext, resourceManager, this);
+		canvasGraphics = new CanvasGraphics(delegate, view);
+        canvasGLEventListener = new CanvasGLEventListener(this, resourceManager, imageFactory, view, canvasGraphics);
+        canvasGLEventListener.setDebugGL(properties.isDebugGL());
+        canvasGLEventListener.setTrace(properties.isTraceEnabled());
+        canvasGLEventListener.setTraceLevel(properties.getTraceLogLevel());
+        canvasRenderContext.setMainGLEventListener(canvasGLEventListener);
+
+        executableListener.setDebugGL(properties.isDebugGL());
+        executableListener.setTrace(properties.isTraceEnabled());
+        executableListener.setTraceLevel(properties.getTraceLogLevel());
+
+        imageFactory.setLoadingThreads(properties.getImageLoadingThreads());
+        resourceManager.setImageUploadBytesPerFrame(properties.getImageUploadBytesPerFrame());
+        if(properties.getTextureCacheDirectory() != null) {
+        	resourceManager.setTextureCache(new TextureCache(new File(properties.getTextureCacheDirectory())));
+        }
+	}
+	
+	public GraphicsDelegate getGraphicsDelegate() {
+		return delegate;
+	}
+
+	private GLExecutableGLEventListener executableListener = new GLExecutableGLEventListener();
+
+	public boolean execute(GLExecutable glExecutable) {
+		try {
+			GL2 gl = (GL2)GLU.getCurrentGL();
+			glExecutable.execute(GLContext.getCurrent().getGLDrawable(), gl);
+		} catch(GLException e) {
+			// no context current
+			try {
+				imageRenderContext.setGLEventListener(executableListener);
+				executableListener.executable = glExecutable;
+				canvas.display();
+				imageRenderContext.resetGLEventListener();
+			} catch(GLException e2) {
+				return false;
+			}
+		}
+		// the executable may have changed any GL state
+		GLStateCache.invalidateAll();
+		return true;
+	}
+	
+	private void initialize() {
+		GLDrawableFactory drawableFactory = GLDrawableFactory.getFactory(GLProfile.get(GLProfile.GL2));
+		AbstractGraphicsDevice graphicsDevice = drawableFactory.getDefaultDevice();
+		if(!drawableFactory.canCreateGLPbuffer(graphicsDevice)) {
+			throw new RuntimeException("PBuffer not supported but required for offscreen rendering!");
+		}
+		canvas = drawableFactory.createGLPbuffer(graphicsDevice, CAPABILITIES, null, width, height, null);
+		canvas.addGLEventListener(this);
+		canvasRenderContext.setDrawable(canvas);
+		// images are drawn on the pbuffer like on the frame buffer of the other canvases
+		imageRenderContext.setDelegateRenderContext(canvasRenderContext);
+		LOGGER.info("Offscreen drawing size: " + width + "x" + height);
+	}
+	
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public ch.blackspirit.graphics.ImageFactory getImageFactory() {
+		return imageFactory;
+	}
+	public boolean getVSync() {
+		return false;
+	}
+
+	public boolean setVSync(boolean enabled) {
+		// there is no display to synchronize with
+		return false;
+	}
+	
+	public void dispose() {
+		canvas.getContext().destroy();
+		canvas.destroy();
+	}
+	public ResourceManager getResourceManager() {
+		return resourceManager;
+	}
+	public void draw() {
+		canvas.display();
+		frameChanged = true;
+		if (canvasGLEventListener.getError() != null) {
+			throw canvasGLEventListener.getError();
+		} else if (canvasGLEventListener.getRuntimeException() != null) {
+			throw canvasGLEventListener.getRuntimeException();
+		}
+	}
+	public GraphicsListener getGraphicsListener() {
+		return graphicsListener;
+	}
+	public void setGraphicsListener(GraphicsListener listener) {
+		this.graphicsListener = listener;
+		canvasGLEventListener.setInitiated(false);
+	}
+	
+	public ch.blackspirit.graphics.ImageGraphicsContext createImageGraphicsContext(Image image) {
+		if (!(image instanceof Image)) throw new RuntimeException("Image has not been created by the JOGL Blackspirit Graphics implementation!");
+		ch.blackspirit.graphics.jogl2.Image joglImage = (ch.blackspirit.graphics.jogl2.Image)image;
+		return new ImageGraphicsContext(joglImage, imageRenderContext, resourceManager, this, properties);
+	}
+
+	public ByteBuffer getFrame() {
+		if(frameChanged) {
+			if(isDrawing()) throw new RuntimeException("The frame can not be read while drawing.");
+			execute(readFrameExecutable);
+		}
+		frame.rewind();
+		return frame;
+	}
+	public void getFrame(Image image) {
+		FrameUtil.copyFrame(getFrame(), width, height, image);
+	}
+
+	private final GLExecutable readFrameExecutable = new GLExecutable() {
+		public void execute(GLDrawable drawable, GL2 gl) {
+			// may already have been read by display before the executable ran
+			if(!frameChanged) return;
+			frameChanged = false;
+			frame.clear();
+			gl.glPixelStorei(GL.GL_PACK_ALIGNMENT, 1);
+			gl.glReadPixels(0, 0, width, height, GL.GL_RGBA, GL.GL_UNSIGNED_BYTE, frame);
+			// OpenGL returns the bottom row first
+			int rowLength = width * 4;
+			for(int top = 0, bottom = height - 1; top < bottom; top++, bottom--) {
+				frame.position(top * rowLength);
+				frame.get(rowA);
+				frame.position(bottom * rowLength);
+				frame.get(rowB);
+				frame.position(bottom * rowLength);
+				frame.put(rowA);
+				frame.position(top * rowLength);
+				frame.put(rowB);
+			}
+			frame.clear();
+		}
+	};
+
+	public boolean getPropertyBoolean(String property) {
+		if(!propertiesInitialized) throw new RuntimeException("Using the OffscreenCanvas properties are not available before the first rendering cycle.");
+		if(Properties.IS_DRAWING_MODE_SUBTRACT_SUPPORTED.equals(property)) {
+			return isGlExtBlendSubtractSupported;
+		} else if(Properties.IS_VERTEX_BUFFER_STREAMING.equals(property)) {
+			return isVertexBufferStreaming;
+		} else if(Properties.IS_SOFTWARE_TRANSFORM.equals(property)) {
+			return properties.isSoftwareTransform();
+		} else if(Properties.IS_DEFERRED_RENDERING.equals(property)) {
+			return properties.isDeferredRendering();
+		} else if(Properties.IS_TEXTURE_ATLAS.equals(property)) {
+			return properties.isTextureAtlas();
+		} else if(Properties.IS_CULLING.equals(property)) {
+			return properties.isCulling();
+		} else if(Properties.IS_ASYNC_TEXTURE_UPLOAD.equals(property)) {
+			return isAsyncTextureUpload;
+		} else if(Properties.IS_ASYNC_BUFFER_READBACK.equals(property)) {
+			return isAsyncBufferReadback;
+		} else if(Properties.IS_FRAMEBUFFER_OBJECT_RENDERING.equals(property)) {
+			return isFramebufferObjectRendering;
+		}
+		throw new IllegalArgumentException("No such property: " + property);
+	}
+	public float getPropertyFloat(String property) {
+		if(!propertiesInitialized) throw new RuntimeException("Using the OffscreenCanvas properties are not available before the first rendering cycle.");
+		throw new IllegalArgumentException("No such property: " + property);
+	}
+	public long getPropertyLong(String property) {
+		if(!propertiesInitialized) throw new RuntimeException("Using the OffscreenCanvas properties are not available before the first rendering cycle.");
+		if(Properties.MAX_IMAGE_DRAWING_HEIGHT.equals(property)) {
+			// framebuffer objects are only limited by the texture size
+			if(isFramebufferObjectRendering) return maxTextureSize;
+			return height;
+		} else if(Properties.MAX_IMAGE_DRAWING_WIDTH.equals(property)) {
+			if(isFramebufferObjectRendering) return maxTextureSize;
+			return width;
+		} else if(Properties.TEXTURE_MEMORY_BUDGET.equals(property)) {
+			return resourceManager.getTextureMemoryBudget();
+		} else if(Properties.RESIDENT_TEXTURE_BYTES.equals(property)) {
+			return resourceManager.getResidentTextureBytes();
+		} else if(Properties.VERTEX_BYTES_PER_FRAME.equals(property)) {
+			return canvasRenderContext.getVertexBatch().getLastFrameBytes();
+		} else if(Properties.CULLED_PRIMITIVES_PER_FRAME.equals(property)) {
+			return delegate.getLastFrameCulledPrimitives();
+		} else if(Properties.SUBMITTED_PRIMITIVES_PER_FRAME.equals(property)) {
+			return delegate.getLastFrameSubmittedPrimitives();
+		} else if(property.startsWith(Properties.STATISTICS_PREFIX)) {
+			return resourceManager.getStatistics().getProperty(property);
+		}
+		throw new IllegalArgumentException("No such property: " + property);
+	}	
+
+	public void init(GLAutoDrawable drawable) {
+		SupportGLExecutable supportGLExecutable = new SupportGLExecutable();
+		execute(supportGLExecutable);
+		isGlExtBlendSubtractSupported = supportGLExecutable.isGlExtBlendSubtractSupported;
+		if(properties.isTextureAtlas()) {
+			resourceManager.setTextureAtlas(properties.getTextureAtlasSize(), properties.getTextureAtlasImageSize());
+		}
+		RenderStatistics statistics = resourceManager.getStatistics();
+		canvasRenderContext.getVertexBatch().setStatistics(statistics);
+		canvasRenderContext.getStateCache().setStatistics(statistics);
+		isVertexBufferStreaming = properties.isVertexBufferStreaming() && supportGLExecutable.isVertexBufferObjectSupported;
+		if(isVertexBufferStreaming) {
+			canvasRenderContext.getVertexBatch().setStreaming(properties.getVertexBufferCount(), properties.getVertexBufferSize());
+		}
+		isAsyncTextureUpload = properties.isAsyncTextureUpload() && supportGLExecutable.isPixelBufferObjectSupported;
+		resourceManager.setAsyncTextureUpload(isAsyncTextureUpload);
+		isAsyncBufferReadback = properties.isAsyncBufferReadback() && supportGLExecutable.isPixelBufferObjectSupported;
+		resourceManager.setAsyncBufferReadback(isAsyncBufferReadback);
+		resourceManager.setFramebufferObjectSupported(supportGLExecutable.isFramebufferObjectSupported);
+		resourceManager.setTextureMemoryBudget(properties.getTextureMemoryBudget());
+		isFramebufferObjectRendering = properties.isFramebufferObjectRendering() && supportGLExecutable.isFramebufferObjectSupported;
+		maxTextureSize = supportGLExecutable.maxTextureSize;
+		propertiesInitialized = true;
+		LOGGER.info("Graphics Card Info: " + supportGLExecutable.vendor + 
+				" - " + supportGLExecutable.renderer + 
+				" - " +	supportGLExecutable.version);
+		LOGGER.info("DrawingMode.SUBTRACT supported: " + isGlExtBlendSubtractSupported);
+		LOGGER.info("Vertex buffer streaming: " + isVertexBufferStreaming);
+		LOGGER.info("Asynchronous texture upload: " + isAsyncTextureUpload);
+		LOGGER.info("Asynchronous buffer readback: " + isAsyncBufferReadback);
+		LOGGER.info("Framebuffer objects supported: " + supportGLExecutable.isFramebufferObjectSupported);
+		LOGGER.info("Framebuffer object image rendering: " + isFramebufferObjectRendering);
+	}
+	public void display(GLAutoDrawable drawable) {
+		// registered first, so this runs before anything else draws on the pbuffer. 
+		// Image drawing would overwrite the canvas frame not read yet.
+		if(frameChanged && canvasRenderContext.getGLEventListener() != canvasGLEventListener) {
+			readFrameExecutable.execute(drawable, drawable.getGL().getGL2());
+		}
+	}
+	public void displayChanged(GLAutoDrawable drawable, boolean modeChanged, boolean deviceChanged) {}
+	public void reshape(GLAutoDrawable drawable, int x, int y, int width, int height) {}
+
+	public void dispose(GLAutoDrawable drawable) {}
+}
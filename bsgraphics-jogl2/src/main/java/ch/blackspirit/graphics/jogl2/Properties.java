@@ -34,4 +34,111 @@ public final class Properties {
 	 * Long property
 	 */
 	public static final String MAX_IMAGE_DRAWING_HEIGHT = "ch.blackspirit.graphics.jogl.image.draw.height";
+	/**
+	 * Boolean property, <code>true</code> if geometry is streamed through vertex buffer objects
+	 */
+	public static final String IS_VERTEX_BUFFER_STREAMING = "ch.blackspirit.graphics.jogl.vbo";
+	/**
+	 * Long property, number of vertex bytes submitted during the last frame
+	 */
+	public static final String VERTEX_BYTES_PER_FRAME = "ch.blackspirit.graphics.jogl.vertex.bytes";
+	/**
+	 * Boolean property, <code>true</code> if the model transformation is applied to vertices on the CPU
+	 */
+	public static final String IS_SOFTWARE_TRANSFORM = "ch.blackspirit.graphics.jogl.transform.software";
+	/**
+	 * Boolean property, <code>true</code> if drawing is recorded and executed sorted at the end of the frame
+	 */
+	public static final String IS_DEFERRED_RENDERING = "ch.blackspirit.graphics.jogl.deferred";
+	/**
+	 * Boolean property, <code>true</code> if small images are packed into shared texture atlas pages
+	 */
+	public static final String IS_TEXTURE_ATLAS = "ch.blackspirit.graphics.jogl.atlas";
+	/**
+	 * Boolean property, <code>true</code> if primitives outside the view are skipped
+	 */
+	public static final String IS_CULLING = "ch.blackspirit.graphics.jogl.culling";
+	/**
+	 * Long property, number of primitives skipped during the last frame because they were outside the view
+	 */
+	public static final String CULLED_PRIMITIVES_PER_FRAME = "ch.blackspirit.graphics.jogl.culling.culled";
+	/**
+	 * Long property, number of primitives drawn during the last frame
+	 */
+	public static final String SUBMITTED_PRIMITIVES_PER_FRAME = "ch.blackspirit.graphics.jogl.culling.submitted";
+	/**
+	 * Boolean property, <code>true</code> if image cache updates are uploaded asynchronously through pixel buffer objects
+	 */
+	public static final String IS_ASYNC_TEXTURE_UPLOAD = "ch.blackspirit.graphics.jogl.upload.async";
+	/**
+	 * Boolean property, <code>true</code> if image buffer updates are read back asynchronously through pixel buffer objects
+	 */
+	public static final String IS_ASYNC_BUFFER_READBACK = "ch.blackspirit.graphics.jogl.readback.async";
+	/**
+	 * Boolean property, <code>true</code> if image graphics contexts render into the image texture through framebuffer objects
+	 */
+	public static final String IS_FRAMEBUFFER_OBJECT_RENDERING = "ch.blackspirit.graphics.jogl.fbo";
+	/**
+	 * Long property, bytes of video memory image textures may use before the least recently drawn 
+	 * ones are evicted, 0 if unlimited
+	 */
+	public static final String TEXTURE_MEMORY_BUDGET = "ch.blackspirit.graphics.jogl.texture.budget";
+	/**
+	 * Long property, bytes of video memory currently used by image textures and texture atlas pages
+	 */
+	public static final String RESIDENT_TEXTURE_BYTES = "ch.blackspirit.graphics.jogl.texture.resident";
+
+	/**
+	 * Prefix shared by all per frame rendering statistics properties.
+	 */
+	public static final String STATISTICS_PREFIX = "ch.blackspirit.graphics.jogl.stats.";
+	/**
+	 * Suffix to append to a statistics property to get its average over the last 60 frames instead 
+	 * of the value of the last frame, e.g. <code>DRAW_CALLS_PER_FRAME + AVERAGE</code>
+	 */
+	public static final String AVERAGE = ".average";
+	/**
+	 * Long property, number of draw calls made during the last frame
+	 */
+	public static final String DRAW_CALLS_PER_FRAME = STATISTICS_PREFIX + "drawcalls";
+	/**
+	 * Long property, number of vertices submitted during the last frame
+	 */
+	public static final String VERTICES_PER_FRAME = STATISTICS_PREFIX + "vertices";
+	/**
+	 * Long property, number of texture binds during the last frame
+	 */
+	public static final String TEXTURE_BINDS_PER_FRAME = STATISTICS_PREFIX + "texturebinds";
+	/**
+	 * Long property, number of drawing mode changes applied during the last frame
+	 */
+	public static final String DRAWING_MODE_CHANGES_PER_FRAME = STATISTICS_PREFIX + "drawingmodes";
+	/**
+	 * Long property, number of transformations loaded into the GL during the last frame
+	 */
+	public static final String TRANSFORM_LOADS_PER_FRAME = STATISTICS_PREFIX + "transforms";
+	/**
+	 * Long property, number of texts drawn during the last frame
+	 */
+	public static final String TEXT_DRAWS_PER_FRAME = STATISTICS_PREFIX + "texts";
+	/**
+	 * Long property, number of texture uploads during the last frame
+	 */
+	public static final String TEXTURE_UPLOADS_PER_FRAME = STATISTICS_PREFIX + "uploads";
+	/**
+	 * Long property, number of image bytes read back from the graphics card during the last frame
+	 */
+	public static final String READBACK_BYTES_PER_FRAME = STATISTICS_PREFIX + "readback.bytes";
+	/**
+	 * Long property, number of images drawn during the last frame whose texture was resident
+	 */
+	public static final String TEXTURE_CACHE_HITS_PER_FRAME = STATISTICS_PREFIX + "texture.hits";
+	/**
+	 * Long property, number of images drawn during the last frame whose texture had to be created first
+	 */
+	public static final String TEXTURE_CACHE_MISSES_PER_FRAME = STATISTICS_PREFIX + "texture.misses";
+	/**
+	 * Long property, number of image textures evicted during the last frame to stay within the texture memory budget
+	 */
+	public static final String TEXTURE_EVICTIONS_PER_FRAME = STATISTICS_PREFIX + "texture.evictions";
 }
@@ -22,6 +22,7 @@ import java.awt.GraphicsEnvironment;
 import java.awt.Point;
 import java.awt.Toolkit;
 import java.awt.event.WindowEvent;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -97,6 +98,11 @@ final class RealtimeCanvas extends AbstractGraphicsContext implements ch.blacksp
 	private CanvasGLEventListener canvasGLEventListener;
 
 	private boolean isGlExtBlendSubtractSupported;
+	private boolean isVertexBufferStreaming;
+	private boolean isAsyncTextureUpload = false;
+	private boolean isAsyncBufferReadback = false;
+	private boolean isFramebufferObjectRendering = false;
+	private long maxTextureSize = 0;
 	private long maxImageDrawingWidth;
 	private long maxImageDrawingHeight;
 	
@@ -152,14 +158,48 @@ final class RealtimeCanvas extends AbstractGraphicsContext implements ch.blacksp
         executableListener.setDebugGL(properties.isDebugGL());
         executableListener.setTrace(properties.isTraceEnabled());
         executableListener.setTraceLevel(properties.getTraceLogLevel());
+
+        imageFactory.setLoadingThreads(properties.getImageLoadingThreads());
+        resourceManager.setImageUploadBytesPerFrame(properties.getImageUploadBytesPerFrame());
+        if(properties.getTextureCacheDirectory() != null) {
+        	resourceManager.setTextureCache(new TextureCache(new File(properties.getTextureCacheDirectory())));
+        }
         
 		SupportGLExecutable supportGLExecutable = new SupportGLExecutable();
 		execute(supportGLExecutable);
 		isGlExtBlendSubtractSupported = supportGLExecutable.isGlExtBlendSubtractSupported;
+		if(properties.isTextureAtlas()) {
+			resourceManager.setTextureAtlas(properties.getTextureAtlasSize(), properties.getTextureAtlasImageSize());
+		}
+		RenderStatistics statistics = resourceManager.getStatistics();
+		canvasRenderContext.getVertexBatch().setStatistics(statistics);
+		canvasRenderContext.getStateCache().setStatistics(statistics);
+		imageRenderContext.getVertexBatch().setStatistics(statistics);
+		imageRenderContext.getStateCache().setStatistics(statistics);
+		isVertexBufferStreaming = properties.isVertexBufferStreaming() && supportGLExecutable.isVertexBufferObjectSupported;
+		if(isVertexBufferStreaming) {
+			canvasRenderContext.getVertexBatch().setStreaming(properties.getVertexBufferCount(), properties.getVertexBufferSize());
+			if(!imageRenderContext.getVertexBatch().isStreaming()) {
+				imageRenderContext.getVertexBatch().setStreaming(properties.getVertexBufferCount(), properties.getVertexBufferSize());
+			}
+		}
+		isAsyncTextureUpload = properties.isAsyncTextureUpload() && supportGLExecutable.isPixelBufferObjectSupported;
+		resourceManager.setAsyncTextureUpload(isAsyncTextureUpload);
+		isAsyncBufferReadback = properties.isAsyncBufferReadback() && supportGLExecutable.isPixelBufferObjectSupported;
+		resourceManager.setAsyncBufferReadback(isAsyncBufferReadback);
+		resourceManager.setFramebufferObjectSupported(supportGLExecutable.isFramebufferObjectSupported);
+		resourceManager.setTextureMemoryBudget(properties.getTextureMemoryBudget());
+		isFramebufferObjectRendering = properties.isFramebufferObjectRendering() && supportGLExecutable.isFramebufferObjectSupported;
+		maxTextureSize = supportGLExecutable.maxTextureSize;
 		LOGGER.info("Graphics Card info: " + supportGLExecutable.vendor + 
 				" - " + supportGLExecutable.renderer + 
 				" - " +	supportGLExecutable.version);
 		LOGGER.info("DrawingMode.SUBTRACT supported: " + isGlExtBlendSubtractSupported);
+		LOGGER.info("Vertex buffer streaming: " + isVertexBufferStreaming);
+		LOGGER.info("Asynchronous texture upload: " + isAsyncTextureUpload);
+		LOGGER.info("Asynchronous buffer readback: " + isAsyncBufferReadback);
+		LOGGER.info("Framebuffer objects supported: " + supportGLExecutable.isFramebufferObjectSupported);
+		LOGGER.info("Framebuffer object image rendering: " + isFramebufferObjectRendering);
 	}
 	
 	public boolean execute(GLExecutable glExecutable) {
@@ -180,6 +220,8 @@ final class RealtimeCanvas extends AbstractGraphicsContext implements ch.blacksp
 				return false;
 			}
 		}
+		// the executable may have changed any GL state
+		GLStateCache.invalidateAll();
 		return true;
 	}
 
@@ -499,6 +541,22 @@ final class RealtimeCanvas extends AbstractGraphicsContext implements ch.blacksp
 	public boolean getPropertyBoolean(String property) {
 		if(Properties.IS_DRAWING_MODE_SUBTRACT_SUPPORTED.equals(property)) {
 			return isGlExtBlendSubtractSupported;
+		} else if(Properties.IS_VERTEX_BUFFER_STREAMING.equals(property)) {
+			return isVertexBufferStreaming;
+		} else if(Properties.IS_SOFTWARE_TRANSFORM.equals(property)) {
+			return properties.isSoftwareTransform();
+		} else if(Properties.IS_DEFERRED_RENDERING.equals(property)) {
+			return properties.isDeferredRendering();
+		} else if(Properties.IS_TEXTURE_ATLAS.equals(property)) {
+			return properties.isTextureAtlas();
+		} else if(Properties.IS_CULLING.equals(property)) {
+			return properties.isCulling();
+		} else if(Properties.IS_ASYNC_TEXTURE_UPLOAD.equals(property)) {
+			return isAsyncTextureUpload;
+		} else if(Properties.IS_ASYNC_BUFFER_READBACK.equals(property)) {
+			return isAsyncBufferReadback;
+		} else if(Properties.IS_FRAMEBUFFER_OBJECT_RENDERING.equals(property)) {
+			return isFramebufferObjectRendering;
 		}
 		throw new IllegalArgumentException("No such property: " + property);
 	}
@@ -507,9 +565,24 @@ final class RealtimeCanvas extends AbstractGraphicsContext implements ch.blacksp
 	}
 	public long getPropertyLong(String property) {
 		if(Properties.MAX_IMAGE_DRAWING_HEIGHT.equals(property)) {
+			// framebuffer objects are only limited by the texture size
+			if(isFramebufferObjectRendering) return maxTextureSize;
 			return maxImageDrawingHeight;
 		} else if(Properties.MAX_IMAGE_DRAWING_WIDTH.equals(property)) {
+			if(isFramebufferObjectRendering) return maxTextureSize;
 			return maxImageDrawingWidth;
+		} else if(Properties.TEXTURE_MEMORY_BUDGET.equals(property)) {
+			return resourceManager.getTextureMemoryBudget();
+		} else if(Properties.RESIDENT_TEXTURE_BYTES.equals(property)) {
+			return resourceManager.getResidentTextureBytes();
+		} else if(Properties.VERTEX_BYTES_PER_FRAME.equals(property)) {
+			return canvasRenderContext.getVertexBatch().getLastFrameBytes();
+		} else if(Properties.CULLED_PRIMITIVES_PER_FRAME.equals(property)) {
+			return delegate.getLastFrameCulledPrimitives();
+		} else if(Properties.SUBMITTED_PRIMITIVES_PER_FRAME.equals(property)) {
+			return delegate.getLastFrameSubmittedPrimitives();
+		} else if(property.startsWith(Properties.STATISTICS_PREFIX)) {
+			return resourceManager.getStatistics().getProperty(property);
 		}
 		throw new IllegalArgumentException("No such property: " + property);
 	}
@@ -17,6 +17,7 @@ package ch.blackspirit.graphics.jogl2;
 
 import javax.media.opengl.GL;
 import javax.media.opengl.GLAutoDrawable;
+import javax.media.opengl.GLContext;
 import javax.media.opengl.GLEventListener;
 
 /**
@@ -31,6 +32,11 @@ final class RenderContext  {
 	// State
 	private Primitive lastPrimitive = null;
 	private Image lastImage = null;
+	private VertexBatch vertexBatch = null;
+	private GLStateCache stateCache = null;
+	// Framebuffer object images are rendered into
+	private int framebuffer = 0;
+	private GLContext framebufferContext = null;
 	
 	public RenderContext() {
 		super();
@@ -113,6 +119,38 @@ final class RenderContext  {
 		else this.lastImage = lastImage;
 	}
 	
+	public VertexBatch getVertexBatch() {
+		if(delegateRenderContext != null) return delegateRenderContext.getVertexBatch();
+		else {
+			if(vertexBatch == null) vertexBatch = new VertexBatch(getStateCache());
+			return vertexBatch;
+		}
+	}
+	public GLStateCache getStateCache() {
+		if(delegateRenderContext != null) return delegateRenderContext.getStateCache();
+		else {
+			if(stateCache == null) stateCache = new GLStateCache();
+			return stateCache;
+		}
+	}
+	
+	/**
+	 * @return Framebuffer object of this render context, created on first use.
+	 */
+	public int getFramebuffer(GL gl) {
+		if(delegateRenderContext != null) return delegateRenderContext.getFramebuffer(gl);
+		else {
+			// framebuffer objects are not shared between contexts
+			if(framebufferContext != gl.getContext()) {
+				int[] id = new int[1];
+				gl.glGenFramebuffers(1, id, 0);
+				framebuffer = id[0];
+				framebufferContext = gl.getContext();
+			}
+			return framebuffer;
+		}
+	}
+	
 	public void destroy() {
 		drawable.getContext().destroy();
 		drawable.destroy();
@@ -37,6 +37,8 @@ public class RenderContextGLExecutor implements GLExecutor {
 				return false;
 			}
 		}
+		// the executable may have changed any GL state
+		GLStateCache.invalidateAll();
 		return true;
 	}
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+/**
+ * Counts the rendering work done per frame and keeps a rolling average over the last frames.<br/>
+ * Counters are not synchronized and meant to be updated from the rendering thread,
+ * the values of completed frames may be queried from any thread.
+ * @author Markus Koller
+ */
+final class RenderStatistics {
+	static final int DRAW_CALLS = 0;
+	static final int VERTICES = 1;
+	static final int TEXTURE_BINDS = 2;
+	static final int DRAWING_MODE_CHANGES = 3;
+	static final int TRANSFORM_LOADS = 4;
+	static final int TEXT_DRAWS = 5;
+	static final int TEXTURE_UPLOADS = 6;
+	static final int READBACK_BYTES = 7;
+	static final int TEXTURE_CACHE_HITS = 8;
+	static final int TEXTURE_CACHE_MISSES = 9;
+	static final int TEXTURE_EVICTIONS = 10;
+	private static final int COUNTERS = 11;
+
+	/** Number of frames the average is taken over */
+	static final int AVERAGE_FRAMES = 60;
+
+	private final long[] current = new long[COUNTERS];
+	private final long[] last = new long[COUNTERS];
+	private final long[][] history = new long[AVERAGE_FRAMES][COUNTERS];
+	private final long[] sum = new long[COUNTERS];
+	private int historyIndex = 0;
+	private int frames = 0;
+
+	public void increment(int counter) {
+		current[counter]++;
+	}
+	public void add(int counter, long value) {
+		current[counter] += value;
+	}
+
+	/**
+	 * Completes the current frame and starts counting the next one.
+	 */
+	public synchronized void endFrame() {
+		long[] oldest = history[historyIndex];
+		for(int i = 0; i < COUNTERS; i++) {
+			sum[i] += current[i] - oldest[i];
+			oldest[i] = current[i];
+			last[i] = current[i];
+			current[i] = 0;
+		}
+		historyIndex = (historyIndex + 1) % AVERAGE_FRAMES;
+		if(frames < AVERAGE_FRAMES) frames++;
+	}
+
+	/**
+	 * @return Value of the counter in the last completed frame.
+	 */
+	public synchronized long getLastFrame(int counter) {
+		return last[counter];
+	}
+	/**
+	 * @return Average value of the counter over the last {@link #AVERAGE_FRAMES} completed frames.
+	 */
+	public synchronized long getAverage(int counter) {
+		if(frames == 0) return 0;
+		return sum[counter] / frames;
+	}
+
+	/**
+	 * Gets a statistics value by its property name.
+	 * @param property One of the statistics properties in {@link Properties}, 
+	 * 	optionally followed by {@link Properties#AVERAGE}.
+	 * @return Value of the last completed frame or the rolling average.
+	 */
+	public long getProperty(String property) {
+		boolean average = property.endsWith(Properties.AVERAGE);
+		String name = average ? property.substring(0, property.length() - Properties.AVERAGE.length()) : property;
+		int counter;
+		if(Properties.DRAW_CALLS_PER_FRAME.equals(name)) {
+			counter = DRAW_CALLS;
+		} else if(Properties.VERTICES_PER_FRAME.equals(name)) {
+			counter = VERTICES;
+		} else if(Properties.TEXTURE_BINDS_PER_FRAME.equals(name)) {
+			counter = TEXTURE_BINDS;
+		} else if(Properties.DRAWING_MODE_CHANGES_PER_FRAME.equals(name)) {
+			counter = DRAWING_MODE_CHANGES;
+		} else if(Properties.TRANSFORM_LOADS_PER_FRAME.equals(name)) {
+			counter = TRANSFORM_LOADS;
+		} else if(Properties.TEXT_DRAWS_PER_FRAME.equals(name)) {
+			counter = TEXT_DRAWS;
+		} else if(Properties.TEXTURE_UPLOADS_PER_FRAME.equals(name)) {
+			counter = TEXTURE_UPLOADS;
+		} else if(Properties.READBACK_BYTES_PER_FRAME.equals(name)) {
+			counter = READBACK_BYTES;
+		} else if(Properties.TEXTURE_CACHE_HITS_PER_FRAME.equals(name)) {
+			counter = TEXTURE_CACHE_HITS;
+		} else if(Properties.TEXTURE_CACHE_MISSES_PER_FRAME.equals(name)) {
+			counter = TEXTURE_CACHE_MISSES;
+		} else if(Properties.TEXTURE_EVICTIONS_PER_FRAME.equals(name)) {
+			counter = TEXTURE_EVICTIONS;
+		} else {
+			throw new IllegalArgumentException("No such property: " + property);
+		}
+		return average ? getAverage(counter) : getLastFrame(counter);
+	}
+}
@@ -17,11 +17,15 @@ package ch.blackspirit.graphics.jogl2;
 
 import java.awt.Font;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +36,8 @@ import javax.media.opengl.GLException;
 
 import ch.blackspirit.graphics.Canvas;
 import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.ImageUpdateListener;
+import ch.blackspirit.graphics.Triangle;
 import ch.blackspirit.graphics.pool.ObjectPool;
 
 import com.jogamp.opengl.util.awt.TextRenderer;
@@ -53,6 +59,31 @@ final class ResourceManager implements
 	private HashMap<Font, TextRenderer> textRenderers = 
 		new HashMap<Font, TextRenderer>();
 
+	private HashSet<StaticMesh> staticMeshes = 
+		new HashSet<StaticMesh>();
+
+	private ArrayList<AtlasPage> atlasPages = new ArrayList<AtlasPage>();
+	private boolean textureAtlas = false;
+	private int atlasPageSize = 1024;
+	private int atlasImageSize = 256;
+
+	// read by loading threads
+	private volatile TextureCache textureCache = null;
+	private long textureMemoryBudget = 0;
+	private long residentTextureBytes = 0;
+
+	private ArrayDeque<ch.blackspirit.graphics.jogl2.Image> scheduledCaches = new ArrayDeque<ch.blackspirit.graphics.jogl2.Image>();
+	private long imageUploadBytesPerFrame = 4 * 1024 * 1024;
+
+	private boolean asyncTextureUpload = false;
+	private ArrayList<TextureUpload> pendingUploads = new ArrayList<TextureUpload>();
+	private boolean asyncBufferReadback = false;
+	private ArrayList<BufferReadback> pendingReadbacks = new ArrayList<BufferReadback>();
+	private long frame = 0;
+	private final RenderStatistics statistics = new RenderStatistics();
+	private CopyOnWriteArrayList<ImageUpdateListener> imageUpdateListeners = 
+		new CopyOnWriteArrayList<ImageUpdateListener>();
+
 	private GLExecutor glExecutor;
 
 	private BufferRegionUpdate bufferRegionUpdate;
@@ -67,6 +98,9 @@ final class ResourceManager implements
 	
 	private ObjectPool<UpdateCache> updateCachePool = new ObjectPool<UpdateCache>(new UpdateCache(), 10);
 	private ObjectPool<UpdateCacheRegion> updateCacheRegionPool = new ObjectPool<UpdateCacheRegion>(new UpdateCacheRegion(), 10);
+
+	private ObjectPool<UploadStaticMesh> uploadStaticMeshPool = new ObjectPool<UploadStaticMesh>(new UploadStaticMesh(), 10);
+	private ObjectPool<FreeStaticMesh> freeStaticMeshPool = new ObjectPool<FreeStaticMesh>(new FreeStaticMesh(), 10);
 	
 	private ArrayList<GLExecutable> failedExecutables = new ArrayList<GLExecutable>(100);
 	
@@ -75,7 +109,14 @@ final class ResourceManager implements
 		this.bufferRegionUpdate = new BufferRegionUpdate(canvas);
 	}
 	
-	void cleanup() {
+	/**
+	 * @return Rendering statistics of the canvas and its image graphics contexts.
+	 */
+	RenderStatistics getStatistics() {
+		return statistics;
+	}
+	
+	void cleanup(GL2 gl) {
 		int failed = failedExecutables.size();
 		for(int i = 0; i < failed; i++) {
 			GLExecutable executable = failedExecutables.get(i);
@@ -91,11 +132,23 @@ final class ResourceManager implements
 			else if(executable instanceof FreeFont) freeFontPool.free((FreeFont)executable);
 			else if(executable instanceof FreeFonts) freeFontsPool.free((FreeFonts)executable);
 			else if(executable instanceof CacheFont) cacheFontPool.free((CacheFont)executable);
+			else if(executable instanceof FreeStaticMesh) freeStaticMeshPool.free((FreeStaticMesh)executable);
 		}
 		failedExecutables.clear();
+		frame++;
+		completeReadbacks(gl);
+		boolean cached = cacheScheduled(gl);
+		if(flushUploads(gl) || cached) {
+			// textures have been bound
+			GLStateCache.invalidateAll();
+		}
 	}
 	
 	void updateCache(ch.blackspirit.graphics.jogl2.Image image) {
+		if(asyncTextureUpload) {
+			enqueueUpload(image, 0, 0, image.getWidth(), image.getHeight());
+			return;
+		}
 		UpdateCache executable = updateCachePool.get();
 		executable.resourceManager = this;
 		executable.image = image;
@@ -106,6 +159,10 @@ final class ResourceManager implements
 		}
 	}
 	void updateCacheRegion(ch.blackspirit.graphics.jogl2.Image image, int offsetX, int offsetY, int width, int height) {
+		if(asyncTextureUpload) {
+			enqueueUpload(image, offsetX, offsetY, width, height);
+			return;
+		}
 		UpdateCacheRegion executable = updateCacheRegionPool.get();
 		executable.resourceManager = this;
 		executable.image = image;
@@ -165,6 +222,9 @@ final class ResourceManager implements
 		}
 	}
 	public void freeImages() {
+		synchronized(scheduledCaches) {
+			scheduledCaches.clear();
+		}
 		FreeImages executable = freeImagesPool.get();
 		executable.resourceManager = this;
 		if(!glExecutor.execute(executable)) {
@@ -190,9 +250,120 @@ final class ResourceManager implements
 	}
 
 	
+	/**
+	 * Image buffers are read from framebuffer objects the image texture is attached to 
+	 * instead of drawing the image into the image drawing buffer.
+	 */
+	void setFramebufferObjectSupported(boolean framebufferObjectSupported) {
+		bufferRegionUpdate.framebufferObjectSupported = framebufferObjectSupported;
+	}
+
+	/**
+	 * Enables packing of small unbuffered images loaded from an url into shared texture atlas pages.
+	 * @param pageSize Width and height of the atlas pages in pixels, must be a power of two.
+	 * @param imageSize Maximum width and height of images to pack.
+	 */
+	void setTextureAtlas(int pageSize, int imageSize) {
+		if(pageSize <= 0 || (pageSize & (pageSize - 1)) != 0) throw new IllegalArgumentException("Atlas page size must be a power of two: " + pageSize);
+		if(AtlasPage.getSlotSize(imageSize) > pageSize) throw new IllegalArgumentException("Atlas image size does not fit into an atlas page: " + imageSize);
+		this.textureAtlas = true;
+		this.atlasPageSize = pageSize;
+		this.atlasImageSize = imageSize;
+	}
+
+	/**
+	 * @param textureCache Cache for decoded images on disk, <code>null</code> to always decode images.
+	 */
+	void setTextureCache(TextureCache textureCache) {
+		this.textureCache = textureCache;
+	}
+	TextureCache getTextureCache() {
+		return textureCache;
+	}
+
+	/**
+	 * Limits the video memory used by image textures, evicting the least recently drawn ones.
+	 * @param budget Bytes of video memory, 0 for no limit.
+	 */
+	void setTextureMemoryBudget(long budget) {
+		if(budget < 0) throw new IllegalArgumentException("Texture memory budget must not be negative: " + budget);
+		this.textureMemoryBudget = budget;
+	}
+	long getTextureMemoryBudget() {
+		return textureMemoryBudget;
+	}
+	/**
+	 * @return Bytes of video memory used by image textures and texture atlas pages.
+	 */
+	long getResidentTextureBytes() {
+		return residentTextureBytes;
+	}
+
 	void refreshCache(GL2 gl) {
+		bufferRegionUpdate.invalidate();
 		refreshImageCache(gl);
 		refreshFontCache();
+		refreshStaticMeshCache(gl);
+	}
+
+	/* -------------------- Static Mesh Management -------------------- */
+	public ch.blackspirit.graphics.StaticMesh createStaticMesh(Triangle[] triangles, boolean useColors, Image texture) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		ch.blackspirit.graphics.jogl2.Image joglImage = null;
+		if(texture != null) {
+			if(!(texture instanceof ch.blackspirit.graphics.jogl2.Image)) throw new RuntimeException("Image has not been created by the JOGL Blackspirit Graphics implementation!");
+			joglImage = (ch.blackspirit.graphics.jogl2.Image)texture;
+			if(joglImage.resourceManager != this) throw new RuntimeException("Image has not been created in the same canvas!");
+		}
+		StaticMesh mesh = new StaticMesh(triangles, useColors, joglImage, this);
+		staticMeshes.add(mesh);
+		
+		// if this fails, the mesh is uploaded when first drawn
+		UploadStaticMesh executable = uploadStaticMeshPool.get();
+		executable.resourceManager = this;
+		executable.mesh = mesh;
+		boolean success = glExecutor.execute(executable);
+		uploadStaticMeshPool.free(executable);
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Uploading static mesh " + (success ? "succeeded" : "failed") + ": " + mesh);
+		return mesh;
+	}
+	public void freeStaticMesh(ch.blackspirit.graphics.StaticMesh mesh) {
+		if(!(mesh instanceof StaticMesh)) throw new RuntimeException("Static mesh has not been created by the JOGL Blackspirit Graphics implementation!");
+		StaticMesh joglMesh = (StaticMesh)mesh;
+		if(joglMesh.resourceManager != this) throw new RuntimeException("Static mesh has not been created in the same canvas!");
+		if(joglMesh.isFreed()) return;
+		joglMesh.setFreed();
+		staticMeshes.remove(joglMesh);
+		
+		FreeStaticMesh executable = freeStaticMeshPool.get();
+		executable.mesh = joglMesh;
+		if(!glExecutor.execute(executable)) {
+			failedExecutables.add(executable);
+		} else {
+			freeStaticMeshPool.free(executable);
+		}
+	}
+	
+	void upload(GL2 gl, StaticMesh mesh) {
+		if(mesh.resourceManager != this) throw new RuntimeException("Static mesh has not been created in the same canvas!");
+		if(mesh.isFreed()) throw new IllegalArgumentException("Static mesh has been freed");
+		ch.blackspirit.graphics.jogl2.Image texture = mesh.getJoglTexture();
+		if(texture != null && texture.texture == null) {
+			try {
+				cache(gl, texture);
+			} catch (IOException e) {
+				throw new RuntimeException("Error caching static mesh texture: " + texture.toString(), e);
+			}
+		}
+		mesh.upload(gl);
+	}
+	
+	private void refreshStaticMeshCache(GL2 gl) {
+		for(StaticMesh mesh: staticMeshes) {
+			// buffer objects of the lost context are gone
+			mesh.invalidate();
+			upload(gl, mesh);
+		}
 	}
 
 	/* -------------------- Font Management -------------------- */
@@ -246,6 +417,142 @@ final class ResourceManager implements
 
 	/* -------------------- Image Management -------------------- */
 	
+	/* -------------------- Asynchronous Upload -------------------- */
+	/**
+	 * Updates of image caches are uploaded through pixel buffer objects at the start of 
+	 * the next frame instead of immediately.
+	 */
+	void setAsyncTextureUpload(boolean asyncTextureUpload) {
+		this.asyncTextureUpload = asyncTextureUpload;
+	}
+	private void enqueueUpload(ch.blackspirit.graphics.jogl2.Image image, int offsetX, int offsetY, int width, int height) {
+		synchronized(pendingUploads) {
+			if(image.textureUpload == null) image.textureUpload = new TextureUpload(image);
+			if(image.textureUpload.add(offsetX, offsetY, width, height)) {
+				pendingUploads.add(image.textureUpload);
+			}
+		}
+	}
+	/**
+	 * Uploads all pending image buffer changes and notifies the image update listeners.
+	 * @return <code>true</code> if anything has been uploaded.
+	 */
+	private boolean flushUploads(GL2 gl) {
+		TextureUpload[] uploads;
+		synchronized(pendingUploads) {
+			if(pendingUploads.isEmpty()) return false;
+			uploads = pendingUploads.toArray(new TextureUpload[pendingUploads.size()]);
+			pendingUploads.clear();
+		}
+		for(TextureUpload upload: uploads) {
+			ch.blackspirit.graphics.jogl2.Image image = upload.getImage();
+			if(!upload.isPending()) continue;
+			if(image.texture == null) {
+				// caching uploads the complete buffer
+				synchronized(pendingUploads) {
+					upload.dispose(gl);
+				}
+				cacheBuffered(gl, image);
+			} else {
+				synchronized(pendingUploads) {
+					upload.upload(gl);
+				}
+				statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
+			}
+			fireCacheUpdated(image);
+		}
+		return true;
+	}
+	/* -------------------- Scheduled Caching -------------------- */
+	/**
+	 * @param bytes Image bytes uploaded per frame for images loaded in the background, 0 for no limit.
+	 * 	At least one image is uploaded per frame.
+	 */
+	void setImageUploadBytesPerFrame(long bytes) {
+		if(bytes < 0) throw new IllegalArgumentException("Image upload bytes per frame must not be negative: " + bytes);
+		this.imageUploadBytesPerFrame = bytes;
+	}
+	/**
+	 * Caches the image at the start of one of the next frames. May be called from any thread.
+	 */
+	void scheduleCache(ch.blackspirit.graphics.jogl2.Image image) {
+		if(image.resourceManager != this) throw new RuntimeException("Image has not been created in the same canvas!");
+		synchronized(scheduledCaches) {
+			scheduledCaches.add(image);
+		}
+	}
+	/**
+	 * Caches scheduled images until the bytes per frame are used up and notifies the image update listeners.
+	 * @return <code>true</code> if anything has been cached.
+	 */
+	private boolean cacheScheduled(GL2 gl) {
+		long bytes = 0;
+		boolean cached = false;
+		while(imageUploadBytesPerFrame == 0 || bytes < imageUploadBytesPerFrame) {
+			ch.blackspirit.graphics.jogl2.Image image;
+			synchronized(scheduledCaches) {
+				image = scheduledCaches.poll();
+			}
+			if(image == null) break;
+			// drawing the image may have cached it already
+			if(image.texture != null) continue;
+			try {
+				cache(gl, image);
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, "Failed caching a loaded image: " + image.toString(), e);
+				continue;
+			}
+			bytes += (long)image.getWidth() * image.getHeight() * getBytesPerPixel(image);
+			cached = true;
+			fireCacheUpdated(image);
+		}
+		return cached;
+	}
+	/* -------------------- Asynchronous Readback -------------------- */
+	/**
+	 * Buffer updates are read back through pixel buffer objects and written to 
+	 * the image buffer one frame later instead of immediately.
+	 */
+	void setAsyncBufferReadback(boolean asyncBufferReadback) {
+		this.asyncBufferReadback = asyncBufferReadback;
+	}
+	/**
+	 * Writes readbacks started before the previous frame to the image buffers 
+	 * and notifies the image update listeners.
+	 */
+	private void completeReadbacks(GL2 gl) {
+		BufferReadback[] readbacks;
+		synchronized(pendingReadbacks) {
+			if(pendingReadbacks.isEmpty()) return;
+			readbacks = pendingReadbacks.toArray(new BufferReadback[pendingReadbacks.size()]);
+		}
+		for(BufferReadback readback: readbacks) {
+			boolean completed;
+			synchronized(pendingReadbacks) {
+				completed = readback.complete(gl, frame - 1);
+				if(!readback.isPending()) pendingReadbacks.remove(readback);
+			}
+			if(completed) fireBufferUpdated(readback.getImage());
+		}
+	}
+	private void fireBufferUpdated(Image image) {
+		for(ImageUpdateListener listener: imageUpdateListeners) {
+			listener.bufferUpdated(image);
+		}
+	}
+
+	private void fireCacheUpdated(Image image) {
+		for(ImageUpdateListener listener: imageUpdateListeners) {
+			listener.cacheUpdated(image);
+		}
+	}
+	public void addImageUpdateListener(ImageUpdateListener listener) {
+		imageUpdateListeners.add(listener);
+	}
+	public void removeImageUpdateListener(ImageUpdateListener listener) {
+		imageUpdateListeners.remove(listener);
+	}
+
 	public Collection<ch.blackspirit.graphics.Image> getCachedImages() {
 		return new HashSet<Image>(cachedImages);
 	}
@@ -280,8 +587,21 @@ final class ResourceManager implements
 		bufferRegionUpdate.y = yOffset;
 		bufferRegionUpdate.width = width;
 		bufferRegionUpdate.height = height;
+		statistics.add(RenderStatistics.READBACK_BYTES, (long)width * height * getBytesPerPixel(image));
 		
-		glExecutor.execute(bufferRegionUpdate);
+		if(asyncBufferReadback) {
+			synchronized(pendingReadbacks) {
+				if(image.bufferReadback == null) image.bufferReadback = new BufferReadback(image);
+				bufferRegionUpdate.readback = image.bufferReadback;
+				bufferRegionUpdate.frame = frame;
+				if(glExecutor.execute(bufferRegionUpdate) && !pendingReadbacks.contains(image.bufferReadback)) {
+					pendingReadbacks.add(image.bufferReadback);
+				}
+				bufferRegionUpdate.readback = null;
+			}
+		} else if(glExecutor.execute(bufferRegionUpdate)) {
+			fireBufferUpdated(image);
+		}
 	}
 
 	void cache(GL2 gl, Image image) throws IOException {
@@ -304,6 +624,7 @@ final class ResourceManager implements
 	private void cacheBuffered(GL2 gl, ch.blackspirit.graphics.jogl2.Image image) {
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Caching buffered image: " + image.toString());
 		image.texture = TextureIO.newTexture(image.getTextureData());
+		statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
 
 		// Default?
 		image.texture.setTexParameteri(gl, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
@@ -312,12 +633,23 @@ final class ResourceManager implements
 		image.texture.setTexParameteri(gl, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
         image.texture.setTexParameteri(gl, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR);
         cachedImages.add(image);
+        textureCreated(gl, image);
 	}
 	private void cacheUnbuffered(GL2 gl, ch.blackspirit.graphics.jogl2.Image image) throws IOException {
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Caching unbuffered image: " + image.toString());
 		TextureData textureData = image.createTextureData();
+		if(isPackable(image, textureData)) {
+			pack(gl, image, textureData);
+			textureData.flush();
+			statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
+			cachedImages.add(image);
+			// a new atlas page may have been created
+			evictTextures(gl, image);
+			return;
+		}
 		image.texture = TextureIO.newTexture(textureData);
 		textureData.flush();
+		statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
 		// Default?
 		image.texture.setTexParameteri(gl, GL.GL_TEXTURE_WRAP_S, GL.GL_CLAMP_TO_EDGE);
 		image.texture.setTexParameteri(gl, GL.GL_TEXTURE_WRAP_T, GL.GL_CLAMP_TO_EDGE);
@@ -325,15 +657,24 @@ final class ResourceManager implements
 		image.texture.setTexParameteri(gl, GL.GL_TEXTURE_MAG_FILTER, GL.GL_LINEAR);
         image.texture.setTexParameteri(gl, GL.GL_TEXTURE_MIN_FILTER, GL.GL_LINEAR);
         cachedImages.add(image);
+        textureCreated(gl, image);
 	}
 	
 	private void freeImageCache(GL2 gl) {
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Free image cache");
 		for(ch.blackspirit.graphics.jogl2.Image image: cachedImages) {
-			if(image.texture != null) image.texture.dispose(gl);
+			if(image.atlasPage != null) image.atlasPage.remove(image);
+			else if(image.texture != null) image.texture.dispose(gl);
 			image.texture = null;
+			image.textureBytes = 0;
+			disposeUpload(gl, image);
 		}
 		cachedImages.clear();
+		for(AtlasPage page: atlasPages) {
+			page.dispose(gl);
+		}
+		atlasPages.clear();
+		residentTextureBytes = 0;
 	}
 
 	private void freeImageCache(GL2 gl, Image image) {
@@ -342,16 +683,207 @@ final class ResourceManager implements
 			ch.blackspirit.graphics.jogl2.Image joglImage = (ch.blackspirit.graphics.jogl2.Image)image;
 			if(joglImage.resourceManager != this) throw new RuntimeException("Image has not been created in the same canvas!");
 			
-			if(joglImage.texture != null) joglImage.texture.dispose(gl);
+			if(joglImage.atlasPage != null) {
+				AtlasPage page = joglImage.atlasPage;
+				page.remove(joglImage);
+				if(page.isEmpty()) {
+					page.dispose(gl);
+					atlasPages.remove(page);
+					residentTextureBytes -= getAtlasPageBytes();
+				}
+			} else if(joglImage.texture != null) {
+				joglImage.texture.dispose(gl);
+				residentTextureBytes -= joglImage.textureBytes;
+			}
 			joglImage.texture = null;
+			joglImage.textureBytes = 0;
+			disposeUpload(gl, joglImage);
 			cachedImages.remove(image);
+			synchronized(scheduledCaches) {
+				scheduledCaches.remove(joglImage);
+			}
 		} else {
 			throw new RuntimeException("Image has not been created by the JOGL Blackspirit Graphics implementation!");
 		}
 	}
 	
+	private void disposeUpload(GL2 gl, ch.blackspirit.graphics.jogl2.Image image) {
+		if(image.textureUpload != null) {
+			synchronized(pendingUploads) {
+				image.textureUpload.dispose(gl);
+				pendingUploads.remove(image.textureUpload);
+			}
+		}
+		if(image.bufferReadback != null) {
+			synchronized(pendingReadbacks) {
+				image.bufferReadback.dispose(gl);
+				pendingReadbacks.remove(image.bufferReadback);
+			}
+		}
+	}
+
+	/* -------------------- Texture Memory Budget -------------------- */
+	private static final Comparator<ch.blackspirit.graphics.jogl2.Image> LEAST_RECENTLY_DRAWN = 
+		new Comparator<ch.blackspirit.graphics.jogl2.Image>() {
+		public int compare(ch.blackspirit.graphics.jogl2.Image image1, ch.blackspirit.graphics.jogl2.Image image2) {
+			if(image1.lastDrawnFrame < image2.lastDrawnFrame) return -1;
+			if(image1.lastDrawnFrame > image2.lastDrawnFrame) return 1;
+			return 0;
+		}
+	};
+
+	private static final Comparator<AtlasPage> LEAST_RECENTLY_DRAWN_PAGE = new Comparator<AtlasPage>() {
+		public int compare(AtlasPage page1, AtlasPage page2) {
+			long frame1 = page1.getLastDrawnFrame();
+			long frame2 = page2.getLastDrawnFrame();
+			if(frame1 < frame2) return -1;
+			if(frame1 > frame2) return 1;
+			return 0;
+		}
+	};
+
+	/**
+	 * Marks the image as drawn in the current frame. Must be called before the image gets cached for drawing.
+	 */
+	void touch(ch.blackspirit.graphics.jogl2.Image image) {
+		image.lastDrawnFrame = frame;
+		if(image.texture == null) statistics.increment(RenderStatistics.TEXTURE_CACHE_MISSES);
+		else statistics.increment(RenderStatistics.TEXTURE_CACHE_HITS);
+	}
+	private void textureCreated(GL2 gl, ch.blackspirit.graphics.jogl2.Image image) {
+		// padding included
+		image.textureBytes = (long)image.texture.getWidth() * image.texture.getHeight() * getBytesPerPixel(image);
+		residentTextureBytes += image.textureBytes;
+		evictTextures(gl, image);
+	}
+	/**
+	 * @return 4 bytes per pixel for buffer types with alpha, 3 for those without. 
+	 * Images without a buffer are assumed to have alpha.
+	 */
+	private static int getBytesPerPixel(ch.blackspirit.graphics.jogl2.Image image) {
+		if(image.getBufferType() == null || image.getBufferType().isAlphaSupported()) return 4;
+		return 3;
+	}
+	private long getAtlasPageBytes() {
+		return (long)atlasPageSize * atlasPageSize * 4;
+	}
+	/**
+	 * Frees the textures of the least recently drawn images until the resident texture bytes fit 
+	 * into the budget. If that is not enough, whole texture atlas pages none of whose images 
+	 * have been drawn in this frame are freed, least recently drawn first. 
+	 * Evicted images are cached again when drawn the next time.
+	 * @param keep Image which has just been cached and must not be evicted.
+	 */
+	private void evictTextures(GL2 gl, ch.blackspirit.graphics.jogl2.Image keep) {
+		if(textureMemoryBudget == 0 || residentTextureBytes <= textureMemoryBudget) return;
+		ArrayList<ch.blackspirit.graphics.jogl2.Image> candidates = new ArrayList<ch.blackspirit.graphics.jogl2.Image>();
+		for(ch.blackspirit.graphics.jogl2.Image image: cachedImages) {
+			if(image != keep && isEvictable(image)) candidates.add(image);
+		}
+		Collections.sort(candidates, LEAST_RECENTLY_DRAWN);
+		for(int i = 0; i < candidates.size() && residentTextureBytes > textureMemoryBudget; i++) {
+			freeImageCache(gl, candidates.get(i));
+			statistics.increment(RenderStatistics.TEXTURE_EVICTIONS);
+		}
+		if(residentTextureBytes > textureMemoryBudget) {
+			ArrayList<AtlasPage> pages = new ArrayList<AtlasPage>();
+			for(AtlasPage page: atlasPages) {
+				if(page != keep.atlasPage && page.getLastDrawnFrame() < frame) pages.add(page);
+			}
+			Collections.sort(pages, LEAST_RECENTLY_DRAWN_PAGE);
+			for(int i = 0; i < pages.size() && residentTextureBytes > textureMemoryBudget; i++) {
+				evictAtlasPage(gl, pages.get(i));
+			}
+		}
+		if(residentTextureBytes > textureMemoryBudget && LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine("Texture memory budget exceeded: " + residentTextureBytes + " > " + textureMemoryBudget);
+		}
+	}
+	private boolean isEvictable(ch.blackspirit.graphics.jogl2.Image image) {
+		// images drawn in this frame may still be referenced by collected vertices or deferred commands
+		if(image.lastDrawnFrame >= frame) return false;
+		// packed images share their page and are only evicted with it, images rendered into only exist in their texture
+		if(image.atlasPage != null || !image.packable) return false;
+		if(image.textureUpload != null && image.textureUpload.isPending()) return false;
+		if(image.bufferReadback != null && image.bufferReadback.isPending()) return false;
+		return image.isBuffered() || image.getURL() != null;
+	}
+
+	private void evictAtlasPage(GL2 gl, AtlasPage page) {
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Evicting texture atlas page");
+		for(ch.blackspirit.graphics.jogl2.Image image: page.clear()) {
+			disposeUpload(gl, image);
+			cachedImages.remove(image);
+			statistics.increment(RenderStatistics.TEXTURE_EVICTIONS);
+		}
+		page.dispose(gl);
+		atlasPages.remove(page);
+		residentTextureBytes -= getAtlasPageBytes();
+	}
+
+	/* -------------------- Texture Atlas -------------------- */
+	private boolean isPackable(ch.blackspirit.graphics.jogl2.Image image, TextureData data) {
+		// buffered images and images without url are updated or rendered into
+		return textureAtlas && image.packable && !image.isBuffered() && image.getURL() != null &&
+			image.getWidth() <= atlasImageSize && image.getHeight() <= atlasImageSize &&
+			AtlasPage.isSupported(data);
+	}
+	private void pack(GL2 gl, ch.blackspirit.graphics.jogl2.Image image, TextureData data) {
+		for(int i = 0; i < atlasPages.size(); i++) {
+			if(atlasPages.get(i).add(gl, image, data)) return;
+		}
+		// repacking moves the images in the page, which is only allowed in between drawing
+		if(!AbstractGraphicsContext.isDrawing()) {
+			long area = (long)AtlasPage.getSlotSize(image.getWidth()) * AtlasPage.getSlotSize(image.getHeight());
+			for(int i = 0; i < atlasPages.size(); i++) {
+				AtlasPage page = atlasPages.get(i);
+				if(page.getFreedArea() >= area) {
+					repack(gl, page);
+					if(page.add(gl, image, data)) return;
+				}
+			}
+		}
+		AtlasPage page = new AtlasPage(atlasPageSize);
+		page.create(gl);
+		atlasPages.add(page);
+		residentTextureBytes += getAtlasPageBytes();
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Created texture atlas page " + atlasPages.size() + ": " + atlasPageSize + "x" + atlasPageSize);
+		if(!page.add(gl, image, data)) throw new RuntimeException("Image does not fit into an empty texture atlas page: " + image.toString());
+	}
+	private void repack(GL2 gl, AtlasPage page) {
+		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Repacking texture atlas page, freed area: " + page.getFreedArea());
+		ch.blackspirit.graphics.jogl2.Image[] images = page.clear();
+		for(ch.blackspirit.graphics.jogl2.Image image: images) {
+			TextureData data;
+			try {
+				data = image.createTextureData();
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, "Failed reloading an image for repacking: " + image.toString(), e);
+				cachedImages.remove(image);
+				continue;
+			}
+			if(!page.add(gl, image, data)) pack(gl, image, data);
+			data.flush();
+		}
+	}
+	/**
+	 * Gives the image a texture of its own and keeps it out of texture atlas pages.
+	 * Must be used before the image is rendered into.
+	 */
+	void unpack(GL2 gl, ch.blackspirit.graphics.jogl2.Image image) {
+		image.packable = false;
+		if(image.atlasPage != null) freeImageCache(gl, image);
+	}
+
 	private void refreshImageCache(GL2 gl) {
 		Set<Image> images = new HashSet<Image>(cachedImages);
+		synchronized(pendingReadbacks) {
+			// the pixel buffer objects are lost together with the context
+			for(ch.blackspirit.graphics.jogl2.Image image: cachedImages) {
+				if(image.bufferReadback != null) image.bufferReadback.invalidate();
+			}
+			pendingReadbacks.clear();
+		}
 		freeImageCache(gl);
 		for(Image image: images) {
 			try {
@@ -368,9 +900,13 @@ final class ResourceManager implements
 		
 		if(image.resourceManager != this) throw new RuntimeException("Image has not been created in the same canvas!");
 		if(image.texture == null) cacheBuffered(gl, image);
-		else image.texture.updateImage(gl, image.getTextureData());
+		else {
+			image.texture.updateImage(gl, image.getTextureData());
+			statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
+		}
 
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Update buffered image cache took " + (System.nanoTime() - time) + "ns");
+		fireCacheUpdated(image);
 	}
 	
 	private void updateBufferedCache(GL2 gl, ch.blackspirit.graphics.jogl2.Image image, int offsetX, int offsetY, int width, int height) {
@@ -379,10 +915,14 @@ final class ResourceManager implements
 		
 		if(image.resourceManager != this) throw new RuntimeException("Image has not been created in the same canvas!");
 		if(image.texture == null) cacheBuffered(gl, image);
-		else image.texture.updateSubImage(gl, image.getTextureData(), 0, offsetX, offsetY, offsetX, offsetY, width, height);
+		else {
+			image.texture.updateSubImage(gl, image.getTextureData(), 0, offsetX, offsetY, offsetX, offsetY, width, height);
+			statistics.increment(RenderStatistics.TEXTURE_UPLOADS);
+		}
 //		else image.texture.updateSubImage(image.getTextureData(), 0, 10, 2, 0, 63, width, height);
 		
 		if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Update buffered image cache region took " + (System.nanoTime() - time) + "ns");
+		fireCacheUpdated(image);
 	}
 	
 	/* ----------- GLExecutables -------------- */
@@ -434,6 +974,20 @@ final class ResourceManager implements
 		}
 	}
 
+	public static class UploadStaticMesh implements GLExecutable {
+		ResourceManager resourceManager;
+		StaticMesh mesh;
+		public void execute(GLDrawable drawable, GL2 gl) {
+			resourceManager.upload(gl, mesh);
+		}
+	}
+	public static class FreeStaticMesh implements GLExecutable {
+		StaticMesh mesh;
+		public void execute(GLDrawable drawable, GL2 gl) {
+			mesh.free(gl);
+		}
+	}
+
 	public static class FreeFonts implements GLExecutable {
 		ResourceManager resourceManager;
 		public void execute(GLDrawable drawable, GL2 gl) {
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import ch.blackspirit.graphics.Graphics;
+
+/**
+ * Graphics of the JOGL implementation supporting the sorting of drawing in deferred rendering mode
+ * (see {@link CanvasProperties#setDeferredRendering(boolean)}).<br/>
+ * Drawing is executed sorted by layer, lower layers first. Drawing marked as order independent
+ * may additionally be reordered within its layer to minimize texture and drawing mode changes.
+ * Without deferred rendering, layers and order independence are ignored.
+ * @author Markus Koller
+ */
+public interface SortableGraphics extends Graphics {
+	/**
+	 * @param layer Layer of the following drawing. Default is 0.
+	 */
+	public void setLayer(int layer);
+	public int getLayer();
+
+	/**
+	 * @param orderIndependent Whether the following drawing may be reordered 
+	 * with other order independent drawing on the same layer. Default is <code>false</code>.
+	 */
+	public void setOrderIndependent(boolean orderIndependent);
+	public boolean isOrderIndependent();
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.nio.FloatBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import ch.blackspirit.graphics.Triangle;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.util.texture.TextureCoords;
+
+/**
+ * Triangles uploaded once into a vertex buffer object, using the interleaved vertex format of {@link VertexBatch}.
+ * If vertex buffer objects are not supported, the data is drawn from a client side vertex array.
+ * @author Markus Koller
+ */
+final class StaticMesh implements ch.blackspirit.graphics.StaticMesh {
+	private static final Color4f WHITE = new Color4f(1, 1, 1, 1);
+
+	ResourceManager resourceManager;
+
+	private final int triangleCount;
+	private final boolean useColors;
+	private final Image texture;
+	// texture coordinates in image pixels, converted to texture coordinates on upload
+	private final float[] vertices;
+	private boolean freed = false;
+	// bounding box used for culling
+	float minX = Float.MAX_VALUE;
+	float minY = Float.MAX_VALUE;
+	float maxX = -Float.MAX_VALUE;
+	float maxY = -Float.MAX_VALUE;
+
+	// GL resources, set when uploaded
+	private FloatBuffer buffer = null;
+	private int bufferObject = 0;
+	private boolean uploaded = false;
+	// texture coordinates of the image the mesh has been uploaded with
+	private TextureCoords uploadedCoords = null;
+
+	public StaticMesh(Triangle[] triangles, boolean useColors, Image texture, ResourceManager resourceManager) {
+		this.useColors = useColors;
+		this.texture = texture;
+		this.resourceManager = resourceManager;
+
+		int count = 0;
+		for(int i = 0; i < triangles.length; i++) {
+			if(triangles[i] != null) count++;
+		}
+		this.triangleCount = count;
+		this.vertices = new float[count * 3 * VertexBatch.VERTEX_SIZE];
+
+		int index = 0;
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			for(int p = 0; p < 3; p++) {
+				Vector2f point = t.getPoint(p);
+				Color4f color = useColors ? t.getColor(p) : null;
+				if(color == null) color = WHITE;
+				minX = Math.min(minX, point.x);
+				minY = Math.min(minY, point.y);
+				maxX = Math.max(maxX, point.x);
+				maxY = Math.max(maxY, point.y);
+				vertices[index++] = point.x;
+				vertices[index++] = point.y;
+				vertices[index++] = color.x;
+				vertices[index++] = color.y;
+				vertices[index++] = color.z;
+				vertices[index++] = color.w;
+				if(texture != null) {
+					Vector2f textureCoordinate = t.getTextureCoordinate(p);
+					if (textureCoordinate == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+					vertices[index++] = textureCoordinate.x;
+					vertices[index++] = textureCoordinate.y;
+				} else {
+					index += VertexBatch.TEXTURE_COORDINATE_SIZE;
+				}
+			}
+		}
+	}
+
+	public int getTriangleCount() {
+		return triangleCount;
+	}
+	public ch.blackspirit.graphics.Image getTexture() {
+		return texture;
+	}
+	Image getJoglTexture() {
+		return texture;
+	}
+	public boolean isUseColors() {
+		return useColors;
+	}
+	public boolean isFreed() {
+		return freed;
+	}
+	boolean isUploaded() {
+		// the texture coordinates change if the image is cached again or repacked into a texture atlas
+		if(uploaded && texture != null) return texture.texture != null && texture.getTextureCoords() == uploadedCoords;
+		return uploaded;
+	}
+
+	/**
+	 * Uploads the mesh. The texture, if any, must be cached.
+	 */
+	void upload(GL2 gl) {
+		if(buffer == null) buffer = Buffers.newDirectFloatBuffer(vertices.length);
+		buffer.clear();
+		buffer.put(vertices);
+		if(texture != null) {
+			// convert image pixels to texture coordinates
+			TextureCoords coords = texture.getTextureCoords();
+			float factorX = (coords.right() - coords.left()) / texture.getWidth();
+			float factorY = (coords.bottom() - coords.top()) / texture.getHeight();
+			for(int i = VertexBatch.TEXTURE_COORDINATE_OFFSET; i < vertices.length; i += VertexBatch.VERTEX_SIZE) {
+				buffer.put(i, coords.left() + factorX * vertices[i]);
+				buffer.put(i + 1, coords.top() + factorY * vertices[i + 1]);
+			}
+			uploadedCoords = coords;
+		}
+		buffer.flip();
+
+		if(gl.isFunctionAvailable("glGenBuffers")) {
+			if(bufferObject == 0) {
+				int[] name = new int[1];
+				gl.glGenBuffers(1, name, 0);
+				bufferObject = name[0];
+			}
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObject);
+			gl.glBufferData(GL.GL_ARRAY_BUFFER, vertices.length * Buffers.SIZEOF_FLOAT, buffer, GL.GL_STATIC_DRAW);
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+			// the data is kept by the buffer object
+			buffer = null;
+		}
+		uploaded = true;
+	}
+
+	/**
+	 * Draws the mesh with the current transformation, texture and color. The mesh must be uploaded.
+	 */
+	void draw(GL2 gl) {
+		if(triangleCount == 0) return;
+		gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		if(useColors) gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+		if(texture != null) gl.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+
+		if(bufferObject != 0) {
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferObject);
+			gl.glVertexPointer(VertexBatch.POSITION_SIZE, GL.GL_FLOAT, VertexBatch.STRIDE, 0);
+			if(useColors) gl.glColorPointer(VertexBatch.COLOR_SIZE, GL.GL_FLOAT, VertexBatch.STRIDE, VertexBatch.COLOR_OFFSET * Buffers.SIZEOF_FLOAT);
+			if(texture != null) gl.glTexCoordPointer(VertexBatch.TEXTURE_COORDINATE_SIZE, GL.GL_FLOAT, VertexBatch.STRIDE, VertexBatch.TEXTURE_COORDINATE_OFFSET * Buffers.SIZEOF_FLOAT);
+		} else {
+			buffer.position(0);
+			gl.glVertexPointer(VertexBatch.POSITION_SIZE, GL.GL_FLOAT, VertexBatch.STRIDE, buffer);
+			if(useColors) {
+				buffer.position(VertexBatch.COLOR_OFFSET);
+				gl.glColorPointer(VertexBatch.COLOR_SIZE, GL.GL_FLOAT, VertexBatch.STRIDE, buffer.slice());
+			}
+			if(texture != null) {
+				buffer.position(VertexBatch.TEXTURE_COORDINATE_OFFSET);
+				gl.glTexCoordPointer(VertexBatch.TEXTURE_COORDINATE_SIZE, GL.GL_FLOAT, VertexBatch.STRIDE, buffer.slice());
+			}
+			buffer.position(0);
+		}
+
+		gl.glDrawArrays(GL.GL_TRIANGLES, 0, triangleCount * 3);
+
+		if(bufferObject != 0) gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		if(texture != null) gl.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+		if(useColors) gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
+		gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+	}
+
+	/**
+	 * Forgets about GL resources after the context has been lost.
+	 */
+	void invalidate() {
+		bufferObject = 0;
+		uploaded = false;
+	}
+
+	/**
+	 * Frees the GL resources. The mesh can not be drawn anymore.
+	 */
+	void free(GL2 gl) {
+		if(bufferObject != 0) gl.glDeleteBuffers(1, new int[] {bufferObject}, 0);
+		bufferObject = 0;
+		buffer = null;
+		uploaded = false;
+	}
+	void setFreed() {
+		freed = true;
+	}
+}
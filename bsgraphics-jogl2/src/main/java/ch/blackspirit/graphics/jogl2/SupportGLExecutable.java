@@ -24,6 +24,10 @@ import javax.media.opengl.GLDrawable;
  */
 final class SupportGLExecutable implements GLExecutable {
 	public boolean isGlExtBlendSubtractSupported = true;
+	public boolean isVertexBufferObjectSupported = false;
+	public boolean isPixelBufferObjectSupported = false;
+	public boolean isFramebufferObjectSupported = false;
+	public int maxTextureSize = 0;
 	public String vendor;
 	public String renderer;
 	public String version;
@@ -35,6 +39,22 @@ final class SupportGLExecutable implements GLExecutable {
 			vendor = gl.glGetString(GL.GL_VENDOR);
 			renderer = gl.glGetString(GL.GL_RENDERER);
 			version = gl.glGetString(GL.GL_VERSION);
+			
+			isVertexBufferObjectSupported = gl.isFunctionAvailable("glGenBuffers") && 
+				gl.isFunctionAvailable("glBindBuffer") && 
+				gl.isFunctionAvailable("glBufferData") && 
+				gl.isFunctionAvailable("glBufferSubData");
+			isPixelBufferObjectSupported = isVertexBufferObjectSupported && 
+				(gl.isExtensionAvailable("GL_ARB_pixel_buffer_object") || gl.isExtensionAvailable("GL_EXT_pixel_buffer_object")) && 
+				gl.isFunctionAvailable("glMapBuffer") && 
+				gl.isFunctionAvailable("glUnmapBuffer");
+			isFramebufferObjectSupported = gl.isFunctionAvailable("glGenFramebuffers") && 
+				gl.isFunctionAvailable("glBindFramebuffer") && 
+				gl.isFunctionAvailable("glFramebufferTexture2D") && 
+				gl.isFunctionAvailable("glCheckFramebufferStatus");
+			int[] value = new int[1];
+			gl.glGetIntegerv(GL.GL_MAX_TEXTURE_SIZE, value, 0);
+			maxTextureSize = value[0];
 		} catch (Throwable t) {
 			isGlExtBlendSubtractSupported = false;
 		}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GLProfile;
+
+import com.jogamp.opengl.util.texture.TextureData;
+import com.jogamp.opengl.util.texture.TextureIO;
+
+/**
+ * Keeps decoded images on disk, so they do not have to be decoded again on the next start.<br/>
+ * A cache file consists of a header with the source url, a hash of the source content and the 
+ * format of the texture data, followed by the raw pixels. Cache files are keyed by url and requested 
+ * format and get replaced when the content hash of the source does not match anymore. The source 
+ * is therefore read on every request, which is still much cheaper than decoding it. 
+ * Pixels are read by mapping the file into memory.
+ * @author Markus Koller
+ */
+final class TextureCache {
+	private static final Logger LOGGER = Logger.getLogger(TextureCache.class.getName());
+
+	private static final int MAGIC = 0x42535443; // BSTC
+	private static final int VERSION = 2;
+	
+	private final File directory;
+
+	public TextureCache(File directory) {
+		if(!directory.isDirectory() && !directory.mkdirs()) throw new IllegalArgumentException("Texture cache directory can not be created: " + directory);
+		this.directory = directory;
+	}
+
+	/**
+	 * Decodes an image without using a cache.
+	 * @param internalFormat Internal format of the texture data, 0 to use the format of the image.
+	 * @param pixelFormat Pixel format of the texture data, 0 to use the format of the image.
+	 */
+	static TextureData decode(URL url, int internalFormat, int pixelFormat) throws IOException {
+		if(internalFormat == 0 || pixelFormat == 0) return TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), url, false, null);
+		return TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), url, internalFormat, pixelFormat, false, null);
+	}
+	private static TextureData decode(InputStream input, String suffix, int internalFormat, int pixelFormat) throws IOException {
+		if(internalFormat == 0 || pixelFormat == 0) return TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), input, false, suffix);
+		return TextureIO.newTextureData(GLProfile.get(GLProfile.GL2), input, internalFormat, pixelFormat, false, suffix);
+	}
+
+	/**
+	 * Reads the texture data of an image from the cache or decodes and caches it.
+	 * May be called from any thread.
+	 * @param internalFormat Internal format of the texture data, 0 to use the format of the image.
+	 * @param pixelFormat Pixel format of the texture data, 0 to use the format of the image.
+	 * @param heapBuffer If <code>true</code> the buffer of the texture data is backed by an array 
+	 * 	instead of being mapped.
+	 */
+	public TextureData newTextureData(URL url, int internalFormat, int pixelFormat, boolean heapBuffer) throws IOException {
+		byte[] source = readSource(url);
+		long contentHash = hash(source);
+
+		String key = url.toExternalForm() + "#" + internalFormat + "#" + pixelFormat;
+		File file = new File(directory, Long.toHexString(hash(key.getBytes("UTF-8"))) + ".tex");
+		if(file.isFile()) {
+			try {
+				TextureData data = read(file, key, contentHash, heapBuffer);
+				if(data != null) {
+					if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Read cached texture data: " + url);
+					return data;
+				}
+			} catch(IOException e) {
+				LOGGER.log(Level.WARNING, "Ignoring unreadable texture cache file: " + file, e);
+			}
+		}
+		
+		TextureData data = decode(new ByteArrayInputStream(source), getSuffix(url), internalFormat, pixelFormat);
+		if(isCacheable(data)) {
+			try {
+				write(file, key, contentHash, data);
+				if(LOGGER.isLoggable(Level.FINER)) LOGGER.finer("Cached texture data: " + url);
+			} catch(IOException e) {
+				LOGGER.log(Level.WARNING, "Unable to write texture cache file: " + file, e);
+			}
+		}
+		return data;
+	}
+	
+	private static boolean isCacheable(TextureData data) {
+		return data.getPixelType() == GL.GL_UNSIGNED_BYTE &&
+			!data.isDataCompressed() && data.getMipmapData() == null &&
+			data.getBuffer() instanceof ByteBuffer;
+	}
+
+	private TextureData read(File file, String key, long contentHash, boolean heapBuffer) throws IOException {
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			// the mapping stays valid after the channel has been closed
+			MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(map.remaining() < 12 || map.getInt() != MAGIC || map.getInt() != VERSION) return null;
+			int keyLength = map.getInt();
+			if(keyLength < 0 || keyLength > map.remaining()) return null;
+			byte[] keyBytes = new byte[keyLength];
+			map.get(keyBytes);
+			if(!key.equals(new String(keyBytes, "UTF-8"))) return null;
+			if(map.remaining() < 8 + 9 * 4) return null;
+			if(map.getLong() != contentHash) return null;
+			int width = map.getInt();
+			int height = map.getInt();
+			int internalFormat = map.getInt();
+			int pixelFormat = map.getInt();
+			int pixelType = map.getInt();
+			int alignment = map.getInt();
+			int rowLength = map.getInt();
+			boolean mustFlipVertically = map.getInt() != 0;
+			int length = map.getInt();
+			if(length != map.remaining()) return null;
+			
+			ByteBuffer pixels = map.slice();
+			if(heapBuffer) {
+				byte[] bytes = new byte[length];
+				pixels.get(bytes);
+				pixels = ByteBuffer.wrap(bytes);
+			}
+			TextureData data = new TextureData(GLProfile.get(GLProfile.GL2), internalFormat, width, height, 0, pixelFormat, pixelType, false, false, mustFlipVertically, pixels, null);
+			data.setAlignment(alignment);
+			data.setRowLength(rowLength);
+			return data;
+		} finally {
+			input.close();
+		}
+	}
+
+	private void write(File file, String key, long contentHash, TextureData data) throws IOException {
+		ByteBuffer pixels = ((ByteBuffer)data.getBuffer()).duplicate();
+		byte[] keyBytes = key.getBytes("UTF-8");
+		// written to a temporary file first, images may be loaded in parallel
+		File temp = File.createTempFile("texture", ".tmp", directory);
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(keyBytes.length);
+			output.write(keyBytes);
+			output.writeLong(contentHash);
+			output.writeInt(data.getWidth());
+			output.writeInt(data.getHeight());
+			output.writeInt(data.getInternalFormat());
+			output.writeInt(data.getPixelFormat());
+			output.writeInt(data.getPixelType());
+			output.writeInt(data.getAlignment());
+			output.writeInt(data.getRowLength());
+			output.writeInt(data.getMustFlipVertically() ? 1 : 0);
+			output.writeInt(pixels.remaining());
+			if(pixels.hasArray()) {
+				output.write(pixels.array(), pixels.arrayOffset() + pixels.position(), pixels.remaining());
+			} else {
+				byte[] chunk = new byte[8192];
+				while(pixels.hasRemaining()) {
+					int length = Math.min(chunk.length, pixels.remaining());
+					pixels.get(chunk, 0, length);
+					output.write(chunk, 0, length);
+				}
+			}
+		} catch(IOException e) {
+			output.close();
+			temp.delete();
+			throw e;
+		}
+		output.close();
+		if(!temp.renameTo(file)) {
+			// replacing an existing file fails on some platforms
+			file.delete();
+			if(!temp.renameTo(file)) {
+				temp.delete();
+				throw new IOException("Unable to rename " + temp + " to " + file);
+			}
+		}
+	}
+	
+	private static byte[] readSource(URL url) throws IOException {
+		InputStream input = url.openStream();
+		try {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			byte[] chunk = new byte[8192];
+			int length;
+			while((length = input.read(chunk)) != -1) {
+				output.write(chunk, 0, length);
+			}
+			return output.toByteArray();
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * @return Lower case suffix of the url path, used by TextureIO to choose the image reader, 
+	 * or <code>null</code> if there is none.
+	 */
+	private static String getSuffix(URL url) {
+		String path = url.getPath();
+		int dot = path.lastIndexOf('.');
+		if(dot < 0 || dot < path.lastIndexOf('/')) return null;
+		return path.substring(dot + 1).toLowerCase();
+	}
+
+	/**
+	 * 64 bit FNV-1a hash, used as file name and to detect changed sources.
+	 */
+	private static long hash(byte[] bytes) {
+		long hash = 0xcbf29ce484222325L;
+		for(byte b: bytes) {
+			hash ^= b & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+}
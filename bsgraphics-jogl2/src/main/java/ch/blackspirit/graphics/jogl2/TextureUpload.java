@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.nio.ByteBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLContext;
+
+/**
+ * Streams buffer changes of an image into its texture through a pair of pixel buffer objects.<br/>
+ * The changed region is copied into a pixel unpack buffer and the texture gets updated from 
+ * there, so the driver transfers the data while rendering continues. Uploads alternate between 
+ * the two buffers and orphan their storage, so writing an update never waits for the transfer 
+ * of the previous one.<br/>
+ * Changed regions are collected until the upload is done on the GL thread.
+ * @author Markus Koller
+ */
+final class TextureUpload {
+	private final Image image;
+	private final int[] buffers = new int[2];
+
+	// Context the buffer objects have been created in
+	private GLContext context = null;
+	private int current = 0;
+
+	// Region changed since the last upload
+	private boolean pending = false;
+	private int minX;
+	private int minY;
+	private int maxX;
+	private int maxY;
+
+	public TextureUpload(Image image) {
+		this.image = image;
+	}
+
+	/**
+	 * Adds a changed region of the image buffer to be uploaded.
+	 * @return <code>true</code> if no region was pending before.
+	 */
+	public boolean add(int x, int y, int width, int height) {
+		if(x < 0) x = 0;
+		if(y < 0) y = 0;
+		int right = Math.min(x + width, image.getWidth());
+		int top = Math.min(y + height, image.getHeight());
+		if(right <= x || top <= y) return false;
+		if(!pending) {
+			minX = x;
+			minY = y;
+			maxX = right;
+			maxY = top;
+			pending = true;
+			return true;
+		}
+		minX = Math.min(minX, x);
+		minY = Math.min(minY, y);
+		maxX = Math.max(maxX, right);
+		maxY = Math.max(maxY, top);
+		return false;
+	}
+	public boolean isPending() {
+		return pending;
+	}
+	public Image getImage() {
+		return image;
+	}
+
+	/**
+	 * Uploads the pending region into the texture of the image, which must be cached.
+	 * The texture stays bound afterwards.
+	 * @param gl GL to upload with.
+	 */
+	public void upload(GL2 gl) {
+		if(!pending) return;
+		pending = false;
+		prepare(gl);
+
+		int bytesPerPixel = image.getTextureData().getPixelFormat() == GL.GL_RGBA ? 4 : 3;
+		int width = maxX - minX;
+		int height = maxY - minY;
+		int rowBytes = width * bytesPerPixel;
+		int size = rowBytes * height;
+
+		current = (current + 1) % buffers.length;
+		gl.glBindBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, buffers[current]);
+		// orphan the storage, the driver may still be transferring from it
+		gl.glBufferData(GL2.GL_PIXEL_UNPACK_BUFFER, size, null, GL2.GL_STREAM_DRAW);
+		ByteBuffer mapped = gl.glMapBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, GL.GL_WRITE_ONLY);
+		if(mapped == null) {
+			gl.glBindBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, 0);
+			// fall back to a synchronous update
+			image.texture.updateSubImage(gl, image.getTextureData(), 0, minX, minY, minX, minY, width, height);
+			return;
+		}
+		// heap and direct image buffers are both read through a byte buffer view
+		ByteBuffer source = image.byteBuffer.duplicate();
+		source.clear();
+		int imageRowBytes = image.getWidth() * bytesPerPixel;
+		int offset = minY * imageRowBytes + minX * bytesPerPixel;
+		for(int row = 0; row < height; row++) {
+			source.limit(offset + rowBytes);
+			source.position(offset);
+			mapped.put(source);
+			offset += imageRowBytes;
+		}
+		gl.glUnmapBuffer(GL2.GL_PIXEL_UNPACK_BUFFER);
+
+		gl.glPushClientAttrib(GL2.GL_CLIENT_PIXEL_STORE_BIT);
+		gl.glPixelStorei(GL.GL_UNPACK_ALIGNMENT, 1);
+		gl.glPixelStorei(GL2.GL_UNPACK_ROW_LENGTH, 0);
+		gl.glPixelStorei(GL2.GL_UNPACK_SKIP_PIXELS, 0);
+		gl.glPixelStorei(GL2.GL_UNPACK_SKIP_ROWS, 0);
+		image.texture.bind(gl);
+		// sources from the bound pixel buffer object, the call returns without waiting for the transfer
+		gl.glTexSubImage2D(image.texture.getTarget(), 0, minX, minY, width, height, 
+				image.getTextureData().getPixelFormat(), GL.GL_UNSIGNED_BYTE, 0L);
+		gl.glPopClientAttrib();
+		gl.glBindBuffer(GL2.GL_PIXEL_UNPACK_BUFFER, 0);
+	}
+
+	private void prepare(GL2 gl) {
+		// buffer objects are lost together with the context
+		if(context == gl.getContext()) return;
+		context = gl.getContext();
+		gl.glGenBuffers(buffers.length, buffers, 0);
+		current = 0;
+	}
+
+	/**
+	 * Deletes the pixel buffer objects and drops a pending region.
+	 */
+	public void dispose(GL2 gl) {
+		pending = false;
+		if(context == null) return;
+		if(context == gl.getContext()) gl.glDeleteBuffers(buffers.length, buffers, 0);
+		context = null;
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.nio.FloatBuffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+
+import com.jogamp.common.nio.Buffers;
+
+/**
+ * Collects interleaved vertex data (position, color, texture coordinate) and submits it
+ * using client side vertex arrays. This replaces glBegin/glEnd with one glDrawArrays call per batch.<br/>
+ * If a {@link VertexStream} is set, the data is streamed into vertex buffer objects instead.
+ * @author Markus Koller
+ */
+final class VertexBatch {
+	static final int POSITION_SIZE = 2;
+	static final int COLOR_SIZE = 4;
+	static final int TEXTURE_COORDINATE_SIZE = 2;
+	/** Number of floats per vertex */
+	static final int VERTEX_SIZE = POSITION_SIZE + COLOR_SIZE + TEXTURE_COORDINATE_SIZE;
+	/** Number of bytes per vertex */
+	static final int STRIDE = VERTEX_SIZE * Buffers.SIZEOF_FLOAT;
+	static final int COLOR_OFFSET = POSITION_SIZE;
+	static final int TEXTURE_COORDINATE_OFFSET = POSITION_SIZE + COLOR_SIZE;
+
+	// Multiple of 2, 3 and 4 so full batches never split a primitive
+	private static final int DEFAULT_CAPACITY = 12 * 512;
+
+	private final GLStateCache stateCache;
+	private final int capacity;
+	private final float[] vertices;
+	private final FloatBuffer buffer;
+	private final FloatBuffer colorBuffer;
+	private final FloatBuffer textureCoordinateBuffer;
+
+	private int mode = GL.GL_TRIANGLES;
+	private boolean textured = false;
+	private int vertexCount = 0;
+	private int index = 0;
+
+	private VertexStream vertexStream = null;
+	private long frameBytes = 0;
+	private long lastFrameBytes = 0;
+	private RenderStatistics statistics = null;
+
+	public VertexBatch(GLStateCache stateCache) {
+		this(stateCache, DEFAULT_CAPACITY);
+	}
+	public VertexBatch(GLStateCache stateCache, int capacity) {
+		this.stateCache = stateCache;
+		this.capacity = capacity;
+		this.vertices = new float[capacity * VERTEX_SIZE];
+		this.buffer = Buffers.newDirectFloatBuffer(capacity * VERTEX_SIZE);
+		buffer.position(COLOR_OFFSET);
+		this.colorBuffer = buffer.slice();
+		buffer.position(TEXTURE_COORDINATE_OFFSET);
+		this.textureCoordinateBuffer = buffer.slice();
+		buffer.clear();
+	}
+
+	/**
+	 * Sets the primitive type of the following vertices.
+	 * Vertices collected so far are submitted if the type changes.
+	 * @param gl GL to submit pending vertices with.
+	 * @param mode GL primitive type (GL_POINTS, GL_LINES, GL_TRIANGLES, GL_QUADS).
+	 * @param textured Whether texture coordinates must be submitted.
+	 */
+	public void begin(GL2 gl, int mode, boolean textured) {
+		if(vertexCount > 0 && (mode != this.mode || textured != this.textured)) {
+			flush(gl);
+		}
+		this.mode = mode;
+		this.textured = textured;
+	}
+
+	/**
+	 * Makes sure the given number of vertices can be added to the batch
+	 * and flushes the collected vertices otherwise.
+	 * @param gl GL to submit pending vertices with.
+	 * @param count Number of vertices to be added.
+	 */
+	public void ensureCapacity(GL2 gl, int count) {
+		if(vertexCount + count > capacity) {
+			flush(gl);
+			if(count > capacity) throw new IllegalArgumentException("Primitive exceeds batch capacity: " + count);
+		}
+	}
+
+	public void vertex(float x, float y, float red, float green, float blue, float alpha) {
+		float[] v = vertices;
+		int i = index;
+		v[i++] = x;
+		v[i++] = y;
+		v[i++] = red;
+		v[i++] = green;
+		v[i++] = blue;
+		v[i++] = alpha;
+		// texture coordinates are left untouched, they are not submitted for untextured batches
+		index = i + TEXTURE_COORDINATE_SIZE;
+		vertexCount++;
+	}
+	public void vertex(float x, float y, float red, float green, float blue, float alpha, float s, float t) {
+		float[] v = vertices;
+		int i = index;
+		v[i++] = x;
+		v[i++] = y;
+		v[i++] = red;
+		v[i++] = green;
+		v[i++] = blue;
+		v[i++] = alpha;
+		v[i++] = s;
+		v[i++] = t;
+		index = i;
+		vertexCount++;
+	}
+
+	/**
+	 * Adds vertices in the interleaved batch format. The vertices must be of the current primitive type.
+	 * Full batches are submitted in between, the capacity being a multiple of all primitive sizes.
+	 * @param gl GL to submit full batches with.
+	 * @param source Array containing the vertices.
+	 * @param offset Offset of the first vertex in floats.
+	 * @param count Number of vertices.
+	 */
+	public void vertices(GL2 gl, float[] source, int offset, int count) {
+		while(count > 0) {
+			if(vertexCount == capacity) flush(gl);
+			int n = Math.min(count, capacity - vertexCount);
+			int floats = n * VERTEX_SIZE;
+			System.arraycopy(source, offset, vertices, index, floats);
+			index += floats;
+			vertexCount += n;
+			offset += floats;
+			count -= n;
+		}
+	}
+
+	/**
+	 * Sets up streaming of the vertex data into a ring of vertex buffer objects.
+	 * @param ringSize Number of vertex buffer objects in the ring.
+	 * @param bufferSize Size of each vertex buffer object in bytes. 
+	 * 	Sizes smaller than a full batch are increased to hold one.
+	 */
+	public void setStreaming(int ringSize, int bufferSize) {
+		vertexStream = new VertexStream(ringSize, Math.max(bufferSize, capacity * STRIDE));
+	}
+	public boolean isStreaming() {
+		return vertexStream != null;
+	}
+	/**
+	 * @param statistics Statistics to count draw calls and vertices in or <code>null</code>.
+	 */
+	public void setStatistics(RenderStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	public boolean isEmpty() {
+		return vertexCount == 0;
+	}
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * Submits all collected vertices and empties the batch.
+	 * @param gl GL to submit the vertices with.
+	 */
+	public void flush(GL2 gl) {
+		if(vertexCount == 0) return;
+
+		buffer.clear();
+		buffer.put(vertices, 0, index);
+		buffer.flip();
+		int bytes = index * Buffers.SIZEOF_FLOAT;
+
+		gl.glEnableClientState(GL2.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GL2.GL_COLOR_ARRAY);
+		if(textured) {
+			gl.glEnableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+		}
+		if(vertexStream != null) {
+			int offset = vertexStream.upload(gl, buffer, bytes);
+			gl.glVertexPointer(POSITION_SIZE, GL.GL_FLOAT, STRIDE, offset);
+			gl.glColorPointer(COLOR_SIZE, GL.GL_FLOAT, STRIDE, offset + COLOR_OFFSET * Buffers.SIZEOF_FLOAT);
+			if(textured) {
+				gl.glTexCoordPointer(TEXTURE_COORDINATE_SIZE, GL.GL_FLOAT, STRIDE, offset + TEXTURE_COORDINATE_OFFSET * Buffers.SIZEOF_FLOAT);
+			}
+		} else {
+			gl.glVertexPointer(POSITION_SIZE, GL.GL_FLOAT, STRIDE, buffer);
+			gl.glColorPointer(COLOR_SIZE, GL.GL_FLOAT, STRIDE, colorBuffer);
+			if(textured) {
+				gl.glTexCoordPointer(TEXTURE_COORDINATE_SIZE, GL.GL_FLOAT, STRIDE, textureCoordinateBuffer);
+			}
+		}
+
+		gl.glDrawArrays(mode, 0, vertexCount);
+		if(statistics != null) {
+			statistics.increment(RenderStatistics.DRAW_CALLS);
+			statistics.add(RenderStatistics.VERTICES, vertexCount);
+		}
+
+		if(vertexStream != null) {
+			// client side arrays (text rendering) must not source from the buffer object
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		}
+		if(textured) {
+			gl.glDisableClientState(GL2.GL_TEXTURE_COORD_ARRAY);
+		}
+		gl.glDisableClientState(GL2.GL_COLOR_ARRAY);
+		gl.glDisableClientState(GL2.GL_VERTEX_ARRAY);
+		// the current color is undefined after drawing with a color array
+		stateCache.invalidateColor();
+
+		frameBytes += bytes;
+		vertexCount = 0;
+		index = 0;
+	}
+
+	/**
+	 * Marks the end of a frame for the per frame byte count and the vertex buffer ring.
+	 */
+	public void endFrame() {
+		if(vertexStream != null) vertexStream.endFrame();
+		lastFrameBytes = frameBytes;
+		frameBytes = 0;
+	}
+	/**
+	 * @return Number of vertex bytes submitted during the last completed frame.
+	 */
+	public long getLastFrameBytes() {
+		return lastFrameBytes;
+	}
+
+	/**
+	 * Drops all collected vertices without submitting them.
+	 */
+	public void reset() {
+		vertexCount = 0;
+		index = 0;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.jogl2;
+
+import java.nio.Buffer;
+
+import javax.media.opengl.GL;
+import javax.media.opengl.GL2;
+import javax.media.opengl.GLContext;
+
+/**
+ * Ring of vertex buffer objects dynamic geometry gets streamed into.<br/>
+ * Every frame writes into the next buffer of the ring, so the GPU can still read the buffers
+ * of the previous frames. Data is appended until a buffer is full, then its storage gets orphaned
+ * so the driver can hand out fresh memory instead of waiting for the GPU.
+ * @author Markus Koller
+ */
+final class VertexStream {
+	private final int ringSize;
+	private final int bufferSize;
+	private final int[] buffers;
+
+	// Context the buffer objects have been created in
+	private GLContext context = null;
+	private int current = 0;
+	private int offset = 0;
+
+	public VertexStream(int ringSize, int bufferSize) {
+		if(ringSize < 1) throw new IllegalArgumentException("Ring size must be at least 1");
+		if(bufferSize < 1) throw new IllegalArgumentException("Buffer size must be at least 1");
+		this.ringSize = ringSize;
+		this.bufferSize = bufferSize;
+		this.buffers = new int[ringSize];
+	}
+
+	private void prepare(GL2 gl) {
+		// buffer objects are lost together with the context
+		if(context == gl.getContext()) return;
+		context = gl.getContext();
+		gl.glGenBuffers(ringSize, buffers, 0);
+		for(int i = 0; i < ringSize; i++) {
+			gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffers[i]);
+			gl.glBufferData(GL.GL_ARRAY_BUFFER, bufferSize, null, GL2.GL_STREAM_DRAW);
+		}
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+		current = 0;
+		offset = 0;
+	}
+
+	/**
+	 * Uploads the remaining content of the given buffer into the current vertex buffer object
+	 * and leaves that buffer object bound to GL_ARRAY_BUFFER.
+	 * @param gl GL to upload the data with.
+	 * @param data Data to upload.
+	 * @param bytes Number of bytes to upload.
+	 * @return Offset of the uploaded data in the bound buffer object in bytes.
+	 */
+	public int upload(GL2 gl, Buffer data, int bytes) {
+		if(bytes > bufferSize) throw new IllegalArgumentException("Data exceeds vertex buffer size: " + bytes);
+		prepare(gl);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffers[current]);
+		if(offset + bytes > bufferSize) {
+			gl.glBufferData(GL.GL_ARRAY_BUFFER, bufferSize, null, GL2.GL_STREAM_DRAW);
+			offset = 0;
+		}
+		gl.glBufferSubData(GL.GL_ARRAY_BUFFER, offset, bytes, data);
+		int start = offset;
+		offset += bytes;
+		return start;
+	}
+
+	/**
+	 * Moves on to the next buffer in the ring.
+	 */
+	public void endFrame() {
+		current = (current + 1) % ringSize;
+		offset = 0;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+	public int getRingSize() {
+		return ringSize;
+	}
+}
@@ -0,0 +1,107 @@
+package ch.blackspirit.graphics.jogl2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AtlasPageTest {
+	private static final int SIZE = 256;
+
+	private final AtlasPage page = new AtlasPage(SIZE);
+	private final List<int[]> slots = new ArrayList<int[]>();
+
+	private boolean reserve(int width, int height) {
+		if(!page.reserve(width, height)) return false;
+		slots.add(new int[] {page.getReservedX(), page.getReservedY(), width, height});
+		return true;
+	}
+
+	private void assertInsideAndNotOverlapping() {
+		for(int i = 0; i < slots.size(); i++) {
+			int[] a = slots.get(i);
+			Assert.assertTrue(a[0] >= 0 && a[1] >= 0);
+			Assert.assertTrue(a[0] + a[2] <= SIZE && a[1] + a[3] <= SIZE);
+			for(int j = i + 1; j < slots.size(); j++) {
+				int[] b = slots.get(j);
+				boolean overlapping = a[0] < b[0] + b[2] && b[0] < a[0] + a[2] && 
+					a[1] < b[1] + b[3] && b[1] < a[1] + a[3];
+				Assert.assertFalse("Slots " + i + " and " + j + " overlap", overlapping);
+			}
+		}
+	}
+
+	@Test
+	public void slotSize() {
+		Assert.assertEquals(32 + 2 * AtlasPage.EXTRUSION + AtlasPage.PADDING, AtlasPage.getSlotSize(32));
+	}
+
+	@Test
+	public void packBottomLeft() {
+		Assert.assertTrue(reserve(100, 50));
+		Assert.assertEquals(0, page.getReservedX());
+		Assert.assertEquals(0, page.getReservedY());
+		Assert.assertTrue(reserve(100, 30));
+		Assert.assertEquals(100, page.getReservedX());
+		Assert.assertEquals(0, page.getReservedY());
+		// does not fit next to the others anymore, rests on the lower one
+		Assert.assertTrue(reserve(100, 10));
+		Assert.assertEquals(100, page.getReservedX());
+		Assert.assertEquals(30, page.getReservedY());
+		assertInsideAndNotOverlapping();
+	}
+
+	@Test
+	public void fillPageExactly() {
+		for(int i = 0; i < 16; i++) {
+			Assert.assertTrue(reserve(SIZE / 4, SIZE / 4));
+		}
+		Assert.assertFalse(reserve(1, 1));
+		assertInsideAndNotOverlapping();
+	}
+
+	@Test
+	public void rejectTooLarge() {
+		Assert.assertFalse(reserve(SIZE + 1, 1));
+		Assert.assertFalse(reserve(1, SIZE + 1));
+		Assert.assertTrue(reserve(SIZE, SIZE));
+		Assert.assertFalse(reserve(1, 1));
+	}
+
+	@Test
+	public void rejectWhenFull() {
+		Assert.assertTrue(reserve(SIZE, SIZE - 10));
+		Assert.assertFalse(reserve(20, 20));
+		Assert.assertTrue(reserve(SIZE / 2, 10));
+		Assert.assertTrue(reserve(SIZE / 2, 10));
+		Assert.assertFalse(reserve(1, 1));
+		assertInsideAndNotOverlapping();
+	}
+
+	@Test
+	public void randomSlotsDoNotOverlap() {
+		Random random = new Random(42);
+		int rejected = 0;
+		while(rejected < 50) {
+			int width = AtlasPage.getSlotSize(1 + random.nextInt(40));
+			int height = AtlasPage.getSlotSize(1 + random.nextInt(40));
+			if(!reserve(width, height)) rejected++;
+		}
+		Assert.assertTrue(slots.size() > 20);
+		assertInsideAndNotOverlapping();
+	}
+
+	@Test
+	public void clearEmptiesSkyline() {
+		Assert.assertTrue(reserve(SIZE, SIZE));
+		Assert.assertFalse(reserve(1, 1));
+		Assert.assertEquals(0, page.clear().length);
+		Assert.assertTrue(page.isEmpty());
+		Assert.assertEquals(0, page.getFreedArea());
+		Assert.assertTrue(reserve(SIZE, SIZE));
+		Assert.assertEquals(0, page.getReservedX());
+		Assert.assertEquals(0, page.getReservedY());
+	}
+}
@@ -0,0 +1,151 @@
+package ch.blackspirit.graphics.jogl2;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.DrawingMode;
+
+public class CommandBufferTest {
+	private final CommandBuffer buffer = new CommandBuffer();
+
+	private int command(Primitive primitive, Image image, DrawingMode drawingMode, int layer, boolean orderIndependent) {
+		buffer.begin(primitive, image, drawingMode, layer, orderIndependent);
+		// commands without vertices are reused by the next one
+		buffer.vertex(0, 0, 1, 1, 1, 1);
+		return buffer.size() - 1;
+	}
+	private int command(Image image, int layer, boolean orderIndependent) {
+		return command(Primitive.IMAGE, image, DrawingMode.ALPHA_BLEND, layer, orderIndependent);
+	}
+	private int[] sort() {
+		return Arrays.copyOf(buffer.sort(), buffer.size());
+	}
+	private static Image image() {
+		return new Image(16, 16, null, true);
+	}
+
+	@Test
+	public void sortByLayer() {
+		Image image = image();
+		int c0 = command(image, 5, false);
+		int c1 = command(image, -3, false);
+		int c2 = command(image, Integer.MAX_VALUE, false);
+		int c3 = command(image, 0, false);
+		int c4 = command(image, Integer.MIN_VALUE, false);
+		Assert.assertArrayEquals(new int[] {c4, c1, c3, c0, c2}, sort());
+	}
+
+	@Test
+	public void keepSubmissionOrderWithinLayer() {
+		Image a = image();
+		Image b = image();
+		int c0 = command(b, 1, false);
+		int c1 = command(a, 1, false);
+		int c2 = command(Primitive.TRIANGLE, null, DrawingMode.ADD, 1, false);
+		int c3 = command(b, 1, false);
+		int c4 = command(a, 0, false);
+		int c5 = command(a, 1, false);
+		Assert.assertArrayEquals(new int[] {c4, c0, c1, c2, c3, c5}, sort());
+	}
+
+	@Test
+	public void keepSubmissionOrderOfManyCommands() {
+		Image a = image();
+		Image b = image();
+		int count = 1000;
+		for(int i = 0; i < count; i++) {
+			command(i % 2 == 0 ? a : b, i % 3, false);
+		}
+		int[] order = sort();
+		Assert.assertEquals(count, order.length);
+		int previous = -1;
+		for(int i = 0; i < count; i++) {
+			// layer 0 first, each layer in submission order
+			int expected = i < 334 ? 3 * i : i < 667 ? 3 * (i - 334) + 1 : 3 * (i - 667) + 2;
+			Assert.assertEquals(expected, order[i]);
+			if(i != 334 && i != 667) Assert.assertTrue(order[i] > previous);
+			previous = order[i];
+		}
+	}
+
+	@Test
+	public void mergeCommandsWithSameState() {
+		Image image = image();
+		command(image, 0, true);
+		command(image, 0, true);
+		command(image, 1, true);
+		Assert.assertEquals(2, buffer.size());
+		Assert.assertEquals(2, buffer.getVertexCount(0));
+	}
+
+	@Test
+	public void groupOrderIndependentRun() {
+		Image a = image();
+		Image b = image();
+		int c0 = command(b, 0, true);
+		int c1 = command(a, 0, true);
+		int c2 = command(b, 0, true);
+		int c3 = command(a, 0, true);
+		int[] order = sort();
+		// grouped by image, submission order within a group
+		Assert.assertArrayEquals(new int[] {c1, c3, c0, c2}, order);
+	}
+
+	@Test
+	public void groupByDrawingModeFirst() {
+		Image a = image();
+		Image b = image();
+		int c0 = command(Primitive.IMAGE, a, DrawingMode.ADD, 0, true);
+		int c1 = command(Primitive.IMAGE, b, DrawingMode.ALPHA_BLEND, 0, true);
+		int c2 = command(Primitive.IMAGE, a, DrawingMode.ALPHA_BLEND, 0, true);
+		int c3 = command(Primitive.TRIANGLE, null, DrawingMode.ADD, 0, true);
+		Assert.assertArrayEquals(new int[] {c2, c1, c3, c0}, sort());
+	}
+
+	@Test
+	public void groupOnlyWithinRuns() {
+		Image a = image();
+		Image b = image();
+		int c0 = command(b, 0, true);
+		int c1 = command(a, 0, true);
+		int c2 = command(b, 0, false);
+		int c3 = command(b, 0, true);
+		int c4 = command(a, 0, true);
+		int c5 = command(b, 1, true);
+		int c6 = command(a, 1, true);
+		// the order dependent command and the layer change end the runs
+		Assert.assertArrayEquals(new int[] {c1, c0, c2, c4, c3, c6, c5}, sort());
+	}
+
+	@Test
+	public void groupImagesWithLargeSortIds() {
+		// ids differing only above the lowest 24 bits
+		Image.SORT_IDS.set(0x2000000);
+		Image a = image();
+		Image.SORT_IDS.set(0x1000000);
+		Image b = image();
+		Assert.assertEquals(a.getTextureSortId() & 0xFFFFFF, b.getTextureSortId() & 0xFFFFFF);
+
+		int c0 = command(a, 0, true);
+		int c1 = command(b, 0, true);
+		int c2 = command(a, 0, true);
+		int c3 = command(b, 0, true);
+		Assert.assertArrayEquals(new int[] {c1, c3, c0, c2}, sort());
+	}
+
+	@Test
+	public void sortAfterClear() {
+		Image a = image();
+		Image b = image();
+		command(b, 0, true);
+		command(a, 0, true);
+		sort();
+		buffer.clear();
+		Assert.assertTrue(buffer.isEmpty());
+		int c0 = command(a, 2, false);
+		int c1 = command(b, 1, false);
+		Assert.assertArrayEquals(new int[] {c1, c0}, sort());
+	}
+}
@@ -0,0 +1,183 @@
+package ch.blackspirit.graphics.jogl2;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Transform2DTest {
+	private static final float EPSILON = 0.0001f;
+
+	// column major 4x4 matrices multiplied like glTranslatef, glRotatef and glScalef do
+	private static float[] identity() {
+		float[] m = new float[16];
+		m[0] = m[5] = m[10] = m[15] = 1;
+		return m;
+	}
+	private static float[] multiply(float[] a, float[] b) {
+		float[] result = new float[16];
+		for(int column = 0; column < 4; column++) {
+			for(int row = 0; row < 4; row++) {
+				float sum = 0;
+				for(int k = 0; k < 4; k++) {
+					sum += a[k * 4 + row] * b[column * 4 + k];
+				}
+				result[column * 4 + row] = sum;
+			}
+		}
+		return result;
+	}
+	private static float[] glTranslate(float[] m, float x, float y) {
+		float[] t = identity();
+		t[12] = x;
+		t[13] = y;
+		return multiply(m, t);
+	}
+	private static float[] glRotate(float[] m, float degrees) {
+		double radians = Math.toRadians(degrees);
+		float[] r = identity();
+		r[0] = (float)Math.cos(radians);
+		r[1] = (float)Math.sin(radians);
+		r[4] = -(float)Math.sin(radians);
+		r[5] = (float)Math.cos(radians);
+		return multiply(m, r);
+	}
+	private static float[] glScale(float[] m, float x, float y) {
+		float[] s = identity();
+		s[0] = x;
+		s[5] = y;
+		return multiply(m, s);
+	}
+
+	private static void assertMatrix(float[] expected, Transform2D transform) {
+		float[] actual = new float[16];
+		transform.get(actual);
+		Assert.assertArrayEquals(expected, actual, EPSILON);
+	}
+	private static void assertIdentity(Transform2D transform) {
+		assertMatrix(identity(), transform);
+	}
+
+	@Test
+	public void identityByDefault() {
+		assertIdentity(new Transform2D());
+	}
+
+	@Test
+	public void translate() {
+		Transform2D transform = new Transform2D();
+		transform.translate(3, -4);
+		assertMatrix(glTranslate(identity(), 3, -4), transform);
+	}
+
+	@Test
+	public void rotate() {
+		Transform2D transform = new Transform2D();
+		transform.rotate((float)Math.toRadians(30));
+		assertMatrix(glRotate(identity(), 30), transform);
+	}
+
+	@Test
+	public void scale() {
+		Transform2D transform = new Transform2D();
+		transform.scale(2, -0.5f);
+		assertMatrix(glScale(identity(), 2, -0.5f), transform);
+	}
+
+	@Test
+	public void composeLikeGL() {
+		Transform2D transform = new Transform2D();
+		transform.translate(100, 50);
+		transform.rotate((float)Math.toRadians(45));
+		transform.scale(2, 3);
+		transform.translate(-10, 5);
+		transform.rotate((float)Math.toRadians(-120));
+
+		float[] expected = identity();
+		expected = glTranslate(expected, 100, 50);
+		expected = glRotate(expected, 45);
+		expected = glScale(expected, 2, 3);
+		expected = glTranslate(expected, -10, 5);
+		expected = glRotate(expected, -120);
+		assertMatrix(expected, transform);
+	}
+
+	@Test
+	public void multiplyAppliesGivenTransformFirst() {
+		Transform2D first = new Transform2D();
+		first.rotate((float)Math.toRadians(90));
+		Transform2D transform = new Transform2D();
+		transform.translate(10, 0);
+		transform.multiply(first);
+
+		assertMatrix(glRotate(glTranslate(identity(), 10, 0), 90), transform);
+		// (1, 0) is rotated to (0, 1) and then translated
+		Assert.assertEquals(10, transform.m00 * 1 + transform.m01 * 0 + transform.m02, EPSILON);
+		Assert.assertEquals(1, transform.m10 * 1 + transform.m11 * 0 + transform.m12, EPSILON);
+	}
+
+	@Test
+	public void inverseOperationsRestoreIdentity() {
+		Transform2D transform = new Transform2D();
+		transform.translate(12, -7);
+		transform.rotate((float)Math.toRadians(33));
+		transform.scale(4, 0.25f);
+		transform.scale(0.25f, 4);
+		transform.rotate((float)Math.toRadians(-33));
+		transform.translate(-12, 7);
+		assertIdentity(transform);
+	}
+
+	@Test
+	public void multiplyWithInverse() {
+		Transform2D transform = new Transform2D();
+		transform.translate(5, 6);
+		transform.rotate((float)Math.toRadians(60));
+		transform.scale(2, 2);
+
+		// inverse of the above, composed in reverse order
+		Transform2D inverse = new Transform2D();
+		inverse.scale(0.5f, 0.5f);
+		inverse.rotate((float)Math.toRadians(-60));
+		inverse.translate(-5, -6);
+
+		transform.multiply(inverse);
+		assertIdentity(transform);
+	}
+
+	@Test
+	public void pushAndPop() {
+		Transform2D transform = new Transform2D();
+		transform.translate(1, 2);
+		float[] saved = new float[16];
+		transform.get(saved);
+		// deeper than the initial stack size
+		for(int i = 0; i < 100; i++) {
+			transform.push();
+			transform.rotate(0.1f);
+			transform.translate(i, -i);
+		}
+		for(int i = 0; i < 100; i++) {
+			transform.pop();
+		}
+		assertMatrix(saved, transform);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void popEmptyStack() {
+		new Transform2D().pop();
+	}
+
+	@Test
+	public void clearResetsStackAndTransform() {
+		Transform2D transform = new Transform2D();
+		transform.translate(1, 2);
+		transform.push();
+		transform.clear();
+		assertIdentity(transform);
+		try {
+			transform.pop();
+			Assert.fail("Stack not empty after clear");
+		} catch(RuntimeException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+/**
+ * AWT canvas rendering on the event dispatch thread and painting the framebuffer 
+ * onto a heavyweight or lightweight component.
+ * @author Markus Koller
+ */
+final class AWTCanvas extends AbstractCanvas implements ch.blackspirit.graphics.AWTCanvas {
+	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
+
+	private final boolean lightweight;
+	private final Component component;
+	private BufferedImage framebufferImage;
+
+	private final Runnable updateRunnable = new Runnable() {
+		public void run() {
+			int width = component.getWidth();
+			int height = component.getHeight();
+			if(width <= 0 || height <= 0) return;
+			try {
+				render(width, height);
+			} catch(RuntimeException e) {
+				LOGGER.log(Level.SEVERE, "Error drawing", e);
+				return;
+			}
+			Graphics g = component.getGraphics();
+			if(g != null) {
+				try {
+					paintFramebuffer(g);
+				} finally {
+					g.dispose();
+				}
+			}
+		}
+	};
+
+	public AWTCanvas(boolean lightweight, CanvasProperties properties) {
+		super(properties);
+		this.lightweight = lightweight;
+		if(lightweight) {
+			component = new JPanel() {
+				private static final long serialVersionUID = 1L;
+				protected void paintComponent(Graphics g) {
+					paintFramebuffer(g);
+				}
+			};
+		} else {
+			component = new java.awt.Canvas() {
+				private static final long serialVersionUID = 1L;
+				public void paint(Graphics g) {
+					paintFramebuffer(g);
+				}
+				public void update(Graphics g) {
+					// the framebuffer covers the whole canvas, no need to clear it
+					paint(g);
+				}
+			};
+		}
+	}
+
+	private void paintFramebuffer(Graphics g) {
+		if(framebufferImage != null) g.drawImage(framebufferImage, 0, 0, null);
+	}
+	protected void framebufferCreated(int[] framebuffer, int width, int height) {
+		framebufferImage = createFramebufferImage(framebuffer, width, height);
+	}
+
+	public void draw() {
+		SwingUtilities.invokeLater(updateRunnable);
+	}
+
+	public Component getComponent() {
+		return component;
+	}
+	public boolean isLightweight() {
+		return lightweight;
+	}
+
+	public int getWidth() {
+		return component.getWidth();
+	}
+	public int getHeight() {
+		return component.getHeight();
+	}
+
+	public void dispose() {
+		super.dispose();
+		framebufferImage = null;
+	}
+}
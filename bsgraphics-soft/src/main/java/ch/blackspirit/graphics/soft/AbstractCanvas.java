@@ -0,0 +1,180 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.concurrent.ForkJoinPool;
+
+import ch.blackspirit.graphics.Canvas;
+import ch.blackspirit.graphics.GraphicsListener;
+import ch.blackspirit.graphics.Image;
+
+/**
+ * Canvas rendering into an int[] framebuffer. Subclasses decide on the thread rendering 
+ * and on how the framebuffer gets presented.
+ * @author Markus Koller
+ */
+abstract class AbstractCanvas extends AbstractGraphicsContext implements Canvas, ViewListener {
+	protected final CanvasProperties properties;
+	protected final View view = new View();
+	private final ResourceManager resourceManager = new ResourceManager();
+	private final ImageFactory imageFactory = new ImageFactory(resourceManager);
+	private final ForkJoinPool pool;
+	private final SoftGraphics graphics;
+	private GraphicsListener graphicsListener;
+	private boolean initiated = false;
+
+	private int[] framebuffer = null;
+	private int framebufferWidth = 0;
+	private int framebufferHeight = 0;
+
+	public AbstractCanvas(CanvasProperties properties) {
+		this.properties = properties;
+		// a single thread rasterizes on the drawing thread
+		this.pool = properties.getThreads() > 1 ? new ForkJoinPool(properties.getThreads()) : null;
+		this.graphics = new SoftGraphics(new Rasterizer(pool, properties.getTileSize()), resourceManager);
+		view.setCamera(0, 0, 0);
+		view.addViewListener(this);
+	}
+
+	/**
+	 * Renders a frame of the given size into the framebuffer, calling the graphics listener.
+	 */
+	protected void render(int width, int height) {
+		startDrawing();
+		try {
+			boolean sizeChanged = width != framebufferWidth || height != framebufferHeight;
+			if(sizeChanged) {
+				framebuffer = new int[width * height];
+				framebufferWidth = width;
+				framebufferHeight = height;
+				framebufferCreated(framebuffer, width, height);
+			}
+			graphics.setTarget(framebuffer, width, height);
+			graphics.init();
+			applyView();
+			if(graphicsListener != null) {
+				if(!initiated) {
+					graphicsListener.init(view, graphics);
+					initiated = true;
+					sizeChanged = true;
+				}
+				if(sizeChanged) graphicsListener.sizeChanged(this, view);
+				graphicsListener.draw(view, graphics);
+			}
+		} finally {
+			graphics.endFrame();
+			endDrawing();
+			fireFrameFinished(this);
+		}
+	}
+	/**
+	 * Called when a new framebuffer has been created, before rendering into it.
+	 */
+	protected void framebufferCreated(int[] framebuffer, int width, int height) {}
+
+	/**
+	 * @return An opaque image showing the framebuffer, without copying the pixels.
+	 */
+	static BufferedImage createFramebufferImage(int[] framebuffer, int width, int height) {
+		DataBufferInt buffer = new DataBufferInt(framebuffer, width * height);
+		DirectColorModel colorModel = new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+		WritableRaster raster = Raster.createPackedRaster(buffer, width, height, width, colorModel.getMasks(), null);
+		return new BufferedImage(colorModel, raster, false, null);
+	}
+
+	void flush() {
+		graphics.flush();
+	}
+
+	private void applyView() {
+		if(framebuffer == null) return;
+		// views without a size show the pixels of the framebuffer
+		float width = view.getWidth() > 0 ? view.getWidth() : framebufferWidth;
+		float height = view.getHeight() > 0 ? view.getHeight() : framebufferHeight;
+		graphics.setView(framebufferWidth / width, framebufferHeight / height, width / 2, height / 2, 
+				-view.getCameraX(), -view.getCameraY(), view.getCameraAngle());
+	}
+	public void viewSizeChanged() {
+		applyView();
+	}
+	public void cameraChanged() {
+		applyView();
+	}
+
+	public GraphicsListener getGraphicsListener() {
+		return graphicsListener;
+	}
+	public void setGraphicsListener(GraphicsListener listener) {
+		this.graphicsListener = listener;
+		initiated = false;
+	}
+
+	public ch.blackspirit.graphics.ImageFactory getImageFactory() {
+		return imageFactory;
+	}
+	public ch.blackspirit.graphics.ResourceManager getResourceManager() {
+		return resourceManager;
+	}
+	public ch.blackspirit.graphics.ImageGraphicsContext createImageGraphicsContext(Image image) {
+		if (!(image instanceof ch.blackspirit.graphics.soft.Image)) throw new RuntimeException("Image has not been created by the software Blackspirit Graphics implementation!");
+		ch.blackspirit.graphics.soft.Image softImage = (ch.blackspirit.graphics.soft.Image)image;
+		return new ImageGraphicsContext(softImage, resourceManager, pool, properties.getTileSize());
+	}
+
+	public boolean getVSync() {
+		return false;
+	}
+	public boolean setVSync(boolean enabled) {
+		// there is no synchronization with the display refresh
+		return !enabled;
+	}
+
+	public void dispose() {
+		if(pool != null) pool.shutdown();
+		framebuffer = null;
+		framebufferWidth = 0;
+		framebufferHeight = 0;
+	}
+
+	public boolean getPropertyBoolean(String property) {
+		if(Properties.IS_DRAWING_MODE_SUBTRACT_SUPPORTED.equals(property)) {
+			return true;
+		}
+		throw new IllegalArgumentException("No such property: " + property);
+	}
+	public float getPropertyFloat(String property) {
+		throw new IllegalArgumentException("No such property: " + property);
+	}
+	public long getPropertyLong(String property) {
+		if(Properties.MAX_IMAGE_DRAWING_WIDTH.equals(property)) {
+			return imageFactory.getMaxImageWidth();
+		} else if(Properties.MAX_IMAGE_DRAWING_HEIGHT.equals(property)) {
+			return imageFactory.getMaxImageHeight();
+		} else if(Properties.TILE_SIZE.equals(property)) {
+			return properties.getTileSize();
+		} else if(Properties.THREADS.equals(property)) {
+			return pool != null ? pool.getParallelism() : 1;
+		} else if(Properties.PRIMITIVES_PER_FRAME.equals(property)) {
+			return graphics.getLastFramePrimitives();
+		}
+		throw new IllegalArgumentException("No such property: " + property);
+	}
+}
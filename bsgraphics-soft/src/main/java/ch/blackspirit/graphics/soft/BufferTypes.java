@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import javax.vecmath.Color4f;
+
+import ch.blackspirit.graphics.BufferType;
+import ch.blackspirit.graphics.Image;
+
+/**
+ * Buffer types supported by the Blackspirit Graphics software implementation.
+ * @author Markus Koller
+ */
+public final class BufferTypes {
+	private BufferTypes() {}
+	/**
+	 * Int ARGB buffer, one <code>0xAARRGGBB</code> int per pixel.<br/>
+	 * To get a pixels int in the buffer use the following formula: <code>y * width + x</code><br/>
+	 */
+	public static BufferType ARGB_Int = new BufferType() {
+		public float getAlpha(Image image, int x, int y) {
+			return (float)(((int[])image.getBuffer())[y * image.getWidth() + x] >>> 24) / 255f;
+		}
+		public float getRed(Image image, int x, int y) {
+			return (float)((((int[])image.getBuffer())[y * image.getWidth() + x] >> 16) & 0xFF) / 255f;
+		}
+		public float getGreen(Image image, int x, int y) {
+			return (float)((((int[])image.getBuffer())[y * image.getWidth() + x] >> 8) & 0xFF) / 255f;
+		}
+		public float getBlue(Image image, int x, int y) {
+			return (float)(((int[])image.getBuffer())[y * image.getWidth() + x] & 0xFF) / 255f;
+		}
+		public void setAlpha(Image image, int x, int y, float value) {
+			set((int[])image.getBuffer(), y * image.getWidth() + x, 24, value);
+		}
+		public void setRed(Image image, int x, int y, float value) {
+			set((int[])image.getBuffer(), y * image.getWidth() + x, 16, value);
+		}
+		public void setGreen(Image image, int x, int y, float value) {
+			set((int[])image.getBuffer(), y * image.getWidth() + x, 8, value);
+		}
+		public void setBlue(Image image, int x, int y, float value) {
+			set((int[])image.getBuffer(), y * image.getWidth() + x, 0, value);
+		}
+		public void getColor(Image image, int x, int y, Color4f color) {
+			int pixel = ((int[])image.getBuffer())[y * image.getWidth() + x];
+			color.x = (float)((pixel >> 16) & 0xFF) / 255f;
+			color.y = (float)((pixel >> 8) & 0xFF) / 255f;
+			color.z = (float)(pixel & 0xFF) / 255f;
+			color.w = (float)(pixel >>> 24) / 255f;
+		}
+		public void setColor(Image image, int x, int y, Color4f color) {
+			((int[])image.getBuffer())[y * image.getWidth() + x] = 
+				((int)(color.w * 255) << 24) | ((int)(color.x * 255) << 16) | ((int)(color.y * 255) << 8) | (int)(color.z * 255);
+		}
+
+		public String toString() {
+			return BufferTypes.class.getName() + ".ARGB_Int";
+		}
+		@Override
+		public boolean isAlphaSupported() {
+			return true;
+		}
+		@Override
+		public int getBitsPerPixel() {
+			return 32;
+		}
+	};
+	/**
+	 * Int RGB buffer, one <code>0x00RRGGBB</code> int per pixel.<br/>
+	 * To get a pixels int in the buffer use the following formula: <code>y * width + x</code><br/>
+	 */
+	public static BufferType RGB_Int = new BufferType() {
+		public void setAlpha(Image image, int x, int y, float value) {}
+		public float getAlpha(Image image, int x, int y) {
+			return 1;
+		}
+		public float getRed(Image image, int x, int y) {
+			return (float)((((int[])image.getBuffer())[y * image.getWidth() + x] >> 16) & 0xFF) / 255f;
+		}
+		public float getGreen(Image image, int x, int y) {
+			return (float)((((int[])image.getBuffer())[y * image.getWidth() + x] >> 8) & 0xFF) / 255f;
+		}
+		public float getBlue(Image image, int x, int y) {
+			return (float)(((int[])image.getBuffer())[y * image.getWidth() + x] & 0xFF) / 255f;
+		}
+		public void setRed(Image image, int x, int y, float value) {
+			set((int[])image.getBuffer(), y * image.getWidth() + x, 16, value);
+		}
+		public void setGreen(Image image, int x, int y, float value) {
+			set((int[])image.getBuffer(), y * image.getWidth() + x, 8, value);
+		}
+		public void setBlue(Image image, int x, int y, float value) {
+			set((int[])image.getBuffer(), y * image.getWidth() + x, 0, value);
+		}
+		public void getColor(Image image, int x, int y, Color4f color) {
+			int pixel = ((int[])image.getBuffer())[y * image.getWidth() + x];
+			color.x = (float)((pixel >> 16) & 0xFF) / 255f;
+			color.y = (float)((pixel >> 8) & 0xFF) / 255f;
+			color.z = (float)(pixel & 0xFF) / 255f;
+			color.w = 1;
+		}
+		public void setColor(Image image, int x, int y, Color4f color) {
+			((int[])image.getBuffer())[y * image.getWidth() + x] = 
+				((int)(color.x * 255) << 16) | ((int)(color.y * 255) << 8) | (int)(color.z * 255);
+		}
+
+		public String toString() {
+			return BufferTypes.class.getName() + ".RGB_Int";
+		}
+		@Override
+		public boolean isAlphaSupported() {
+			return false;
+		}
+		@Override
+		public int getBitsPerPixel() {
+			return 24;
+		}
+	};
+
+	private static void set(int[] buffer, int index, int shift, float value) {
+		buffer[index] = (buffer[index] & ~(0xFF << shift)) | (((int)(value * 255) & 0xFF) << shift);
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Set;
+
+import ch.blackspirit.graphics.AWTCanvas;
+import ch.blackspirit.graphics.DisplayMode;
+import ch.blackspirit.graphics.RealtimeCanvas;
+
+/**
+ * The canvas factory for the Blackspirit Graphics software implementation.
+ * @author Markus Koller
+ */
+public final class CanvasFactory implements ch.blackspirit.graphics.CanvasFactory {
+	private CanvasProperties properties;
+	
+	public CanvasFactory() {
+		this.properties = new CanvasProperties();
+		URL url = this.getClass().getResource("/bsgraphics.properties");
+		if(url != null) {
+			properties.load(url);
+		}
+	}
+
+	public CanvasProperties getProperties() {
+		return properties;
+	}
+	/**
+	 * @param properties Properties to be used on creation of a canvas.
+	 */
+	public void setProperties(CanvasProperties properties) {
+		this.properties = properties;
+	}
+
+	public AWTCanvas createAWTCanvas(boolean lightweight) {
+		return new ch.blackspirit.graphics.soft.AWTCanvas(lightweight, properties);
+	}
+	public RealtimeCanvas createRealtimeCanvasFullscreen(DisplayMode displayMode) {
+		return new ch.blackspirit.graphics.soft.RealtimeCanvas(displayMode, properties);
+	}
+	public RealtimeCanvas createRealtimeCanvasFullscreen() {
+		return new ch.blackspirit.graphics.soft.RealtimeCanvas(null, properties);
+	}
+	public RealtimeCanvas createRealtimeCanvasWindow(int width, int height) {
+		return new ch.blackspirit.graphics.soft.RealtimeCanvas(width, height, properties);
+	}
+	/**
+	 * Creates a canvas without a window which renders into a framebuffer of the given size. 
+	 * Such canvases can be used in headless environments.
+	 * @param width Width of the framebuffer in pixels.
+	 * @param height Height of the framebuffer in pixels.
+	 * @return The offscreen canvas.
+	 */
+	public ch.blackspirit.graphics.OffscreenCanvas createOffscreenCanvas(int width, int height) {
+		return new OffscreenCanvas(width, height, properties);
+	}
+
+	public DisplayMode getDisplayMode(int width, int height) {
+		if(GraphicsEnvironment.isHeadless()) return null;
+		GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
+		GraphicsDevice dev = env.getDefaultScreenDevice();
+		java.awt.DisplayMode currentMode = dev.getDisplayMode();
+		
+		for(DisplayMode mode: getDisplayModes()) {
+			if(mode.getWidth() == width &&
+				mode.getHeight() == height &&
+				mode.getColorDepth() == currentMode.getBitDepth() &&
+				mode.getRefreshRate() == currentMode.getRefreshRate()) {
+				return mode;
+			}
+		}
+		return null;
+	}
+	public DisplayMode getDisplayMode(int width, int height, int colorDepth) {
+		if(GraphicsEnvironment.isHeadless()) return null;
+		GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
+		GraphicsDevice dev = env.getDefaultScreenDevice();
+		java.awt.DisplayMode currentMode = dev.getDisplayMode();
+		
+		for(DisplayMode mode: getDisplayModes()) {
+			if(mode.getWidth() == width &&
+				mode.getHeight() == height &&
+				mode.getColorDepth() == colorDepth &&
+				mode.getRefreshRate() == currentMode.getRefreshRate()) {
+				return mode;
+			}
+		}
+		return null;
+	}
+	public Set<DisplayMode> getDisplayModes() {
+		Set<DisplayMode> modes = new HashSet<DisplayMode>();
+		if(GraphicsEnvironment.isHeadless()) return modes;
+		
+		GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
+		GraphicsDevice dev = env.getDefaultScreenDevice();
+		for(java.awt.DisplayMode mode :dev.getDisplayModes()) {
+			modes.add(new ch.blackspirit.graphics.soft.DisplayMode(mode.getWidth(), mode.getHeight(), mode.getBitDepth(), mode.getRefreshRate()));
+		}
+		return modes;
+	}
+	public DisplayMode getDisplayMode() {
+		if(GraphicsEnvironment.isHeadless()) return null;
+		GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
+		GraphicsDevice dev = env.getDefaultScreenDevice();
+		java.awt.DisplayMode currentMode = dev.getDisplayMode();
+		
+		for(DisplayMode mode: getDisplayModes()) {
+			if(mode.getWidth() == currentMode.getWidth() &&
+				mode.getHeight() == currentMode.getHeight() &&
+				mode.getColorDepth() == currentMode.getBitDepth() &&
+				mode.getRefreshRate() == currentMode.getRefreshRate()) {
+				return mode;
+			}
+		}
+		return null;
+	}
+}
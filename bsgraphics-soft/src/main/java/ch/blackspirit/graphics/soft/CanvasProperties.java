@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Properties to be used on creation of a canvas throught the {@link CanvasFactory}.
+ * @author Markus Koller
+ */
+public final class CanvasProperties {
+	private final Logger LOGGER = Logger.getLogger(this.getClass().getName());
+
+	private java.util.Properties properties = new java.util.Properties();
+
+	private int tileSize = 64;
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	public CanvasProperties() {}
+
+	private int getProperty(String property, int defaultValue) {
+		String value = properties.getProperty(property, String.valueOf(defaultValue));
+		try {
+			return Integer.valueOf(value).intValue();
+		} catch(NumberFormatException e) {
+			LOGGER.log(Level.WARNING, "Property is not a valid integer: " + property, e);
+			return defaultValue;
+		}
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+	/**
+	 * @param tileSize Width and height in pixels of the tiles the framebuffer is divided into. 
+	 * 	Each tile is rasterized by a single thread.
+	 */
+	public void setTileSize(int tileSize) {
+		this.tileSize = tileSize;
+	}
+	public int getThreads() {
+		return threads;
+	}
+	/**
+	 * @param threads Number of threads rasterizing tiles in parallel. 
+	 * 	With a single thread tiles are rasterized on the drawing thread.
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public void load(URL url) {
+		try {
+			properties.load(url.openStream());
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Error reading existing bsgraphics.properties", e);
+		}
+		tileSize = getProperty(Properties.TILE_SIZE, tileSize);
+		threads = getProperty(Properties.THREADS, threads);
+	}
+}
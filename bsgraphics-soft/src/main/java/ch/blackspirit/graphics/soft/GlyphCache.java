@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/**
+ * Glyphs of a font rendered with Java2D into textures, white with the antialiased coverage in the alpha channel.
+ * @author Markus Koller
+ */
+final class GlyphCache {
+	static final class Glyph {
+		/** <code>null</code> for glyphs without pixels like spaces */
+		final Texture texture;
+		/** Position of the texture relative to the pen position on the baseline */
+		final float x;
+		final float y;
+		final float advance;
+		public Glyph(Texture texture, float x, float y, float advance) {
+			this.texture = texture;
+			this.x = x;
+			this.y = y;
+			this.advance = advance;
+		}
+	}
+
+	private final Font font;
+	private final FontRenderContext fontRenderContext = new FontRenderContext(null, true, true);
+	private final HashMap<Character, Glyph> glyphs = new HashMap<Character, Glyph>();
+
+	public GlyphCache(Font font) {
+		this.font = font;
+	}
+
+	public Font getFont() {
+		return font;
+	}
+
+	public Glyph getGlyph(char c) {
+		Character key = Character.valueOf(c);
+		Glyph glyph = glyphs.get(key);
+		if(glyph == null) {
+			glyph = createGlyph(c);
+			glyphs.put(key, glyph);
+		}
+		return glyph;
+	}
+
+	private Glyph createGlyph(char c) {
+		GlyphVector vector = font.createGlyphVector(fontRenderContext, String.valueOf(c));
+		float advance = vector.getGlyphMetrics(0).getAdvance();
+		Rectangle bounds = vector.getPixelBounds(fontRenderContext, 0, 0);
+		if(bounds.isEmpty()) return new Glyph(null, 0, 0, advance);
+
+		// one pixel border, so filtering fades out the glyph edges
+		int width = bounds.width + 2;
+		int height = bounds.height + 2;
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+		g.setColor(Color.WHITE);
+		g.drawGlyphVector(vector, 1 - bounds.x, 1 - bounds.y);
+		g.dispose();
+
+		Texture texture = new Texture(width, height, image.getRGB(0, 0, width, height, null, 0, width));
+		return new Glyph(texture, bounds.x - 1, bounds.y - 1, advance);
+	}
+
+	public void getTextBounds(String text, Rectangle2D bounds) {
+		bounds.setRect(font.getStringBounds(text, fontRenderContext));
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+
+import javax.imageio.ImageIO;
+
+import ch.blackspirit.graphics.BufferType;
+
+/**
+ * @author Markus Koller
+ */
+final class Image implements ch.blackspirit.graphics.Image {
+	private final int width;
+	private final int height;
+	private final URL url;
+	private final boolean buffered;
+	private final BufferType bufferType;
+	private final boolean alpha;
+
+	ResourceManager resourceManager;
+
+	private final int[] buffer;
+	// decoded pixels of an unbuffered image loaded from an url, kept until the image is cached the first time
+	private int[] pixels;
+	// texture being set, indicates that the image is cached!
+	Texture texture = null;
+
+	public Image(URL url, ResourceManager resourceManager, boolean buffered, boolean forceAlpha) throws IOException {
+		this.url = url;
+		this.resourceManager = resourceManager;
+		this.buffered = buffered;
+
+		BufferedImage image = read(url);
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		int[] decoded = image.getRGB(0, 0, width, height, null, 0, width);
+		this.alpha = forceAlpha || image.getColorModel().hasAlpha();
+		if(buffered) {
+			if(forceAlpha) throw new UnsupportedOperationException("Loading buffered image from url forcing alpha must be manually done using explicit buffer type");
+			this.bufferType = alpha ? BufferTypes.ARGB_Int : BufferTypes.RGB_Int;
+			if(!alpha) removeAlpha(decoded);
+			this.buffer = decoded;
+		} else {
+			// preloaded to know the image size
+			this.pixels = decoded;
+			this.buffer = null;
+			this.bufferType = null;
+		}
+	}
+
+	public Image(int width, int height, ResourceManager resourceManager, boolean alpha) {
+		this.width = width;
+		this.height = height;
+		this.bufferType = null;
+		this.buffer = null;
+		this.buffered = false;
+		this.alpha = alpha;
+		this.resourceManager = resourceManager;
+		this.url = null;
+	}
+
+	public Image(URL url, ResourceManager resourceManager, BufferType bufferType) throws IOException {
+		this.url = url;
+		this.resourceManager = resourceManager;
+		this.bufferType = bufferType;
+		this.buffered = true;
+
+		if(bufferType != BufferTypes.ARGB_Int && bufferType != BufferTypes.RGB_Int) {
+			throw new UnsupportedOperationException("Unsupported buffer type");
+		}
+		BufferedImage image = read(url);
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		this.buffer = image.getRGB(0, 0, width, height, null, 0, width);
+		this.alpha = bufferType.isAlphaSupported();
+		if(!alpha) removeAlpha(buffer);
+	}
+	public Image(int width, int height, ResourceManager resourceManager, BufferType bufferType) {
+		if(bufferType != BufferTypes.ARGB_Int && bufferType != BufferTypes.RGB_Int) {
+			throw new UnsupportedOperationException("Unsupported buffer type");
+		}
+		this.bufferType = bufferType;
+		this.width = width;
+		this.height = height;
+		this.buffered = true;
+		this.alpha = bufferType.isAlphaSupported();
+		this.buffer = new int[width * height];
+		this.resourceManager = resourceManager;
+		this.url = null;
+	}
+
+	private static BufferedImage read(URL url) throws IOException {
+		BufferedImage image = ImageIO.read(url);
+		if(image == null) throw new IOException("Unsupported image format: " + url);
+		return image;
+	}
+	private static void removeAlpha(int[] pixels) {
+		for(int i = 0; i < pixels.length; i++) {
+			pixels[i] &= 0xFFFFFF;
+		}
+	}
+
+	/**
+	 * @return The pixels for a new texture of the image.
+	 */
+	protected int[] createPixels() throws IOException {
+		int[] result;
+		if(buffer != null) {
+			result = buffer.clone();
+			if(!alpha) addAlpha(result, 0, result.length);
+		} else if(pixels != null) {
+			result = pixels;
+			pixels = null;
+		} else if(url != null) {
+			result = read(url).getRGB(0, 0, width, height, null, 0, width);
+		} else {
+			result = new int[width * height];
+			if(!alpha) addAlpha(result, 0, result.length);
+		}
+		return result;
+	}
+	private static void addAlpha(int[] pixels, int from, int to) {
+		for(int i = from; i < to; i++) {
+			pixels[i] |= 0xFF000000;
+		}
+	}
+
+	/**
+	 * Copies a region of the buffer to the texture.
+	 */
+	void copyBufferToTexture(int xOffset, int yOffset, int width, int height) {
+		int[] target = texture.pixels;
+		for(int y = yOffset; y < yOffset + height; y++) {
+			int index = y * this.width + xOffset;
+			System.arraycopy(buffer, index, target, index, width);
+			if(!alpha) addAlpha(target, index, index + width);
+		}
+	}
+	/**
+	 * Copies a region of the texture to the buffer.
+	 */
+	void copyTextureToBuffer(int xOffset, int yOffset, int width, int height) {
+		int[] source = texture.pixels;
+		for(int y = yOffset; y < yOffset + height; y++) {
+			int index = y * this.width + xOffset;
+			System.arraycopy(source, index, buffer, index, width);
+			if(!alpha) {
+				for(int i = index; i < index + width; i++) {
+					buffer[i] &= 0xFFFFFF;
+				}
+			}
+		}
+	}
+
+	public URL getURL() {
+		return url;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public Object getBuffer() {
+		return buffer;
+	}
+
+	public void updateCache() {
+		if(buffer == null) return;
+		resourceManager.updateCache(this, 0, 0, width, height);
+	}
+
+	public void updateCache(int xOffset, int yOffset, int width, int height) {
+		if(buffer == null) return;
+		resourceManager.updateCache(this, xOffset, yOffset, width, height);
+	}
+
+	public boolean isBuffered() {
+		return buffered;
+	}
+	public BufferType getBufferType() {
+		return bufferType;
+	}
+
+	public void updateBuffer() {
+		if(buffer == null) return;
+		resourceManager.updateBuffer(this, 0, 0, width, height);
+	}
+
+	public void updateBuffer(int xOffset, int yOffset, int width, int height) {
+		if(buffer == null) return;
+		resourceManager.updateBuffer(this, xOffset, yOffset, width, height);
+	}
+
+	public String toString() {
+		StringBuffer desc = new StringBuffer();
+		if(url != null) {
+			desc.append(url.toString() + ": ");
+		}
+		desc.append(getWidth());
+		desc.append("x");
+		desc.append(getHeight());
+		if(isBuffered()) {
+			desc.append(" ");
+			desc.append(getBufferType().toString());
+		} else {
+			desc.append(" unbuffered");
+		}
+		return desc.toString();
+	}
+}
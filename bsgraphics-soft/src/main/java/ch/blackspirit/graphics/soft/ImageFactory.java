@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import ch.blackspirit.graphics.BufferType;
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.util.ImageLoader;
+
+/*
+ * @author Markus Koller
+ */
+final class ImageFactory implements ch.blackspirit.graphics.ImageFactory {
+	/** Images are plain int arrays, this only keeps their size within int range */
+	static final int MAX_SIZE = 16384;
+
+	private static final List<BufferType> bufferTypes;
+	static {
+		List<BufferType> bufferTypesList = new ArrayList<BufferType>();
+		bufferTypesList.add(BufferTypes.ARGB_Int);
+		bufferTypesList.add(BufferTypes.RGB_Int);
+		bufferTypes = Collections.unmodifiableList(bufferTypesList);
+	}
+
+	private ResourceManager resourceManager;
+	private final ImageLoader imageLoader = new ImageLoader(this);
+
+	public ImageFactory(ResourceManager resourceManager) {
+		super();
+		this.resourceManager = resourceManager;
+	}
+
+	public int getMaxImageWidth() {
+		return MAX_SIZE;
+	}
+	public int getMaxImageHeight() {
+		return MAX_SIZE;
+	}
+	public int getMaxImagePixels() {
+		return MAX_SIZE * MAX_SIZE;
+	}
+
+	public Image createImage(URL url, boolean forceInternalAlpha) throws IOException {
+		if(url == null) throw new IllegalArgumentException("Url must not be null");
+		return new ch.blackspirit.graphics.soft.Image(url, resourceManager, false, forceInternalAlpha);
+	}
+	public Image createImage(int width, int height, boolean internalAlpha) throws IOException {
+		checkSize(width, height);
+		return new ch.blackspirit.graphics.soft.Image(width, height, resourceManager, internalAlpha);
+	}
+
+	public Image createBufferedImage(URL url, boolean forceAlpha) throws IOException {
+		if(url == null) throw new IllegalArgumentException("Url must not be null");
+		if(forceAlpha) {
+			return createBufferedImage(url, BufferTypes.ARGB_Int);
+		} else {
+			return new ch.blackspirit.graphics.soft.Image(url, resourceManager, true, false);
+		}
+	}
+	public Image createBufferedImage(URL url, BufferType bufferType) throws IOException {
+		if(url == null) throw new IllegalArgumentException("Url must not be null");
+		if(bufferType == null) throw new IllegalArgumentException("BufferType must not be null");
+		return new ch.blackspirit.graphics.soft.Image(url, resourceManager, bufferType);
+	}
+
+	public Image createBufferedImage(int width, int height, BufferType bufferType) {
+		if(bufferType == null) throw new IllegalArgumentException("BufferType must not be null");
+		checkSize(width, height);
+		return new ch.blackspirit.graphics.soft.Image(width, height, resourceManager, bufferType);
+	}
+
+	public Image createBufferedImage(int width, int height, boolean alpha) {
+		if(alpha) {
+			return createBufferedImage(width, height, BufferTypes.ARGB_Int);
+		} else {
+			return createBufferedImage(width, height, BufferTypes.RGB_Int);
+		}
+	}
+
+	private void checkSize(int width, int height) {
+		if(width > MAX_SIZE || height > MAX_SIZE) {
+			throw new IllegalArgumentException("Requested image ("+ width + "x" + height + ") exceeds maximum image size: " + MAX_SIZE + "x" + MAX_SIZE + ".");
+		}
+	}
+
+	@Override
+	public List<BufferType> getSupportedBufferTypes() {
+		return bufferTypes;
+	}
+
+	public Future<Image> loadImage(URL url, boolean forceAlpha) {
+		return imageLoader.loadImage(url, forceAlpha);
+	}
+	public Future<Image> loadBufferedImage(URL url, boolean forceAlpha) {
+		return imageLoader.loadBufferedImage(url, forceAlpha);
+	}
+	public Future<Image> loadBufferedImage(URL url, BufferType bufferType) {
+		return imageLoader.loadBufferedImage(url, bufferType);
+	}
+}
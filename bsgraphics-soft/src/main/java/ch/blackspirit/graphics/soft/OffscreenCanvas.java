@@ -0,0 +1,78 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.util.FrameUtil;
+
+/**
+ * Canvas without a window, rendering a framebuffer of fixed size on the calling thread. 
+ * Works in headless environments.
+ * @author Markus Koller
+ */
+final class OffscreenCanvas extends AbstractCanvas implements ch.blackspirit.graphics.OffscreenCanvas {
+	private final int width;
+	private final int height;
+	private final ByteBuffer frame;
+	private int[] framebuffer = null;
+	private boolean frameChanged = false;
+
+	public OffscreenCanvas(int width, int height, CanvasProperties properties) {
+		super(properties);
+		if(width <= 0 || height <= 0) throw new IllegalArgumentException("Width and height must be positive: " + width + "x" + height);
+		this.width = width;
+		this.height = height;
+		this.frame = ByteBuffer.allocateDirect(width * height * 4).order(ByteOrder.BIG_ENDIAN);
+		view.setSize(width, height);
+	}
+
+	public void draw() {
+		render(width, height);
+		frameChanged = true;
+	}
+
+	protected void framebufferCreated(int[] framebuffer, int width, int height) {
+		this.framebuffer = framebuffer;
+	}
+
+	public ByteBuffer getFrame() {
+		if(frameChanged) {
+			// 0xAARRGGBB to RGBA bytes
+			frame.clear();
+			for(int i = 0; i < framebuffer.length; i++) {
+				int argb = framebuffer[i];
+				frame.putInt((argb << 8) | (argb >>> 24));
+			}
+			frame.flip();
+			frameChanged = false;
+		}
+		frame.rewind();
+		return frame;
+	}
+	public void getFrame(Image image) {
+		FrameUtil.copyFrame(getFrame(), width, height, image);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+	public int getHeight() {
+		return height;
+	}
+}
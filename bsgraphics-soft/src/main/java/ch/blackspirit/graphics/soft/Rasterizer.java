@@ -0,0 +1,720 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import ch.blackspirit.graphics.DrawingMode;
+
+/**
+ * Records primitives in pixel coordinates and rasterizes them into an int[] framebuffer of 
+ * non premultiplied 0xAARRGGBB pixels.<br/>
+ * The framebuffer is divided into square tiles and every recorded primitive is binned into the tiles 
+ * its bounding box overlaps. When flushing, the tiles are rasterized in parallel on a {@link ForkJoinPool}, 
+ * each tile drawing its primitives in recording order. Tiles never share pixels, so no synchronization 
+ * is needed while rasterizing.<br/>
+ * Vertices are staged with the <code>vertex</code> methods before recording a primitive. 
+ * Rasterization follows the OpenGL rules: pixels are sampled at their centers, edges shared by two 
+ * triangles are drawn once (top left rule) and textures are filtered bilinearly and modulated 
+ * with the vertex color.
+ * @author Markus Koller
+ */
+final class Rasterizer {
+	static final int TRIANGLE = 0;
+	static final int LINE = 1;
+	static final int POINT = 2;
+	static final int CLEAR = 3;
+
+	// blending functions
+	private static final int BLEND_ALPHA = 0;
+	private static final int BLEND_ADD = 1;
+	private static final int BLEND_ALPHA_ADD = 2;
+	private static final int BLEND_SUBTRACT = 3;
+	private static final int BLEND_MULTIPLY = 4;
+	private static final int BLEND_OVERWRITE = 5;
+
+	// primitive state flags
+	private static final int BLEND_MASK = 0x0F;
+	private static final int ANTIALIASING = 0x10;
+	private static final int FLAT = 0x20;
+	private static final int TOP_LEFT_0 = 0x40;
+	private static final int TOP_LEFT_1 = 0x80;
+	private static final int TOP_LEFT_2 = 0x100;
+
+	// floats per primitive
+	private static final int TRIANGLE_SIZE = 27;
+	private static final int LINE_SIZE = 12;
+	private static final int POINT_SIZE = 2;
+
+	/** Number of primitives after which the recorded primitives are rasterized to limit memory usage */
+	private static final int MAX_PRIMITIVES = 16384;
+
+	private final ForkJoinPool pool;
+	private final int tileSize;
+
+	// render target
+	private int[] pixels;
+	private int width;
+	private int height;
+	private int tilesX;
+	private int tileCount;
+	private int[][] tileBins = new int[0][];
+	private int[] tileCounts = new int[0];
+
+	// current state
+	private int blend = BLEND_ALPHA;
+	private int writeMask = 0xFFFFFFFF;
+	private boolean antialiasing = false;
+
+	// recorded primitives
+	private int count = 0;
+	private byte[] kinds = new byte[256];
+	private int[] states = new int[256];
+	private int[] offsets = new int[256];
+	private int[] masks = new int[256];
+	private int[] colors = new int[256];
+	private int[] bounds = new int[256 * 4];
+	private Texture[] textures = new Texture[256];
+	private float[] data = new float[256 * TRIANGLE_SIZE];
+	private int dataSize = 0;
+
+	private long frameCount = 0;
+	private long lastFrameCount = 0;
+
+	// staged vertices
+	private final float[] vx = new float[3];
+	private final float[] vy = new float[3];
+	private final float[] vr = new float[3];
+	private final float[] vg = new float[3];
+	private final float[] vb = new float[3];
+	private final float[] va = new float[3];
+	private final float[] vs = new float[3];
+	private final float[] vt = new float[3];
+
+	/**
+	 * @param pool Pool to rasterize tiles on or <code>null</code> to rasterize on the calling thread.
+	 * @param tileSize Width and height of the tiles in pixels.
+	 */
+	public Rasterizer(ForkJoinPool pool, int tileSize) {
+		if(tileSize <= 0) throw new IllegalArgumentException("tileSize must be positive");
+		this.pool = pool;
+		this.tileSize = tileSize;
+	}
+
+	/**
+	 * Sets the framebuffer to render to. Primitives recorded for the previous target are rasterized first.
+	 */
+	public void setTarget(int[] pixels, int width, int height) {
+		flush();
+		if(pixels.length < width * height) throw new IllegalArgumentException("Pixel array too small for " + width + "x" + height);
+		this.pixels = pixels;
+		this.width = width;
+		this.height = height;
+		this.tilesX = (width + tileSize - 1) / tileSize;
+		int tilesY = (height + tileSize - 1) / tileSize;
+		int newCount = tilesX * tilesY;
+		if(newCount > tileBins.length) {
+			int[][] bins = Arrays.copyOf(tileBins, newCount);
+			for(int i = tileBins.length; i < newCount; i++) {
+				bins[i] = new int[64];
+			}
+			tileBins = bins;
+			tileCounts = new int[newCount];
+		}
+		tileCount = newCount;
+	}
+	public int[] getPixels() {
+		return pixels;
+	}
+	public int getWidth() {
+		return width;
+	}
+	public int getHeight() {
+		return height;
+	}
+
+	public void setDrawingMode(DrawingMode drawingMode) {
+		switch(drawingMode) {
+		case ALPHA_BLEND: blend = BLEND_ALPHA; break;
+		case ADD: blend = BLEND_ADD; break;
+		case ALPHA_ADD: blend = BLEND_ALPHA_ADD; break;
+		case SUBTRACT: blend = BLEND_SUBTRACT; break;
+		case MULTIPLY: blend = BLEND_MULTIPLY; break;
+		case OVERWRITE: blend = BLEND_OVERWRITE; break;
+		default: throw new IllegalArgumentException("Unsupported drawing mode: " + drawingMode);
+		}
+	}
+	public void setColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		writeMask = (alpha ? 0xFF000000 : 0) | (red ? 0xFF0000 : 0) | (green ? 0xFF00 : 0) | (blue ? 0xFF : 0);
+	}
+	public void setLineAntialiasing(boolean antialiasing) {
+		this.antialiasing = antialiasing;
+	}
+
+	// ==================== Recording ====================
+	/**
+	 * Stages a vertex of the next primitive.
+	 * @param index Index of the vertex within the primitive.
+	 * @param x X coordinate in pixels.
+	 * @param y Y coordinate in pixels.
+	 */
+	public void vertex(int index, float x, float y, float red, float green, float blue, float alpha) {
+		vx[index] = x;
+		vy[index] = y;
+		vr[index] = red;
+		vg[index] = green;
+		vb[index] = blue;
+		va[index] = alpha;
+	}
+	/**
+	 * Stages a textured vertex of the next primitive.
+	 * @param s X texture coordinate in texture pixels.
+	 * @param t Y texture coordinate in texture pixels.
+	 */
+	public void vertex(int index, float x, float y, float red, float green, float blue, float alpha, float s, float t) {
+		vertex(index, x, y, red, green, blue, alpha);
+		vs[index] = s;
+		vt[index] = t;
+	}
+
+	/**
+	 * Clears the whole framebuffer with the given color, respecting the color mask.
+	 */
+	public void clear(float red, float green, float blue, float alpha) {
+		int p = add(CLEAR, 0, 0);
+		colors[p] = toColor(red, green, blue, alpha);
+		bin(p, 0, 0, width, height);
+	}
+
+	/**
+	 * Records a point at the first staged vertex.
+	 */
+	public void point() {
+		int x = floor(vx[0]);
+		int y = floor(vy[0]);
+		if(x < 0 || y < 0 || x >= width || y >= height) return;
+		int p = add(POINT, POINT_SIZE, 0);
+		colors[p] = toColor(vr[0], vg[0], vb[0], va[0]);
+		data[offsets[p]] = x;
+		data[offsets[p] + 1] = y;
+		bin(p, x, y, x + 1, y + 1);
+	}
+
+	/**
+	 * Records a line between the first two staged vertices.
+	 */
+	public void line() {
+		float x0 = vx[0], y0 = vy[0], x1 = vx[1], y1 = vy[1];
+		if(x0 == x1 && y0 == y1) return;
+		// antialiased lines may touch the neighbouring pixels
+		int minX = Math.max(0, floor(Math.min(x0, x1)) - 1);
+		int minY = Math.max(0, floor(Math.min(y0, y1)) - 1);
+		int maxX = Math.min(width, ceil(Math.max(x0, x1)) + 1);
+		int maxY = Math.min(height, ceil(Math.max(y0, y1)) + 1);
+		if(minX >= maxX || minY >= maxY) return;
+
+		boolean flat = vr[0] == vr[1] && vg[0] == vg[1] && vb[0] == vb[1] && va[0] == va[1];
+		int p = add(LINE, LINE_SIZE, flat ? FLAT : 0);
+		if(antialiasing) states[p] |= ANTIALIASING;
+		float[] d = data;
+		int o = offsets[p];
+		d[o] = x0;
+		d[o + 1] = y0;
+		d[o + 2] = x1;
+		d[o + 3] = y1;
+		if(flat) {
+			colors[p] = toColor(vr[0], vg[0], vb[0], va[0]);
+		} else {
+			d[o + 4] = vr[0] * 255;
+			d[o + 5] = vg[0] * 255;
+			d[o + 6] = vb[0] * 255;
+			d[o + 7] = va[0] * 255;
+			d[o + 8] = (vr[1] - vr[0]) * 255;
+			d[o + 9] = (vg[1] - vg[0]) * 255;
+			d[o + 10] = (vb[1] - vb[0]) * 255;
+			d[o + 11] = (va[1] - va[0]) * 255;
+		}
+		bin(p, minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Records a triangle of the three staged vertices.
+	 * @param texture Texture to draw with or <code>null</code>.
+	 */
+	public void triangle(Texture texture) {
+		int minX = Math.max(0, floor(Math.min(vx[0], Math.min(vx[1], vx[2]))));
+		int minY = Math.max(0, floor(Math.min(vy[0], Math.min(vy[1], vy[2]))));
+		int maxX = Math.min(width, ceil(Math.max(vx[0], Math.max(vx[1], vx[2]))));
+		int maxY = Math.min(height, ceil(Math.max(vy[0], Math.max(vy[1], vy[2]))));
+		if(minX >= maxX || minY >= maxY) return;
+
+		boolean flat = vr[0] == vr[1] && vr[0] == vr[2] && vg[0] == vg[1] && vg[0] == vg[2] &&
+			vb[0] == vb[1] && vb[0] == vb[2] && va[0] == va[1] && va[0] == va[2];
+		int p = add(TRIANGLE, TRIANGLE_SIZE, flat ? FLAT : 0);
+		float[] d = data;
+		int o = offsets[p];
+
+		// edge k lies opposite of vertex k
+		int state = 0;
+		float area = 0;
+		for(int k = 0; k < 3; k++) {
+			int i = (k + 1) % 3;
+			int j = (k + 2) % 3;
+			// order the end points, so the edge function of a shared edge is the exact negation in the other triangle
+			if(vx[j] < vx[i] || (vx[j] == vx[i] && vy[j] < vy[i])) {
+				int temp = i;
+				i = j;
+				j = temp;
+			}
+			float a = vy[i] - vy[j];
+			float b = vx[j] - vx[i];
+			float c = vx[i] * vy[j] - vx[j] * vy[i];
+			// inside of the triangle is positive
+			float e = a * vx[k] + b * vy[k] + c;
+			if(e == 0) {
+				// degenerate triangle
+				count--;
+				dataSize = o;
+				return;
+			}
+			if(e < 0) {
+				a = -a;
+				b = -b;
+				c = -c;
+				e = -e;
+			}
+			if(k == 0) area = e;
+			if(a > 0 || (a == 0 && b > 0)) state |= TOP_LEFT_0 << k;
+			d[o + k * 3] = a;
+			d[o + k * 3 + 1] = b;
+			d[o + k * 3 + 2] = c;
+		}
+		states[p] |= state;
+
+		// attribute planes: value = dx * x + dy * y + c
+		float inverseArea = 1 / area;
+		if(flat) {
+			colors[p] = toColor(vr[0], vg[0], vb[0], va[0]);
+		} else {
+			plane(o, o + 9, vr, 255 * inverseArea);
+			plane(o, o + 12, vg, 255 * inverseArea);
+			plane(o, o + 15, vb, 255 * inverseArea);
+			plane(o, o + 18, va, 255 * inverseArea);
+		}
+		if(texture != null) {
+			textures[p] = texture;
+			plane(o, o + 21, vs, inverseArea);
+			plane(o, o + 24, vt, inverseArea);
+		}
+		bin(p, minX, minY, maxX, maxY);
+	}
+	private void plane(int edges, int target, float[] values, float factor) {
+		float[] d = data;
+		float v0 = values[0] * factor;
+		float v1 = values[1] * factor;
+		float v2 = values[2] * factor;
+		d[target] = d[edges] * v0 + d[edges + 3] * v1 + d[edges + 6] * v2;
+		d[target + 1] = d[edges + 1] * v0 + d[edges + 4] * v1 + d[edges + 7] * v2;
+		d[target + 2] = d[edges + 2] * v0 + d[edges + 5] * v1 + d[edges + 8] * v2;
+	}
+
+	private int add(int kind, int size, int state) {
+		if(count == MAX_PRIMITIVES) flush();
+		int p = count;
+		if(p == kinds.length) {
+			int capacity = p * 2;
+			kinds = Arrays.copyOf(kinds, capacity);
+			states = Arrays.copyOf(states, capacity);
+			offsets = Arrays.copyOf(offsets, capacity);
+			masks = Arrays.copyOf(masks, capacity);
+			colors = Arrays.copyOf(colors, capacity);
+			bounds = Arrays.copyOf(bounds, capacity * 4);
+			textures = Arrays.copyOf(textures, capacity);
+		}
+		if(dataSize + size > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length * 2, dataSize + size));
+		}
+		kinds[p] = (byte)kind;
+		states[p] = blend | state;
+		masks[p] = writeMask;
+		offsets[p] = dataSize;
+		dataSize += size;
+		count++;
+		return p;
+	}
+	private void bin(int p, int minX, int minY, int maxX, int maxY) {
+		int b = p * 4;
+		bounds[b] = minX;
+		bounds[b + 1] = minY;
+		bounds[b + 2] = maxX;
+		bounds[b + 3] = maxY;
+		int lastTileX = (maxX - 1) / tileSize;
+		int lastTileY = (maxY - 1) / tileSize;
+		for(int ty = minY / tileSize; ty <= lastTileY; ty++) {
+			for(int tx = minX / tileSize; tx <= lastTileX; tx++) {
+				int tile = ty * tilesX + tx;
+				int n = tileCounts[tile];
+				if(n == tileBins[tile].length) tileBins[tile] = Arrays.copyOf(tileBins[tile], n * 2);
+				tileBins[tile][n] = p;
+				tileCounts[tile] = n + 1;
+			}
+		}
+	}
+
+	// ==================== Rasterization ====================
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Rasterizes all recorded primitives into the framebuffer.
+	 */
+	public void flush() {
+		if(count == 0) return;
+		if(pool == null || tileCount == 1) {
+			for(int tile = 0; tile < tileCount; tile++) {
+				rasterizeTile(tile);
+			}
+		} else {
+			pool.invoke(new TileTask(0, tileCount));
+		}
+		Arrays.fill(textures, 0, count, null);
+		frameCount += count;
+		count = 0;
+		dataSize = 0;
+	}
+
+	/**
+	 * Marks the end of a frame for the per frame primitive count.
+	 */
+	public void endFrame() {
+		lastFrameCount = frameCount;
+		frameCount = 0;
+	}
+	/**
+	 * @return Number of primitives rasterized during the last completed frame.
+	 */
+	public long getLastFramePrimitives() {
+		return lastFrameCount;
+	}
+
+	private final class TileTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int start;
+		private final int end;
+		public TileTask(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+		protected void compute() {
+			if(end - start <= 2) {
+				for(int tile = start; tile < end; tile++) {
+					rasterizeTile(tile);
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new TileTask(start, middle), new TileTask(middle, end));
+			}
+		}
+	}
+
+	private void rasterizeTile(int tile) {
+		int n = tileCounts[tile];
+		if(n == 0) return;
+		int x0 = (tile % tilesX) * tileSize;
+		int y0 = (tile / tilesX) * tileSize;
+		int x1 = Math.min(width, x0 + tileSize);
+		int y1 = Math.min(height, y0 + tileSize);
+		int[] bin = tileBins[tile];
+		for(int i = 0; i < n; i++) {
+			int p = bin[i];
+			switch(kinds[p]) {
+			case TRIANGLE: rasterizeTriangle(p, x0, y0, x1, y1); break;
+			case LINE: rasterizeLine(p, x0, y0, x1, y1); break;
+			case POINT: rasterizePoint(p, x0, y0, x1, y1); break;
+			case CLEAR: rasterizeClear(p, x0, y0, x1, y1); break;
+			}
+		}
+		tileCounts[tile] = 0;
+	}
+
+	private void rasterizeClear(int p, int tileX0, int tileY0, int tileX1, int tileY1) {
+		int[] fb = pixels;
+		int color = colors[p];
+		int mask = masks[p];
+		for(int y = tileY0; y < tileY1; y++) {
+			int row = y * width;
+			if(mask == 0xFFFFFFFF) {
+				Arrays.fill(fb, row + tileX0, row + tileX1, color);
+			} else {
+				for(int i = row + tileX0; i < row + tileX1; i++) {
+					fb[i] = (color & mask) | (fb[i] & ~mask);
+				}
+			}
+		}
+	}
+
+	private void rasterizePoint(int p, int tileX0, int tileY0, int tileX1, int tileY1) {
+		int o = offsets[p];
+		int x = (int)data[o];
+		int y = (int)data[o + 1];
+		if(x < tileX0 || y < tileY0 || x >= tileX1 || y >= tileY1) return;
+		write(y * width + x, colors[p], states[p] & BLEND_MASK, masks[p]);
+	}
+
+	private void rasterizeLine(int p, int tileX0, int tileY0, int tileX1, int tileY1) {
+		float[] d = data;
+		int o = offsets[p];
+		int state = states[p];
+		int blend = state & BLEND_MASK;
+		int mask = masks[p];
+		boolean flat = (state & FLAT) != 0;
+		boolean antialiased = (state & ANTIALIASING) != 0;
+		float x0 = d[o], y0 = d[o + 1];
+		float dx = d[o + 2] - x0;
+		float dy = d[o + 3] - y0;
+		int color = colors[p];
+
+		// step along the major axis, drawing one pixel (two if antialiased) per column or row
+		boolean xMajor = Math.abs(dx) >= Math.abs(dy);
+		float start = xMajor ? x0 : y0;
+		float delta = xMajor ? dx : dy;
+		float minorStart = xMajor ? y0 : x0;
+		float minorDelta = xMajor ? dy : dx;
+		float from = Math.min(start, start + delta);
+		float to = Math.max(start, start + delta);
+		int first = Math.max(xMajor ? tileX0 : tileY0, ceil(from - .5f));
+		int last = Math.min(xMajor ? tileX1 : tileY1, ceil(to - .5f));
+		int minorMin = xMajor ? tileY0 : tileX0;
+		int minorMax = xMajor ? tileY1 : tileX1;
+		for(int i = first; i < last; i++) {
+			float t = (i + .5f - start) / delta;
+			float minor = minorStart + t * minorDelta;
+			if(!flat) {
+				color = toColor255(d[o + 4] + t * d[o + 8], d[o + 5] + t * d[o + 9], d[o + 6] + t * d[o + 10], d[o + 7] + t * d[o + 11]);
+			}
+			if(antialiased) {
+				float center = minor - .5f;
+				int j = floor(center);
+				int coverage = (int)((center - j) * 256);
+				if(j >= minorMin && j < minorMax) {
+					write(xMajor ? j * width + i : i * width + j, scaleAlpha(color, 256 - coverage), blend, mask);
+				}
+				if(j + 1 >= minorMin && j + 1 < minorMax) {
+					write(xMajor ? (j + 1) * width + i : i * width + j + 1, scaleAlpha(color, coverage), blend, mask);
+				}
+			} else {
+				int j = floor(minor);
+				if(j >= minorMin && j < minorMax) {
+					write(xMajor ? j * width + i : i * width + j, color, blend, mask);
+				}
+			}
+		}
+	}
+
+	private void rasterizeTriangle(int p, int tileX0, int tileY0, int tileX1, int tileY1) {
+		int b = p * 4;
+		int minX = Math.max(bounds[b], tileX0);
+		int minY = Math.max(bounds[b + 1], tileY0);
+		int maxX = Math.min(bounds[b + 2], tileX1);
+		int maxY = Math.min(bounds[b + 3], tileY1);
+		if(minX >= maxX || minY >= maxY) return;
+
+		float[] d = data;
+		int o = offsets[p];
+		int state = states[p];
+		int blend = state & BLEND_MASK;
+		int mask = masks[p];
+		boolean flat = (state & FLAT) != 0;
+		boolean topLeft0 = (state & TOP_LEFT_0) != 0;
+		boolean topLeft1 = (state & TOP_LEFT_1) != 0;
+		boolean topLeft2 = (state & TOP_LEFT_2) != 0;
+		Texture texture = textures[p];
+		float a0 = d[o], b0 = d[o + 1], c0 = d[o + 2];
+		float a1 = d[o + 3], b1 = d[o + 4], c1 = d[o + 5];
+		float a2 = d[o + 6], b2 = d[o + 7], c2 = d[o + 8];
+		int flatColor = colors[p];
+
+		for(int y = minY; y < maxY; y++) {
+			float py = y + .5f;
+			float r0 = b0 * py + c0;
+			float r1 = b1 * py + c1;
+			float r2 = b2 * py + c2;
+
+			// conservative span of the row, the exact coverage is tested per pixel
+			float left = minX;
+			float right = maxX;
+			if(a0 > 0) left = Math.max(left, -r0 / a0 - 1.5f); 
+			else if(a0 < 0) right = Math.min(right, -r0 / a0 + .5f);
+			else if(r0 < 0 || (r0 == 0 && !topLeft0)) continue;
+			if(a1 > 0) left = Math.max(left, -r1 / a1 - 1.5f); 
+			else if(a1 < 0) right = Math.min(right, -r1 / a1 + .5f);
+			else if(r1 < 0 || (r1 == 0 && !topLeft1)) continue;
+			if(a2 > 0) left = Math.max(left, -r2 / a2 - 1.5f); 
+			else if(a2 < 0) right = Math.min(right, -r2 / a2 + .5f);
+			else if(r2 < 0 || (r2 == 0 && !topLeft2)) continue;
+			if(!(left < right)) continue;
+			int startX = (int)left;
+			int endX = Math.min(maxX, (int)right + 1);
+
+			int row = y * width;
+			for(int x = startX; x < endX; x++) {
+				float px = x + .5f;
+				float e0 = a0 * px + r0;
+				if(e0 < 0 || (e0 == 0 && !topLeft0)) continue;
+				float e1 = a1 * px + r1;
+				if(e1 < 0 || (e1 == 0 && !topLeft1)) continue;
+				float e2 = a2 * px + r2;
+				if(e2 < 0 || (e2 == 0 && !topLeft2)) continue;
+
+				int color;
+				if(flat) {
+					color = flatColor;
+				} else {
+					color = toColor255(d[o + 9] * px + d[o + 10] * py + d[o + 11], 
+							d[o + 12] * px + d[o + 13] * py + d[o + 14],
+							d[o + 15] * px + d[o + 16] * py + d[o + 17],
+							d[o + 18] * px + d[o + 19] * py + d[o + 20]);
+				}
+				if(texture != null) {
+					int texel = texture.sample(d[o + 21] * px + d[o + 22] * py + d[o + 23], 
+							d[o + 24] * px + d[o + 25] * py + d[o + 26]);
+					color = modulate(texel, color);
+				}
+				write(row + x, color, blend, mask);
+			}
+		}
+	}
+
+	// ==================== Pixel Operations ====================
+	private void write(int index, int color, int blend, int mask) {
+		int[] fb = pixels;
+		if(mask == 0xFFFFFFFF) {
+			if(blend == BLEND_OVERWRITE || (blend == BLEND_ALPHA && (color >>> 24) == 0xFF)) {
+				fb[index] = color;
+			} else {
+				fb[index] = blend(blend, color, fb[index]);
+			}
+		} else {
+			int destination = fb[index];
+			fb[index] = (blend(blend, color, destination) & mask) | (destination & ~mask);
+		}
+	}
+
+	/**
+	 * Combines source and destination like the OpenGL blending functions used by the JOGL implementation.
+	 */
+	static int blend(int blend, int source, int destination) {
+		int sa = source >>> 24;
+		int sr = (source >> 16) & 0xFF;
+		int sg = (source >> 8) & 0xFF;
+		int sb = source & 0xFF;
+		int da = destination >>> 24;
+		int dr = (destination >> 16) & 0xFF;
+		int dg = (destination >> 8) & 0xFF;
+		int db = destination & 0xFF;
+		int a, r, g, b;
+		switch(blend) {
+		case BLEND_ALPHA: {
+			// SRC_ALPHA, ONE_MINUS_SRC_ALPHA
+			if(sa == 0xFF) return source;
+			if(sa == 0) return destination;
+			int ia = 255 - sa;
+			a = div255(sa * sa + da * ia);
+			r = div255(sr * sa + dr * ia);
+			g = div255(sg * sa + dg * ia);
+			b = div255(sb * sa + db * ia);
+			break;
+		}
+		case BLEND_ADD:
+			// ONE, ONE
+			a = Math.min(255, sa + da);
+			r = Math.min(255, sr + dr);
+			g = Math.min(255, sg + dg);
+			b = Math.min(255, sb + db);
+			break;
+		case BLEND_ALPHA_ADD:
+			// SRC_ALPHA, ONE
+			a = Math.min(255, div255(sa * sa) + da);
+			r = Math.min(255, div255(sr * sa) + dr);
+			g = Math.min(255, div255(sg * sa) + dg);
+			b = Math.min(255, div255(sb * sa) + db);
+			break;
+		case BLEND_SUBTRACT:
+			// reverse subtract with ONE, ONE
+			a = Math.max(0, da - sa);
+			r = Math.max(0, dr - sr);
+			g = Math.max(0, dg - sg);
+			b = Math.max(0, db - sb);
+			break;
+		case BLEND_MULTIPLY:
+			// DST_COLOR, ZERO
+			a = div255(sa * da);
+			r = div255(sr * dr);
+			g = div255(sg * dg);
+			b = div255(sb * db);
+			break;
+		default:
+			return source;
+		}
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+
+	private static int modulate(int texel, int color) {
+		if(color == 0xFFFFFFFF) return texel;
+		int a = div255((texel >>> 24) * (color >>> 24));
+		int r = div255(((texel >> 16) & 0xFF) * ((color >> 16) & 0xFF));
+		int g = div255(((texel >> 8) & 0xFF) * ((color >> 8) & 0xFF));
+		int b = div255((texel & 0xFF) * (color & 0xFF));
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+	/**
+	 * @param coverage Coverage in 1/256.
+	 */
+	private static int scaleAlpha(int color, int coverage) {
+		return ((((color >>> 24) * coverage) >> 8) << 24) | (color & 0xFFFFFF);
+	}
+	/**
+	 * Rounded division by 255 for values from 0 to 255 * 255.
+	 */
+	private static int div255(int value) {
+		value += 128;
+		return (value + (value >> 8)) >> 8;
+	}
+
+	/**
+	 * @return The color components from 0 to 1 as 0xAARRGGBB.
+	 */
+	static int toColor(float red, float green, float blue, float alpha) {
+		return (channel(alpha * 255) << 24) | (channel(red * 255) << 16) | (channel(green * 255) << 8) | channel(blue * 255);
+	}
+	private static int toColor255(float red, float green, float blue, float alpha) {
+		return (channel(alpha) << 24) | (channel(red) << 16) | (channel(green) << 8) | channel(blue);
+	}
+	private static int channel(float value) {
+		if(value <= 0) return 0;
+		if(value >= 255) return 255;
+		return (int)(value + .5f);
+	}
+	private static int floor(float value) {
+		return (int)Math.floor(value);
+	}
+	private static int ceil(float value) {
+		return (int)Math.ceil(value);
+	}
+}
@@ -0,0 +1,559 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+import java.awt.Font;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Matrix3f;
+import javax.vecmath.Vector2f;
+
+import ch.blackspirit.graphics.DrawingMode;
+import ch.blackspirit.graphics.Flip;
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.Line;
+import ch.blackspirit.graphics.Triangle;
+
+/**
+ * Graphics transforming vertices into pixel coordinates and recording the primitives with a {@link Rasterizer}.
+ * Recorded primitives are rasterized when flushing, at the latest at the end of the frame.
+ * @author Markus Koller
+ */
+final class SoftGraphics implements Graphics {
+	private static final float DEG_TO_RAD_FACTOR = (2 * (float)Math.PI) / 360f;
+
+	private final Rasterizer rasterizer;
+	private final ResourceManager resourceManager;
+	private final SpriteBatch spriteBatch = new SpriteBatch(this);
+
+	private final Color4f clearColor = new Color4f(0f, 0f, 0f, 0f);
+	private final Color4f baseColor = new Color4f(1f, 1f, 1f, 1f);
+	private final Color4f color = new Color4f(1f, 1f, 1f, 1f);
+	private Font font = new Font("SansSerif", Font.PLAIN, 24);
+
+	private DrawingMode drawingMode = DrawingMode.ALPHA_BLEND;
+	private boolean redMask = true;
+	private boolean greenMask = true;
+	private boolean blueMask = true;
+	private boolean alphaMask = true;
+	private boolean lineAntialiasing = true;
+
+	private final Transform2D modelTransform = new Transform2D();
+	// maps view coordinates to pixels
+	private final Transform2D viewTransform = new Transform2D();
+	// the view transformation without camera rotation, used for text
+	private final Transform2D textViewTransform = new Transform2D();
+	private final Transform2D vertexTransform = new Transform2D();
+	private final Transform2D textTransform = new Transform2D();
+	private boolean vertexTransformValid = false;
+
+	public SoftGraphics(Rasterizer rasterizer, ResourceManager resourceManager) {
+		this.rasterizer = rasterizer;
+		this.resourceManager = resourceManager;
+	}
+
+	/**
+	 * Sets the framebuffer to render to.
+	 */
+	public void setTarget(int[] pixels, int width, int height) {
+		rasterizer.setTarget(pixels, width, height);
+	}
+	/**
+	 * Applies the drawing state to the rasterizer.
+	 */
+	public void init() {
+		rasterizer.setDrawingMode(drawingMode);
+		rasterizer.setColorMask(redMask, greenMask, blueMask, alphaMask);
+		rasterizer.setLineAntialiasing(lineAntialiasing);
+	}
+	/**
+	 * Sets the view transformation: pixel = scale * (origin + rotation(angle) * (point + translation)).
+	 * @param angle Camera angle in degrees.
+	 */
+	public void setView(float scaleX, float scaleY, float originX, float originY, float translationX, float translationY, float angle) {
+		viewTransform.setIdentity();
+		viewTransform.scale(scaleX, scaleY);
+		viewTransform.translate(originX, originY);
+		textViewTransform.set(viewTransform);
+		viewTransform.rotate(angle * DEG_TO_RAD_FACTOR);
+		viewTransform.translate(translationX, translationY);
+		textViewTransform.translate(translationX, translationY);
+		vertexTransformValid = false;
+	}
+	/**
+	 * Rasterizes all recorded primitives.
+	 */
+	public void flush() {
+		rasterizer.flush();
+	}
+	/**
+	 * @return Number of primitives rasterized during the last completed frame.
+	 */
+	public long getLastFramePrimitives() {
+		return rasterizer.getLastFramePrimitives();
+	}
+	public void endFrame() {
+		if(spriteBatch.isDrawing()) spriteBatch.end();
+		rasterizer.flush();
+		rasterizer.endFrame();
+	}
+
+	// ==================== Clearing ====================
+	public void clear() {
+		rasterizer.clear(clearColor.x, clearColor.y, clearColor.z, clearColor.w);
+	}
+	public void getClearColor(Color4f color) {
+		color.set(clearColor);
+	}
+	public void setClearColor(Color4f color) {
+		clearColor.set(color);
+	}
+
+	// ==================== Color ====================
+	public void setColor(Color4f color) {
+		this.color.set(color);
+	}
+	public void getColor(Color4f color) {
+		color.set(this.color);
+	}
+	public void setBaseColor(Color4f color) {
+		baseColor.set(color);
+	}
+	public void getBaseColor(Color4f color) {
+		color.set(baseColor);
+	}
+
+	// ==================== Images ====================
+	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height) {
+		drawImage(image, width, height, Flip.NONE);
+	}
+	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height, Flip flip) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		drawImage(image, width, height, 0, 0, image.getWidth(), image.getHeight(), flip);
+	}
+	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height, int subImageX, int subImageY, int subImageWidth, int subImageHeight) {
+		drawImage(image, width, height, subImageX, subImageY, subImageWidth, subImageHeight, Flip.NONE);
+	}
+	public void drawImage(ch.blackspirit.graphics.Image image, float width, float height, int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		Texture texture = getTexture(image);
+
+		float texLeft = subImageX;
+		float texRight = subImageX + subImageWidth;
+		float texTop = subImageY;
+		float texBottom = subImageY + subImageHeight;
+		if(flip == Flip.BOTH || flip == Flip.HORIZONTAL) {
+			float temp = texTop;
+			texTop = texBottom;
+			texBottom = temp;
+		}
+		if(flip == Flip.BOTH || flip == Flip.VERTICAL) {
+			float temp = texLeft;
+			texLeft = texRight;
+			texRight = temp;
+		}
+		Transform2D m = getVertexTransform();
+		quad(m, texture, color, 0, 0, width, 0, width, height, 0, height, texLeft, texTop, texRight, texBottom);
+	}
+
+	// ==================== Sprites ====================
+	public ch.blackspirit.graphics.SpriteBatch getSpriteBatch() {
+		return spriteBatch;
+	}
+	void drawSprite(ch.blackspirit.graphics.Image image, float x, float y, float width, float height, 
+			float originX, float originY, float rotation, Color4f tint, 
+			int subImageX, int subImageY, int subImageWidth, int subImageHeight, Flip flip) {
+		Texture texture = getTexture(image);
+		Color4f c = tint != null ? tint : color;
+
+		float texLeft = subImageX;
+		float texRight = subImageX + subImageWidth;
+		float texTop = subImageY;
+		float texBottom = subImageY + subImageHeight;
+		if(flip == Flip.BOTH || flip == Flip.HORIZONTAL) {
+			float temp = texTop;
+			texTop = texBottom;
+			texBottom = temp;
+		}
+		if(flip == Flip.BOTH || flip == Flip.VERTICAL) {
+			float temp = texLeft;
+			texLeft = texRight;
+			texRight = temp;
+		}
+
+		// corners relative to the origin
+		float left = -originX;
+		float top = -originY;
+		float right = width - originX;
+		float bottom = height - originY;
+		x += originX;
+		y += originY;
+
+		Transform2D m = getVertexTransform();
+		if(rotation == 0) {
+			quad(m, texture, c, x + left, y + top, x + right, y + top, x + right, y + bottom, x + left, y + bottom, 
+					texLeft, texTop, texRight, texBottom);
+		} else {
+			float cos = (float)Math.cos(rotation * DEG_TO_RAD_FACTOR);
+			float sin = (float)Math.sin(rotation * DEG_TO_RAD_FACTOR);
+			quad(m, texture, c, 
+					x + cos * left - sin * top, y + sin * left + cos * top,
+					x + cos * right - sin * top, y + sin * right + cos * top,
+					x + cos * right - sin * bottom, y + sin * right + cos * bottom,
+					x + cos * left - sin * bottom, y + sin * left + cos * bottom,
+					texLeft, texTop, texRight, texBottom);
+		}
+	}
+
+	// ==================== Points ====================
+	public void drawPoint(float x, float y) {
+		vertex(getVertexTransform(), 0, x, y, color);
+		rasterizer.point();
+	}
+
+	// ==================== Lines ====================
+	public void drawLine(float x1, float y1, float x2, float y2) {
+		Transform2D m = getVertexTransform();
+		vertex(m, 0, x1, y1, color);
+		vertex(m, 1, x2, y2, color);
+		rasterizer.line();
+	}
+	private Line[] lineArray = new Line[1];
+	public void drawLine(Line line, boolean useColors) {
+		if (line == null) throw new IllegalArgumentException("line must not be null");
+		lineArray[0] = line;
+		drawLines(lineArray, useColors);
+	}
+	public void drawLines(Line[] lines, boolean useColors) {
+		if (lines == null) throw new IllegalArgumentException("lines must not be null");
+		Transform2D m = getVertexTransform();
+		for(int i = 0; i < lines.length; i++) {
+			Line l = lines[i];
+			if(l == null) continue;
+			for(int p = 0; p < 2; p++) {
+				Vector2f point = l.getPoint(p);
+				Color4f c = useColors ? l.getColor(p) : null;
+				vertex(m, p, point.x, point.y, c != null ? c : color);
+			}
+			rasterizer.line();
+		}
+	}
+
+	// ==================== Triangles ====================
+	public void fillTriangle(float x1, float y1, float x2, float y2, float x3, float y3) {
+		Transform2D m = getVertexTransform();
+		vertex(m, 0, x1, y1, color);
+		vertex(m, 1, x2, y2, color);
+		vertex(m, 2, x3, y3, color);
+		rasterizer.triangle(null);
+	}
+
+	private Triangle[] triangleArray = new Triangle[1];
+	public void drawTriangle(Triangle triangle, boolean useColors) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		drawTriangles(triangleArray, useColors);
+	}
+	public void drawTriangles(Triangle[] triangles, boolean useColors) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		Transform2D m = getVertexTransform();
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			for(int p = 0; p < 3; p++) {
+				int q = (p + 1) % 3;
+				Color4f c1 = useColors ? t.getColor(p) : null;
+				Color4f c2 = useColors ? t.getColor(q) : null;
+				vertex(m, 0, t.getPoint(p).x, t.getPoint(p).y, c1 != null ? c1 : color);
+				vertex(m, 1, t.getPoint(q).x, t.getPoint(q).y, c2 != null ? c2 : color);
+				rasterizer.line();
+			}
+		}
+	}
+	public void fillTriangle(Triangle triangle, boolean useColors) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		fillTriangles(triangleArray, useColors);
+	}
+	public void fillTriangles(Triangle[] triangles, boolean useColors) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		Transform2D m = getVertexTransform();
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			for(int p = 0; p < 3; p++) {
+				Vector2f point = t.getPoint(p);
+				Color4f c = useColors ? t.getColor(p) : null;
+				vertex(m, p, point.x, point.y, c != null ? c : color);
+			}
+			rasterizer.triangle(null);
+		}
+	}
+	public void fillTriangle(Triangle triangle, boolean useColors, ch.blackspirit.graphics.Image image) {
+		if (triangle == null) throw new IllegalArgumentException("triangle must not be null");
+		triangleArray[0] = triangle;
+		fillTriangles(triangleArray, useColors, image);
+	}
+	public void fillTriangles(Triangle[] triangles, boolean useColors, ch.blackspirit.graphics.Image image) {
+		if (triangles == null) throw new IllegalArgumentException("triangles must not be null");
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		Texture texture = getTexture(image);
+		Transform2D m = getVertexTransform();
+		for(int i = 0; i < triangles.length; i++) {
+			Triangle t = triangles[i];
+			if(t == null) continue;
+			for(int p = 0; p < 3; p++) {
+				Vector2f point = t.getPoint(p);
+				Vector2f textureCoordinate = t.getTextureCoordinate(p);
+				if (textureCoordinate == null) throw new IllegalArgumentException("Texture coordinate for triangle must not be null");
+				Color4f c = useColors ? t.getColor(p) : null;
+				vertex(m, p, point.x, point.y, c != null ? c : color, textureCoordinate.x, textureCoordinate.y);
+			}
+			rasterizer.triangle(texture);
+		}
+	}
+
+	// ==================== Static Meshes ====================
+	public void drawStaticMesh(ch.blackspirit.graphics.StaticMesh mesh) {
+		if (mesh == null) throw new IllegalArgumentException("mesh must not be null");
+		if (!(mesh instanceof StaticMesh)) throw new RuntimeException("Static mesh has not been created by the software Blackspirit Graphics implementation!");
+		StaticMesh softMesh = (StaticMesh)mesh;
+		if (softMesh.isFreed()) throw new IllegalArgumentException("mesh has been freed");
+		Texture texture = softMesh.getSoftTexture() != null ? getTexture(softMesh.getSoftTexture()) : null;
+		boolean useColors = softMesh.isUseColors();
+		Transform2D m = getVertexTransform();
+		float[] v = softMesh.vertices;
+		Color4f b = baseColor;
+		int index = 0;
+		for(int i = 0; i < softMesh.getTriangleCount(); i++) {
+			for(int p = 0; p < 3; p++) {
+				float x = v[index];
+				float y = v[index + 1];
+				float red = useColors ? v[index + 2] : color.x;
+				float green = useColors ? v[index + 3] : color.y;
+				float blue = useColors ? v[index + 4] : color.z;
+				float alpha = useColors ? v[index + 5] : color.w;
+				rasterizer.vertex(p, m.m00 * x + m.m01 * y + m.m02, m.m10 * x + m.m11 * y + m.m12, 
+						red * b.x, green * b.y, blue * b.z, alpha * b.w, v[index + 6], v[index + 7]);
+				index += StaticMesh.VERTEX_SIZE;
+			}
+			rasterizer.triangle(texture);
+		}
+	}
+
+	// ==================== Text ====================
+	public void drawText(String text) {
+		if (text == null) throw new IllegalArgumentException("text must not be null");
+		GlyphCache glyphCache = resourceManager.getGlyphCache(font);
+		// view without camera rotation and the model transformation
+		textTransform.set(textViewTransform);
+		textTransform.multiply(modelTransform);
+		float pen = 0;
+		for(int i = 0; i < text.length(); i++) {
+			GlyphCache.Glyph glyph = glyphCache.getGlyph(text.charAt(i));
+			Texture texture = glyph.texture;
+			if(texture != null) {
+				float left = pen + glyph.x;
+				float top = glyph.y;
+				float right = left + texture.width;
+				float bottom = top + texture.height;
+				quad(textTransform, texture, color, left, top, right, top, right, bottom, left, bottom, 
+						0, 0, texture.width, texture.height);
+			}
+			pen += glyph.advance;
+		}
+	}
+	public void getTextBounds(String text, Rectangle2D bounds) {
+		if (text == null) throw new IllegalArgumentException("text must not be null");
+		if (bounds == null) throw new IllegalArgumentException("bounds must not be null");
+		resourceManager.getGlyphCache(font).getTextBounds(text, bounds);
+	}
+	public Font getFont() {
+		return font;
+	}
+	public void setFont(Font font) {
+		this.font = font;
+	}
+
+	// ==================== Buffer content copying ====================
+	public void copyToImage(ch.blackspirit.graphics.Image image) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		copyToImage(image, 0, 0, image.getWidth(), image.getHeight());
+	}
+	public void copyToImage(ch.blackspirit.graphics.Image image, int x, int y, int width, int height) {
+		if (image == null) throw new IllegalArgumentException("image must not be null");
+		Texture texture = getTexture(image);
+		rasterizer.flush();
+
+		int[] source = rasterizer.getPixels();
+		int sourceWidth = rasterizer.getWidth();
+		int sourceHeight = rasterizer.getHeight();
+		if(x >= sourceWidth || y >= sourceHeight) return;
+		if(width + x > sourceWidth) width = sourceWidth - x;
+		if(height + y > sourceHeight) height = sourceHeight - y;
+		if(width > texture.width) width = texture.width;
+		if(height > texture.height) height = texture.height;
+
+		for(int row = 0; row < height; row++) {
+			System.arraycopy(source, (y + row) * sourceWidth + x, texture.pixels, row * texture.width, width);
+		}
+	}
+
+	// ==================== Transformation ====================
+	public void rotate(float angle) {
+		modelTransform.rotate(angle * DEG_TO_RAD_FACTOR);
+		vertexTransformValid = false;
+	}
+	public void translate(float x, float y) {
+		modelTransform.translate(x, y);
+		vertexTransformValid = false;
+	}
+	public void scale(float x, float y) {
+		modelTransform.scale(x, y);
+		vertexTransformValid = false;
+	}
+	public void clearTransformation() {
+		clearTransform();
+	}
+	public void clearTransform() {
+		modelTransform.clear();
+		vertexTransformValid = false;
+	}
+	public void popTransform() {
+		modelTransform.pop();
+		vertexTransformValid = false;
+	}
+	public void pushTransform() {
+		modelTransform.push();
+	}
+	public void setTransform(Matrix3f matrix) {
+		// only the affine part of the matrix is used
+		modelTransform.set(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
+		vertexTransformValid = false;
+	}
+	public void applyTransform(Matrix3f matrix) {
+		modelTransform.multiply(matrix.m00, matrix.m01, matrix.m02, matrix.m10, matrix.m11, matrix.m12);
+		vertexTransformValid = false;
+	}
+	public void getTransform(Matrix3f matrix) {
+		matrix.m00 = modelTransform.m00;
+		matrix.m01 = modelTransform.m01;
+		matrix.m02 = modelTransform.m02;
+		matrix.m10 = modelTransform.m10;
+		matrix.m11 = modelTransform.m11;
+		matrix.m12 = modelTransform.m12;
+		matrix.m20 = 0;
+		matrix.m21 = 0;
+		matrix.m22 = 1;
+	}
+	private Transform2D getVertexTransform() {
+		if(!vertexTransformValid) {
+			vertexTransform.set(viewTransform);
+			vertexTransform.multiply(modelTransform);
+			vertexTransformValid = true;
+		}
+		return vertexTransform;
+	}
+
+	// ==================== Drawing Settings ====================
+	public boolean getRedMask() {
+		return redMask;
+	}
+	public void setRedMask(boolean red) {
+		setColorMask(red, greenMask, blueMask, alphaMask);
+	}
+	public boolean getGreenMask() {
+		return greenMask;
+	}
+	public void setGreenMask(boolean green) {
+		setColorMask(redMask, green, blueMask, alphaMask);
+	}
+	public boolean getBlueMask() {
+		return blueMask;
+	}
+	public void setBlueMask(boolean blue) {
+		setColorMask(redMask, greenMask, blue, alphaMask);
+	}
+	public boolean getAlphaMask() {
+		return alphaMask;
+	}
+	public void setAlphaMask(boolean alpha) {
+		setColorMask(redMask, greenMask, blueMask, alpha);
+	}
+	public void setColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+		this.redMask = red;
+		this.greenMask = green;
+		this.blueMask = blue;
+		this.alphaMask = alpha;
+		rasterizer.setColorMask(red, green, blue, alpha);
+	}
+
+	public DrawingMode getDrawingMode() {
+		return drawingMode;
+	}
+	public void setDrawingMode(DrawingMode drawingMode) {
+		if (drawingMode == null) throw new IllegalArgumentException("drawingMode must not be null");
+		this.drawingMode = drawingMode;
+		rasterizer.setDrawingMode(drawingMode);
+	}
+
+	public void setLineAntialiasing(boolean enabled) {
+		lineAntialiasing = enabled;
+		rasterizer.setLineAntialiasing(enabled);
+	}
+	public boolean getLineAntialiasing() {
+		return lineAntialiasing;
+	}
+
+	// ==================== Vertices ====================
+	private void vertex(Transform2D m, int index, float x, float y, Color4f c) {
+		Color4f b = baseColor;
+		rasterizer.vertex(index, m.m00 * x + m.m01 * y + m.m02, m.m10 * x + m.m11 * y + m.m12, 
+				c.x * b.x, c.y * b.y, c.z * b.z, c.w * b.w);
+	}
+	private void vertex(Transform2D m, int index, float x, float y, Color4f c, float s, float t) {
+		Color4f b = baseColor;
+		rasterizer.vertex(index, m.m00 * x + m.m01 * y + m.m02, m.m10 * x + m.m11 * y + m.m12, 
+				c.x * b.x, c.y * b.y, c.z * b.z, c.w * b.w, s, t);
+	}
+	/**
+	 * Records a textured quad as two triangles sharing the diagonal from the first to the third corner.
+	 */
+	private void quad(Transform2D m, Texture texture, Color4f c, float x1, float y1, float x2, float y2, 
+			float x3, float y3, float x4, float y4, float texLeft, float texTop, float texRight, float texBottom) {
+		vertex(m, 0, x1, y1, c, texLeft, texTop);
+		vertex(m, 1, x2, y2, c, texRight, texTop);
+		vertex(m, 2, x3, y3, c, texRight, texBottom);
+		rasterizer.triangle(texture);
+		vertex(m, 1, x4, y4, c, texLeft, texBottom);
+		rasterizer.triangle(texture);
+	}
+
+	private Texture getTexture(ch.blackspirit.graphics.Image image) {
+		if (!(image instanceof Image)) throw new RuntimeException("Image has not been created by the software Blackspirit Graphics implementation!");
+		Image softImage = (Image)image;
+		if(softImage.texture == null) {
+			try {
+				resourceManager.cacheImage(softImage);
+			} catch (IOException e) {
+				throw new RuntimeException("Error caching image: " + image, e);
+			}
+		}
+		return softImage.texture;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012 Markus Koller
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at 
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.blackspirit.graphics.soft;
+
+/**
+ * Pixels of a cached image in the framebuffer format: one non premultiplied 0xAARRGGBB int per pixel,
+ * rows from top to bottom.
+ * @author Markus Koller
+ */
+final class Texture {
+	final int width;
+	final int height;
+	final int[] pixels;
+
+	public Texture(int width, int height) {
+		this(width, height, new int[width * height]);
+	}
+	public Texture(int width, int height, int[] pixels) {
+		if(pixels.length < width * height) throw new IllegalArgumentException("Pixel array too small for " + width + "x" + height);
+		this.width = width;
+		this.height = height;
+		this.pixels = pixels;
+	}
+
+	/**
+	 * Samples the texture with bilinear filtering, clamping coordinates to the edge.
+	 * @param s X coordinate in pixels, pixel centers being at .5 
+	 * @param t Y coordinate in pixels, pixel centers being at .5
+	 * @return The filtered color as 0xAARRGGBB.
+	 */
+	int sample(float s, float t) {
+		float x = s - .5f;
+		float y = t - .5f;
+		if(x < 0) x = 0;
+		if(y < 0) y = 0;
+		int maxX = width - 1;
+		int maxY = height - 1;
+		if(x > maxX) x = maxX;
+		if(y > maxY) y = maxY;
+		int x0 = (int)x;
+		int y0 = (int)y;
+		// weights in 1/256
+		int fx = (int)((x - x0) * 256);
+		int fy = (int)((y - y0) * 256);
+		int x1 = x0 < maxX ? x0 + 1 : x0;
+		int y1 = y0 < maxY ? y0 + 1 : y0;
+
+		int[] p = pixels;
+		int row0 = y0 * width;
+		int row1 = y1 * width;
+		int c00 = p[row0 + x0];
+		if(fx == 0 && fy == 0) return c00;
+		int c10 = p[row0 + x1];
+		int c01 = p[row1 + x0];
+		int c11 = p[row1 + x1];
+		if(c00 == c10 && c00 == c01 && c00 == c11) return c00;
+
+		int w00 = (256 - fx) * (256 - fy);
+		int w10 = fx * (256 - fy);
+		int w01 = (256 - fx) * fy;
+		int w11 = fx * fy;
+		int a = ((c00 >>> 24) * w00 + (c10 >>> 24) * w10 + (c01 >>> 24) * w01 + (c11 >>> 24) * w11) >>> 16;
+		int r = (((c00 >> 16) & 0xFF) * w00 + ((c10 >> 16) & 0xFF) * w10 + ((c01 >> 16) & 0xFF) * w01 + ((c11 >> 16) & 0xFF) * w11) >>> 16;
+		int g = (((c00 >> 8) & 0xFF) * w00 + ((c10 >> 8) & 0xFF) * w10 + ((c01 >> 8) & 0xFF) * w01 + ((c11 >> 8) & 0xFF) * w11) >>> 16;
+		int b = ((c00 & 0xFF) * w00 + (c10 & 0xFF) * w10 + (c01 & 0xFF) * w01 + (c11 & 0xFF) * w11) >>> 16;
+		return (a << 24) | (r << 16) | (g << 8) | b;
+	}
+}
@@ -0,0 +1,81 @@
+package ch.blackspirit.graphics.soft;
+
+import javax.vecmath.Color4f;
+
+import org.junit.Test;
+
+import ch.blackspirit.graphics.DrawingMode;
+import ch.blackspirit.graphics.Graphics;
+
+public class DrawingModeTest extends SoftTestBase {
+	private static final Color4f DESTINATION = new Color4f(.5f, .25f, 1, 1);
+	private static final Color4f SOURCE = new Color4f(.25f, .5f, .5f, .5f);
+
+	private void drawMode(final DrawingMode drawingMode) {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(DESTINATION);
+				graphics.fillTriangle(0, 0, 64, 0, 0, 64);
+				graphics.setDrawingMode(drawingMode);
+				graphics.setColor(SOURCE);
+				graphics.fillTriangle(0, 0, 32, 0, 0, 32);
+				graphics.setDrawingMode(DrawingMode.ALPHA_BLEND);
+			}
+		});
+		// outside the source triangle the destination is untouched
+		assertPixel(30, 20, .5f, .25f, 1);
+	}
+
+	@Test
+	public void alphaBlend() {
+		drawMode(DrawingMode.ALPHA_BLEND);
+		assertPixel(4, 4, .375f, .375f, .75f);
+	}
+
+	@Test
+	public void add() {
+		drawMode(DrawingMode.ADD);
+		assertPixel(4, 4, .75f, .75f, 1);
+	}
+
+	@Test
+	public void alphaAdd() {
+		drawMode(DrawingMode.ALPHA_ADD);
+		assertPixel(4, 4, .625f, .5f, 1);
+	}
+
+	@Test
+	public void subtract() {
+		drawMode(DrawingMode.SUBTRACT);
+		assertPixel(4, 4, .25f, 0, .5f);
+	}
+
+	@Test
+	public void multiply() {
+		drawMode(DrawingMode.MULTIPLY);
+		assertPixel(4, 4, .125f, .125f, .5f);
+	}
+
+	@Test
+	public void overwrite() {
+		drawMode(DrawingMode.OVERWRITE);
+		assertPixel(4, 4, .25f, .5f, .5f);
+	}
+
+	@Test
+	public void colorMask() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(DESTINATION);
+				graphics.fillTriangle(0, 0, 64, 0, 0, 64);
+				graphics.setColorMask(false, true, false, true);
+				graphics.setDrawingMode(DrawingMode.OVERWRITE);
+				graphics.setColor(SOURCE);
+				graphics.fillTriangle(0, 0, 32, 0, 0, 32);
+				graphics.setDrawingMode(DrawingMode.ALPHA_BLEND);
+				graphics.setColorMask(true, true, true, true);
+			}
+		});
+		assertPixel(4, 4, .5f, .5f, 1);
+	}
+}
@@ -0,0 +1,133 @@
+package ch.blackspirit.graphics.soft;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.Flip;
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.Image;
+import ch.blackspirit.graphics.shape.Triangle;
+
+public class ImageTest extends SoftTestBase {
+	private Image image;
+
+	@Before
+	public void createImage() {
+		// red green
+		// blue white
+		image = canvas.getImageFactory().createBufferedImage(2, 2, BufferTypes.ARGB_Int);
+		image.getBufferType().setColor(image, 0, 0, new Color4f(1, 0, 0, 1));
+		image.getBufferType().setColor(image, 1, 0, new Color4f(0, 1, 0, 1));
+		image.getBufferType().setColor(image, 0, 1, new Color4f(0, 0, 1, 1));
+		image.getBufferType().setColor(image, 1, 1, new Color4f(1, 1, 1, 1));
+	}
+
+	@Test
+	public void drawImage() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.translate(16, 16);
+				graphics.drawImage(image, 32, 32);
+			}
+		});
+		assertPixel(20, 20, 1, 0, 0);
+		assertPixel(43, 20, 0, 1, 0);
+		assertPixel(20, 43, 0, 0, 1);
+		assertPixel(43, 43, 1, 1, 1);
+		Assert.assertTrue(isBlack(15, 15));
+		Assert.assertTrue(isBlack(48, 48));
+	}
+
+	@Test
+	public void colorModulates() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(.5f, 1, .5f, 1));
+				graphics.translate(16, 16);
+				graphics.drawImage(image, 32, 32);
+			}
+		});
+		assertPixel(20, 20, .5f, 0, 0);
+		assertPixel(43, 43, .5f, 1, .5f);
+	}
+
+	@Test
+	public void flip() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.drawImage(image, 32, 32, Flip.VERTICAL);
+				graphics.translate(32, 0);
+				graphics.drawImage(image, 32, 32, Flip.HORIZONTAL);
+				graphics.translate(-32, 32);
+				graphics.drawImage(image, 32, 32, Flip.BOTH);
+			}
+		});
+		// vertical flips left and right, horizontal flips top and bottom
+		assertPixel(4, 4, 0, 1, 0);
+		assertPixel(27, 27, 0, 0, 1);
+		assertPixel(36, 4, 0, 0, 1);
+		assertPixel(59, 27, 0, 1, 0);
+		assertPixel(4, 36, 1, 1, 1);
+		assertPixel(27, 59, 1, 0, 0);
+	}
+
+	@Test
+	public void subImage() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.drawImage(image, 32, 32, 1, 0, 1, 2);
+			}
+		});
+		// left of the sub image texel centres the filter also picks up the red neighbour
+		assertPixel(16, 4, 0, 1, 0);
+		assertPixel(31, 4, 0, 1, 0);
+		assertPixel(16, 27, 1, 1, 1);
+		assertPixel(31, 27, 1, 1, 1);
+	}
+
+	@Test
+	public void texturedTriangle() {
+		final Triangle triangle = new Triangle(new Vector2f(0, 0), new Vector2f(64, 0), new Vector2f(0, 64));
+		triangle.setTextureCoordinate(0, new Vector2f(0, 0));
+		triangle.setTextureCoordinate(1, new Vector2f(2, 0));
+		triangle.setTextureCoordinate(2, new Vector2f(0, 2));
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.fillTriangle(triangle, false, image);
+			}
+		});
+		assertPixel(4, 4, 1, 0, 0);
+		assertPixel(50, 4, 0, 1, 0);
+		assertPixel(4, 50, 0, 0, 1);
+		Assert.assertTrue(isBlack(60, 60));
+	}
+
+	@Test
+	public void cacheUpdate() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.drawImage(image, 32, 32);
+			}
+		});
+		assertPixel(4, 4, 1, 0, 0);
+
+		image.getBufferType().setColor(image, 0, 0, new Color4f(1, 1, 0, 1));
+		image.updateCache();
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.drawImage(image, 32, 32);
+			}
+		});
+		assertPixel(4, 4, 1, 1, 0);
+	}
+}
@@ -0,0 +1,96 @@
+package ch.blackspirit.graphics.soft;
+
+import javax.vecmath.Color4f;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.Graphics;
+
+public class LineTest extends SoftTestBase {
+	@Test
+	public void horizontal() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setLineAntialiasing(false);
+				graphics.setColor(new Color4f(1, .5f, 0, 1));
+				graphics.drawLine(3, 10.5f, 40, 10.5f);
+			}
+		});
+		for (int x = 0; x < WIDTH; x++) {
+			if (x >= 3 && x < 40) assertPixel(x, 10, 1, .5f, 0);
+			else Assert.assertTrue("Pixel " + x + ",10", isBlack(x, 10));
+			Assert.assertTrue("Pixel " + x + ",9", isBlack(x, 9));
+			Assert.assertTrue("Pixel " + x + ",11", isBlack(x, 11));
+		}
+	}
+
+	@Test
+	public void vertical() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setLineAntialiasing(false);
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.drawLine(20.5f, 5, 20.5f, 50);
+			}
+		});
+		for (int y = 0; y < HEIGHT; y++) {
+			if (y >= 5 && y < 50) assertPixel(20, y, 1, 1, 1);
+			else Assert.assertTrue("Pixel 20," + y, isBlack(20, y));
+			Assert.assertTrue("Pixel 19," + y, isBlack(19, y));
+			Assert.assertTrue("Pixel 21," + y, isBlack(21, y));
+		}
+	}
+
+	@Test
+	public void diagonal() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setLineAntialiasing(false);
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.drawLine(2, 2, 60, 60);
+			}
+		});
+		// one pixel per column along the major axis
+		for (int x = 0; x < WIDTH; x++) {
+			for (int y = 0; y < HEIGHT; y++) {
+				if (x == y && x >= 2 && x < 60) assertPixel(x, y, 1, 1, 1);
+				else Assert.assertTrue("Pixel " + x + "," + y, isBlack(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void transformed() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setLineAntialiasing(false);
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.translate(32, 32);
+				graphics.rotate(90);
+				graphics.drawLine(.5f, .5f, 20.5f, .5f);
+			}
+		});
+		// rotated clockwise the line points down from the origin
+		assertPixel(31, 40, 1, 1, 1);
+		Assert.assertTrue(isBlack(40, 32));
+	}
+
+	@Test
+	public void antialiased() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setLineAntialiasing(true);
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.drawLine(3, 10.75f, 40, 10.75f);
+			}
+		});
+		// coverage is split between the two rows closest to the line
+		for (int x = 3; x < 40; x++) {
+			assertPixel(x, 10, .75f, .75f, .75f);
+			assertPixel(x, 11, .25f, .25f, .25f);
+			Assert.assertTrue("Pixel " + x + ",9", isBlack(x, 9));
+			Assert.assertTrue("Pixel " + x + ",12", isBlack(x, 12));
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package ch.blackspirit.graphics.soft;
+
+import java.nio.ByteBuffer;
+
+import javax.vecmath.Color4f;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.DrawingMode;
+import ch.blackspirit.graphics.Graphics;
+
+public class TileTest extends SoftTestBase {
+	@Test
+	public void triangleAcrossTiles() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.fillTriangle(0, 0, WIDTH, 0, 0, HEIGHT);
+			}
+		});
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				if (x + y < WIDTH - 1) assertPixel(x, y, 1, 1, 1);
+				else Assert.assertTrue("Pixel " + x + "," + y, isBlack(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void quadOnTileEdges() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.fillTriangle(TILE_SIZE, TILE_SIZE, 2 * TILE_SIZE, TILE_SIZE, TILE_SIZE, 2 * TILE_SIZE);
+				graphics.fillTriangle(2 * TILE_SIZE, TILE_SIZE, 2 * TILE_SIZE, 2 * TILE_SIZE, TILE_SIZE, 2 * TILE_SIZE);
+			}
+		});
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				if (x >= TILE_SIZE && x < 2 * TILE_SIZE && y >= TILE_SIZE && y < 2 * TILE_SIZE) assertPixel(x, y, 1, 1, 1);
+				else Assert.assertTrue("Pixel " + x + "," + y, isBlack(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void lineAcrossTiles() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setLineAntialiasing(false);
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.drawLine(0, 40.5f, WIDTH, 8.5f);
+			}
+		});
+		// exactly one pixel per column, also where the line changes tiles
+		for (int x = 0; x < WIDTH; x++) {
+			int count = 0;
+			for (int y = 0; y < HEIGHT; y++) {
+				if (!isBlack(x, y)) count++;
+			}
+			Assert.assertEquals("Column " + x, 1, count);
+		}
+	}
+
+	@Test
+	public void sameAsSingleThreaded() {
+		Painter painter = new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setDrawingMode(DrawingMode.ALPHA_BLEND);
+				for (int i = 0; i < 20; i++) {
+					graphics.setColor(new Color4f(i / 20f, 1 - i / 20f, .5f, .5f));
+					graphics.fillTriangle(i * 3, 0, WIDTH, i * 3, i * 2, HEIGHT - i);
+					graphics.drawLine(0, i * 3 + .5f, WIDTH - i, HEIGHT - i * 2);
+				}
+			}
+		};
+		ch.blackspirit.graphics.OffscreenCanvas single = createCanvas(1);
+		try {
+			ByteBuffer expected = draw(single, painter);
+			ByteBuffer actual = draw(canvas, painter);
+			Assert.assertEquals(expected, actual);
+		} finally {
+			single.dispose();
+		}
+	}
+}
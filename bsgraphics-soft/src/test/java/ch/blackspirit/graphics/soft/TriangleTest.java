@@ -0,0 +1,106 @@
+package ch.blackspirit.graphics.soft;
+
+import javax.vecmath.Color4f;
+import javax.vecmath.Vector2f;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import ch.blackspirit.graphics.DrawingMode;
+import ch.blackspirit.graphics.Graphics;
+import ch.blackspirit.graphics.shape.Triangle;
+
+public class TriangleTest extends SoftTestBase {
+	@Test
+	public void fillPixelCentres() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.fillTriangle(0, 0, 4, 0, 0, 4);
+			}
+		});
+		// pixel centres on the diagonal edge belong to the neighbouring triangle
+		for (int y = 0; y < 6; y++) {
+			for (int x = 0; x < 6; x++) {
+				if (x + y < 3) assertPixel(x, y, 1, 1, 1);
+				else Assert.assertTrue("Pixel " + x + "," + y, isBlack(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void fillColor() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, .5f, .25f, 1));
+				graphics.fillTriangle(10, 10, 50, 10, 10, 50);
+			}
+		});
+		assertPixel(12, 12, 1, .5f, .25f);
+		assertPixel(29, 20, 1, .5f, .25f);
+		Assert.assertTrue(isBlack(40, 40));
+	}
+
+	@Test
+	public void baseColor() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setBaseColor(new Color4f(.5f, .5f, .5f, 1));
+				graphics.setColor(new Color4f(1, .5f, 0, 1));
+				graphics.fillTriangle(10, 10, 50, 10, 10, 50);
+				graphics.setBaseColor(new Color4f(1, 1, 1, 1));
+			}
+		});
+		assertPixel(12, 12, .5f, .25f, 0);
+	}
+
+	@Test
+	public void vertexColors() {
+		final Triangle triangle = new Triangle(new Vector2f(0, 0), new Vector2f(60, 0), new Vector2f(0, 60));
+		triangle.setColor(0, new Color4f(1, 0, 0, 1));
+		triangle.setColor(1, new Color4f(0, 1, 0, 1));
+		triangle.setColor(2, new Color4f(0, 0, 1, 1));
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.fillTriangle(triangle, true);
+			}
+		});
+		// colors are interpolated from the vertices at the pixel centres
+		int[][] pixels = {{0, 0}, {29, 0}, {0, 29}, {19, 19}, {40, 10}};
+		for (int[] pixel: pixels) {
+			float green = (pixel[0] + .5f) / 60;
+			float blue = (pixel[1] + .5f) / 60;
+			assertPixel(pixel[0], pixel[1], 1 - green - blue, green, blue);
+		}
+	}
+
+	@Test
+	public void sharedEdgeDrawnOnce() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setDrawingMode(DrawingMode.ADD);
+				graphics.setColor(new Color4f(.25f, .25f, .25f, 1));
+				graphics.fillTriangle(4, 4, 60, 4, 4, 60);
+				graphics.fillTriangle(60, 4, 60, 60, 4, 60);
+			}
+		});
+		for (int y = 0; y < HEIGHT; y++) {
+			for (int x = 0; x < WIDTH; x++) {
+				if (x >= 4 && x < 60 && y >= 4 && y < 60) assertPixel(x, y, .25f, .25f, .25f);
+				else Assert.assertTrue("Pixel " + x + "," + y, isBlack(x, y));
+			}
+		}
+	}
+
+	@Test
+	public void clipToCanvas() {
+		draw(new Painter() {
+			public void paint(Graphics graphics) {
+				graphics.setColor(new Color4f(1, 1, 1, 1));
+				graphics.fillTriangle(-100, -100, 300, -100, -100, 300);
+			}
+		});
+		assertPixel(0, 0, 1, 1, 1);
+		assertPixel(WIDTH - 1, HEIGHT - 1, 1, 1, 1);
+	}
+}